@@ -18,36 +18,58 @@
  */
 package de.jena.uni.mojo;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import de.jena.uni.mojo.analysis.information.AnalysisInformation;
+import de.jena.uni.mojo.analysis.information.StatisticsWriter;
+import de.jena.uni.mojo.binary.BinaryGraphFormat;
+import de.jena.uni.mojo.binary.BinaryGraphWriter;
+import de.jena.uni.mojo.cache.CachedResult;
+import de.jena.uni.mojo.cache.ResultCache;
 import de.jena.uni.mojo.command.Command;
+import de.jena.uni.mojo.daemon.Daemon;
+import de.jena.uni.mojo.daemon.HttpService;
+import de.jena.uni.mojo.daemon.JobRunner;
 import de.jena.uni.mojo.error.Annotation;
 import de.jena.uni.mojo.interpreter.IdInterpreter;
 import de.jena.uni.mojo.model.WGNode;
 import de.jena.uni.mojo.model.WorkflowGraph;
-import de.jena.uni.mojo.plan.WorkflowGraphPlanPlugin;
+import de.jena.uni.mojo.plan.CostModel;
 import de.jena.uni.mojo.plugin.PlanPlugin;
+import de.jena.uni.mojo.plugin.PluginRegistry;
 import de.jena.uni.mojo.plugin.SourcePlugin;
+import de.jena.uni.mojo.processes.BatchPipeline;
+import de.jena.uni.mojo.processes.BatchScheduler;
+import de.jena.uni.mojo.processes.DirectoryWatcher;
 import de.jena.uni.mojo.processes.FileHandler;
+import de.jena.uni.mojo.processes.ThreadFactories;
 import de.jena.uni.mojo.reader.Reader;
 import de.jena.uni.mojo.util.export.WorkflowGraphExporter;
+import de.jena.uni.mojo.verifier.ExecutionStrategy;
 import de.jena.uni.mojo.verifier.Verifier;
 
 /**
@@ -71,14 +93,15 @@ public class Mojo {
 
 	/**
 	 * Define a map which maps from file extension to the necessary source
-	 * plugin.
+	 * plugin. The plugins are instantiated at their first use.
 	 */
-	private final static Map<String, SourcePlugin> sourcePlugins = new HashMap<String, SourcePlugin>();
+	private final static Map<String, SourcePlugin> sourcePlugins = PluginRegistry.getInstance().getSourcePlugins();
 
 	/**
-	 * Define a map which maps from an id to the necessary plan plugin.
+	 * Define a map which maps from an id to the necessary plan plugin. The
+	 * plugins are instantiated at their first use.
 	 */
-	private final static Map<String, PlanPlugin> planPlugins = new HashMap<String, PlanPlugin>();
+	private final static Map<String, PlanPlugin> planPlugins = PluginRegistry.getInstance().getPlanPlugins();
 
 	/**
 	 * Defines a list of available file extensions.
@@ -90,6 +113,11 @@ public class Mojo {
 	 */
 	public final static Logger logger = LogManager.getLogger(Mojo.class);
 
+	/**
+	 * The persistent result cache or null if the results are not cached.
+	 */
+	private static volatile ResultCache cache;
+
 	/**
 	 * The constructor of Mojo, which defines the commands.
 	 */
@@ -118,58 +146,224 @@ public class Mojo {
 		// Read in the commands
 		readCommands(args);
 
+		// Open the result cache (if wished)
+		String cacheDirectory = getCommand("CACHE").asStringValue();
+		if (cacheDirectory != null && !cacheDirectory.isEmpty()) {
+			try {
+				cache = new ResultCache(new File(cacheDirectory),
+						getCommand("CACHE_SIZE").asIntegerValue() * 1024L * 1024L);
+			} catch (IOException e) {
+				logger.error("Cannot open the result cache: " + e.getMessage());
+			}
+		}
+
 		// Should the help be displayed?
 		if (getCommand("HELP").asBooleanValue()) {
 			showHelp();
+		} else if (getCommand("DAEMON").asBooleanValue()) {
+			runDaemon(getCommand("PORT").asIntegerValue());
+		} else if (getCommand("HTTP_PORT").asIntegerValue() > 0) {
+			runHttpService(getCommand("HTTP_PORT").asIntegerValue());
+		} else if (getCommand("WATCH").asBooleanValue()) {
+			runWatch();
+		} else if (getCommand("CONVERT").asBooleanValue()) {
+			runConvert();
 		} else {
 
 			// Read in some files
 			fileHandler.readFiles();
 
-			// Perform the analysis for each graph
+			// Perform the analysis for each graph. The information of each
+			// finished file and workflow graph is written into the csv file
+			// of the repetition (or dropped) at once.
+			List<AnalysisInformation> aInfos = new ArrayList<AnalysisInformation>();
+			List<StatisticsWriter> writers = new ArrayList<StatisticsWriter>();
+			List<File> csvFiles = new ArrayList<File>();
 			for (int i = 0; i < commands.get("TIMES").asIntegerValue(); i++) {
-				AnalysisInformation aInfo = analyze();
+				StatisticsWriter writer = StatisticsWriter.DISCARD;
 				if (commands.get("CSV").asBooleanValue()) {
-					createCSV(aInfo);
+					File f = nextCSVFile();
+					try {
+						writer = new StatisticsWriter(new BufferedWriter(
+								new OutputStreamWriter(new FileOutputStream(f), StandardCharsets.UTF_8)));
+						csvFiles.add(f);
+					} catch (IOException e) {
+						logger.error("Cannot create the csv file " + f + ": " + e.getMessage());
+					}
 				}
-				System.gc();
+				writers.add(writer);
+				aInfos.add(new AnalysisInformation(writer));
+			}
+			analyze(fileHandler.getFiles(), aInfos, null);
+			for (StatisticsWriter writer : writers) {
+				try {
+					writer.close();
+				} catch (IOException e) {
+					logger.error("Cannot close the csv file: " + e.getMessage());
+				}
+			}
+			for (File f : csvFiles) {
+				System.out.println("Export csv file to " + f.getAbsolutePath());
 			}
 		}
 	}
 
 	/**
-	 * Load extensions in form of plugins.
+	 * Keeps Mojo resident and verifies the jobs which arrive as JSON lines.
+	 * The plugins, the commands and the compiled analyses are reused by all
+	 * jobs.
+	 * 
+	 * @param port
+	 *            The port on the loopback interface or 0 to read the jobs from
+	 *            the standard input.
 	 */
-	private static void loadPlugins() {
-		// Get the source plugins
-		Iterator<SourcePlugin> iterator = ServiceLoader.load(SourcePlugin.class).iterator();
-		while (iterator.hasNext()) {
-			SourcePlugin plugin = iterator.next();
-			// Add it to the library
-			sourcePlugins.put(plugin.getFileExtension(), plugin);
-			availableFileExtensions.add(plugin.getFileExtension());
-
-			logger.info("Register source plugin: " + plugin.getName() + " " + plugin.getVersion());
-			logger.info("\tHandles: " + plugin.getFileExtension());
+	private static void runDaemon(int port) {
+		Daemon daemon = new Daemon(new JobRunner(getConfig()));
+		try {
+			if (port > 0) {
+				logger.info("Daemon listens on port " + port);
+				daemon.listen(port);
+			} else {
+				daemon.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+						new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+			}
+		} catch (IOException e) {
+			logger.error("The daemon stopped: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Keeps Mojo resident as local HTTP verification service. The jobs are
+	 * verified by at most <threads> workers.
+	 * 
+	 * @param port
+	 *            The port on the loopback interface.
+	 */
+	private static void runHttpService(int port) {
+		int threads = Math.max(1, commands.get("THREADS").asIntegerValue());
+		HttpService service = new HttpService(new JobRunner(getConfig()), threads, 16 * threads);
+		try {
+			service.start(port);
+			logger.info("HTTP service listens on port " + service.getPort());
+			// The server threads keep the service alive
+			Runtime.getRuntime().addShutdownHook(new Thread(service::stop));
+		} catch (IOException e) {
+			logger.error("The HTTP service stopped: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies all files within the path once and then only the files which
+	 * are created or changed (see {@link DirectoryWatcher}). The results of
+	 * deleted and changed files are removed from the analysis information,
+	 * so that the csv file always contains the current statistics of all
+	 * files.
+	 */
+	private static void runWatch() {
+		final AnalysisInformation analysisInformation = new AnalysisInformation();
+		final List<AnalysisInformation> analysisInformations = new ArrayList<AnalysisInformation>();
+		analysisInformations.add(analysisInformation);
+		final File csv = commands.get("CSV").asBooleanValue() ? nextCSVFile() : null;
+
+		DirectoryWatcher.Handler<List<WorkflowGraph>> handler = new DirectoryWatcher.Handler<List<WorkflowGraph>>() {
+
+			@Override
+			public Map<File, List<WorkflowGraph>> verify(List<File> files) {
+				Map<File, List<WorkflowGraph>> results = new ConcurrentHashMap<File, List<WorkflowGraph>>();
+				analyze(files, analysisInformations, results::put);
+				return results;
+			}
+
+			@Override
+			public void remove(File file, List<WorkflowGraph> graphs) {
+				if (graphs != null) {
+					for (WorkflowGraph graph : graphs) {
+						analysisInformation.remove(graph);
+					}
+				}
+				if (!file.exists()) {
+					System.out.printf("%n%s%n\t%s%n", file, "Removed");
+				}
+			}
+
+			@Override
+			public void update(Map<File, List<WorkflowGraph>> manifest) {
+				int graphs = 0;
+				for (List<WorkflowGraph> result : manifest.values()) {
+					graphs += result == null ? 0 : result.size();
+				}
+				System.out.printf("%nWatching %d files with %d workflow graphs%n", manifest.size(), graphs);
+				if (csv != null) {
+					createCSV(analysisInformation, csv);
+				}
+			}
+		};
+
+		try {
+			DirectoryWatcher<List<WorkflowGraph>> watcher = new DirectoryWatcher<List<WorkflowGraph>>(
+					new File(commands.get("PATH").asStringValue()), availableFileExtensions, handler, 250);
+			Runtime.getRuntime().addShutdownHook(new Thread(watcher::close));
+			watcher.run();
+		} catch (IOException e) {
+			logger.error("Cannot watch the path: " + e.getMessage());
 		}
+	}
 
-		// Put the workflow graph major plan plugin into
-		// the plugins.
-		WorkflowGraphPlanPlugin workflowPlugin = new WorkflowGraphPlanPlugin();
-		planPlugins.put(workflowPlugin.getId(), workflowPlugin);
+	/**
+	 * Converts the workflow graphs of all files within the path into the
+	 * binary format (see {@link BinaryGraphFormat}). Each file is stored with
+	 * the additional extension {@value BinaryGraphFormat#EXTENSION} next to
+	 * the file or, if an export path is given, at the same relative path
+	 * within the export path. The converted files can be verified again
+	 * without the source plugins of their original formats.
+	 */
+	private static void runConvert() {
+		fileHandler.readFiles();
+		Command exportCommand = commands.get("EXPORT_PATH");
+		Path root = new File(commands.get("PATH").asStringValue()).getAbsoluteFile().toPath().normalize();
 
-		logger.info("Register major plan: " + workflowPlugin.getName() + " " + workflowPlugin.getVersion());
-		logger.info("\tDescription: " + workflowPlugin.getDescription());
+		for (File file : fileHandler.getFiles()) {
+			String extension = FilenameUtils.getExtension(file.getAbsolutePath());
+			if (extension.equals(BinaryGraphFormat.EXTENSION))
+				continue;
+
+			ParsedFile parsed = parseFile(file, new AnalysisInformation());
+			if (parsed == null || parsed.graphs == null) {
+				System.err.println("Cannot convert " + file);
+				continue;
+			}
 
-		// Get the plan plugins
-		Iterator<PlanPlugin> planIterator = ServiceLoader.load(PlanPlugin.class).iterator();
-		while (planIterator.hasNext()) {
-			PlanPlugin plugin = planIterator.next();
-			// Add it to the library
-			planPlugins.put(plugin.getId(), plugin);
+			// Files with the same name in different directories must not
+			// overwrite each other
+			File directory = file.getAbsoluteFile().getParentFile();
+			if (!exportCommand.isDefault()) {
+				Path parent = directory.toPath().normalize();
+				directory = new File(exportCommand.asStringValue());
+				if (parent.startsWith(root)) {
+					directory = new File(directory, root.relativize(parent).toString());
+				}
+			}
+			File target = new File(directory, file.getName() + "." + BinaryGraphFormat.EXTENSION);
+			try {
+				Files.createDirectories(directory.toPath());
+				new BinaryGraphWriter(parsed.interpreter).write(parsed.graphs, target);
+				System.out.println("Convert " + file + " to " + target);
+			} catch (IOException e) {
+				logger.error("Cannot write " + target + ": " + e.getMessage());
+			}
+		}
+	}
 
-			logger.info("Register major plan: " + plugin.getName() + " " + plugin.getVersion());
-			logger.info("\tDescription: " + plugin.getDescription());
+	/**
+	 * Load extensions in form of plugins. The plugins are only looked up in
+	 * the {@link PluginRegistry}, they are instantiated at their first use.
+	 * Loading the plugins several times has no further effect.
+	 */
+	private static void loadPlugins() {
+		synchronized (availableFileExtensions) {
+			if (availableFileExtensions.isEmpty()) {
+				availableFileExtensions.addAll(PluginRegistry.getInstance().getFileExtensions());
+			}
 		}
 	}
 
@@ -199,17 +393,8 @@ public class Mojo {
 		Command amouCommand = new Command("AMOUNT", "amount", "a", "Defines the maximum number of files to be investigated",
 				false, Integer.class, Integer.MAX_VALUE);
 
-		// Create a new stream where we can write in the information
-		// about the major plans.
-		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		PrintStream pStream = new PrintStream(baos);
-		pStream.printf("%n%-20s %-5s %-50s %s%n", "", "Id", "Name", "Description");
-		for (PlanPlugin plugin : planPlugins.values()) {
-			pStream.printf("%-20s %-5s %-50s %s%n", "", plugin.getId(), plugin.getName(), plugin.getDescription());
-		}
-
 		Command anplCommand = new Command("ANALYSIS_PLAN", "analysisPlan", "ap",
-				"Set the major analysis plan" + baos.toString(), false, String.class, "0");
+				"Set the major analysis plan (see below)", false, String.class, "0");
 
 		Command csvfCommand = new Command("CSV", "csv", "c", "Stores all analysis information in a csv file", true,
 				Boolean.class, false);
@@ -217,6 +402,75 @@ public class Mojo {
 		Command simpCommand = new Command("SIMPLE_END_PLACE", "simple", "s",
 				"Produces a simple end node when the input is a PNML file.", true, Boolean.class, false);
 
+		Command reduCommand = new Command("REDUCE", "reduce", "r",
+				"Reduces each workflow graph structurally before the control flow analysis", true, Boolean.class,
+				false);
+
+		Command threCommand = new Command("THREADS", "threads", "th",
+				"Reads in and verifies the files with <threads> workers each", false, Integer.class, 1);
+
+		Command readCommand = new Command("READERS", "readers", "rd",
+				"Reads in up to <readers> files at the same time on virtual threads (if available)", false,
+				Integer.class, 0);
+
+		Command parallelCommand = new Command("PARALLEL_THRESHOLD", "parallelThreshold", "pt",
+				"Runs the analyses of a workflow graph in parallel if its estimated cost reaches <threshold> "
+						+ "(0: always, -1: never)",
+				false, Integer.class, CostModel.DEFAULT_THRESHOLD);
+
+		Command timeBudgetCommand = new Command("TIME_BUDGET", "timeBudget", "tb",
+				"Stops the verification of a workflow graph after <milliseconds> (0: no limit)", false,
+				Integer.class, 0);
+
+		Command edgeBudgetCommand = new Command("EDGE_BUDGET", "edgeBudget", "eb",
+				"Stops the verification of a workflow graph after <edges> visited edges (0: no limit)", false,
+				Integer.class, 0);
+
+		Command heapBudgetCommand = new Command("HEAP_BUDGET", "heapBudget", "hb",
+				"Verifies files in parallel only as long as their estimated memory fits into <megabytes> "
+						+ "(0: three quarters of the heap)",
+				false, Integer.class, 0);
+
+		Command daemonCommand = new Command("DAEMON", "daemon", "dm",
+				"Stays resident and verifies jobs given as JSON lines on the standard input (or the port)", true,
+				Boolean.class, false);
+
+		Command portCommand = new Command("PORT", "port", "po",
+				"Lets the daemon listen on <port> of the loopback interface instead of the standard input", false,
+				Integer.class, 0);
+
+		Command dedupCommand = new Command("DEDUPLICATE", "dedup", "dd",
+				"Reuses the verdict of an isomorphic workflow graph (remapped onto the nodes)", true,
+				Boolean.class, false);
+
+		Command fragmentsCommand = new Command("FRAGMENTS", "fragments", "fm",
+				"Reduces the workflow graphs and folds their sound fragments, whose verdicts are reused", true,
+				Boolean.class, false);
+
+		Command cacheCommand = new Command("CACHE", "cache", "ca",
+				"Caches the results in directory <cache> and reuses them for unchanged processes", false,
+				String.class, "");
+
+		Command cacheSizeCommand = new Command("CACHE_SIZE", "cacheSize", "cs",
+				"Removes the least recently used results if the cache grows beyond <megabytes>", false,
+				Integer.class, 1024);
+
+		Command watchCommand = new Command("WATCH", "watch", "w",
+				"Verifies all files within the path and then only the created and changed files", true,
+				Boolean.class, false);
+
+		Command convertCommand = new Command("CONVERT", "convert", "cv",
+				"Converts the files within the path into the binary workflow graph format", true,
+				Boolean.class, false);
+
+		Command executionCommand = new Command("EXECUTION", "execution", "ex",
+				"Executes the analyses with <strategy> (default, common, inline or tenant:<name>)", false,
+				String.class, "default");
+
+		Command httpCommand = new Command("HTTP_PORT", "http", "hp",
+				"Stays resident as HTTP verification service on <port> of the loopback interface", false,
+				Integer.class, 0);
+
 		commands.put(pathCommand.getName(), pathCommand);
 		commands.put(expoCommand.getName(), expoCommand);
 		commands.put(verbCommand.getName(), verbCommand);
@@ -230,6 +484,23 @@ public class Mojo {
 		commands.put(anplCommand.getName(), anplCommand);
 		commands.put(csvfCommand.getName(), csvfCommand);
 		commands.put(simpCommand.getName(), simpCommand);
+		commands.put(reduCommand.getName(), reduCommand);
+		commands.put(threCommand.getName(), threCommand);
+		commands.put(readCommand.getName(), readCommand);
+		commands.put(parallelCommand.getName(), parallelCommand);
+		commands.put(timeBudgetCommand.getName(), timeBudgetCommand);
+		commands.put(edgeBudgetCommand.getName(), edgeBudgetCommand);
+		commands.put(heapBudgetCommand.getName(), heapBudgetCommand);
+		commands.put(daemonCommand.getName(), daemonCommand);
+		commands.put(portCommand.getName(), portCommand);
+		commands.put(httpCommand.getName(), httpCommand);
+		commands.put(executionCommand.getName(), executionCommand);
+		commands.put(watchCommand.getName(), watchCommand);
+		commands.put(convertCommand.getName(), convertCommand);
+		commands.put(cacheCommand.getName(), cacheCommand);
+		commands.put(dedupCommand.getName(), dedupCommand);
+		commands.put(fragmentsCommand.getName(), fragmentsCommand);
+		commands.put(cacheSizeCommand.getName(), cacheSizeCommand);
 	}
 
 	/**
@@ -300,6 +571,13 @@ public class Mojo {
 							+ " " + (com.isFlag() ? "" : "<value> "),
 					com.getValue(), com.getValueType().getSimpleName(), com.getDescription());
 		}
+
+		// The information about the major plans (this instantiates the
+		// plan plugins)
+		System.out.printf("%nMajor analysis plans:%n%-5s %-50s %s%n", "Id", "Name", "Description");
+		for (PlanPlugin plugin : planPlugins.values()) {
+			System.out.printf("%-5s %-50s %s%n", plugin.getId(), plugin.getName(), plugin.getDescription());
+		}
 	}
 
 	/**
@@ -326,20 +604,16 @@ public class Mojo {
 	}
 
 	/**
-	 * Export all collected information within the analysis information to a csv
-	 * file.
+	 * Determines the next csv file within the export path (or the path) to
+	 * avoid overriding existing information.
 	 * 
-	 * @param info
-	 *            The analysis information.
+	 * @return The csv file.
 	 */
-	private static void createCSV(AnalysisInformation info) {
+	private static File nextCSVFile() {
 		// Get the path and export path
 		String path = commands.get("PATH").asStringValue();
 		String exportPath = commands.get("EXPORT_PATH").asStringValue();
 
-		// Get the csv string from the analysis information.
-		String i = info.export();
-
 		// Set the right output path
 		String p = (exportPath == "" ? path : exportPath) + File.separator;
 
@@ -352,58 +626,269 @@ public class Mojo {
 			f = new File(p + "results_" + counter + ".csv");
 		} while (f.exists());
 
+		return f;
+	}
+
+	/**
+	 * Export all collected information within the analysis information to a csv
+	 * file. An existing file is replaced at once, so that a reader never sees
+	 * a partially written file.
+	 * 
+	 * @param info
+	 *            The analysis information.
+	 * @param f
+	 *            The csv file.
+	 */
+	private static void createCSV(AnalysisInformation info, File f) {
+		// Get the csv string from the analysis information.
+		String i = info.export();
+
 		// Export the csv file.
 		try {
 			System.out.println("Export csv file to " + f.getAbsolutePath());
-			f.createNewFile();
+			File temporary = new File(f.getAbsolutePath() + ".tmp");
 
-			final PrintWriter writer = new PrintWriter(f);
+			final PrintWriter writer = new PrintWriter(temporary);
 
 			writer.println(i);
 
 			writer.close();
+
+			Files.move(temporary.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 
 	/**
-	 * Analyze the processes within the current path. This method is only used
-	 * if Mojo is used in a terminal as command prompt.
+	 * Analyze the given processes. This method is only used
+	 * if Mojo is used in a terminal as command prompt. Each file is read only
+	 * once, its workflow graphs are verified the given number of times. If
+	 * more than one thread or any readers are requested, the files are read in
+	 * and verified within a {@link BatchPipeline}. The readers run on virtual
+	 * threads, the verification on the fork join pool of the verifier. If only
+	 * readers are requested, there are as many verify workers as the execution
+	 * strategy has parallelism. The verifications are admitted against a heap budget by a
+	 * {@link BatchScheduler}. The output is the same in all cases.
+	 * 
+	 * @param files
+	 *            The files.
+	 * @param analysisInformations
+	 *            One analysis information container for each repetition.
+	 * @param verified
+	 *            Gets the verified workflow graphs of each file (can be
+	 *            null). It is called by the verifying threads.
 	 */
-	private static AnalysisInformation analyze() {
-		// Create a new analysis information container
-		AnalysisInformation analysisInformation = new AnalysisInformation();
+	private static void analyze(List<File> files, final List<AnalysisInformation> analysisInformations,
+			final BiConsumer<File, List<WorkflowGraph>> verified) {
+		final AnalysisInformation analysisInformation = analysisInformations.get(0);
+		final MojoConfig config = getConfig();
+
+		int threads = commands.get("THREADS").asIntegerValue();
+		int readers = commands.get("READERS").asIntegerValue();
+		if (threads > 1 || readers > 0) {
+			int heapBudget = commands.get("HEAP_BUDGET").asIntegerValue();
+			BatchScheduler scheduler = heapBudget > 0 ? new BatchScheduler(heapBudget * 1024L * 1024L)
+					: BatchScheduler.forHeap();
+			// Without explicit threads, the read in files are verified with
+			// the parallelism of the execution strategy
+			int workers = threads > 1 ? threads : config.getStrategy().getParallelism();
+			BatchPipeline<ParsedFile> pipeline = new BatchPipeline<ParsedFile>(workers,
+					readers > 0 ? readers : threads,
+					readers > 0 ? ThreadFactories.virtual("mojo-read-") : ThreadFactories.platform("mojo-parse-"),
+					file -> parseFile(file, analysisInformation),
+					parsed -> BatchScheduler.estimateMemory(parsed.graphs), scheduler,
+					(parsed, out) -> {
+						List<WorkflowGraph> graphs = verifyFile(parsed, analysisInformations, config, out);
+						if (verified != null) {
+							verified.accept(parsed.file, graphs);
+						}
+					}, System.out);
+			try {
+				pipeline.run(files);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return;
+		}
 
 		// For each process file that was found
 		int fileCounter = 0;
-		for (File file : fileHandler.getFiles()) {
+		for (File file : files) {
 
-			List<Annotation> list = new ArrayList<Annotation>();
-
-			// Get the right source plugin
-			SourcePlugin plugin = Mojo.sourcePlugins.get(FilenameUtils.getExtension(file.getAbsolutePath()));
-			
-			if (plugin == null) {
-				System.err.println("Cannot handle files with extension '" + 
-						FilenameUtils.getExtension(file.getAbsolutePath()) + "'");
-			} else {
-				
-				try {
-					// Determine the right reader
-					Reader reader = plugin.getReader(file.getName(), file, analysisInformation, Charset.defaultCharset());
-					// Read in the files
-					list.addAll(reader.compute());
-	
-					analyzeWorkflowGraphs(file, reader.getResult(), plugin.getIdInterpreter(), analysisInformation, list);
-				} catch (IOException e) { }
+			ParsedFile parsed = parseFile(file, analysisInformation);
+			List<WorkflowGraph> graphs = new ArrayList<WorkflowGraph>();
+			if (parsed != null) {
+				graphs = verifyFile(parsed, analysisInformations, config, System.out);
+			}
+			if (verified != null) {
+				verified.accept(file, graphs);
 			}
 
 			fileCounter++;
 			if (fileCounter > 0 && fileCounter % 1000 == 0) System.gc();
 		}
+	}
 
-		return analysisInformation;
+	/**
+	 * A file which was read in.
+	 */
+	private static class ParsedFile {
+
+		/**
+		 * The file.
+		 */
+		private final File file;
+
+		/**
+		 * The workflow graphs which were extracted from the file.
+		 */
+		private final List<WorkflowGraph> graphs;
+
+		/**
+		 * The id interpreter of the source plugin.
+		 */
+		private final IdInterpreter interpreter;
+
+		/**
+		 * The annotations found during reading in the file.
+		 */
+		private final List<Annotation> annotations;
+
+		/**
+		 * The key of the file within the result cache or null.
+		 */
+		private final String key;
+
+		/**
+		 * The cached result of the file or null if it must be verified.
+		 */
+		private final CachedResult cached;
+
+		/**
+		 * The constructor of a read in file.
+		 * 
+		 * @param file
+		 *            The file.
+		 * @param graphs
+		 *            The extracted workflow graphs.
+		 * @param interpreter
+		 *            The id interpreter.
+		 * @param annotations
+		 *            The annotations of the reader.
+		 * @param key
+		 *            The key within the result cache (can be null).
+		 * @param cached
+		 *            The cached result (can be null).
+		 */
+		private ParsedFile(File file, List<WorkflowGraph> graphs, IdInterpreter interpreter,
+				List<Annotation> annotations, String key, CachedResult cached) {
+			this.file = file;
+			this.graphs = graphs;
+			this.interpreter = interpreter;
+			this.annotations = annotations;
+			this.key = key;
+			this.cached = cached;
+		}
+	}
+
+	/**
+	 * Reads in a single file with the fitting source plugin. If the result of
+	 * the file is cached, the file is not read in by the source plugin.
+	 * 
+	 * @param file
+	 *            The file.
+	 * @param analysisInformation
+	 *            The analysis information.
+	 * @return The read in file or null if the file cannot be read in.
+	 */
+	private static ParsedFile parseFile(File file, AnalysisInformation analysisInformation) {
+		// Get the right source plugin
+		SourcePlugin plugin = Mojo.sourcePlugins.get(FilenameUtils.getExtension(file.getAbsolutePath()));
+
+		if (plugin == null) {
+			System.err.println("Cannot handle files with extension '" + 
+					FilenameUtils.getExtension(file.getAbsolutePath()) + "'");
+			return null;
+		}
+
+		try {
+			// Look up the result cache (the dot export needs the graphs)
+			String key = null;
+			ResultCache cache = Mojo.cache;
+			if (cache != null && !commands.get("DOT").asBooleanValue()) {
+				key = ResultCache.key(Files.readAllBytes(file.toPath()),
+						FilenameUtils.getExtension(file.getAbsolutePath()), getConfig());
+				CachedResult cached = cache.get(key);
+				if (cached != null) {
+					return new ParsedFile(file, null, plugin.getIdInterpreter(), cached.getReaderAnnotations(), key,
+							cached);
+				}
+			}
+
+			// Determine the right reader
+			Reader reader = plugin.getReader(file.getName(), file, analysisInformation, Charset.defaultCharset());
+			// Read in the files
+			List<Annotation> readerList = reader.compute();
+
+			return new ParsedFile(file, reader.getResult(), plugin.getIdInterpreter(), readerList, key, null);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Verifies the workflow graphs of a read in file once for each analysis
+	 * information container.
+	 * 
+	 * @param parsed
+	 *            The read in file.
+	 * @param analysisInformations
+	 *            The analysis information containers.
+	 * @param config
+	 *            The configuration.
+	 * @param out
+	 *            The stream to print the results to.
+	 * @return The workflow graphs within the first analysis information
+	 *         container.
+	 */
+	private static List<WorkflowGraph> verifyFile(ParsedFile parsed,
+			List<AnalysisInformation> analysisInformations, MojoConfig config, PrintStream out) {
+		List<WorkflowGraph> verified = new ArrayList<WorkflowGraph>();
+		// The workflow graphs are not modified by the verification,
+		// so that they can be verified several times.
+		for (AnalysisInformation info : analysisInformations) {
+			List<Annotation> list = new ArrayList<Annotation>(parsed.annotations);
+			List<WorkflowGraph> graphs = parsed.graphs;
+			if (parsed.cached != null) {
+				// The result is known
+				graphs = parsed.cached.restore(info);
+				if (graphs != null) {
+					printResults(parsed.file, graphs, parsed.cached.getGraphAnnotations(), parsed.interpreter, info,
+							list, out);
+				}
+			} else {
+				List<List<Annotation>> results = analyzeWorkflowGraphs(parsed.file, parsed.graphs,
+						parsed.interpreter, info, list, config, out);
+				// A verification which exceeded its budget is not cached
+				if (parsed.key != null && info == analysisInformations.get(0) && CachedResult.isComplete(results)) {
+					cache.put(parsed.key, CachedResult.of(parsed.annotations, parsed.graphs, results, info,
+							parsed.interpreter));
+				}
+			}
+			// The file and its workflow graphs are finished within this
+			// container
+			info.flush(parsed.file.getName());
+			if (graphs == null)
+				continue;
+			if (info == analysisInformations.get(0)) {
+				verified = graphs;
+			}
+			for (WorkflowGraph graph : graphs) {
+				info.flush(graph);
+			}
+		}
+		return verified;
 	}
 
 	/**
@@ -419,49 +904,127 @@ public class Mojo {
 	 *            The analysis information.
 	 * @param list
 	 *            A list of annotations.
+	 * @param config
+	 *            The configuration.
+	 * @param out
+	 *            The stream to print the results to.
+	 * @return The annotations of each workflow graph or null if the file
+	 *         could not be transformed.
 	 */
-	private static void analyzeWorkflowGraphs(File file, List<WorkflowGraph> graphs, IdInterpreter interpreter,
-			AnalysisInformation analysisInformation, List<Annotation> list) {
+	private static List<List<Annotation>> analyzeWorkflowGraphs(File file, List<WorkflowGraph> graphs,
+			IdInterpreter interpreter, AnalysisInformation analysisInformation, List<Annotation> list,
+			MojoConfig config, PrintStream out) {
 
 		// The graph cannot be transformed
-		if (graphs != null) {
+		if (graphs == null)
+			return null;
 
-			// Print the file that will be verified.
-			System.out.printf("%n%s", file);
-			
-			// For each workflow graph within the process
-			int graphCounter = 1;
-			for (WorkflowGraph g : graphs) {
+		// Verify all workflow graphs of the process at once
+		List<List<Annotation>> results = Mojo.analyzeWorkflowGraphs(file.getName(), graphs, analysisInformation,
+				config);
 
-				analysisInformation.put(g, "subgraph", graphCounter++);
-				Mojo.analyzeWorkflowGraph(file.getName(), g, analysisInformation, list);
+		printResults(file, graphs, results, interpreter, analysisInformation, list, out);
 
-				// Show the information.
-				if (!commands.get("HIDE_STATISTICS").asBooleanValue()) {
+		if (commands.get("DOT").asBooleanValue()) {
+			// Export the workflow graph as dot file.
+			String exportPath = commands.get("EXPORT_PATH").asStringValue();
+			WorkflowGraphExporter.exportToDot(graphs,
+					(exportPath == "" ? commands.get("PATH").asStringValue() : exportPath) + File.separator,
+					file.getName());
+		}
 
-					// Print the time
-					System.out.printf("%n\tTime spent: %15f [ms]%n", (double) ((long) analysisInformation.get(g,
-							"Verifier" + AnalysisInformation.TIME_MEASUREMENT)) / (double) 1000000);
+		return results;
+	}
 
-					// Print the errors
-					for (Annotation error : list) {
-						error.printInformation(interpreter);
-					}
-					if (list.isEmpty()) {
-						System.out.printf("\t%s%n", "Everything well");
-					}
+	/**
+	 * Prints the results of the workflow graphs of a file.
+	 * 
+	 * @param file
+	 *            The current file.
+	 * @param graphs
+	 *            The workflow graphs which were extracted from the file.
+	 * @param results
+	 *            The annotations of each workflow graph.
+	 * @param interpreter
+	 *            An id interpreter (depending on the input)
+	 * @param analysisInformation
+	 *            The analysis information.
+	 * @param list
+	 *            A list of annotations.
+	 * @param out
+	 *            The stream to print the results to.
+	 */
+	private static void printResults(File file, List<WorkflowGraph> graphs, List<List<Annotation>> results,
+			IdInterpreter interpreter, AnalysisInformation analysisInformation, List<Annotation> list,
+			PrintStream out) {
+		// Print the file that was verified.
+		out.printf("%n%s", file);
+
+		// For each workflow graph within the process
+		for (int i = 0; i < graphs.size(); i++) {
+			WorkflowGraph g = graphs.get(i);
+			list.addAll(results.get(i));
+
+			// Show the information.
+			if (!commands.get("HIDE_STATISTICS").asBooleanValue()) {
+
+				// Print the time
+				out.printf("%n\tTime spent: %15f [ms]%n", (double) ((long) analysisInformation.get(g,
+						"Verifier" + AnalysisInformation.TIME_MEASUREMENT)) / (double) 1000000);
+
+				// Print the errors
+				for (Annotation error : list) {
+					error.printInformation(interpreter, out);
+				}
+				if (list.isEmpty()) {
+					out.printf("\t%s%n", "Everything well");
 				}
 			}
+		}
+	}
 
-			if (commands.get("DOT").asBooleanValue()) {
-				// Export the workflow graph as dot file.
-				String exportPath = commands.get("EXPORT_PATH").asStringValue();
-				WorkflowGraphExporter.exportToDot(graphs,
-						(exportPath == "" ? commands.get("PATH").asStringValue() : exportPath) + File.separator,
-						file.getName());
-			}
+	/**
+	 * Analyses the workflow graphs of a single process. The workflow graphs
+	 * are independent of each other (e.g., the pools of a collaboration), so
+	 * that they are verified in parallel by the execution strategy of the
+	 * configuration.
+	 * 
+	 * @param processName
+	 *            The name of the process, e.g., the file name.
+	 * @param graphs
+	 *            The workflow graphs.
+	 * @param analysisInformation
+	 *            The analysis information
+	 * @param config
+	 *            The configuration.
+	 * @return The annotations of each workflow graph in the order of the
+	 *         workflow graphs.
+	 */
+	public static List<List<Annotation>> analyzeWorkflowGraphs(final String processName,
+			List<WorkflowGraph> graphs, final AnalysisInformation analysisInformation, final MojoConfig config) {
+		List<ForkJoinTask<List<Annotation>>> tasks = new ArrayList<ForkJoinTask<List<Annotation>>>();
+		int graphCounter = 1;
+		for (final WorkflowGraph g : graphs) {
+			analysisInformation.put(g, "subgraph", graphCounter++);
+			tasks.add(ForkJoinTask.adapt(() -> {
+				List<Annotation> annotations = new ArrayList<Annotation>();
+				Mojo.analyzeWorkflowGraph(processName, g, analysisInformation, annotations, config);
+				return annotations;
+			}));
 		}
 
+		// A single workflow graph does not need to be forked
+		if (tasks.size() == 1) {
+			tasks.get(0).invoke();
+		} else if (tasks.size() > 1) {
+			config.getStrategy().invokeAll(tasks);
+		}
+
+		List<List<Annotation>> results = new ArrayList<List<Annotation>>();
+		for (ForkJoinTask<List<Annotation>> task : tasks) {
+			results.add(task.join());
+		}
+		return results;
 	}
 
 	/**
@@ -478,6 +1041,25 @@ public class Mojo {
 	 */
 	public static void analyzeWorkflowGraph(String processName, WorkflowGraph graph,
 			AnalysisInformation analysisInformation, List<Annotation> list) {
+		analyzeWorkflowGraph(processName, graph, analysisInformation, list, getConfig());
+	}
+
+	/**
+	 * Analyses a single workflow graph with the given configuration.
+	 * 
+	 * @param processName
+	 *            The name of the process, e.g., the file name.
+	 * @param graph
+	 *            The workflow graph.
+	 * @param analysisInformation
+	 *            The analysis information
+	 * @param list
+	 *            A list of annotations.
+	 * @param config
+	 *            The configuration.
+	 */
+	public static void analyzeWorkflowGraph(String processName, WorkflowGraph graph,
+			AnalysisInformation analysisInformation, List<Annotation> list, MojoConfig config) {
 		// Store the file name.
 		analysisInformation.put(graph, AnalysisInformation.FILE_NAME, processName);
 
@@ -485,7 +1067,8 @@ public class Mojo {
 		analysisInformation.startTimeMeasurement(graph, "Verifier");
 
 		// Create a new verifier.
-		Verifier verifier = new Verifier(graph, createMap(graph, findMax(graph)), analysisInformation);
+		Verifier verifier = new Verifier(graph, createMap(graph, findMax(graph)), analysisInformation, null,
+				config);
 		// Verify the process.
 		list.addAll(verifier.compute());
 
@@ -495,7 +1078,8 @@ public class Mojo {
 
 	/**
 	 * When Mojo is used as library, this is the interface to verify a given
-	 * workflow graph.
+	 * workflow graph. The workflow graph is not modified, i.e., it can be
+	 * verified again (e.g., with another analysis information container).
 	 * 
 	 * @param graph
 	 *            The workflow graph.
@@ -504,13 +1088,51 @@ public class Mojo {
 	 * @return A list of process annotations.
 	 */
 	public List<Annotation> verify(WorkflowGraph graph, AnalysisInformation info) {
+		return verify(graph, info, getConfig());
+	}
+
+	/**
+	 * When Mojo is used as library, this is the interface to verify a given
+	 * workflow graph with a specific configuration. Verifications with
+	 * different configurations can run at the same time.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param info
+	 *            The analysis information which are collected by the analysis.
+	 * @param config
+	 *            The configuration.
+	 * @return A list of process annotations.
+	 */
+	public List<Annotation> verify(WorkflowGraph graph, AnalysisInformation info, MojoConfig config) {
+		return verify(graph, info, config, config.getStrategy());
+	}
+
+	/**
+	 * When Mojo is used as library, this is the interface to verify a given
+	 * workflow graph with a specific configuration and execution strategy.
+	 * The execution strategy determines where the analyses run, e.g., inline
+	 * for tiny graphs or in a bounded pool of a tenant.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param info
+	 *            The analysis information which are collected by the analysis.
+	 * @param config
+	 *            The configuration.
+	 * @param strategy
+	 *            The execution strategy.
+	 * @return A list of process annotations.
+	 */
+	public List<Annotation> verify(WorkflowGraph graph, AnalysisInformation info, MojoConfig config,
+			ExecutionStrategy strategy) {
 		// Start the time measurement
 		info.startTimeMeasurement(graph, "Verifier");
 
 		System.out.println("Start to verify");
 
 		// Define a new verifier.
-		Verifier verifier = new Verifier(graph, createMap(graph, findMax(graph)), info);
+		Verifier verifier = new Verifier(graph, createMap(graph, findMax(graph)), info, null, config, strategy);
 
 		// Start the analysis
 		List<Annotation> errors = verifier.compute();
@@ -545,7 +1167,8 @@ public class Mojo {
 
 	/**
 	 * If Mojo is used as a library, this interface can be used to verify a
-	 * process string.
+	 * process string. If a result cache is set (see {@link #setCache}), the
+	 * result of an unchanged process is taken from the cache.
 	 * 
 	 * @param processName
 	 *            The name of the process (optional)
@@ -559,29 +1182,77 @@ public class Mojo {
 	 */
 	public List<Annotation> verify(String processName, String stream, String extension, AnalysisInformation info,
 			Charset encoding) {
+		return verify(processName, stream, extension, info, encoding, getConfig());
+	}
+
+	/**
+	 * If Mojo is used as a library, this interface can be used to verify a
+	 * process string with a specific configuration, e.g., with another
+	 * execution strategy (see {@link MojoConfig#withStrategy}).
+	 * 
+	 * @param processName
+	 *            The name of the process (optional)
+	 * @param stream
+	 *            The process stream string.
+	 * @param extension
+	 *            The file extension which determines the source plugin.
+	 * @param info
+	 *            The analysis information container.
+	 * @param encoding
+	 *            The charset of the file.
+	 * @param config
+	 *            The configuration.
+	 * @return A list of errors.
+	 */
+	public List<Annotation> verify(String processName, String stream, String extension, AnalysisInformation info,
+			Charset encoding, MojoConfig config) {
 		// Get the right source plugin
-		SourcePlugin plugin = Mojo.sourcePlugins.get(extension);
+		SourcePlugin plugin = config.getSourcePlugins().get(extension);
 
 		// Create a list to store the errors.
 		List<Annotation> list = new ArrayList<Annotation>();
 
+		// Look up the result cache
+		ResultCache cache = Mojo.cache;
+		String key = null;
+		if (cache != null) {
+			key = ResultCache.key(stream.getBytes(encoding), extension, config);
+			CachedResult cached = cache.get(key);
+			if (cached != null) {
+				list.addAll(cached.getReaderAnnotations());
+				cached.restore(info);
+				if (cached.getGraphAnnotations() != null) {
+					for (List<Annotation> annotations : cached.getGraphAnnotations()) {
+						list.addAll(annotations);
+					}
+				}
+				return list;
+			}
+		}
+
 		// Create a reader for the string.
 		Reader reader = plugin.getReader(processName, stream, info, encoding);
 
-		list.addAll(reader.compute());
+		List<Annotation> readerList = reader.compute();
+		list.addAll(readerList);
 
 		List<WorkflowGraph> graphs = reader.getResult();
+		List<List<Annotation>> results = null;
 
 		// The graph cannot be transformed
 		if (graphs != null) {
-			// For each workflow graph within the process
-			int graphCounter = 1;
-			for (WorkflowGraph g : graphs) {
-				info.put(g, "subgraph", graphCounter++);
-				Mojo.analyzeWorkflowGraph(processName, g, info, list);
+			// Merge the annotations of the workflow graphs in their order
+			results = Mojo.analyzeWorkflowGraphs(processName, graphs, info, config);
+			for (List<Annotation> annotations : results) {
+				list.addAll(annotations);
 			}
 		}
 
+		// A verification which exceeded its budget is not cached
+		if (key != null && CachedResult.isComplete(results)) {
+			cache.put(key, CachedResult.of(readerList, graphs, results, info, plugin.getIdInterpreter()));
+		}
+
 		return list;
 	}
 
@@ -630,4 +1301,44 @@ public class Mojo {
 		return Mojo.planPlugins;
 	}
 
+	/**
+	 * Get the version of mojo.
+	 * 
+	 * @return The version or "dev" if mojo does not run from a packaged jar.
+	 */
+	public static String getVersion() {
+		String version = Mojo.class.getPackage().getImplementationVersion();
+		return version == null ? "dev" : version;
+	}
+
+	/**
+	 * Sets the persistent result cache, which is consulted before a process
+	 * is read in and verified.
+	 * 
+	 * @param resultCache
+	 *            The cache or null if the results should not be cached.
+	 */
+	public static void setCache(ResultCache resultCache) {
+		cache = resultCache;
+	}
+
+	/**
+	 * Get the persistent result cache.
+	 * 
+	 * @return The cache or null if the results are not cached.
+	 */
+	public static ResultCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Creates an immutable configuration from the current values of the
+	 * commands and the registered plugins.
+	 * 
+	 * @return The configuration.
+	 */
+	public static MojoConfig getConfig() {
+		return MojoConfig.fromCommands(commands.values(), sourcePlugins, planPlugins);
+	}
+
 }
@@ -0,0 +1,423 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ *
+ * This file is part of mojo.
+ *
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.jena.uni.mojo.analysis.VerificationBudget;
+import de.jena.uni.mojo.command.Command;
+import de.jena.uni.mojo.plan.CostModel;
+import de.jena.uni.mojo.plugin.PlanPlugin;
+import de.jena.uni.mojo.plugin.PluginRegistry;
+import de.jena.uni.mojo.plugin.SourcePlugin;
+import de.jena.uni.mojo.verifier.ExecutionStrategy;
+import de.jena.uni.mojo.verifier.VerificationListener;
+
+/**
+ * The configuration of a single verification run. It is immutable, i.e., it
+ * can be shared between threads, and several verification runs with different
+ * configurations can be performed within the same JVM at the same time.
+ *
+ * The configuration contains the values of the commands (by their names) as
+ * well as the source and plan plugins. The values which are needed during the
+ * analysis are determined once when the configuration is created.
+ *
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public final class MojoConfig {
+
+	/**
+	 * The default configuration without any plugins. Each command has its
+	 * default value.
+	 */
+	public final static MojoConfig DEFAULT = new MojoConfig(
+			Collections.<String, Object> emptyMap(),
+			Collections.<String, SourcePlugin> emptyMap(),
+			Collections.<String, PlanPlugin> emptyMap());
+
+	/**
+	 * The values of the commands by their names.
+	 */
+	private final Map<String, Object> values;
+
+	/**
+	 * The source plugins by their file extensions.
+	 */
+	private final Map<String, SourcePlugin> sourcePlugins;
+
+	/**
+	 * The plan plugins by their ids.
+	 */
+	private final Map<String, PlanPlugin> planPlugins;
+
+	/**
+	 * The id of the major analysis plan.
+	 */
+	private final String analysisPlan;
+
+	/**
+	 * Whether the analyses should be verbose.
+	 */
+	private final boolean verbose;
+
+	/**
+	 * Whether the workflow graph should be reduced structurally.
+	 */
+	private final boolean reduce;
+
+	/**
+	 * Whether the verdicts of isomorphic workflow graphs should be reused.
+	 */
+	private final boolean deduplicate;
+
+	/**
+	 * Whether sound fragments should be folded.
+	 */
+	private final boolean fragments;
+
+	/**
+	 * The cost model which decides whether the analyses run in parallel.
+	 */
+	private final CostModel costModel;
+
+	/**
+	 * The maximum wall time of a verification in milliseconds (0: no limit).
+	 */
+	private final int timeBudget;
+
+	/**
+	 * The maximum number of visited edges of a verification (0: no limit).
+	 */
+	private final int edgeBudget;
+
+	/**
+	 * The strategy which executes the verifications.
+	 */
+	private final ExecutionStrategy strategy;
+
+	/**
+	 * The budget of the current verification or null if the configuration
+	 * does not belong to a verification.
+	 */
+	private final VerificationBudget budget;
+
+	/**
+	 * The listener which gets the results as soon as they are known.
+	 */
+	private final VerificationListener listener;
+
+	/**
+	 * The constructor of a new configuration. The maps are copied (the maps
+	 * of the {@link PluginRegistry} are used as they are, so that their
+	 * plugins are still instantiated at their first use).
+	 *
+	 * @param values
+	 *            The values of the commands by their names.
+	 * @param sourcePlugins
+	 *            The source plugins by their file extensions.
+	 * @param planPlugins
+	 *            The plan plugins by their ids.
+	 */
+	public MojoConfig(Map<String, Object> values,
+			Map<String, SourcePlugin> sourcePlugins,
+			Map<String, PlanPlugin> planPlugins) {
+		this(Collections.unmodifiableMap(new HashMap<String, Object>(values)),
+				freeze(sourcePlugins), freeze(planPlugins), null,
+				VerificationListener.NONE);
+	}
+
+	/**
+	 * The constructor of a new configuration with the budget of a
+	 * verification. The maps are not copied.
+	 *
+	 * @param values
+	 *            The values of the commands by their names.
+	 * @param sourcePlugins
+	 *            The source plugins by their file extensions.
+	 * @param planPlugins
+	 *            The plan plugins by their ids.
+	 * @param budget
+	 *            The budget of the verification (can be null).
+	 * @param listener
+	 *            The verification listener.
+	 */
+	private MojoConfig(Map<String, Object> values,
+			Map<String, SourcePlugin> sourcePlugins,
+			Map<String, PlanPlugin> planPlugins, VerificationBudget budget,
+			VerificationListener listener) {
+		this.values = values;
+		this.sourcePlugins = sourcePlugins;
+		this.planPlugins = planPlugins;
+
+		this.analysisPlan = (String) getValue("ANALYSIS_PLAN", "0");
+		this.verbose = (Boolean) getValue("VERBOSE", false);
+		this.reduce = (Boolean) getValue("REDUCE", false);
+		this.deduplicate = (Boolean) getValue("DEDUPLICATE", false);
+		this.fragments = (Boolean) getValue("FRAGMENTS", false);
+		this.costModel = new CostModel((Integer) getValue(
+				"PARALLEL_THRESHOLD", CostModel.DEFAULT_THRESHOLD));
+		this.timeBudget = (Integer) getValue("TIME_BUDGET", 0);
+		this.edgeBudget = (Integer) getValue("EDGE_BUDGET", 0);
+		Object execution = getValue("EXECUTION", "default");
+		this.strategy = execution instanceof ExecutionStrategy
+				? (ExecutionStrategy) execution
+				: ExecutionStrategy.forName(execution.toString());
+		this.budget = budget;
+		this.listener = listener;
+	}
+
+	/**
+	 * Creates a configuration from the given commands.
+	 *
+	 * @param commands
+	 *            The commands.
+	 * @param sourcePlugins
+	 *            The source plugins by their file extensions.
+	 * @param planPlugins
+	 *            The plan plugins by their ids.
+	 * @return The configuration.
+	 */
+	public static MojoConfig fromCommands(Iterable<Command> commands,
+			Map<String, SourcePlugin> sourcePlugins,
+			Map<String, PlanPlugin> planPlugins) {
+		Map<String, Object> values = new HashMap<String, Object>();
+		for (Command command : commands) {
+			values.put(command.getName(), command.getValue());
+		}
+		return new MojoConfig(values, sourcePlugins, planPlugins);
+	}
+
+	/**
+	 * Creates a copy of this configuration where the command with the given
+	 * name has the given value.
+	 *
+	 * @param name
+	 *            The name of the command.
+	 * @param value
+	 *            The value.
+	 * @return The new configuration.
+	 */
+	public MojoConfig with(String name, Object value) {
+		Map<String, Object> copy = new HashMap<String, Object>(values);
+		copy.put(name, value);
+		return new MojoConfig(Collections.unmodifiableMap(copy),
+				sourcePlugins, planPlugins, null, listener);
+	}
+
+	/**
+	 * Creates an unmodifiable copy of a map of plugins.
+	 *
+	 * @param plugins
+	 *            The plugins.
+	 * @return The copy or the map itself if it is a map of the registry.
+	 */
+	private static <P> Map<String, P> freeze(Map<String, P> plugins) {
+		if (plugins instanceof PluginRegistry.Plugins)
+			return plugins;
+		return Collections.unmodifiableMap(new HashMap<String, P>(plugins));
+	}
+
+	/**
+	 * Creates a copy of this configuration for a single verification with the
+	 * given budget. The analyses of the verification check this budget.
+	 *
+	 * @param budget
+	 *            The budget of the verification.
+	 * @return The new configuration.
+	 */
+	public MojoConfig withBudget(VerificationBudget budget) {
+		return new MojoConfig(values, sourcePlugins, planPlugins, budget,
+				listener);
+	}
+
+	/**
+	 * Creates a copy of this configuration with the given listener. The
+	 * listener gets the results of each verification as soon as they are
+	 * known.
+	 *
+	 * @param listener
+	 *            The listener.
+	 * @return The new configuration.
+	 */
+	public MojoConfig withListener(VerificationListener listener) {
+		return new MojoConfig(values, sourcePlugins, planPlugins, budget,
+				listener == null ? VerificationListener.NONE : listener);
+	}
+
+	/**
+	 * Creates a copy of this configuration whose verifications are executed
+	 * by the given strategy.
+	 *
+	 * @param strategy
+	 *            The execution strategy.
+	 * @return The new configuration.
+	 */
+	public MojoConfig withStrategy(ExecutionStrategy strategy) {
+		return with("EXECUTION", strategy);
+	}
+
+	/**
+	 * Get the value of the command with the given name.
+	 *
+	 * @param name
+	 *            The name of the command.
+	 * @param defaultValue
+	 *            The value if the configuration has no such value.
+	 * @return The value.
+	 */
+	public Object getValue(String name, Object defaultValue) {
+		Object value = values.get(name);
+		return value == null ? defaultValue : value;
+	}
+
+	/**
+	 * Get the id of the major analysis plan.
+	 *
+	 * @return The id.
+	 */
+	public String getAnalysisPlan() {
+		return analysisPlan;
+	}
+
+	/**
+	 * Whether the analyses should be verbose.
+	 *
+	 * @return True or false.
+	 */
+	public boolean isVerbose() {
+		return verbose;
+	}
+
+	/**
+	 * Whether the workflow graph should be reduced structurally before the
+	 * control flow analysis.
+	 *
+	 * @return True or false.
+	 */
+	public boolean isReduce() {
+		return reduce;
+	}
+
+	/**
+	 * Whether the verdict of an isomorphic workflow graph should be reused
+	 * instead of verifying the workflow graph again.
+	 *
+	 * @return True or false.
+	 */
+	public boolean isDeduplicate() {
+		return deduplicate;
+	}
+
+	/**
+	 * Whether sound single-entry single-exit fragments should be folded
+	 * before the control flow analysis. The verdicts of the fragments are
+	 * memoised for all verifications.
+	 *
+	 * @return True or false.
+	 */
+	public boolean isFragments() {
+		return fragments;
+	}
+
+	/**
+	 * Get the cost model which decides whether the phases of the control flow
+	 * analysis run in parallel.
+	 *
+	 * @return The cost model.
+	 */
+	public CostModel getCostModel() {
+		return costModel;
+	}
+
+	/**
+	 * Whether a verification should be limited by a budget.
+	 *
+	 * @return True or false.
+	 */
+	public boolean hasBudgetLimits() {
+		return timeBudget > 0 || edgeBudget > 0;
+	}
+
+	/**
+	 * Get the maximum wall time of a verification.
+	 *
+	 * @return The time in milliseconds (0: no limit).
+	 */
+	public int getTimeBudget() {
+		return timeBudget;
+	}
+
+	/**
+	 * Get the maximum number of visited edges of a verification.
+	 *
+	 * @return The number of edges (0: no limit).
+	 */
+	public int getEdgeBudget() {
+		return edgeBudget;
+	}
+
+	/**
+	 * Get the strategy which executes the verifications (and the workflow
+	 * graphs of a process in parallel).
+	 *
+	 * @return The strategy.
+	 */
+	public ExecutionStrategy getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Get the budget of the current verification.
+	 *
+	 * @return The budget or null if there is none.
+	 */
+	public VerificationBudget getBudget() {
+		return budget;
+	}
+
+	/**
+	 * Get the listener of the verifications.
+	 *
+	 * @return The listener (never null).
+	 */
+	public VerificationListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Get the source plugins.
+	 *
+	 * @return An unmodifiable map from file extension to source plugin.
+	 */
+	public Map<String, SourcePlugin> getSourcePlugins() {
+		return sourcePlugins;
+	}
+
+	/**
+	 * Get the plan plugins.
+	 *
+	 * @return An unmodifiable map from id to plan plugin.
+	 */
+	public Map<String, PlanPlugin> getPlanPlugins() {
+		return planPlugins;
+	}
+}
@@ -21,6 +21,7 @@ package de.jena.uni.mojo.analysis;
 import java.util.List;
 
 
+import de.jena.uni.mojo.MojoConfig;
 import de.jena.uni.mojo.analysis.information.AnalysisInformation;
 import de.jena.uni.mojo.error.Annotation;
 import de.jena.uni.mojo.model.WGNode;
@@ -52,6 +53,17 @@ public abstract class Analysis extends CoreAnalysis {
 	 */
 	protected WGNode[] map;
 
+	/**
+	 * The configuration of the verification run.
+	 */
+	protected final MojoConfig config;
+
+	/**
+	 * The number of visited edges which were already consumed from the
+	 * budget.
+	 */
+	private long consumedEdges = 0;
+
 	/**
 	 * The constructor defines an analysis consisting of a workflow graph, a map
 	 * which contains each node and an analysis information reporter that
@@ -66,9 +78,28 @@ public abstract class Analysis extends CoreAnalysis {
 	 */
 	public Analysis(WorkflowGraph graph, WGNode[] map,
 			AnalysisInformation reporter) {
+		this(graph, map, reporter, MojoConfig.DEFAULT);
+	}
+
+	/**
+	 * The constructor defines an analysis with the configuration of the
+	 * verification run.
+	 * 
+	 * @param graph
+	 *            The workflow graph to analyze.
+	 * @param map
+	 *            A node array map.
+	 * @param reporter
+	 *            An analysis information reporter
+	 * @param config
+	 *            The configuration.
+	 */
+	public Analysis(WorkflowGraph graph, WGNode[] map,
+			AnalysisInformation reporter, MojoConfig config) {
 		super("", reporter);
 		this.graph = graph;
 		this.map = map;
+		this.config = config;
 	}
 	
 	/**
@@ -89,6 +120,35 @@ public abstract class Analysis extends CoreAnalysis {
 		return this.graph;
 	}
 
+	/**
+	 * Returns the configuration of the verification run.
+	 * 
+	 * @return The configuration.
+	 */
+	public final MojoConfig getConfig() {
+		return this.config;
+	}
+
+	/**
+	 * Checks the budget of the verification (if there is any). The analyses
+	 * should call this method within their loops with their number of
+	 * visited edges.
+	 * 
+	 * @param edgesVisited
+	 *            The number of visited edges of this analysis so far.
+	 * @throws BudgetExceededException
+	 *             if the budget is exceeded.
+	 */
+	protected final void checkBudget(long edgesVisited)
+			throws BudgetExceededException {
+		VerificationBudget budget = config.getBudget();
+		if (budget != null) {
+			long delta = edgesVisited - consumedEdges;
+			consumedEdges = edgesVisited;
+			budget.consume(delta);
+		}
+	}
+
 	/**
 	 * An abstract method which defines the entry point of the analysis. As
 	 * result it gives back a list of some error information.
@@ -101,14 +161,19 @@ public abstract class Analysis extends CoreAnalysis {
 	 * This computation method must been used at runtime to guarantee a right
 	 * behavior. Then, the method can be executed in parallel with other
 	 * parallel tasks. Furthermore, this method automatically adds an entry of
-	 * time measurement for this analysis.
+	 * time measurement for this analysis. The time measurement is also
+	 * stopped if the analysis is aborted (e.g., since the budget is exceeded).
 	 * 
 	 * @return A list of error information.
 	 */
 	public List<Annotation> compute() {
-		reporter.startTimeMeasurement(graph, this.getClass().getName());
-		List<Annotation> list = analyze();
-		reporter.endTimeMeasurement(graph, this.getClass().getName());
-		return list;
+		// Do not start if the budget is already exceeded
+		checkBudget(consumedEdges);
+		reporter.startTimeMeasurement(graph, this.getClass());
+		try {
+			return analyze();
+		} finally {
+			reporter.endTimeMeasurement(graph, this.getClass());
+		}
 	}
 }
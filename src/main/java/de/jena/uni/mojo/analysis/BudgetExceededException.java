@@ -0,0 +1,44 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.analysis;
+
+/**
+ * This exception is thrown by an analysis if the budget of its verification
+ * is exceeded (see {@link VerificationBudget}).
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ * 
+ */
+public class BudgetExceededException extends RuntimeException {
+
+	/**
+	 * The serial version UID.
+	 */
+	private static final long serialVersionUID = 2791536214680327043L;
+
+	/**
+	 * The constructor.
+	 * 
+	 * @param reason
+	 *            The reason why the budget is exceeded.
+	 */
+	public BudgetExceededException(String reason) {
+		super("The verification budget is exceeded: " + reason);
+	}
+}
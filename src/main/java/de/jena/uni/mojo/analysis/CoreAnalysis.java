@@ -83,9 +83,9 @@ public abstract class CoreAnalysis extends RecursiveTask<List<Annotation>> {
 	 * @return A list of error information.
 	 */
 	public List<Annotation> compute() {
-		reporter.startTimeMeasurement(processName, this.getClass().getName());
+		reporter.startTimeMeasurement(processName, this.getClass());
 		List<Annotation> list = analyze();
-		reporter.endTimeMeasurement(processName, this.getClass().getName());
+		reporter.endTimeMeasurement(processName, this.getClass());
 		return list;
 	}
 }
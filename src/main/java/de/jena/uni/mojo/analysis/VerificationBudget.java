@@ -0,0 +1,147 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.analysis;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A verification budget limits the wall time and the number of visited edges
+ * of a single verification. The analyses of the verification share the
+ * budget and check it cooperatively (see {@link Analysis#checkBudget(long)}).
+ * As soon as the budget is exceeded, each further check throws a
+ * {@link BudgetExceededException}, so that all remaining analyses of the
+ * verification stop early.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ * 
+ */
+public final class VerificationBudget {
+
+	/**
+	 * The time when the verification started (in nano seconds).
+	 */
+	private final long start;
+
+	/**
+	 * The time when the budget ends (in nano seconds).
+	 */
+	private final long deadline;
+
+	/**
+	 * The maximum number of visited edges.
+	 */
+	private final long maxEdges;
+
+	/**
+	 * The number of visited edges so far.
+	 */
+	private final AtomicLong visitedEdges = new AtomicLong();
+
+	/**
+	 * The reason why the budget is exceeded or null if it is not exceeded.
+	 */
+	private volatile String exceeded = null;
+
+	/**
+	 * The constructor defines a new budget which starts now.
+	 * 
+	 * @param timeMillis
+	 *            The maximum wall time in milliseconds (0 or less: no limit).
+	 * @param edges
+	 *            The maximum number of visited edges (0 or less: no limit).
+	 */
+	public VerificationBudget(long timeMillis, long edges) {
+		this.start = System.nanoTime();
+		this.deadline = timeMillis > 0 ? start + timeMillis * 1000000L
+				: Long.MAX_VALUE;
+		this.maxEdges = edges > 0 ? edges : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Consumes the given number of visited edges from the budget and checks
+	 * the time.
+	 * 
+	 * @param edges
+	 *            The number of newly visited edges.
+	 * @throws BudgetExceededException
+	 *             if the budget is exceeded.
+	 */
+	public void consume(long edges) throws BudgetExceededException {
+		if (exceeded != null)
+			throw new BudgetExceededException(exceeded);
+
+		long visited = edges > 0 ? visitedEdges.addAndGet(edges)
+				: visitedEdges.get();
+		if (visited > maxEdges) {
+			exceed("more than " + maxEdges + " visited edges");
+		} else if (deadline != Long.MAX_VALUE && System.nanoTime() > deadline) {
+			exceed("more than " + (deadline - start) / 1000000L + " ms");
+		}
+	}
+
+	/**
+	 * Marks the budget as exceeded and throws an exception.
+	 * 
+	 * @param reason
+	 *            The reason.
+	 * @throws BudgetExceededException
+	 *             always.
+	 */
+	private void exceed(String reason) throws BudgetExceededException {
+		if (exceeded == null)
+			exceeded = reason;
+		throw new BudgetExceededException(exceeded);
+	}
+
+	/**
+	 * Determines whether the budget is exceeded.
+	 * 
+	 * @return True or false.
+	 */
+	public boolean isExceeded() {
+		return exceeded != null;
+	}
+
+	/**
+	 * Get the reason why the budget is exceeded.
+	 * 
+	 * @return The reason or null if the budget is not exceeded.
+	 */
+	public String getReason() {
+		return exceeded;
+	}
+
+	/**
+	 * Get the number of visited edges so far.
+	 * 
+	 * @return The number of visited edges.
+	 */
+	public long getVisitedEdges() {
+		return visitedEdges.get();
+	}
+
+	/**
+	 * Get the elapsed time since the start of the budget.
+	 * 
+	 * @return The elapsed time in nano seconds.
+	 */
+	public long getElapsedTime() {
+		return System.nanoTime() - start;
+	}
+}
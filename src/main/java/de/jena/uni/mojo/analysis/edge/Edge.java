@@ -98,9 +98,11 @@ public class Edge {
 	public final LinkedList<Edge> dominatorList = new LinkedList<Edge>();
 
 	/**
-	 * The dominance frontier of this edge as a set.
+	 * The dominance frontier of this edge as a set. It is null until it is
+	 * requested via
+	 * {@link de.jena.uni.mojo.analysis.edge.dominance.DominatorEdgeAnalysis#getDominanceFrontier(Edge)}.
 	 */
-	public final BitSet dominanceFrontierSet;
+	public BitSet dominanceFrontierSet = null;
 
 	/**
 	 * A set of edges where each edge dominates this edge.
@@ -123,9 +125,11 @@ public class Edge {
 	public final BitSet postDominatorSet;
 
 	/**
-	 * The post dominance frontier set.
+	 * The post dominance frontier set. It is null until it is
+	 * requested via
+	 * {@link de.jena.uni.mojo.analysis.edge.dominance.PostDominatorEdgeAnalysis#getPostDominanceFrontier(Edge)}.
 	 */
-	public final BitSet postDominanceFrontierSet;
+	public BitSet postDominanceFrontierSet = null;
 
 	/**
 	 * A number for the post post order.
@@ -173,8 +177,6 @@ public class Edge {
 		this.postDominatorSet = new BitSet(edges);
 		this.isApproxExecutedBy = new BitSet(edges);
 		this.approxExecutes = new BitSet(edges);
-		this.dominanceFrontierSet = new BitSet(edges);
-		this.postDominanceFrontierSet = new BitSet(edges);
 		
 		this.bond = new BitSet(edges);
 	}
@@ -24,7 +24,7 @@ import java.util.Collections;
 import java.util.List;
 
 
-import de.jena.uni.mojo.Mojo;
+import de.jena.uni.mojo.MojoConfig;
 import de.jena.uni.mojo.analysis.Analysis;
 import de.jena.uni.mojo.analysis.information.AnalysisInformation;
 import de.jena.uni.mojo.error.Annotation;
@@ -76,6 +76,24 @@ public class EdgeAnalysis extends Analysis {
 		super(graph, map, reporter);
 	}
 
+	/**
+	 * The constructor creates a new edge analysis with the configuration of
+	 * the verification run.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param map
+	 *            The array node map.
+	 * @param reporter
+	 *            The analysis information.
+	 * @param config
+	 *            The configuration.
+	 */
+	public EdgeAnalysis(WorkflowGraph graph, WGNode[] map,
+			AnalysisInformation reporter, MojoConfig config) {
+		super(graph, map, reporter, config);
+	}
+
 	@Override
 	protected List<Annotation> analyze() {
 		if (!graph.isClosed()) {
@@ -109,6 +127,7 @@ public class EdgeAnalysis extends Analysis {
 		}
 
 		// Create
+		boolean verbose = config.isVerbose();
 		int counter = 0;
 		for (WGNode src : graph.getNodeListInclusive()) {
 			for (WGNode tgt : src.getSuccessors()) {
@@ -116,7 +135,7 @@ public class EdgeAnalysis extends Analysis {
 				outgoing[src.getId()].set(e.id);
 				incoming[tgt.getId()].set(e.id);
 				edges.add(e);
-				if (Mojo.getCommand("VERBOSE").asBooleanValue())
+				if (verbose)
 					System.out.println("Created " + e);
 			}
 		}
@@ -84,7 +84,7 @@ public class ExecutionEdgeAnalysis extends Analysis {
 	 */
 	public ExecutionEdgeAnalysis(WorkflowGraph graph, WGNode[] map, AnalysisInformation reporter,
 			PostDominatorEdgeAnalysis edgeAnalysis) {
-		super(graph, map, reporter);
+		super(graph, map, reporter, edgeAnalysis.getConfig());
 		this.edges = edgeAnalysis.edges;
 		this.incoming = edgeAnalysis.incoming;
 		this.outgoing = edgeAnalysis.outgoing;
@@ -181,6 +181,8 @@ public class ExecutionEdgeAnalysis extends Analysis {
 
 					allowed = visited;
 
+					// Check the budget after each iteration
+					checkBudget(edgesVisited);
 				} while (!stable);
 
 				// The allowed nodes are those, who are appr. exec. edges
@@ -24,6 +24,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Stack;
 
+import de.jena.uni.mojo.MojoConfig;
 import de.jena.uni.mojo.analysis.Analysis;
 import de.jena.uni.mojo.analysis.information.AnalysisInformation;
 import de.jena.uni.mojo.error.Annotation;
@@ -96,7 +97,24 @@ public class StrongComponentsAnalysis extends Analysis {
 	 */
 	public StrongComponentsAnalysis(WorkflowGraph graph, WGNode[] map,
 			AnalysisInformation reporter) {
-		super(graph, map, reporter);
+		this(graph, map, reporter, MojoConfig.DEFAULT);
+	}
+
+	/**
+	 * The constructor.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param map
+	 *            The array node map.
+	 * @param reporter
+	 *            The analysis information.
+	 * @param config
+	 *            The configuration.
+	 */
+	public StrongComponentsAnalysis(WorkflowGraph graph, WGNode[] map,
+			AnalysisInformation reporter, MojoConfig config) {
+		super(graph, map, reporter, config);
 		this.edges = graph.getEdges();
 		this.outgoing = graph.getOutgoingEdges();
 	}
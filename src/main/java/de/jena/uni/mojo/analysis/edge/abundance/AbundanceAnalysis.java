@@ -99,6 +99,11 @@ public class AbundanceAnalysis extends Analysis {
 	 */
 	private final BitSet[] meetingPoints;
 
+	/**
+	 * The dominator edge analysis which determines the dominance frontiers.
+	 */
+	private final DominatorEdgeAnalysis dominatorAnalysis;
+
 	/**
 	 * The constructor of the abundance analysis.
 	 * 
@@ -122,7 +127,7 @@ public class AbundanceAnalysis extends Analysis {
 			DominatorEdgeAnalysis edgeAnalysis,
 			StrongComponentsAnalysis strongAnalysis, 
 			ExecutionEdgeAnalysis executionEdgeAnalysis) {
-		super(graph, map, reporter);
+		super(graph, map, reporter, edgeAnalysis.getConfig());
 		this.edges = edgeAnalysis.edges;
 		this.incoming = edgeAnalysis.incoming;
 		this.outgoing = edgeAnalysis.outgoing;
@@ -136,6 +141,7 @@ public class AbundanceAnalysis extends Analysis {
 			this.meetingPoints[orfork.getId()] = new BitSet(edges.size());
 		}
 		this.cyclic = strongAnalysis.isCyclic();
+		this.dominatorAnalysis = edgeAnalysis;
 	}
 
 	@Override
@@ -157,7 +163,7 @@ public class AbundanceAnalysis extends Analysis {
 				
 		// Step 3:
 		// Build the network graph
-		NetworkGraph network = new NetworkGraph(graph, map, this.reporter);
+		NetworkGraph network = new NetworkGraph(graph, map, this.reporter, config);
 		// For each fork initialize it
 		final List<WGNode> forks = new ArrayList<WGNode>(graph.getForkList());
 		forks.addAll(graph.getOrForkList());
@@ -174,6 +180,7 @@ public class AbundanceAnalysis extends Analysis {
 			for (int m = meetPoints.nextSetBit(0); m >= 0; m = meetPoints.nextSetBit(m + 1)) {
 
 				edgesVisited++;
+				checkBudget(edgesVisited);
 
 				Edge meetingPoint = edges.get(m);
 				if (meetingPoint.src.getType() == Type.JOIN ||
@@ -207,7 +214,7 @@ public class AbundanceAnalysis extends Analysis {
 				} else {
 					// This is a synchronization point
 					WGNode src = meetingPoint.src;
-					reporter.startIgnoreTimeMeasurement(graph, this.getClass().getName());
+					reporter.startIgnoreTimeMeasurement(graph, this.getClass());
 					// Define a new abundance annotation
 					AbundanceAnnotation annotation;
 					if (src.getType() == Type.FORK || 
@@ -242,7 +249,7 @@ public class AbundanceAnalysis extends Analysis {
 								1);
 					}
 					errors.add(annotation);
-					reporter.endIgnoreTimeMeasurement(graph, this.getClass().getName());
+					reporter.endIgnoreTimeMeasurement(graph, this.getClass());
 				}
 			}
 		}
@@ -299,6 +306,7 @@ public class AbundanceAnalysis extends Analysis {
 			while (!defineEdges.isEmpty()) {
 				// An edge is visited
 				edgesVisited++;
+				checkBudget(edgesVisited);
 
 				int next = defineEdges.nextSetBit(0);
 				defineEdges.clear(next);
@@ -321,7 +329,8 @@ public class AbundanceAnalysis extends Analysis {
 					}
 				}
 
-				for (int s = n.dominanceFrontierSet.nextSetBit(0); s >= 0; s = n.dominanceFrontierSet
+				BitSet frontier = dominatorAnalysis.getDominanceFrontier(n);
+				for (int s = frontier.nextSetBit(0); s >= 0; s = frontier
 						.nextSetBit(s + 1)) {
 					// An edge is visited
 					edgesVisited++;
@@ -24,6 +24,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
+import de.jena.uni.mojo.MojoConfig;
 import de.jena.uni.mojo.analysis.Analysis;
 import de.jena.uni.mojo.analysis.edge.Edge;
 import de.jena.uni.mojo.analysis.information.AnalysisInformation;
@@ -143,7 +144,24 @@ public class NetworkGraph extends Analysis {
 	 *            The information for analysis.
 	 */
 	public NetworkGraph(WorkflowGraph graph, WGNode[] nodeMap, AnalysisInformation information) {
-		super(graph, nodeMap, information);
+		this(graph, nodeMap, information, MojoConfig.DEFAULT);
+	}
+
+	/**
+	 * The constructor.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param nodeMap
+	 *            The map of nodes.
+	 * @param information
+	 *            The information for analysis.
+	 * @param config
+	 *            The configuration.
+	 */
+	public NetworkGraph(WorkflowGraph graph, WGNode[] nodeMap,
+			AnalysisInformation information, MojoConfig config) {
+		super(graph, nodeMap, information, config);
 		this.edges = new NetworkEdge[graph.getEdges().size()];
 		this.replaced = new BitSet(this.edges.length);
 
@@ -390,6 +408,9 @@ public class NetworkGraph extends Analysis {
 		List<BitSet> paths = new ArrayList<BitSet>();
 		BitSet path;
 		do {
+			// Check the budget before each new path
+			checkBudget(visitedEdges);
+
 			// Determine a new path.
 			path = determinePath();
 			if (path != null) {
@@ -123,7 +123,7 @@ public class DeadlockAnalysis extends Analysis {
 	public DeadlockAnalysis(WorkflowGraph graph, WGNode[] map, AnalysisInformation reporter,
 							PostDominatorEdgeAnalysis edgeAnalysis, ExecutionEdgeAnalysis executionEdgeAnalysis,
 							boolean cyclic) {
-		super(graph, map, reporter);
+		super(graph, map, reporter, edgeAnalysis.getConfig());
 		this.edgeAnalysis = edgeAnalysis;
 		this.edges = edgeAnalysis.edges;
 		this.incoming = edgeAnalysis.incoming;
@@ -157,7 +157,7 @@ public class DeadlockAnalysis extends Analysis {
 			// An edge is visited
 			edgesVisited++;
 
-			reporter.startIgnoreTimeMeasurement(graph, this.getClass().getName());
+			reporter.startIgnoreTimeMeasurement(graph, this.getClass());
 
 			// There is a "normal" failure without a path from the
 			// start node to the found incoming edge.
@@ -179,7 +179,7 @@ public class DeadlockAnalysis extends Analysis {
 
 			errors.add(annotation);
 			reporter.add(graph, AnalysisInformation.NUMBER_DEADLOCKS_NORMAL, 1);
-			reporter.endIgnoreTimeMeasurement(graph, this.getClass().getName());
+			reporter.endIgnoreTimeMeasurement(graph, this.getClass());
 		}
 
 		// Now check the join nodes
@@ -194,7 +194,7 @@ public class DeadlockAnalysis extends Analysis {
 					edgesVisited++;
 
 					if (outEdge.deadlockInformation.get(in)) {
-						reporter.startIgnoreTimeMeasurement(graph, this.getClass().getName());
+						reporter.startIgnoreTimeMeasurement(graph, this.getClass());
 						// There is a failure, so we have to add a failure
 						// annotation
 						// to the workflow
@@ -207,7 +207,7 @@ public class DeadlockAnalysis extends Analysis {
 
 						errors.add(annotation);
 						reporter.add(graph, AnalysisInformation.NUMBER_DEADLOCKS_LOOP, 1);
-						reporter.endIgnoreTimeMeasurement(graph, this.getClass().getName());
+						reporter.endIgnoreTimeMeasurement(graph, this.getClass());
 					}
 				}
 			}
@@ -433,6 +433,7 @@ public class DeadlockAnalysis extends Analysis {
 		while (!workingList.isEmpty()) {
 			// An edge is visited
 			edgesVisited++;
+			checkBudget(edgesVisited);
 
 			in.clear();
 			subset.clear();
@@ -18,12 +18,14 @@
  */
 package de.jena.uni.mojo.analysis.edge.dominance;
 
+import java.util.ArrayDeque;
 import java.util.BitSet;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
 
+import de.jena.uni.mojo.MojoConfig;
 import de.jena.uni.mojo.analysis.Analysis;
 import de.jena.uni.mojo.analysis.edge.Edge;
 import de.jena.uni.mojo.analysis.information.AnalysisInformation;
@@ -80,6 +82,18 @@ public class DominatorEdgeAnalysis extends Analysis {
 	 */
 	private int edgesVisited = 0;
 
+	/**
+	 * The children of the edges within the dominator tree. The children of
+	 * the edge with id i are stored in {@link #children} from position
+	 * childStart[i] to childStart[i + 1] (exclusive).
+	 */
+	private int[] childStart = null;
+
+	/**
+	 * The ids of the children of all edges within the dominator tree.
+	 */
+	private int[] children = null;
+
 	/**
 	 * The dominator edge analysis constructor.
 	 * 
@@ -92,7 +106,24 @@ public class DominatorEdgeAnalysis extends Analysis {
 	 */
 	public DominatorEdgeAnalysis(WorkflowGraph graph, WGNode[] map,
 			AnalysisInformation reporter) {
-		super(graph, map, reporter);
+		this(graph, map, reporter, MojoConfig.DEFAULT);
+	}
+
+	/**
+	 * The dominator edge analysis constructor.
+	 * 
+	 * @param graph
+	 *            The workflow graph for which the dominators are determined.
+	 * @param map
+	 *            The node array map.
+	 * @param reporter
+	 *            The analysis information reporter.
+	 * @param config
+	 *            The configuration.
+	 */
+	public DominatorEdgeAnalysis(WorkflowGraph graph, WGNode[] map,
+			AnalysisInformation reporter, MojoConfig config) {
+		super(graph, map, reporter, config);
 		this.edges = graph.getEdges();
 		this.incoming = graph.getIncomingEdges();
 		this.outgoing = graph.getOutgoingEdges();
@@ -117,10 +148,8 @@ public class DominatorEdgeAnalysis extends Analysis {
 		//
 		allDominatorsAnalysis();
 
-		//
-		// Step 4: Determine the dominace frontier of each edge.
-		//
-		dominanceFrontierAnalysis();
+		// The dominance frontiers are determined on demand (see
+		// getDominanceFrontier).
 
 		// Put some information into the reporter about the number of
 		// visited edges.
@@ -179,6 +208,9 @@ public class DominatorEdgeAnalysis extends Analysis {
 					}
 				}
 			}
+
+			// Check the budget after each iteration
+			checkBudget(edgesVisited);
 		} while (!stable);
 	}
 
@@ -210,35 +242,6 @@ public class DominatorEdgeAnalysis extends Analysis {
 		return finger1;
 	}
 
-	/**
-	 * Perform the dominance frontier analysis.
-	 */
-	private void dominanceFrontierAnalysis() {
-		BitSet in = new BitSet(edges.size());
-		for (Edge e : edges) {
-			// A edge is visited
-			edgesVisited++;
-
-			in.clear();
-			in.or(incoming[e.src.getId()]);
-			if (in.cardinality() >= 2) {
-				for (int i = in.nextSetBit(0); i >= 0; i = in.nextSetBit(i + 1)) {
-					// A edge is visited
-					edgesVisited++;
-
-					Edge runner = edges.get(i);
-					while (runner.id != e.dominatorList.getLast().id) {
-						// A edge is visited
-						edgesVisited++;
-
-						runner.dominanceFrontierSet.set(e.id);
-						runner = runner.dominatorList.getLast();
-					}
-				}
-			}
-		}
-	}
-
 	/**
 	 * In reverse post order, determine all dominators of each edge.
 	 */
@@ -317,4 +320,106 @@ public class DominatorEdgeAnalysis extends Analysis {
 		e.postOrderNumber = reversePostOrder.size();
 		reversePostOrder.addFirst(e);
 	}
+
+	/**
+	 * Returns the dominance frontier of the given edge. The dominance
+	 * frontiers are not determined during the analysis but on demand,
+	 * bottom-up along the dominator tree as described in
+	 * 
+	 * Cytron, Ron and Ferrante, Jeanne and Rosen, Barry K. and Wegman, Mark N.
+	 * and Zadeck, F. Kenneth: Efficiently Computing Static Single Assignment
+	 * Form and the Control Dependence Graph. ACM TOPLAS 13(4), 1991
+	 * 
+	 * Only the dominance frontiers of the edge and the edges it
+	 * dominates are computed. They are stored within the edges so that
+	 * each dominance frontier is computed at most once. This method is
+	 * not thread safe and must not be called before the analysis is
+	 * finished.
+	 * 
+	 * @param edge
+	 *            The edge.
+	 * @return The dominance frontier of the edge as a set.
+	 */
+	public BitSet getDominanceFrontier(Edge edge) {
+		if (edge.dominanceFrontierSet != null)
+			return edge.dominanceFrontierSet;
+
+		if (childStart == null)
+			buildTree();
+
+		// Determine the frontiers of the children first
+		ArrayDeque<Edge> stack = new ArrayDeque<Edge>();
+		stack.push(edge);
+		while (!stack.isEmpty()) {
+			Edge x = stack.peek();
+			boolean ready = true;
+			for (int c = childStart[x.id]; c < childStart[x.id + 1]; c++) {
+				Edge z = edges.get(children[c]);
+				if (z.dominanceFrontierSet == null) {
+					stack.push(z);
+					ready = false;
+				}
+			}
+			if (ready) {
+				stack.pop();
+				x.dominanceFrontierSet = frontier(x);
+			}
+		}
+
+		return edge.dominanceFrontierSet;
+	}
+
+	/**
+	 * Determines the dominance frontier of the given edge from the
+	 * dominance frontiers of its children within the dominator tree.
+	 * 
+	 * @param x
+	 *            The edge.
+	 * @return The dominance frontier of the edge.
+	 */
+	private BitSet frontier(Edge x) {
+		BitSet frontier = new BitSet(edges.size());
+
+		// Local: each successor which is not immediately dominated by x
+		BitSet local = outgoing[x.tgt.getId()];
+		for (int y = local.nextSetBit(0); y >= 0; y = local.nextSetBit(y + 1)) {
+			if (edges.get(y).dominatorList.getLast() != x)
+				frontier.set(y);
+		}
+
+		// Up: each edge of the children's frontiers which is not immediately
+		// dominated by x
+		for (int c = childStart[x.id]; c < childStart[x.id + 1]; c++) {
+			BitSet up = edges.get(children[c]).dominanceFrontierSet;
+			for (int y = up.nextSetBit(0); y >= 0; y = up.nextSetBit(y + 1)) {
+				if (edges.get(y).dominatorList.getLast() != x)
+					frontier.set(y);
+			}
+		}
+
+		return frontier;
+	}
+
+	/**
+	 * Builds the dominator tree from the immediate dominators.
+	 */
+	private void buildTree() {
+		int[] start = new int[edges.size() + 2];
+		for (Edge e : edges) {
+			if (!e.dominatorList.isEmpty() && e.dominatorList.getLast() != e)
+				start[e.dominatorList.getLast().id + 2]++;
+		}
+		for (int i = 2; i < start.length; i++) {
+			start[i] += start[i - 1];
+		}
+
+		int[] tree = new int[start[start.length - 1]];
+		for (Edge e : edges) {
+			if (!e.dominatorList.isEmpty() && e.dominatorList.getLast() != e)
+				tree[start[e.dominatorList.getLast().id + 1]++] = e.id;
+		}
+
+		this.children = tree;
+		this.childStart = start;
+	}
 }
\ No newline at end of file
@@ -18,12 +18,14 @@
  */
 package de.jena.uni.mojo.analysis.edge.dominance;
 
+import java.util.ArrayDeque;
 import java.util.BitSet;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
 
+import de.jena.uni.mojo.MojoConfig;
 import de.jena.uni.mojo.analysis.Analysis;
 import de.jena.uni.mojo.analysis.edge.Edge;
 import de.jena.uni.mojo.analysis.information.AnalysisInformation;
@@ -80,6 +82,18 @@ public class PostDominatorEdgeAnalysis extends Analysis {
 	 */
 	private int edgesVisited = 0;
 
+	/**
+	 * The children of the edges within the post dominator tree. The children of
+	 * the edge with id i are stored in {@link #children} from position
+	 * childStart[i] to childStart[i + 1] (exclusive).
+	 */
+	private int[] childStart = null;
+
+	/**
+	 * The ids of the children of all edges within the post dominator tree.
+	 */
+	private int[] children = null;
+
 	/**
 	 * The constructor of the post dominator edge analysis.
 	 * 
@@ -92,7 +106,24 @@ public class PostDominatorEdgeAnalysis extends Analysis {
 	 */
 	public PostDominatorEdgeAnalysis(WorkflowGraph graph, WGNode[] map,
 			AnalysisInformation reporter) {
-		super(graph, map, reporter);
+		this(graph, map, reporter, MojoConfig.DEFAULT);
+	}
+
+	/**
+	 * The constructor of the post dominator edge analysis.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param map
+	 *            The node map array.
+	 * @param reporter
+	 *            The analysis information reporter.
+	 * @param config
+	 *            The configuration.
+	 */
+	public PostDominatorEdgeAnalysis(WorkflowGraph graph, WGNode[] map,
+			AnalysisInformation reporter, MojoConfig config) {
+		super(graph, map, reporter, config);
 		this.edges = graph.getEdges();
 		this.incoming = graph.getIncomingEdges();
 		this.outgoing = graph.getOutgoingEdges();
@@ -106,7 +137,8 @@ public class PostDominatorEdgeAnalysis extends Analysis {
 		postDominanceAnalysis();
 		allPostDominatorsAnalysis();
 
-		postDominanceFrontierAnalysis();
+		// The post dominance frontiers are determined on demand (see
+		// getPostDominanceFrontier).
 
 		reporter.put(graph, POSTDOMEDGE_NUMBER_VISITED_EDGES, edgesVisited);
 
@@ -162,6 +194,9 @@ public class PostDominatorEdgeAnalysis extends Analysis {
 					}
 				}
 			}
+
+			// Check the budget after each iteration
+			checkBudget(edgesVisited);
 		} while (!stable);
 	}
 
@@ -196,36 +231,6 @@ public class PostDominatorEdgeAnalysis extends Analysis {
 		return finger1;
 	}
 
-	/**
-	 * Performs the post dominance frontier analysis.
-	 */
-	private void postDominanceFrontierAnalysis() {
-		BitSet out = new BitSet(edges.size());
-		for (Edge e : edges) {
-			// An edge is visited
-			edgesVisited++;
-
-			out.clear();
-			out.or(outgoing[e.tgt.getId()]);
-			if (out.cardinality() >= 2) {
-				for (int i = out.nextSetBit(0); i >= 0; i = out
-						.nextSetBit(i + 1)) {
-					// An edge is visited
-					edgesVisited++;
-
-					Edge runner = edges.get(i);
-					while (runner.id != e.postDominatorList.getLast().id) {
-						// An edge is visited
-						edgesVisited++;
-
-						runner.postDominanceFrontierSet.set(e.id);
-						runner = runner.postDominatorList.getLast();
-					}
-				}
-			}
-		}
-	}
-
 	/**
 	 * In post reverse post order, determine all post dominators of each edge.
 	 */
@@ -305,4 +310,106 @@ public class PostDominatorEdgeAnalysis extends Analysis {
 		e.postPostOrderNumber = postReversePostOrder.size();
 		postReversePostOrder.addFirst(e);
 	}
+
+	/**
+	 * Returns the post dominance frontier of the given edge. The post dominance
+	 * frontiers are not determined during the analysis but on demand,
+	 * bottom-up along the post dominator tree as described in
+	 * 
+	 * Cytron, Ron and Ferrante, Jeanne and Rosen, Barry K. and Wegman, Mark N.
+	 * and Zadeck, F. Kenneth: Efficiently Computing Static Single Assignment
+	 * Form and the Control Dependence Graph. ACM TOPLAS 13(4), 1991
+	 * 
+	 * Only the post dominance frontiers of the edge and the edges it
+	 * post dominates are computed. They are stored within the edges so that
+	 * each post dominance frontier is computed at most once. This method is
+	 * not thread safe and must not be called before the analysis is
+	 * finished.
+	 * 
+	 * @param edge
+	 *            The edge.
+	 * @return The post dominance frontier of the edge as a set.
+	 */
+	public BitSet getPostDominanceFrontier(Edge edge) {
+		if (edge.postDominanceFrontierSet != null)
+			return edge.postDominanceFrontierSet;
+
+		if (childStart == null)
+			buildTree();
+
+		// Determine the frontiers of the children first
+		ArrayDeque<Edge> stack = new ArrayDeque<Edge>();
+		stack.push(edge);
+		while (!stack.isEmpty()) {
+			Edge x = stack.peek();
+			boolean ready = true;
+			for (int c = childStart[x.id]; c < childStart[x.id + 1]; c++) {
+				Edge z = edges.get(children[c]);
+				if (z.postDominanceFrontierSet == null) {
+					stack.push(z);
+					ready = false;
+				}
+			}
+			if (ready) {
+				stack.pop();
+				x.postDominanceFrontierSet = frontier(x);
+			}
+		}
+
+		return edge.postDominanceFrontierSet;
+	}
+
+	/**
+	 * Determines the post dominance frontier of the given edge from the
+	 * post dominance frontiers of its children within the post dominator tree.
+	 * 
+	 * @param x
+	 *            The edge.
+	 * @return The post dominance frontier of the edge.
+	 */
+	private BitSet frontier(Edge x) {
+		BitSet frontier = new BitSet(edges.size());
+
+		// Local: each predecessor which is not immediately post dominated by x
+		BitSet local = incoming[x.src.getId()];
+		for (int y = local.nextSetBit(0); y >= 0; y = local.nextSetBit(y + 1)) {
+			if (edges.get(y).postDominatorList.getLast() != x)
+				frontier.set(y);
+		}
+
+		// Up: each edge of the children's frontiers which is not immediately
+		// post dominated by x
+		for (int c = childStart[x.id]; c < childStart[x.id + 1]; c++) {
+			BitSet up = edges.get(children[c]).postDominanceFrontierSet;
+			for (int y = up.nextSetBit(0); y >= 0; y = up.nextSetBit(y + 1)) {
+				if (edges.get(y).postDominatorList.getLast() != x)
+					frontier.set(y);
+			}
+		}
+
+		return frontier;
+	}
+
+	/**
+	 * Builds the post dominator tree from the immediate post dominators.
+	 */
+	private void buildTree() {
+		int[] start = new int[edges.size() + 2];
+		for (Edge e : edges) {
+			if (!e.postDominatorList.isEmpty() && e.postDominatorList.getLast() != e)
+				start[e.postDominatorList.getLast().id + 2]++;
+		}
+		for (int i = 2; i < start.length; i++) {
+			start[i] += start[i - 1];
+		}
+
+		int[] tree = new int[start[start.length - 1]];
+		for (Edge e : edges) {
+			if (!e.postDominatorList.isEmpty() && e.postDominatorList.getLast() != e)
+				tree[start[e.postDominatorList.getLast().id + 1]++] = e.id;
+		}
+
+		this.children = tree;
+		this.childStart = start;
+	}
 }
\ No newline at end of file
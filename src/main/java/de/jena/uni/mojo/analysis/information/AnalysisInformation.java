@@ -18,18 +18,22 @@
  */
 package de.jena.uni.mojo.analysis.information;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
+import java.io.StringWriter;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.jena.uni.mojo.model.WorkflowGraph;
 
 /**
- * Measure and store some information about the analysis.
+ * Measure and store some information about the analysis. Information about a
+ * workflow graph which was derived from another one (e.g., by a
+ * transformation) is stored for the original workflow graph.
+ * 
+ * Each workflow graph (and each file) has a {@link MetricRecord} where each
+ * key is a metric with a primitive slot. The methods with metric ids (see
+ * {@link Metrics}) and analysis classes update these slots without any map
+ * lookup of the key and without locks. The methods with string keys are a
+ * view on the same slots.
  * 
  * @author Dipl.-Inf. Thomas M. Prinz
  *
@@ -62,18 +66,77 @@ public class AnalysisInformation {
 	public final static String NUMBER_EDGES								= "NUMBER_EDGES";
 	public final static String NUMBER_VISITED_EDGES_EXECUTION_EDGE		= "NUMBER_VISITED_EDGES_EXECUTION_EDGE";
 	public final static String FILE_NAME								= "FILE_NAME";
+	public final static String ESTIMATED_COST							= "ESTIMATED_COST";
+	public final static String PARALLEL_EXECUTION						= "PARALLEL_EXECUTION";
+	public final static String BUDGET_EXCEEDED							= "BUDGET_EXCEEDED";
+	public final static String STRUCTURAL_HASH							= "STRUCTURAL_HASH";
+	public final static String ISOMORPHIC_REUSE							= "ISOMORPHIC_REUSE";
 
 	/**
-	 * Generate a map for all the information.
+	 * The metric records of the workflow graphs.
 	 */
-	private final Map<WorkflowGraph, Map<String, Object>> information =
-			Collections.synchronizedMap(new HashMap<WorkflowGraph, Map<String, Object>>());
+	private final ConcurrentHashMap<WorkflowGraph, MetricRecord> information = new ConcurrentHashMap<WorkflowGraph, MetricRecord>();
 	
 	/**
-	 * A map for all the information until the workflow graph is not produced
+	 * The metric records of the files until the workflow graph is not produced
+	 * (see {@link #flush(String)}).
+	 */
+	private final ConcurrentHashMap<String, MetricRecord> informationFiles = new ConcurrentHashMap<String, MetricRecord>();
+
+	/**
+	 * The writer which gets the information of each finished workflow graph
+	 * or null if the information is kept.
+	 */
+	private final StatisticsWriter statistics;
+
+	/**
+	 * The constructor of an analysis information container, which keeps the
+	 * information of all workflow graphs.
 	 */
-	private final Map<String, Map<String, Object>> informationFiles =
-			Collections.synchronizedMap(new HashMap<String, Map<String, Object>>());
+	public AnalysisInformation() {
+		this(null);
+	}
+
+	/**
+	 * The constructor of an analysis information container, which hands
+	 * over the information of each finished workflow graph to the given
+	 * writer (see {@link #flush(WorkflowGraph)}) and forgets it.
+	 * @param statistics The writer (null if the information is kept).
+	 */
+	public AnalysisInformation(StatisticsWriter statistics) {
+		this.statistics = statistics;
+	}
+	
+	/**
+	 * Get the metric record of the given workflow graph.
+	 * @param graph The workflow graph.
+	 * @return The metric record.
+	 */
+	public MetricRecord getRecord(WorkflowGraph graph) {
+		WorkflowGraph origin = graph.getOrigin();
+		MetricRecord record = information.get(origin);
+		if (record == null) {
+			record = new MetricRecord();
+			MetricRecord old = information.putIfAbsent(origin, record);
+			if (old != null) record = old;
+		}
+		return record;
+	}
+	
+	/**
+	 * Get the metric record of the given file.
+	 * @param file The file of the workflow graph.
+	 * @return The metric record.
+	 */
+	public MetricRecord getRecord(String file) {
+		MetricRecord record = informationFiles.get(file);
+		if (record == null) {
+			record = new MetricRecord();
+			MetricRecord old = informationFiles.putIfAbsent(file, record);
+			if (old != null) record = old;
+		}
+		return record;
+	}
 	
 	/**
 	 * Store a special information for the given graph. 
@@ -82,12 +145,7 @@ public class AnalysisInformation {
 	 * @param value The information itself.
 	 */
 	public void put(WorkflowGraph graph, String key, Object value) {
-		Map<String, Object> m = information.get(graph);
-		if (m == null) {
-			m = Collections.synchronizedMap(new HashMap<String, Object>());
-			information.put(graph, m);
-		}
-		m.put(key, value);
+		getRecord(graph).put(Metrics.id(key), value);
 	}
 	
 	/**
@@ -97,12 +155,7 @@ public class AnalysisInformation {
 	 * @param value The information itself.
 	 */
 	public void put(String file, String key, Object value) {
-		Map<String, Object> m = informationFiles.get(file);
-		if (m == null) {
-			m = Collections.synchronizedMap(new HashMap<String, Object>());
-			informationFiles.put(file, m);
-		}
-		m.put(key, value);
+		getRecord(file).put(Metrics.id(key), value);
 	}
 	
 	/**
@@ -112,8 +165,8 @@ public class AnalysisInformation {
 	 * @return The information
 	 */
 	public Object get(WorkflowGraph graph, String key) {
-		Map<String, Object> map = information.get(graph);
-		return (map == null ? null : map.get(key));
+		MetricRecord record = information.get(graph.getOrigin());
+		return (record == null ? null : record.get(Metrics.id(key)));
 	}
 	
 	/**
@@ -123,17 +176,92 @@ public class AnalysisInformation {
 	 * @return The information
 	 */
 	public Object get(String file, String key) {
-		Map<String, Object> map = informationFiles.get(file);
-		return (map == null ? null : map.get(key));
+		MetricRecord record = informationFiles.get(file);
+		return (record == null ? null : record.get(Metrics.id(key)));
 	}
 	
 	/**
-	 * Get all information in a map for a given graph.
+	 * Get all information in a map for a given graph. The map is a copy.
 	 * @param graph The workflow graph.
 	 * @return A key-value map of all information.
 	 */
 	public Map<String, Object> getInformation(WorkflowGraph graph) {
-		return information.get(graph);
+		MetricRecord record = information.get(graph.getOrigin());
+		return (record == null ? null : record.toMap());
+	}
+
+	/**
+	 * Removes all information of the given graph, e.g., since its process
+	 * was changed or deleted.
+	 * @param graph The workflow graph.
+	 */
+	public void remove(WorkflowGraph graph) {
+		information.remove(graph.getOrigin());
+	}
+
+	/**
+	 * Signals that the given graph is finished. If there is a statistics
+	 * writer, the information of the graph is written and forgotten, so that
+	 * the graph is not referenced any longer. Otherwise, nothing happens.
+	 * @param graph The workflow graph.
+	 */
+	public void flush(WorkflowGraph graph) {
+		if (statistics == null)
+			return;
+		MetricRecord record = information.remove(graph.getOrigin());
+		if (record != null) {
+			statistics.write(record.toMap());
+		}
+	}
+
+	/**
+	 * Signals that the given file is finished, i.e., all of its workflow
+	 * graphs are flushed. If there is a statistics writer, the information of
+	 * the file (e.g., the times of the reader) is written as an own row and
+	 * forgotten. Otherwise, nothing happens.
+	 * @param file The file of the workflow graphs.
+	 */
+	public void flush(String file) {
+		if (statistics == null)
+			return;
+		MetricRecord record = informationFiles.remove(file);
+		if (record != null) {
+			Map<String, Object> map = record.toMap();
+			if (!map.containsKey(FILE_NAME))
+				map.put(FILE_NAME, file);
+			statistics.write(map);
+		}
+	}
+
+	/**
+	 * Sets a metric of the given graph to a long value.
+	 * @param graph The workflow graph.
+	 * @param metric The id of the metric.
+	 * @param value The value.
+	 */
+	public void set(WorkflowGraph graph, int metric, long value) {
+		getRecord(graph).set(metric, value, MetricRecord.LONG);
+	}
+	
+	/**
+	 * Adds a value atomically to a metric of the given graph.
+	 * @param graph The workflow graph.
+	 * @param metric The id of the metric.
+	 * @param add The value to add.
+	 */
+	public void add(WorkflowGraph graph, int metric, long add) {
+		getRecord(graph).add(metric, add, MetricRecord.LONG);
+	}
+	
+	/**
+	 * Get a metric of the given graph as primitive value.
+	 * @param graph The workflow graph.
+	 * @param metric The id of the metric.
+	 * @return The value or 0 if there is no value.
+	 */
+	public long getLong(WorkflowGraph graph, int metric) {
+		MetricRecord record = information.get(graph.getOrigin());
+		return (record == null ? 0 : record.getLong(metric));
 	}
 	
 	/**
@@ -143,7 +271,17 @@ public class AnalysisInformation {
 	 * @param key The key.
 	 */
 	public void startTimeMeasurement(WorkflowGraph graph, String key) {
-		put(graph, key + TIME_MEASUREMENT, System.nanoTime());
+		getRecord(graph).set(Metrics.id(key + TIME_MEASUREMENT), System.nanoTime(), MetricRecord.LONG);
+	}
+	
+	/**
+	 * A method that starts the time measurement of an analysis class. The
+	 * metric is the same as for the name of the class as key.
+	 * @param graph The workflow graph.
+	 * @param type The analysis class.
+	 */
+	public void startTimeMeasurement(WorkflowGraph graph, Class<?> type) {
+		getRecord(graph).set(Metrics.timeId(type), System.nanoTime(), MetricRecord.LONG);
 	}
 	
 	/**
@@ -153,7 +291,17 @@ public class AnalysisInformation {
 	 * @param key The key.
 	 */
 	public void startTimeMeasurement(String file, String key) {
-		put(file, key + TIME_MEASUREMENT, System.nanoTime());
+		getRecord(file).set(Metrics.id(key + TIME_MEASUREMENT), System.nanoTime(), MetricRecord.LONG);
+	}
+	
+	/**
+	 * A method that starts the time measurement of an analysis class. The
+	 * metric is the same as for the name of the class as key.
+	 * @param file The file of the workflow graph.
+	 * @param type The analysis class.
+	 */
+	public void startTimeMeasurement(String file, Class<?> type) {
+		getRecord(file).set(Metrics.timeId(type), System.nanoTime(), MetricRecord.LONG);
 	}
 
 	/**
@@ -163,8 +311,16 @@ public class AnalysisInformation {
 	 * @param key The key.
 	 */
 	public void endTimeMeasurement(WorkflowGraph graph, String key) {
-		long time = System.nanoTime() - (Long) get(graph, key + TIME_MEASUREMENT);
-		put(graph, key + TIME_MEASUREMENT, time);
+		endTimeMeasurement(getRecord(graph), Metrics.id(key + TIME_MEASUREMENT));
+	}
+	
+	/**
+	 * A method that stops the time measurement of an analysis class.
+	 * @param graph The workflow graph.
+	 * @param type The analysis class.
+	 */
+	public void endTimeMeasurement(WorkflowGraph graph, Class<?> type) {
+		endTimeMeasurement(getRecord(graph), Metrics.timeId(type));
 	}
 	
 	/**
@@ -174,8 +330,27 @@ public class AnalysisInformation {
 	 * @param key The key.
 	 */
 	public void endTimeMeasurement(String file, String key) {
-		long time = System.nanoTime() - (Long) get(file, key + TIME_MEASUREMENT);
-		put(file, key + TIME_MEASUREMENT, time);
+		endTimeMeasurement(getRecord(file), Metrics.id(key + TIME_MEASUREMENT));
+	}
+	
+	/**
+	 * A method that stops the time measurement of an analysis class.
+	 * @param file The file of the workflow graph.
+	 * @param type The analysis class.
+	 */
+	public void endTimeMeasurement(String file, Class<?> type) {
+		endTimeMeasurement(getRecord(file), Metrics.timeId(type));
+	}
+	
+	/**
+	 * Stops a time measurement within the given record.
+	 * @param record The metric record.
+	 * @param metric The id of the time measurement.
+	 */
+	private void endTimeMeasurement(MetricRecord record, int metric) {
+		if (record.kind(metric) == MetricRecord.NONE)
+			throw new NullPointerException();
+		record.set(metric, System.nanoTime() - record.getLong(metric), MetricRecord.LONG);
 	}
 	
 	/**
@@ -185,7 +360,16 @@ public class AnalysisInformation {
 	 * @param key The key.
 	 */
 	public void startIgnoreTimeMeasurement(WorkflowGraph graph, String key) {
-		put(graph, key + IGNORE_LAST, System.nanoTime());
+		getRecord(graph).set(Metrics.id(key + IGNORE_LAST), System.nanoTime(), MetricRecord.LONG);
+	}
+	
+	/**
+	 * A method that starts a time ignore measurement of an analysis class.
+	 * @param graph The workflow graph.
+	 * @param type The analysis class.
+	 */
+	public void startIgnoreTimeMeasurement(WorkflowGraph graph, Class<?> type) {
+		getRecord(graph).set(Metrics.ignoreLastId(type), System.nanoTime(), MetricRecord.LONG);
 	}
 	
 	/**
@@ -195,7 +379,7 @@ public class AnalysisInformation {
 	 * @param key The key.
 	 */
 	public void startIgnoreTimeMeasurement(String file, String key) {
-		put(file, key + IGNORE_LAST, System.nanoTime());
+		getRecord(file).set(Metrics.id(key + IGNORE_LAST), System.nanoTime(), MetricRecord.LONG);
 	}
 
 	/**
@@ -205,10 +389,16 @@ public class AnalysisInformation {
 	 * @param key The key.
 	 */
 	public void endIgnoreTimeMeasurement(WorkflowGraph graph, String key) {
-		long time = System.nanoTime() - (Long) get(graph, key + IGNORE_LAST);
-		put(graph, key + IGNORE_LAST, time);
-		Object complete = get(graph, key + IGNORE_COMPLETE);
-		put(graph, key + IGNORE_COMPLETE, (complete != null ? (Long) complete : 0) + time);
+		endIgnoreTimeMeasurement(getRecord(graph), Metrics.id(key + IGNORE_LAST), Metrics.id(key + IGNORE_COMPLETE));
+	}
+	
+	/**
+	 * A method that stops a time ignore measurement of an analysis class.
+	 * @param graph The workflow graph.
+	 * @param type The analysis class.
+	 */
+	public void endIgnoreTimeMeasurement(WorkflowGraph graph, Class<?> type) {
+		endIgnoreTimeMeasurement(getRecord(graph), Metrics.ignoreLastId(type), Metrics.ignoreCompleteId(type));
 	}
 	
 	/**
@@ -218,61 +408,45 @@ public class AnalysisInformation {
 	 * @param key The key.
 	 */
 	public void endIgnoreTimeMeasurement(String file, String key) {
-		long time = System.nanoTime() - (Long) get(file, key + IGNORE_LAST);
-		put(file, key + IGNORE_LAST, time);
-		Object complete = get(file, key + IGNORE_COMPLETE);
-		put(file, key + IGNORE_COMPLETE, (complete != null ? (Long) complete : 0) + time);
+		endIgnoreTimeMeasurement(getRecord(file), Metrics.id(key + IGNORE_LAST), Metrics.id(key + IGNORE_COMPLETE));
+	}
+	
+	/**
+	 * Stops a time ignore measurement within the given record.
+	 * @param record The metric record.
+	 * @param last The id of the last ignored time.
+	 * @param complete The id of the complete ignored time.
+	 */
+	private void endIgnoreTimeMeasurement(MetricRecord record, int last, int complete) {
+		if (record.kind(last) == MetricRecord.NONE)
+			throw new NullPointerException();
+		long time = System.nanoTime() - record.getLong(last);
+		record.set(last, time, MetricRecord.LONG);
+		record.add(complete, time, MetricRecord.LONG);
 	}
 	
 	/**
-	 * A special method that adds a value to an entry.
+	 * A special method that adds a value to an entry. The addition is atomic.
 	 * @param graph The workflow graph.
 	 * @param key The key.
 	 * @param add The value to add.
 	 */
 	public void add(WorkflowGraph graph, String key, int add) {
-		Object val = get(graph,key);
-		int oldVal;
-		if (val == null) {
-			oldVal = 0;
-		} else {
-			oldVal = (Integer) val;
-		}
-		put(graph,key,oldVal + add);
+		getRecord(graph).add(Metrics.id(key), add, MetricRecord.INT);
 	}
 	
 	/**
-	 * Returns all information within a string CVS like format.
+	 * Returns all information within a string CVS like format. The columns
+	 * are fixed (see {@link StatisticsWriter}).
 	 * @return All information within a string CVS like format.
 	 */
 	public String export() {
-		// Determine all important keys
-		Set<String> keys = new HashSet<String>();
-		for (WorkflowGraph g: information.keySet()) {
-			keys.addAll(information.get(g).keySet());
-		}
-		
-		StringBuilder builder = new StringBuilder();
-		
-		List<String> keyList = new ArrayList<String>(keys);
-		
-		// Generate the header
-		for (String k: keyList) {
-			builder.append(k + ";");
-		}
-		builder.append("\n");
-		
-		// Put the information into the map
-		for (WorkflowGraph g: information.keySet()) {
-			Map<String, Object> map = information.get(g);
-			
-			for (String k: keyList) {
-				builder.append((map.get(k) == null ? "" : map.get(k)) + ";");
-			}
-			builder.append("\n");
+		StringWriter out = new StringWriter();
+		StatisticsWriter writer = new StatisticsWriter(out);
+		for (MetricRecord record: information.values()) {
+			writer.write(record.toMap());
 		}
-		
-		return builder.toString();		
+		return out.toString();
 	}
 	
 }
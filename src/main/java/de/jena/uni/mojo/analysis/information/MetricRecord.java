@@ -0,0 +1,330 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ *
+ * This file is part of mojo.
+ *
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.analysis.information;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The metrics of a single workflow graph (or file). Each metric has a
+ * primitive long slot, which is addressed by the id of the metric (see
+ * {@link Metrics}). The slots are updated without locks. Furthermore, each
+ * slot remembers whether its value was stored as int or as long, so that the
+ * boxed view returns the same types as before. Values which are not numbers
+ * are stored in a separate map.
+ * 
+ * The slots are organized in chunks, which are created on demand.
+ * 
+ * Each slot has a stamp which consists of its kind, a busy flag and a
+ * version. A writer (see {@link #set}) marks the slot as busy, stores the
+ * value and then publishes the new kind together with the next version, so
+ * that a reader (see {@link #get}) which sees the same stamp before and after
+ * reading the value has a matching pair of value and kind. Otherwise it
+ * reads again (a sequence lock per slot). Writers of the same chunk are
+ * serialized; the atomic addition of counters is not.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public final class MetricRecord {
+
+	/**
+	 * The kind of an empty slot.
+	 */
+	public final static int NONE = 0;
+
+	/**
+	 * The kind of a slot with an int value.
+	 */
+	public final static int INT = 1;
+
+	/**
+	 * The kind of a slot with a long value.
+	 */
+	public final static int LONG = 2;
+
+	/**
+	 * The kind of a slot with an arbitrary object.
+	 */
+	public final static int OBJECT = 3;
+
+	/**
+	 * The number of slots per chunk.
+	 */
+	final static int CHUNK_SIZE = 256;
+
+	/**
+	 * The maximal number of chunks.
+	 */
+	final static int CHUNKS = 256;
+
+	/**
+	 * The bits of a stamp which hold the kind.
+	 */
+	private final static int KIND_MASK = 3;
+
+	/**
+	 * The bit of a stamp which marks a slot as being written.
+	 */
+	private final static int BUSY = 4;
+
+	/**
+	 * The increment of the version of a stamp.
+	 */
+	private final static int VERSION = 8;
+
+	/**
+	 * A chunk of slots.
+	 */
+	private final static class Chunk {
+
+		/**
+		 * The values of the slots.
+		 */
+		private final AtomicLongArray values = new AtomicLongArray(CHUNK_SIZE);
+
+		/**
+		 * The stamps (kind, busy flag and version) of the slots.
+		 */
+		private final AtomicIntegerArray stamps = new AtomicIntegerArray(
+				CHUNK_SIZE);
+	}
+
+	/**
+	 * The chunks.
+	 */
+	private final AtomicReferenceArray<Chunk> chunks = new AtomicReferenceArray<Chunk>(
+			CHUNKS);
+
+	/**
+	 * The values which are not numbers by the ids of their metrics.
+	 */
+	private final Map<Integer, Object> objects = new ConcurrentHashMap<Integer, Object>(
+			4);
+
+	/**
+	 * Get the chunk of the given metric and creates it if necessary.
+	 * 
+	 * @param id
+	 *            The id of the metric.
+	 * @return The chunk.
+	 */
+	private Chunk chunk(int id) {
+		int c = id / CHUNK_SIZE;
+		Chunk chunk = chunks.get(c);
+		if (chunk == null) {
+			chunks.compareAndSet(c, null, new Chunk());
+			chunk = chunks.get(c);
+		}
+		return chunk;
+	}
+
+	/**
+	 * Get the kind of the slot of the given metric.
+	 * 
+	 * @param id
+	 *            The id of the metric.
+	 * @return The kind.
+	 */
+	public int kind(int id) {
+		Chunk chunk = chunks.get(id / CHUNK_SIZE);
+		return chunk == null ? NONE : chunk.stamps.get(id % CHUNK_SIZE)
+				& KIND_MASK;
+	}
+
+	/**
+	 * Get the primitive value of the given metric.
+	 * 
+	 * @param id
+	 *            The id of the metric.
+	 * @return The value or 0 if there is no number.
+	 */
+	public long getLong(int id) {
+		Chunk chunk = chunks.get(id / CHUNK_SIZE);
+		return chunk == null ? 0 : chunk.values.get(id % CHUNK_SIZE);
+	}
+
+	/**
+	 * Sets the primitive value of the given metric.
+	 * 
+	 * @param id
+	 *            The id of the metric.
+	 * @param value
+	 *            The value.
+	 * @param kind
+	 *            The kind of the value ({@link #INT} or {@link #LONG}).
+	 */
+	public void set(int id, long value, int kind) {
+		write(chunk(id), id % CHUNK_SIZE, value, true, kind);
+	}
+
+	/**
+	 * Writes a slot and publishes its new kind together with the value.
+	 * 
+	 * @param chunk
+	 *            The chunk.
+	 * @param slot
+	 *            The position of the slot within the chunk.
+	 * @param value
+	 *            The value.
+	 * @param hasValue
+	 *            Whether the value should be stored (otherwise only the kind
+	 *            changes).
+	 * @param kind
+	 *            The new kind.
+	 */
+	private static void write(Chunk chunk, int slot, long value,
+			boolean hasValue, int kind) {
+		synchronized (chunk) {
+			int stamp = chunk.stamps.get(slot);
+			chunk.stamps.set(slot, stamp | BUSY);
+			if (hasValue) {
+				chunk.values.set(slot, value);
+			}
+			chunk.stamps.set(slot, next(stamp, kind));
+		}
+	}
+
+	/**
+	 * Determines the stamp which follows the given one.
+	 * 
+	 * @param stamp
+	 *            The current stamp.
+	 * @param kind
+	 *            The new kind.
+	 * @return The next stamp (with the next version and without busy flag).
+	 */
+	private static int next(int stamp, int kind) {
+		return ((stamp & ~(BUSY | KIND_MASK)) + VERSION) | kind;
+	}
+
+	/**
+	 * Adds a value atomically to the given metric. An empty slot counts as 0
+	 * and gets the given kind.
+	 * 
+	 * @param id
+	 *            The id of the metric.
+	 * @param delta
+	 *            The value to add.
+	 * @param kind
+	 *            The kind of an empty slot.
+	 * @return The new value.
+	 */
+	public long add(int id, long delta, int kind) {
+		Chunk chunk = chunk(id);
+		int slot = id % CHUNK_SIZE;
+		long value = chunk.values.addAndGet(slot, delta);
+		if ((chunk.stamps.get(slot) & KIND_MASK) == NONE) {
+			synchronized (chunk) {
+				int stamp = chunk.stamps.get(slot);
+				if ((stamp & KIND_MASK) == NONE)
+					chunk.stamps.set(slot, next(stamp, kind));
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Stores a value. Integers and longs are stored within the primitive
+	 * slot.
+	 * 
+	 * @param id
+	 *            The id of the metric.
+	 * @param value
+	 *            The value.
+	 */
+	public void put(int id, Object value) {
+		if (value instanceof Integer) {
+			set(id, (Integer) value, INT);
+		} else if (value instanceof Long) {
+			set(id, (Long) value, LONG);
+		} else if (value == null) {
+			// An empty slot needs no chunk
+			objects.remove(id);
+			Chunk chunk = chunks.get(id / CHUNK_SIZE);
+			if (chunk != null) {
+				write(chunk, id % CHUNK_SIZE, 0, false, NONE);
+			}
+		} else {
+			objects.put(id, value);
+			write(chunk(id), id % CHUNK_SIZE, 0, false, OBJECT);
+		}
+	}
+
+	/**
+	 * Get the value of the given metric (boxed).
+	 * 
+	 * @param id
+	 *            The id of the metric.
+	 * @return The value or null.
+	 */
+	public Object get(int id) {
+		Chunk chunk = chunks.get(id / CHUNK_SIZE);
+		if (chunk == null)
+			return null;
+		int slot = id % CHUNK_SIZE;
+		while (true) {
+			int stamp = chunk.stamps.get(slot);
+			if ((stamp & BUSY) != 0) {
+				Thread.yield();
+				continue;
+			}
+			long value = chunk.values.get(slot);
+			if (chunk.stamps.get(slot) != stamp)
+				continue;
+
+			switch (stamp & KIND_MASK) {
+			case INT:
+				return (int) value;
+			case LONG:
+				return value;
+			case OBJECT:
+				return objects.get(id);
+			default:
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Creates a map with all values of this record.
+	 * 
+	 * @return A map from the names of the metrics to their values.
+	 */
+	public Map<String, Object> toMap() {
+		Map<String, Object> map = new HashMap<String, Object>();
+		int size = Metrics.size();
+		for (int c = 0; c * CHUNK_SIZE < size; c++) {
+			if (chunks.get(c) == null)
+				continue;
+			for (int id = c * CHUNK_SIZE; id < Math.min(size, (c + 1)
+					* CHUNK_SIZE); id++) {
+				Object value = get(id);
+				if (value != null) {
+					map.put(Metrics.name(id), value);
+				}
+			}
+		}
+		return map;
+	}
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ *
+ * This file is part of mojo.
+ *
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.analysis.information;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The registry of all metrics. Each metric (i.e., each key of the analysis
+ * information) gets a dense id once, which is used afterwards to access the
+ * primitive slot of the metric within a {@link MetricRecord}. Looking up the
+ * name of an id is lock free.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public final class Metrics {
+
+	/**
+	 * The maximal number of metrics.
+	 */
+	public final static int MAX_METRICS = MetricRecord.CHUNKS
+			* MetricRecord.CHUNK_SIZE;
+
+	/**
+	 * The ids of the metrics by their names.
+	 */
+	private final static ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+
+	/**
+	 * The names of the metrics by their ids.
+	 */
+	private final static AtomicReferenceArray<String> names = new AtomicReferenceArray<String>(
+			MAX_METRICS);
+
+	/**
+	 * The number of registered metrics.
+	 */
+	private static volatile int size = 0;
+
+	/**
+	 * For each analysis class, the ids of its time measurement, its last
+	 * ignored time and its complete ignored time.
+	 */
+	private final static ClassValue<int[]> classIds = new ClassValue<int[]>() {
+		@Override
+		protected int[] computeValue(Class<?> type) {
+			String name = type.getName();
+			return new int[] { id(name + AnalysisInformation.TIME_MEASUREMENT),
+					id(name + AnalysisInformation.IGNORE_LAST),
+					id(name + AnalysisInformation.IGNORE_COMPLETE) };
+		}
+	};
+
+	/**
+	 * There are no instances.
+	 */
+	private Metrics() {
+	}
+
+	/**
+	 * Get the id of the metric with the given name. The metric is registered
+	 * if it is not known yet.
+	 * 
+	 * @param name
+	 *            The name of the metric.
+	 * @return The id of the metric.
+	 * @throws RuntimeException
+	 *             if there are too many metrics.
+	 */
+	public static int id(String name) throws RuntimeException {
+		Integer id = ids.get(name);
+		if (id != null)
+			return id;
+
+		synchronized (ids) {
+			id = ids.get(name);
+			if (id == null) {
+				if (size >= MAX_METRICS)
+					throw new RuntimeException("Too many metrics: " + name);
+				id = size;
+				names.set(id, name);
+				ids.put(name, id);
+				size = id + 1;
+			}
+			return id;
+		}
+	}
+
+	/**
+	 * Get the name of the metric with the given id.
+	 * 
+	 * @param id
+	 *            The id of the metric.
+	 * @return The name of the metric.
+	 */
+	public static String name(int id) {
+		return names.get(id);
+	}
+
+	/**
+	 * Get the number of registered metrics.
+	 * 
+	 * @return The number of metrics.
+	 */
+	public static int size() {
+		return size;
+	}
+
+	/**
+	 * Get the id of the time measurement of the given analysis class.
+	 * 
+	 * @param type
+	 *            The analysis class.
+	 * @return The id of the metric.
+	 */
+	public static int timeId(Class<?> type) {
+		return classIds.get(type)[0];
+	}
+
+	/**
+	 * Get the id of the last ignored time of the given analysis class.
+	 * 
+	 * @param type
+	 *            The analysis class.
+	 * @return The id of the metric.
+	 */
+	public static int ignoreLastId(Class<?> type) {
+		return classIds.get(type)[1];
+	}
+
+	/**
+	 * Get the id of the complete ignored time of the given analysis class.
+	 * 
+	 * @param type
+	 *            The analysis class.
+	 * @return The id of the metric.
+	 */
+	public static int ignoreCompleteId(Class<?> type) {
+		return classIds.get(type)[2];
+	}
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.analysis.information;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import de.jena.uni.mojo.analysis.transformation.SimplenessTransformation;
+
+/**
+ * Writes the statistics of the workflow graphs as csv rows as soon as their
+ * verification is finished (see {@link AnalysisInformation#flush}), so that
+ * neither the statistics nor the workflow graphs have to be kept until the
+ * end of a run.
+ * 
+ * The columns are fixed when the writer is created and the header is written
+ * at once. Each row has a value (or nothing) for each column. Statistics
+ * without column (e.g., the times of single analyses) are collected in the
+ * last column {@value #OTHER} as sorted key=value pairs, so that the columns
+ * do not depend on the order in which the workflow graphs are finished.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class StatisticsWriter implements Closeable {
+
+	/**
+	 * The name of the last column with the remaining statistics.
+	 */
+	public final static String OTHER = "OTHER";
+
+	/**
+	 * The separator of the columns.
+	 */
+	public final static char SEPARATOR = ';';
+
+	/**
+	 * The default columns.
+	 */
+	public final static List<String> DEFAULT_COLUMNS = Collections.unmodifiableList(Arrays.asList(
+			AnalysisInformation.FILE_NAME, "subgraph", "NUMBER_TASKS", "NUMBER_FORKS", "NUMBER_JOINS",
+			"NUMBER_SPLITS", "NUMBER_MERGES", "NUMBER_ORSPLITS", "NUMBER_ORJOINS", AnalysisInformation.NUMBER_EDGES,
+			SimplenessTransformation.NUMBER_PARALLEL_EDGES, AnalysisInformation.NODES_BEFORE_MEASUREMENT_PLAN,
+			AnalysisInformation.NODES_AFTER_MEASUREMENT_PLAN, AnalysisInformation.NUMBER_DEADLOCKS,
+			AnalysisInformation.NUMBER_DEADLOCKS_NORMAL, AnalysisInformation.NUMBER_DEADLOCKS_LOOP,
+			AnalysisInformation.NUMBER_LACK_OF_SYNCHRONIZATION,
+			AnalysisInformation.NUMBER_LACK_OF_SYNCHRONIZATION_NORMAL,
+			AnalysisInformation.NUMBER_LACK_OF_SYNCHRONIZATION_LOOP, AnalysisInformation.ESTIMATED_COST,
+			AnalysisInformation.PARALLEL_EXECUTION, AnalysisInformation.BUDGET_EXCEEDED,
+			"Verifier" + AnalysisInformation.TIME_MEASUREMENT));
+
+	/**
+	 * A writer which writes nothing. With this writer, the statistics of a
+	 * workflow graph are simply dropped when it is finished.
+	 */
+	public final static StatisticsWriter DISCARD = new StatisticsWriter(null, DEFAULT_COLUMNS);
+
+	/**
+	 * The output or null if the rows are dropped.
+	 */
+	private final Writer out;
+
+	/**
+	 * The columns (without {@value #OTHER}).
+	 */
+	private final List<String> columns;
+
+	/**
+	 * The columns as set.
+	 */
+	private final Set<String> columnSet;
+
+	/**
+	 * The number of written rows.
+	 */
+	private long rows = 0;
+
+	/**
+	 * The constructor of a writer with the default columns.
+	 * 
+	 * @param out
+	 *            The output.
+	 */
+	public StatisticsWriter(Writer out) {
+		this(out, DEFAULT_COLUMNS);
+	}
+
+	/**
+	 * The constructor of a writer with the given columns. The header is
+	 * written at once.
+	 * 
+	 * @param out
+	 *            The output (null if the rows are dropped).
+	 * @param columns
+	 *            The columns.
+	 */
+	public StatisticsWriter(Writer out, List<String> columns) {
+		this.out = out;
+		this.columns = new ArrayList<String>(columns);
+		this.columnSet = new HashSet<String>(columns);
+
+		if (out != null) {
+			StringBuilder header = new StringBuilder();
+			for (String column : this.columns) {
+				header.append(column).append(SEPARATOR);
+			}
+			header.append(OTHER).append(SEPARATOR).append('\n');
+			write(header);
+		}
+	}
+
+	/**
+	 * Writes a row.
+	 * 
+	 * @param statistics
+	 *            The statistics of a workflow graph.
+	 */
+	public void write(Map<String, Object> statistics) {
+		if (out == null)
+			return;
+
+		StringBuilder row = new StringBuilder();
+		for (String column : columns) {
+			Object value = statistics.get(column);
+			row.append(value == null ? "" : value).append(SEPARATOR);
+		}
+
+		// The remaining statistics in a fixed order
+		boolean first = true;
+		for (Map.Entry<String, Object> entry : new TreeMap<String, Object>(statistics).entrySet()) {
+			if (!columnSet.contains(entry.getKey()) && entry.getValue() != null) {
+				row.append(first ? "" : "|").append(entry.getKey()).append('=').append(entry.getValue());
+				first = false;
+			}
+		}
+		row.append(SEPARATOR).append('\n');
+		write(row);
+	}
+
+	/**
+	 * Writes the text.
+	 * 
+	 * @param text
+	 *            The text.
+	 */
+	private synchronized void write(CharSequence text) {
+		try {
+			out.append(text);
+			rows++;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Get the number of written rows (including the header).
+	 * 
+	 * @return The number of rows.
+	 */
+	public synchronized long getRows() {
+		return rows;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (out != null)
+			out.close();
+	}
+}
@@ -23,6 +23,7 @@ import java.util.BitSet;
 import java.util.List;
 
 
+import de.jena.uni.mojo.MojoConfig;
 import de.jena.uni.mojo.analysis.Analysis;
 import de.jena.uni.mojo.analysis.edge.Edge;
 import de.jena.uni.mojo.analysis.information.AnalysisInformation;
@@ -75,7 +76,24 @@ public class WaitingAreaAnalysis extends Analysis {
 	 */
 	public WaitingAreaAnalysis(WorkflowGraph graph, WGNode[] map,
 			AnalysisInformation reporter) {
-		super(graph, map, reporter);
+		this(graph, map, reporter, MojoConfig.DEFAULT);
+	}
+
+	/**
+	 * The waiting area analysis constructor.
+	 * 
+	 * @param graph
+	 *            The workflow graph for which the waiting areas are determined.
+	 * @param map
+	 *            The node array map.
+	 * @param reporter
+	 *            The analysis information reporter.
+	 * @param config
+	 *            The configuration.
+	 */
+	public WaitingAreaAnalysis(WorkflowGraph graph, WGNode[] map,
+			AnalysisInformation reporter, MojoConfig config) {
+		super(graph, map, reporter, config);
 		this.edges = graph.getEdges();
 		this.incoming = graph.getIncomingEdges();
 		this.outgoing = graph.getOutgoingEdges();
@@ -88,6 +106,8 @@ public class WaitingAreaAnalysis extends Analysis {
 		// Iterate over each or-join since we want to determine the 
 		// waiting area for each of them
 		for (WGNode orjoin: graph.getOrJoinList()) {
+			// Check the (time) budget
+			checkBudget(0);
 			
 			// Get the set of incoming edges of the or-join (as copy)
 			BitSet in = (BitSet) incoming[orjoin.getId()].clone();
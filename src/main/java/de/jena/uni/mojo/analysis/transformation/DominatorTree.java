@@ -0,0 +1,383 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.analysis.transformation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import de.jena.uni.mojo.model.WGNode;
+
+/**
+ * The dominator (or post-dominator) tree of the nodes of a workflow graph. It
+ * is computed with the iterative algorithm of Cooper, Harvey, and Kennedy.
+ *
+ * The tree can be kept up to date while edges are inserted into or removed
+ * from the workflow graph. For an edge from u to v, only the nodes dominated
+ * by the nearest common ancestor of u and v within the tree can change their
+ * immediate dominators, as long as v is reachable before an insertion and
+ * after a removal. Therefore, only the subtree of this ancestor is computed
+ * again. If this precondition is violated, the whole tree is computed again.
+ *
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public final class DominatorTree {
+
+	/**
+	 * True for dominators, false for post-dominators.
+	 */
+	private final boolean forward;
+
+	/**
+	 * The root (the start or the end node).
+	 */
+	private final WGNode root;
+
+	/**
+	 * The id of the immediate (post-)dominator of each node id. The root has
+	 * itself, unreachable nodes have -1.
+	 */
+	private int[] idom;
+
+	/**
+	 * The depth of each node within the tree (-1 for unreachable nodes).
+	 */
+	private int[] depth;
+
+	/**
+	 * The constructor computes the tree.
+	 *
+	 * @param root
+	 *            The start (or the end) node.
+	 * @param map
+	 *            The node array map of the workflow graph.
+	 * @param forward
+	 *            True for dominators, false for post-dominators.
+	 */
+	public DominatorTree(WGNode root, WGNode[] map, boolean forward) {
+		this.root = root;
+		this.forward = forward;
+		this.idom = new int[0];
+		this.depth = new int[0];
+		recompute(map);
+	}
+
+	/**
+	 * Get the immediate (post-)dominator of a node.
+	 *
+	 * @param id
+	 *            The id of the node.
+	 * @return The id of the immediate (post-)dominator, the id of the root
+	 *         for the root, or -1 if the node is unreachable.
+	 */
+	public int getImmediateDominator(int id) {
+		return id < idom.length ? idom[id] : -1;
+	}
+
+	/**
+	 * Determines whether the node a (post-)dominates the node b.
+	 *
+	 * @param a
+	 *            The id of node a.
+	 * @param b
+	 *            The id of node b.
+	 * @return True or false (false if one of the nodes is unreachable).
+	 */
+	public boolean dominates(int a, int b) {
+		if (getImmediateDominator(a) < 0 || getImmediateDominator(b) < 0)
+			return false;
+		while (depth[b] > depth[a]) {
+			b = idom[b];
+		}
+		return a == b;
+	}
+
+	/**
+	 * Updates the tree after an edge was inserted into the workflow graph.
+	 *
+	 * @param map
+	 *            The node array map of the changed workflow graph.
+	 * @param source
+	 *            The id of the source of the edge.
+	 * @param target
+	 *            The id of the target of the edge.
+	 */
+	public void insertEdge(WGNode[] map, int source, int target) {
+		int from = forward ? source : target;
+		int to = forward ? target : source;
+		ensureCapacity(map.length);
+
+		// Paths over an unreachable node do not exist
+		if (idom[from] < 0)
+			return;
+
+		// The edge makes new nodes reachable
+		if (idom[to] < 0) {
+			recompute(map);
+			return;
+		}
+
+		update(map, nearestCommonAncestor(from, to));
+	}
+
+	/**
+	 * Updates the tree after an edge was removed from the workflow graph.
+	 *
+	 * @param map
+	 *            The node array map of the changed workflow graph.
+	 * @param source
+	 *            The id of the source of the edge.
+	 * @param target
+	 *            The id of the target of the edge.
+	 */
+	public void removeEdge(WGNode[] map, int source, int target) {
+		int from = forward ? source : target;
+		int to = forward ? target : source;
+		ensureCapacity(map.length);
+
+		// The edge was not part of any path
+		if (idom[from] < 0 || idom[to] < 0)
+			return;
+
+		update(map, nearestCommonAncestor(from, to));
+
+		// Nodes outside of the subtree could have become unreachable
+		if (idom[to] < 0) {
+			recompute(map);
+		}
+	}
+
+	/**
+	 * Computes the whole tree again.
+	 *
+	 * @param map
+	 *            The node array map of the workflow graph.
+	 */
+	public void recompute(WGNode[] map) {
+		ensureCapacity(map.length);
+		Arrays.fill(idom, -1);
+		Arrays.fill(depth, -1);
+		idom[root.getId()] = root.getId();
+		depth[root.getId()] = 0;
+		compute(map, root.getId(), null);
+	}
+
+	/**
+	 * Computes the subtree of the given node again. If a node of the subtree
+	 * turns out to be reachable from outside of the subtree, the whole tree
+	 * is computed again.
+	 *
+	 * @param map
+	 *            The node array map of the workflow graph.
+	 * @param top
+	 *            The id of the root of the subtree.
+	 */
+	private void update(WGNode[] map, int top) {
+		if (top == root.getId()) {
+			recompute(map);
+			return;
+		}
+
+		BitSet subtree = subtree(top);
+		for (int i = subtree.nextSetBit(0); i >= 0; i = subtree.nextSetBit(i + 1)) {
+			if (i != top) {
+				idom[i] = -1;
+				depth[i] = -1;
+			}
+		}
+		if (!compute(map, top, subtree)) {
+			recompute(map);
+		}
+	}
+
+	/**
+	 * Computes the immediate dominators of the nodes within the scope which
+	 * are reachable from the given top node.
+	 *
+	 * @param map
+	 *            The node array map of the workflow graph.
+	 * @param top
+	 *            The id of the top node, whose immediate dominator is known.
+	 * @param scope
+	 *            The ids of the nodes which are computed (null for all).
+	 * @return False if a node of the scope has a reachable predecessor
+	 *         outside of the scope.
+	 */
+	private boolean compute(WGNode[] map, int top, BitSet scope) {
+		//
+		// 1. Determine the reverse post order
+		//
+		List<WGNode> order = new ArrayList<WGNode>();
+		int[] number = new int[idom.length];
+		Arrays.fill(number, -1);
+		BitSet visited = new BitSet(idom.length);
+		ArrayDeque<WGNode> nodes = new ArrayDeque<WGNode>();
+		ArrayDeque<Integer> positions = new ArrayDeque<Integer>();
+		visited.set(top);
+		nodes.push(map[top]);
+		positions.push(0);
+		while (!nodes.isEmpty()) {
+			WGNode node = nodes.peek();
+			int position = positions.pop();
+			List<WGNode> next = forward ? node.getSuccessors() : node.getPredecessors();
+			if (position < next.size()) {
+				positions.push(position + 1);
+				WGNode succ = next.get(position);
+				int id = succ.getId();
+				if (!visited.get(id) && (scope == null || scope.get(id))) {
+					visited.set(id);
+					nodes.push(succ);
+					positions.push(0);
+				}
+			} else {
+				nodes.pop();
+				order.add(node);
+			}
+		}
+		Collections.reverse(order);
+		for (int i = 0; i < order.size(); i++) {
+			number[order.get(i).getId()] = i;
+		}
+
+		//
+		// 2. Iterate until the dominators are stable
+		//
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int i = 1; i < order.size(); i++) {
+				WGNode node = order.get(i);
+				int dominator = -1;
+				for (WGNode pred : forward ? node.getPredecessors() : node.getSuccessors()) {
+					int p = pred.getId();
+					if (number[p] < 0) {
+						// A reachable node outside of the scope
+						if (scope != null && !scope.get(p) && idom[p] >= 0)
+							return false;
+						continue;
+					}
+					if (idom[p] < 0)
+						continue;
+					if (dominator < 0) {
+						dominator = p;
+					} else {
+						// Intersect both paths to the top
+						int a = p;
+						int b = dominator;
+						while (a != b) {
+							while (number[a] > number[b])
+								a = idom[a];
+							while (number[b] > number[a])
+								b = idom[b];
+						}
+						dominator = a;
+					}
+				}
+				if (dominator >= 0 && idom[node.getId()] != dominator) {
+					idom[node.getId()] = dominator;
+					changed = true;
+				}
+			}
+		}
+
+		//
+		// 3. Determine the depths (a dominator precedes its nodes)
+		//
+		for (int i = 1; i < order.size(); i++) {
+			int id = order.get(i).getId();
+			depth[id] = depth[idom[id]] + 1;
+		}
+		return true;
+	}
+
+	/**
+	 * Collects the nodes of the subtree of the given node.
+	 *
+	 * @param top
+	 *            The id of the root of the subtree.
+	 * @return The ids of the nodes of the subtree.
+	 */
+	private BitSet subtree(int top) {
+		// The children of each node as linked lists
+		int[] first = new int[idom.length];
+		int[] next = new int[idom.length];
+		Arrays.fill(first, -1);
+		for (int i = 0; i < idom.length; i++) {
+			if (idom[i] >= 0 && idom[i] != i) {
+				next[i] = first[idom[i]];
+				first[idom[i]] = i;
+			}
+		}
+
+		BitSet subtree = new BitSet(idom.length);
+		ArrayDeque<Integer> stack = new ArrayDeque<Integer>();
+		subtree.set(top);
+		stack.push(top);
+		while (!stack.isEmpty()) {
+			for (int child = first[stack.pop()]; child >= 0; child = next[child]) {
+				subtree.set(child);
+				stack.push(child);
+			}
+		}
+		return subtree;
+	}
+
+	/**
+	 * Determines the nearest common ancestor of two reachable nodes.
+	 *
+	 * @param a
+	 *            The id of node a.
+	 * @param b
+	 *            The id of node b.
+	 * @return The id of the nearest common ancestor.
+	 */
+	private int nearestCommonAncestor(int a, int b) {
+		while (a != b) {
+			if (depth[a] > depth[b]) {
+				a = idom[a];
+			} else if (depth[b] > depth[a]) {
+				b = idom[b];
+			} else {
+				a = idom[a];
+				b = idom[b];
+			}
+		}
+		return a;
+	}
+
+	/**
+	 * Enlarges the arrays for new nodes.
+	 *
+	 * @param size
+	 *            The size of the node array map.
+	 */
+	private void ensureCapacity(int size) {
+		if (size > idom.length) {
+			int old = idom.length;
+			idom = Arrays.copyOf(idom, size);
+			depth = Arrays.copyOf(depth, size);
+			Arrays.fill(idom, old, size, -1);
+			Arrays.fill(depth, old, size, -1);
+		}
+	}
+}
@@ -0,0 +1,515 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ *
+ * This file is part of mojo.
+ *
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.analysis.transformation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import de.jena.uni.mojo.Mojo;
+import de.jena.uni.mojo.analysis.Analysis;
+import de.jena.uni.mojo.analysis.information.AnalysisInformation;
+import de.jena.uni.mojo.error.Annotation;
+import de.jena.uni.mojo.model.WGNode;
+import de.jena.uni.mojo.model.WGNode.Type;
+import de.jena.uni.mojo.model.WorkflowGraph;
+
+/**
+ * Reduces the workflow graph structurally before the control flow analysis.
+ * The reduction only applies rules which preserve the verdict of the analysis:
+ *
+ * <ol>
+ * <li>Chains of activities are collapsed into a single activity.</li>
+ * <li>Gateways with a single incoming and a single outgoing edge become
+ * activities.</li>
+ * <li>Fork/join and split/merge pairs with only activity paths in between
+ * are folded into a single activity.</li>
+ * <li>If there is a fragment verdict, sound single-entry single-exit
+ * fragments (see {@link SeseFragments}) are folded into a single activity.
+ * The verdict is asked for each fragment on its own, so that it can be
+ * memoised for recurring fragments.</li>
+ * </ol>
+ *
+ * The rules are applied until no further rule is applicable. Each node that
+ * survives the reduction takes over the process elements of the nodes it
+ * absorbs, so that annotations still name the original process elements. The
+ * absorbed nodes of the original workflow graph can be requested via
+ * {@link #getAbsorbedNodes(WGNode)} and are added to the annotations of the
+ * reduced workflow graph by {@link #expand(List)}. Or-gateways are never reduced since their
+ * waiting areas are reported.
+ *
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class ReductionTransformation extends Analysis {
+
+	/**
+	 * The serial version UID.
+	 */
+	private static final long serialVersionUID = -4418613026395405613L;
+
+	/**
+	 * A constant for the analysis reporter.
+	 */
+	public final static String REDUCTION_REMOVED_NODES = "REDUCTION_REMOVED_NODES";
+
+	/**
+	 * A constant for the analysis reporter.
+	 */
+	public final static String REDUCTION_FOLDED_FRAGMENTS = "REDUCTION_FOLDED_FRAGMENTS";
+
+	/**
+	 * Decides whether a fragment (as workflow graph on its own) is sound or
+	 * null if fragments are not folded.
+	 */
+	private final Predicate<WorkflowGraph> fragmentVerdict;
+
+	/**
+	 * The number of folded fragments.
+	 */
+	private int foldedFragments = 0;
+
+	/**
+	 * For each surviving node (by id), the ids of the nodes it absorbed.
+	 */
+	private final BitSet[] absorbed;
+
+	/**
+	 * The nodes of the original workflow graph by their ids (created on
+	 * demand).
+	 */
+	private WGNode[] originals;
+
+	/**
+	 * The nodes which have to be (re-)checked.
+	 */
+	private final ArrayDeque<WGNode> workList = new ArrayDeque<WGNode>();
+
+	/**
+	 * The ids of the nodes within the work list.
+	 */
+	private final BitSet queued;
+
+	/**
+	 * The ids of the removed nodes.
+	 */
+	private final BitSet removed;
+
+	/**
+	 * The reduction transformation constructor.
+	 *
+	 * @param graph
+	 *            The workflow graph to reduce.
+	 * @param map
+	 *            The node array map.
+	 * @param reporter
+	 *            The analysis information reporter.
+	 */
+	public ReductionTransformation(WorkflowGraph graph, WGNode[] map,
+			AnalysisInformation reporter) {
+		this(graph, map, reporter, null);
+	}
+
+	/**
+	 * The reduction transformation constructor which also folds sound
+	 * fragments.
+	 *
+	 * @param graph
+	 *            The workflow graph to reduce.
+	 * @param map
+	 *            The node array map.
+	 * @param reporter
+	 *            The analysis information reporter.
+	 * @param fragmentVerdict
+	 *            Decides whether a fragment is sound (can be null).
+	 */
+	public ReductionTransformation(WorkflowGraph graph, WGNode[] map,
+			AnalysisInformation reporter,
+			Predicate<WorkflowGraph> fragmentVerdict) {
+		super(graph, map, reporter);
+		this.fragmentVerdict = fragmentVerdict;
+		this.absorbed = new BitSet[map.length];
+		this.queued = new BitSet(map.length);
+		this.removed = new BitSet(map.length);
+	}
+
+	@Override
+	protected List<Annotation> analyze() {
+		// Measure the nodes before the reduction
+		int nodesBefore = graph.getNodeList().size();
+
+		for (WGNode node : graph.getNodeList()) {
+			enqueue(node);
+		}
+
+		boolean changed = true;
+		while (changed) {
+			while (!workList.isEmpty()) {
+				WGNode node = workList.poll();
+				queued.clear(node.getId());
+
+				// The node could have been absorbed in the meantime
+				if (removed.get(node.getId()))
+					continue;
+
+				reduce(node);
+			}
+
+			// Folded fragments can make further rules applicable
+			changed = fragmentVerdict != null && foldFragments();
+		}
+
+		reporter.put(graph, REDUCTION_REMOVED_NODES, nodesBefore
+				- graph.getNodeList().size());
+		if (fragmentVerdict != null) {
+			reporter.put(graph, REDUCTION_FOLDED_FRAGMENTS, foldedFragments);
+		}
+
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Applies the first applicable rule on the given node.
+	 *
+	 * @param node
+	 *            The node to reduce.
+	 */
+	private void reduce(WGNode node) {
+		switch (node.getType()) {
+		case ACTIVITY:
+			collapseChain(node);
+			break;
+		case FORK:
+		case SPLIT:
+			if (isTrivial(node)) {
+				toActivity(node);
+			} else {
+				foldBlock(node);
+			}
+			break;
+		case JOIN:
+		case MERGE:
+			if (isTrivial(node)) {
+				toActivity(node);
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Collapses the given activity with its successor if the successor is an
+	 * activity, too.
+	 *
+	 * @param activity
+	 *            The activity.
+	 */
+	private void collapseChain(WGNode activity) {
+		if (!isTrivial(activity))
+			return;
+
+		WGNode next = activity.getSuccessors().get(0);
+		if (next.getType() != Type.ACTIVITY || !isTrivial(next))
+			return;
+
+		WGNode after = next.getSuccessors().get(0);
+		// An isolated cycle of activities is left untouched
+		if (after == activity)
+			return;
+
+		// Bypass the absorbed activity
+		activity.clearSuccessors();
+		activity.addSuccessor(after);
+		after.removePredecessor(next);
+		after.addPredecessor(activity);
+
+		absorb(activity, next);
+
+		enqueue(activity);
+		enqueue(activity.getPredecessors().get(0));
+	}
+
+	/**
+	 * Folds the block opened by the given fork or split into a single activity
+	 * if the block only contains activity paths to its counter gateway.
+	 *
+	 * @param opening
+	 *            The opening gateway.
+	 */
+	private void foldBlock(WGNode opening) {
+		Type counter = Type.getCounter(opening.getType());
+
+		List<WGNode> inner = new ArrayList<WGNode>();
+		WGNode closing = null;
+		for (WGNode succ : opening.getSuccessors()) {
+			WGNode current = succ;
+			while (current.getType() == Type.ACTIVITY) {
+				if (!isTrivial(current))
+					return;
+				inner.add(current);
+				current = current.getSuccessors().get(0);
+			}
+
+			if (current.getType() != counter
+					|| (closing != null && closing != current))
+				return;
+			closing = current;
+		}
+
+		// Each incoming edge of the closing gateway has to come from the block
+		if (closing == null
+				|| closing.getPredecessors().size() != opening.getSuccessors()
+						.size())
+			return;
+
+		// The opening gateway becomes the activity that represents the block
+		graph.removeNode(opening);
+		opening.setType(Type.ACTIVITY);
+		graph.addNode(opening);
+
+		opening.clearSuccessors();
+		for (WGNode succ : closing.getSuccessors()) {
+			opening.addSuccessor(succ);
+			succ.removePredecessor(closing);
+			succ.addPredecessor(opening);
+		}
+
+		for (WGNode node : inner) {
+			absorb(opening, node);
+		}
+		absorb(opening, closing);
+
+		enqueue(opening);
+		for (WGNode pred : opening.getPredecessors()) {
+			enqueue(pred);
+		}
+	}
+
+	/**
+	 * Folds the smallest sound fragments of the workflow graph into
+	 * activities. Fragments which overlap a fragment folded before are
+	 * regarded again in the next round.
+	 *
+	 * @return True if at least one fragment was folded.
+	 */
+	private boolean foldFragments() {
+		WGNode[] current = getReducedMap();
+		BitSet touched = new BitSet(map.length);
+		boolean changed = false;
+		for (SeseFragments.Fragment fragment : SeseFragments.find(graph, current)) {
+			BitSet nodes = fragment.getNodes();
+			if (nodes.intersects(touched))
+				continue;
+			touched.or(nodes);
+
+			if (!fragmentVerdict.test(fragment.toWorkflowGraph(current)))
+				continue;
+
+			// The entry becomes the activity that represents the fragment
+			WGNode entry = fragment.getEntry();
+			WGNode exit = fragment.getExit();
+			WGNode before = null;
+			for (WGNode pred : entry.getPredecessors()) {
+				if (!nodes.get(pred.getId()))
+					before = pred;
+			}
+			WGNode after = null;
+			for (WGNode succ : exit.getSuccessors()) {
+				if (!nodes.get(succ.getId()))
+					after = succ;
+			}
+
+			graph.removeNode(entry);
+			entry.setType(Type.ACTIVITY);
+			graph.addNode(entry);
+
+			entry.clearPredecessors();
+			entry.addPredecessor(before);
+			entry.clearSuccessors();
+			entry.addSuccessor(after);
+			after.removePredecessor(exit);
+			after.addPredecessor(entry);
+
+			nodes.clear(entry.getId());
+			for (int i = nodes.nextSetBit(0); i >= 0; i = nodes.nextSetBit(i + 1)) {
+				absorb(entry, current[i]);
+			}
+
+			enqueue(entry);
+			enqueue(before);
+			foldedFragments++;
+			changed = true;
+		}
+		return changed;
+	}
+
+	/**
+	 * Turns a gateway with a single incoming and a single outgoing edge into
+	 * an activity.
+	 *
+	 * @param gateway
+	 *            The gateway.
+	 */
+	private void toActivity(WGNode gateway) {
+		graph.removeNode(gateway);
+		gateway.setType(Type.ACTIVITY);
+		graph.addNode(gateway);
+
+		enqueue(gateway);
+		enqueue(gateway.getPredecessors().get(0));
+	}
+
+	/**
+	 * Removes the absorbed node from the workflow graph and remembers it for
+	 * the surviving node.
+	 *
+	 * @param survivor
+	 *            The node which survives.
+	 * @param node
+	 *            The node which is absorbed.
+	 */
+	private void absorb(WGNode survivor, WGNode node) {
+		survivor.addProcessElements(node.getProcessElements());
+
+		BitSet set = absorbedSet(survivor);
+		set.or(absorbedSet(node));
+		set.set(node.getId());
+
+		graph.removeNode(node);
+		removed.set(node.getId());
+	}
+
+	/**
+	 * Adds the node to the work list if it is a node of the workflow graph
+	 * which is not already contained.
+	 *
+	 * @param node
+	 *            The node.
+	 */
+	private void enqueue(WGNode node) {
+		if (node.getType() == Type.START || node.getType() == Type.END)
+			return;
+		if (!queued.get(node.getId())) {
+			queued.set(node.getId());
+			workList.add(node);
+		}
+	}
+
+	/**
+	 * Determines whether the node has exactly one incoming and one outgoing
+	 * edge.
+	 *
+	 * @param node
+	 *            The node.
+	 * @return True or false.
+	 */
+	private boolean isTrivial(WGNode node) {
+		return node.getPredecessors().size() == 1
+				&& node.getSuccessors().size() == 1;
+	}
+
+	/**
+	 * Get the (lazily created) set of absorbed nodes of the given node.
+	 *
+	 * @param node
+	 *            The node.
+	 * @return The set of absorbed node ids.
+	 */
+	private BitSet absorbedSet(WGNode node) {
+		BitSet set = absorbed[node.getId()];
+		if (set == null) {
+			set = new BitSet(absorbed.length);
+			absorbed[node.getId()] = set;
+		}
+		return set;
+	}
+
+	/**
+	 * Returns the nodes of the original workflow graph (see
+	 * {@link WorkflowGraph#getOrigin()}) which were absorbed by the given node
+	 * during the reduction. Nodes which only exist in the prepared workflow
+	 * graph (e.g., inserted activities) are returned as they are.
+	 *
+	 * @param node
+	 *            A node of the reduced workflow graph.
+	 * @return A list of the absorbed nodes (empty if there are none).
+	 */
+	public List<WGNode> getAbsorbedNodes(WGNode node) {
+		List<WGNode> nodes = new ArrayList<WGNode>();
+		BitSet set = absorbed[node.getId()];
+		if (set != null) {
+			WGNode[] originals = getOriginalMap();
+			for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+				nodes.add(i < originals.length && originals[i] != null ? originals[i] : map[i]);
+			}
+		}
+		return nodes;
+	}
+
+	/**
+	 * Expands the annotations of the reduced workflow graph: the nodes which
+	 * were absorbed by an involved node of an annotation are added as involved
+	 * nodes, so that the annotation names the original workflow graph nodes
+	 * and their process elements.
+	 *
+	 * @param annotations
+	 *            The annotations found on the reduced workflow graph.
+	 * @return The annotations.
+	 */
+	public List<Annotation> expand(List<Annotation> annotations) {
+		for (Annotation annotation : annotations) {
+			for (WGNode node : annotation.getInvolvedNodes()) {
+				annotation.addInvolvedNodes(getAbsorbedNodes(node));
+			}
+		}
+		return annotations;
+	}
+
+	/**
+	 * Get the (lazily created) node array map of the original workflow graph.
+	 *
+	 * @return The node array map.
+	 */
+	private WGNode[] getOriginalMap() {
+		if (originals == null) {
+			WorkflowGraph origin = graph.getOrigin();
+			originals = Mojo.createMap(origin,
+					Math.max(map.length, Mojo.findMax(origin)));
+		}
+		return originals;
+	}
+
+	/**
+	 * Creates a node array map which only contains the nodes of the reduced
+	 * workflow graph.
+	 *
+	 * @return The reduced node array map.
+	 */
+	public WGNode[] getReducedMap() {
+		WGNode[] reduced = map.clone();
+		for (int i = removed.nextSetBit(0); i >= 0; i = removed.nextSetBit(i + 1)) {
+			reduced[i] = null;
+		}
+		return reduced;
+	}
+}
@@ -0,0 +1,320 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.analysis.transformation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import de.jena.uni.mojo.model.WGNode;
+import de.jena.uni.mojo.model.WGNode.Type;
+import de.jena.uni.mojo.model.WorkflowGraph;
+
+/**
+ * Determines the smallest single-entry single-exit fragments of a workflow
+ * graph. A fragment consists of an entry node and an exit node, where the
+ * entry node dominates the exit node and the exit node post-dominates the
+ * entry node. The fragment contains all nodes which are dominated by the
+ * entry and post-dominated by the exit. It is only entered via a single edge
+ * into the entry node and only left via a single edge out of the exit node.
+ * Therefore, its behaviour does not depend on the rest of the workflow graph.
+ *
+ * The dominators and post-dominators are taken from {@link DominatorTree}.
+ * For each entry node, only the smallest fragment is determined. Fragments
+ * without gateways (i.e., chains) and fragments with or-gateways are
+ * ignored. The search is limited to {@link #MAX_SIZE} nodes per fragment,
+ * since large fragments hardly recur.
+ *
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public final class SeseFragments {
+
+	/**
+	 * The maximum number of nodes of a fragment.
+	 */
+	public final static int MAX_SIZE = 128;
+
+	/**
+	 * The maximum number of exit candidates which are tried for each entry.
+	 */
+	private final static int MAX_CANDIDATES = 16;
+
+	/**
+	 * A single-entry single-exit fragment.
+	 */
+	public static class Fragment {
+
+		/**
+		 * The entry node.
+		 */
+		private final WGNode entry;
+
+		/**
+		 * The exit node.
+		 */
+		private final WGNode exit;
+
+		/**
+		 * The ids of the nodes of the fragment (including entry and exit).
+		 */
+		private final BitSet nodes;
+
+		/**
+		 * The constructor of a fragment.
+		 *
+		 * @param entry
+		 *            The entry node.
+		 * @param exit
+		 *            The exit node.
+		 * @param nodes
+		 *            The ids of the nodes of the fragment.
+		 */
+		private Fragment(WGNode entry, WGNode exit, BitSet nodes) {
+			this.entry = entry;
+			this.exit = exit;
+			this.nodes = nodes;
+		}
+
+		/**
+		 * Get the entry node.
+		 *
+		 * @return The entry node.
+		 */
+		public WGNode getEntry() {
+			return entry;
+		}
+
+		/**
+		 * Get the exit node.
+		 *
+		 * @return The exit node.
+		 */
+		public WGNode getExit() {
+			return exit;
+		}
+
+		/**
+		 * Get the ids of the nodes of the fragment.
+		 *
+		 * @return The ids (a copy).
+		 */
+		public BitSet getNodes() {
+			return (BitSet) nodes.clone();
+		}
+
+		/**
+		 * Creates a workflow graph which only consists of the fragment, a
+		 * start node before its entry, and an end node after its exit. The
+		 * nodes are numbered anew (the start has id 0).
+		 *
+		 * @param map
+		 *            The node array map of the workflow graph.
+		 * @return The workflow graph of the fragment.
+		 */
+		public WorkflowGraph toWorkflowGraph(WGNode[] map) {
+			WGNode[] copies = new WGNode[map.length];
+			int id = 1;
+			for (int i = nodes.nextSetBit(0); i >= 0; i = nodes.nextSetBit(i + 1)) {
+				copies[i] = new WGNode(id++, map[i].getType());
+			}
+
+			WorkflowGraph fragment = new WorkflowGraph();
+			WGNode start = new WGNode(0, Type.START);
+			WGNode end = new WGNode(id, Type.END);
+			fragment.setStart(start);
+			fragment.setEnd(end);
+			for (int i = nodes.nextSetBit(0); i >= 0; i = nodes.nextSetBit(i + 1)) {
+				fragment.addNode(copies[i]);
+				for (WGNode succ : map[i].getSuccessors()) {
+					if (nodes.get(succ.getId())) {
+						copies[i].addSuccessor(copies[succ.getId()]);
+						copies[succ.getId()].addPredecessor(copies[i]);
+					}
+				}
+			}
+			start.addSuccessor(copies[entry.getId()]);
+			copies[entry.getId()].addPredecessor(start);
+			copies[exit.getId()].addSuccessor(end);
+			end.addPredecessor(copies[exit.getId()]);
+			return fragment;
+		}
+	}
+
+	/**
+	 * There are no instances.
+	 */
+	private SeseFragments() {
+	}
+
+	/**
+	 * Determines the smallest fragment of each entry node.
+	 *
+	 * @param graph
+	 *            The workflow graph.
+	 * @param map
+	 *            The node array map of the workflow graph.
+	 * @return The fragments ordered by their size.
+	 */
+	public static List<Fragment> find(WorkflowGraph graph, WGNode[] map) {
+		return find(graph, map, new DominatorTree(graph.getStart(), map, true),
+				new DominatorTree(graph.getEnd(), map, false));
+	}
+
+	/**
+	 * Determines the smallest fragment of each entry node with the given
+	 * (e.g., incrementally updated) dominator and post-dominator trees.
+	 *
+	 * @param graph
+	 *            The workflow graph.
+	 * @param map
+	 *            The node array map of the workflow graph.
+	 * @param dominators
+	 *            The dominator tree of the workflow graph.
+	 * @param postDominators
+	 *            The post-dominator tree of the workflow graph.
+	 * @return The fragments ordered by their size.
+	 */
+	public static List<Fragment> find(WorkflowGraph graph, WGNode[] map,
+			DominatorTree dominators, DominatorTree postDominators) {
+		List<Fragment> fragments = new ArrayList<Fragment>();
+		for (WGNode entry : graph.getNodeList()) {
+			if (dominators.getImmediateDominator(entry.getId()) < 0
+					|| postDominators.getImmediateDominator(entry.getId()) < 0)
+				continue;
+
+			int exit = postDominators.getImmediateDominator(entry.getId());
+			for (int i = 0; i < MAX_CANDIDATES && exit != graph.getEnd().getId(); i++) {
+				if (dominators.dominates(entry.getId(), exit)) {
+					BitSet nodes = region(map, dominators, postDominators, entry.getId(), exit);
+					if (nodes == null)
+						break;
+					if (isFragment(map, nodes, entry.getId(), exit)) {
+						fragments.add(new Fragment(entry, map[exit], nodes));
+						break;
+					}
+				}
+				exit = postDominators.getImmediateDominator(exit);
+			}
+		}
+
+		Collections.sort(fragments, new Comparator<Fragment>() {
+			@Override
+			public int compare(Fragment a, Fragment b) {
+				return Integer.compare(a.nodes.cardinality(), b.nodes.cardinality());
+			}
+		});
+		return fragments;
+	}
+
+	/**
+	 * Collects the nodes which are dominated by the entry and post-dominated
+	 * by the exit.
+	 *
+	 * @param map
+	 *            The node array map.
+	 * @param dominators
+	 *            The dominator tree.
+	 * @param postDominators
+	 *            The post-dominator tree.
+	 * @param entry
+	 *            The id of the entry.
+	 * @param exit
+	 *            The id of the exit.
+	 * @return The ids of the nodes or null if there are more than
+	 *         {@link #MAX_SIZE} nodes.
+	 */
+	private static BitSet region(WGNode[] map, DominatorTree dominators,
+			DominatorTree postDominators, int entry, int exit) {
+		BitSet nodes = new BitSet(map.length);
+		ArrayDeque<Integer> stack = new ArrayDeque<Integer>();
+		nodes.set(entry);
+		stack.push(entry);
+		while (!stack.isEmpty()) {
+			for (WGNode succ : map[stack.pop()].getSuccessors()) {
+				int id = succ.getId();
+				if (!nodes.get(id) && dominators.dominates(entry, id)
+						&& postDominators.dominates(exit, id)) {
+					if (nodes.cardinality() == MAX_SIZE)
+						return null;
+					nodes.set(id);
+					stack.push(id);
+				}
+			}
+		}
+		return nodes;
+	}
+
+	/**
+	 * Checks whether the nodes form a fragment, which is worth to be
+	 * regarded on its own.
+	 *
+	 * @param map
+	 *            The node array map.
+	 * @param nodes
+	 *            The ids of the nodes.
+	 * @param entry
+	 *            The id of the entry.
+	 * @param exit
+	 *            The id of the exit.
+	 * @return True or false.
+	 */
+	private static boolean isFragment(WGNode[] map, BitSet nodes, int entry, int exit) {
+		if (!nodes.get(exit))
+			return false;
+
+		boolean gateway = false;
+		int entries = 0;
+		int exits = 0;
+		for (int i = nodes.nextSetBit(0); i >= 0; i = nodes.nextSetBit(i + 1)) {
+			WGNode node = map[i];
+			switch (node.getType()) {
+			case FORK:
+			case JOIN:
+			case SPLIT:
+			case MERGE:
+				gateway = true;
+				break;
+			case ACTIVITY:
+				break;
+			default:
+				return false;
+			}
+
+			for (WGNode pred : node.getPredecessors()) {
+				if (!nodes.get(pred.getId())) {
+					if (i != entry)
+						return false;
+					entries++;
+				}
+			}
+			for (WGNode succ : node.getSuccessors()) {
+				if (!nodes.get(succ.getId())) {
+					if (i != exit)
+						return false;
+					exits++;
+				}
+			}
+		}
+		return gateway && entries == 1 && exits == 1;
+	}
+}
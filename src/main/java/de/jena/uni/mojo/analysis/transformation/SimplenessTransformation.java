@@ -18,8 +18,7 @@
  */
 package de.jena.uni.mojo.analysis.transformation;
 
-import java.util.ArrayList;
-import java.util.BitSet;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -36,6 +35,11 @@ import de.jena.uni.mojo.util.store.ElementStore;
  * Places additional activity nodes between gateways to make incoming and
  * outgoing edges more explicit.
  * 
+ * The transformation does not modify the given workflow graph. Instead, it
+ * builds a new (simple) workflow graph in a single pass over the edges. The
+ * nodes of the new graph keep the ids of the nodes they are copied from;
+ * inserted activities get fresh ids behind the given node array map.
+ * 
  * @author Dipl.-Inf. Thomas Prinz
  * 
  */
@@ -46,21 +50,37 @@ public class SimplenessTransformation extends Analysis {
 	 */
 	private static final long serialVersionUID = -2382270947488315924L;
 
+	/**
+	 * A constant for the analysis reporter.
+	 */
+	public final static String NUMBER_PARALLEL_EDGES = "NUMBER_PARALLEL_EDGES";
+
 	/**
 	 * Counts the nodes so that we have a unique ongoing id for each node.
 	 */
 	private int nodeCounter;
 
 	/**
-	 * The (new) list of workflow graph nodes.
+	 * The simple workflow graph which is built by this transformation.
+	 */
+	private final WorkflowGraph result;
+
+	/**
+	 * The node array map of the simple workflow graph.
 	 */
-	private final List<WGNode> list = new ArrayList<WGNode>();
+	private WGNode[] resultMap;
 
 	/**
-	 * The element store.
+	 * The element store (can be null).
 	 */
 	private final ElementStore store;
 
+	/**
+	 * The number of edges which have the same source and target as an
+	 * already visited edge.
+	 */
+	private int parallelEdges = 0;
+
 	/**
 	 * The simpleness transformation constructor.
 	 * 
@@ -73,18 +93,15 @@ public class SimplenessTransformation extends Analysis {
 	 */
 	public SimplenessTransformation(WorkflowGraph graph, WGNode[] map,
 			AnalysisInformation reporter) {
-		super(graph, map, reporter);
-		this.nodeCounter = map.length;
-		for (WGNode n : map) {
-			if (n != null)
-				list.add(n);
-		}
-		this.store = null;
+		this(graph, map, reporter, null);
 	}
 
 	/**
 	 * A second simpleness transformation constructor that should be used when
 	 * this analysis is started by an extern tool that uses the element store.
+	 * The inserted activities are created by and registered in the store, so
+	 * that their ids do not collide with the ids of the nodes within the
+	 * store.
 	 * 
 	 * @param graph
 	 *            The workflow graph to transform.
@@ -92,149 +109,165 @@ public class SimplenessTransformation extends Analysis {
 	 *            The node array map.
 	 * @param reporter
 	 *            The analysis information reporter.
+	 * @param elementStore
+	 *            The element store.
 	 */
 	public SimplenessTransformation(WorkflowGraph graph, WGNode[] map,
 			AnalysisInformation reporter, ElementStore elementStore) {
 		super(graph, map, reporter);
-		this.nodeCounter = map.length;
-		for (WGNode n : map) {
-			if (n != null)
-				list.add(n);
-		}
+		this.nodeCounter = (elementStore == null ? map.length : Math.max(
+				map.length, elementStore.getNodeList().size()));
+		this.result = new WorkflowGraph(graph);
 		this.store = elementStore;
 	}
 
 	/**
-	 * Transform the workflow graph by adding additional nodes.
+	 * Builds the simple workflow graph. At first, each node is copied. Then,
+	 * each edge is copied, whereby an activity is inserted if the edge
+	 * connects two nodes which are not activities and which would not be
+	 * distinguishable otherwise.
 	 */
 	private void transform() {
-		for (WGNode join : graph.getJoinList()) {
-			BitSet pres = (BitSet) join.getPredecessorsBitSet().clone();
-			// Eliminate the activities
-			pres.andNot(graph.getActivitySet());
-			for (int i = pres.nextSetBit(0); i >= 0; i = pres.nextSetBit(i + 1)) {
-				insertActivity(map[i], join);
-			}
-		}
-		for (WGNode orJoin : graph.getOrJoinList()) {
-			BitSet pres = (BitSet) orJoin.getPredecessorsBitSet().clone();
-			// Eliminate the activities
-			pres.andNot(graph.getActivitySet());
-			for (int i = pres.nextSetBit(0); i >= 0; i = pres.nextSetBit(i + 1)) {
-				insertActivity(map[i], orJoin);
-			}
-		}
-		for (WGNode merge : graph.getMergeList()) {
-			BitSet pres = (BitSet) merge.getPredecessorsBitSet().clone();
-			// Eliminate the activities
-			pres.andNot(graph.getActivitySet());
-			for (int i = pres.nextSetBit(0); i >= 0; i = pres.nextSetBit(i + 1)) {
-				insertActivity(map[i], merge);
-			}
+		List<WGNode> nodes = graph.getNodeListInclusive();
+
+		// Copy the nodes and count the edges since each edge causes at most
+		// one additional activity.
+		int numberEdges = 0;
+		resultMap = new WGNode[nodeCounter];
+		for (WGNode node : nodes) {
+			resultMap[node.getId()] = node.copy();
+			numberEdges += node.getSuccessors().size();
 		}
-		for (WGNode fork : graph.getForkList()) {
-			BitSet sucs = (BitSet) fork.getSuccessorsBitSet().clone();
-			// Eliminate the activities
-			sucs.andNot(graph.getActivitySet());
-			for (int i = sucs.nextSetBit(0); i >= 0; i = sucs.nextSetBit(i + 1)) {
-				insertActivity(fork, map[i]);
-			}
+		resultMap = Arrays.copyOf(resultMap, nodeCounter + numberEdges);
+
+		result.setStart(resultMap[graph.getStart().getId()]);
+		result.setEnd(resultMap[graph.getEnd().getId()]);
+		for (WGNode node : graph.getNodeList()) {
+			result.addNode(resultMap[node.getId()]);
 		}
-		for (WGNode split : graph.getSplitList()) {
-			BitSet sucs = (BitSet) split.getSuccessorsBitSet().clone();
-			// Eliminate the activities
-			sucs.andNot(graph.getActivitySet());
-			for (int i = sucs.nextSetBit(0); i >= 0; i = sucs.nextSetBit(i + 1)) {
-				insertActivity(split, map[i]);
+
+		// Copy the edges. The stamps detect parallel edges, i.e., edges with
+		// the same source and target.
+		int[] stamps = new int[resultMap.length];
+		for (WGNode node : nodes) {
+			WGNode from = resultMap[node.getId()];
+			for (WGNode succ : node.getSuccessors()) {
+				WGNode to = resultMap[succ.getId()];
+
+				if (stamps[to.getId()] == from.getId() + 1) {
+					parallelEdges++;
+				}
+				stamps[to.getId()] = from.getId() + 1;
+
+				if (needsActivity(from.getType(), to.getType())) {
+					WGNode activity = createNode(Type.ACTIVITY);
+
+					// Add the process elements of both
+					activity.addProcessElements(from.getProcessElements());
+					activity.addProcessElements(to.getProcessElements());
+
+					connect(from, activity);
+					connect(activity, to);
+
+					// Add the node to the workflow graph
+					result.addNode(activity);
+				} else {
+					connect(from, to);
+				}
 			}
 		}
-		for (WGNode orfork : graph.getOrForkList()) {
-			BitSet sucs = (BitSet) orfork.getSuccessorsBitSet().clone();
-			// Eliminate the activities
-			sucs.andNot(graph.getActivitySet());
-			for (int i = sucs.nextSetBit(0); i >= 0; i = sucs.nextSetBit(i + 1)) {
-				insertActivity(orfork, map[i]);
-			}
+
+		resultMap = Arrays.copyOf(resultMap, nodeCounter);
+	}
+
+	/**
+	 * Determines whether an activity has to be placed between a source and a
+	 * target node of the given types.
+	 * 
+	 * @param source
+	 *            The type of the source node.
+	 * @param target
+	 *            The type of the target node.
+	 * @return True or false.
+	 */
+	private boolean needsActivity(Type source, Type target) {
+		if (source == Type.ACTIVITY || target == Type.ACTIVITY) {
+			return false;
 		}
-		WGNode end = graph.getEnd();
-		WGNode pre = end.getPredecessors().get(0);
-		if (pre.getType() != Type.ACTIVITY) {
-			insertActivity(pre, end);
+		switch (source) {
+		case START:
+		case FORK:
+		case SPLIT:
+		case OR_FORK:
+			return true;
+		default:
+			break;
 		}
-
-		WGNode start = graph.getStart();
-		WGNode succ = start.getSuccessors().get(0);
-		if (succ.getType() != Type.ACTIVITY) {
-			insertActivity(start, succ);
+		switch (target) {
+		case END:
+		case JOIN:
+		case MERGE:
+		case OR_JOIN:
+			return true;
+		default:
+			return false;
 		}
 	}
 
 	/**
-	 * Inserts an activity between two nodes.
+	 * Connects two nodes of the simple workflow graph.
 	 * 
 	 * @param from
 	 *            The node where the edge starts.
 	 * @param to
 	 *            The node where the edge ends.
 	 */
-	private void insertActivity(WGNode from, WGNode to) {
-		do {
-			// Create the new activity
-			WGNode activity;
-			if (store == null) {
-				activity = createNode(Type.ACTIVITY);
-			} else {
-				activity = store.createNode(Type.ACTIVITY);
-				list.add(activity);
-			}
-			// Eliminate the old connections
-			from.removeSuccessor(to);
-			to.removePredecessor(from);
-
-			// Add the new connections
-			from.addSuccessor(activity);
-			activity.addPredecessor(from);
-			to.addPredecessor(activity);
-			activity.addSuccessor(to);
-			
-			// Add the process elements of both
-			activity.addProcessElements(from.getProcessElements());
-			activity.addProcessElements(to.getProcessElements());
-
-			// Add the node to the workflow graph
-			graph.addNode(activity);
-		} while (from.getSuccessors().contains(to)
-				|| to.getPredecessors().contains(from));
+	private void connect(WGNode from, WGNode to) {
+		from.addSuccessor(to);
+		to.addPredecessor(from);
 	}
 
 	/**
-	 * Creates an extended node array map.
+	 * Returns the node array map of the simple workflow graph.
 	 * 
 	 * @return The extended node array map.
 	 */
 	public WGNode[] getExtendedMap() {
-		WGNode[] map;
-		if (store == null) {
-			map = new WGNode[nodeCounter];
-		} else {
-			map = new WGNode[store.getNodeList().size()];
-		}
-		for (WGNode node : list) {
-			map[node.getId()] = node;
-		}
-		return map;
+		return resultMap;
+	}
+
+	/**
+	 * Returns the simple workflow graph built by this transformation.
+	 * 
+	 * @return The simple workflow graph.
+	 */
+	public WorkflowGraph getSimpleGraph() {
+		return result;
 	}
 
 	/**
-	 * Create a node with a specific type.
+	 * Create a node with a specific type. If there is an element store, the
+	 * node is created by the store.
 	 * 
 	 * @param type
 	 *            The type that should be created.
 	 * @return The created node.
 	 */
 	private WGNode createNode(final Type type) {
-		final WGNode node = new WGNode(nodeCounter++, type);
-		list.add(node);
+		final WGNode node;
+		if (store == null) {
+			node = new WGNode(nodeCounter, type);
+		} else {
+			synchronized (store) {
+				node = store.createNode(type);
+			}
+			if (node.getId() >= resultMap.length) {
+				resultMap = Arrays.copyOf(resultMap,
+						Math.max(node.getId() + 1, resultMap.length * 2));
+			}
+		}
+		resultMap[node.getId()] = node;
+		nodeCounter = Math.max(nodeCounter, node.getId() + 1);
 		return node;
 	}
 
@@ -247,20 +280,21 @@ public class SimplenessTransformation extends Analysis {
 		transform();
 
 		// Measure the nodes after executing the plan
-		int nodesAfter = graph.getNodeList().size();
+		int nodesAfter = result.getNodeList().size();
 
 		reporter.put(graph, AnalysisInformation.NODES_BEFORE_MEASUREMENT_PLAN,
 				nodesBefore);
 		reporter.put(graph, AnalysisInformation.NODES_AFTER_MEASUREMENT_PLAN,
 				nodesAfter);
+		reporter.put(graph, NUMBER_PARALLEL_EDGES, parallelEdges);
 
-		reporter.put(graph, "NUMBER_FORKS", graph.getForkList().size());
-		reporter.put(graph, "NUMBER_JOINS", graph.getJoinList().size());
-		reporter.put(graph, "NUMBER_TASKS", graph.getActivityList().size());
-		reporter.put(graph, "NUMBER_SPLITS", graph.getSplitList().size());
-		reporter.put(graph, "NUMBER_MERGES", graph.getMergeList().size());
-		reporter.put(graph, "NUMBER_ORJOINS", graph.getOrJoinList().size());
-		reporter.put(graph, "NUMBER_ORSPLITS", graph.getOrForkList().size());
+		reporter.put(graph, "NUMBER_FORKS", result.getForkList().size());
+		reporter.put(graph, "NUMBER_JOINS", result.getJoinList().size());
+		reporter.put(graph, "NUMBER_TASKS", result.getActivityList().size());
+		reporter.put(graph, "NUMBER_SPLITS", result.getSplitList().size());
+		reporter.put(graph, "NUMBER_MERGES", result.getMergeList().size());
+		reporter.put(graph, "NUMBER_ORJOINS", result.getOrJoinList().size());
+		reporter.put(graph, "NUMBER_ORSPLITS", result.getOrForkList().size());
 
 		return Collections.emptyList();
 	}
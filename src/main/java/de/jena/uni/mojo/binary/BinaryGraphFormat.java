@@ -0,0 +1,101 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.binary;
+
+import de.jena.uni.mojo.model.WGNode.Type;
+
+/**
+ * The binary format of workflow graphs. A file consists of (all numbers are
+ * big-endian):
+ * 
+ * <ol>
+ * <li>The header: the magic number {@link #MAGIC} (int), the
+ * {@link #VERSION} (short), and a reserved short (0).</li>
+ * <li>The string table: the number of strings (int), then for each string
+ * its length in bytes (int) and its UTF-8 bytes. The process elements are
+ * the ids of the original process elements as strings; each string is only
+ * stored once.</li>
+ * <li>The workflow graphs: the number of workflow graphs (int), then for each
+ * workflow graph:
+ * <ul>
+ * <li>The number of nodes (int), the index of the start and of the end node
+ * (int each).</li>
+ * <li>For each node: its id (int), its type code (byte, see
+ * {@link #TYPES}), the number of process elements (int) and their indices
+ * within the string table (int each).</li>
+ * <li>For each node: the number of successors (int) and their indices (int
+ * each), the number of predecessors (int) and their indices (int each).</li>
+ * </ul>
+ * </li>
+ * </ol>
+ * 
+ * The nodes are stored in the order of
+ * {@link de.jena.uni.mojo.model.WorkflowGraph#getNodeListInclusive()} and
+ * the edges in the order of the successor and predecessor lists, so that a
+ * read in workflow graph is verified exactly like the original.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public final class BinaryGraphFormat {
+
+	/**
+	 * The file extension of the format.
+	 */
+	public final static String EXTENSION = "wgb";
+
+	/**
+	 * The magic number ("MJWG").
+	 */
+	public final static int MAGIC = 0x4D4A5747;
+
+	/**
+	 * The version of the format.
+	 */
+	public final static short VERSION = 1;
+
+	/**
+	 * The node types by their codes. The order must never change; new types
+	 * are appended.
+	 */
+	final static Type[] TYPES = { Type.START, Type.END, Type.ACTIVITY,
+			Type.FORK, Type.JOIN, Type.SPLIT, Type.MERGE, Type.UNDEFINED,
+			Type.OR_FORK, Type.OR_JOIN };
+
+	/**
+	 * There are no instances.
+	 */
+	private BinaryGraphFormat() {
+	}
+
+	/**
+	 * Get the code of a node type.
+	 * 
+	 * @param type
+	 *            The node type.
+	 * @return The code.
+	 */
+	static byte code(Type type) {
+		for (int i = 0; i < TYPES.length; i++) {
+			if (TYPES[i] == type)
+				return (byte) i;
+		}
+		throw new IllegalArgumentException("Type: " + type);
+	}
+}
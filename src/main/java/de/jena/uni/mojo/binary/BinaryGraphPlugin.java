@@ -0,0 +1,92 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.binary;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import de.jena.uni.mojo.analysis.information.AnalysisInformation;
+import de.jena.uni.mojo.interpreter.IdInterpreter;
+import de.jena.uni.mojo.interpreter.StringIdInterpreter;
+import de.jena.uni.mojo.plugin.SourcePlugin;
+import de.jena.uni.mojo.reader.Reader;
+
+/**
+ * The source plugin of the binary workflow graph format (see
+ * {@link BinaryGraphFormat}). Files are mapped into memory and decoded
+ * directly; the encoding is ignored.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class BinaryGraphPlugin implements SourcePlugin {
+
+	@Override
+	public String getName() {
+		return "Binary Workflow Graph";
+	}
+
+	@Override
+	public String getVersion() {
+		return Short.toString(BinaryGraphFormat.VERSION);
+	}
+
+	@Override
+	public String getFileExtension() {
+		return BinaryGraphFormat.EXTENSION;
+	}
+
+	@Override
+	public Reader getReader(String processName, File file,
+			AnalysisInformation information, Charset encoding)
+			throws IOException {
+		return new BinaryGraphReader(file, information);
+	}
+
+	@Override
+	public Reader getReader(String processName, String stream,
+			AnalysisInformation information, Charset encoding) {
+		// The bytes are transported as Latin-1 characters
+		try {
+			return new BinaryGraphReader(processName, ByteBuffer.wrap(stream
+					.getBytes(StandardCharsets.ISO_8859_1)), information);
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public Reader getReader(String processName, ByteBuffer bytes,
+			AnalysisInformation information, Charset encoding) {
+		try {
+			return new BinaryGraphReader(processName, bytes, information);
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public IdInterpreter getIdInterpreter() {
+		return new StringIdInterpreter();
+	}
+
+}
@@ -0,0 +1,248 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.binary;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.jena.uni.mojo.analysis.information.AnalysisInformation;
+import de.jena.uni.mojo.error.Annotation;
+import de.jena.uni.mojo.error.ParseAnnotation;
+import de.jena.uni.mojo.model.WGNode;
+import de.jena.uni.mojo.model.WGNode.Type;
+import de.jena.uni.mojo.model.WorkflowGraph;
+import de.jena.uni.mojo.reader.Reader;
+import de.jena.uni.mojo.util.store.ErrorAndWarningStore;
+
+/**
+ * Reads workflow graphs of the binary format (see {@link BinaryGraphFormat})
+ * from a buffer. For files, the buffer is a read-only mapping of the file, so
+ * that the nodes and edges are created directly from the mapped bytes. The
+ * process elements are the strings of the string table; each string is
+ * created once and shared by all of its nodes.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class BinaryGraphReader extends Reader {
+
+	/**
+	 * The serial version UID.
+	 */
+	private static final long serialVersionUID = -3960817225423145306L;
+
+	/**
+	 * The logger.
+	 */
+	private final static Logger logger = LogManager.getLogger(BinaryGraphReader.class);
+
+	/**
+	 * The buffer which holds the workflow graphs (positioned behind the
+	 * header).
+	 */
+	private final transient ByteBuffer buffer;
+
+	/**
+	 * The error and warning store.
+	 */
+	private final ErrorAndWarningStore store = new ErrorAndWarningStore();
+
+	/**
+	 * The constructor for a file.
+	 * 
+	 * @param file
+	 *            The file in the binary format.
+	 * @param analysisInformation
+	 *            The analysis information.
+	 * @throws IOException
+	 *             If the file cannot be mapped or is not in the binary format.
+	 */
+	public BinaryGraphReader(File file,
+			AnalysisInformation analysisInformation) throws IOException {
+		super(file, analysisInformation);
+		this.buffer = checkHeader(map(file));
+	}
+
+	/**
+	 * The constructor for a buffer.
+	 * 
+	 * @param processName
+	 *            The name of the process.
+	 * @param buffer
+	 *            The buffer in the binary format.
+	 * @param analysisInformation
+	 *            The analysis information.
+	 * @throws IOException
+	 *             If the buffer is not in the binary format.
+	 */
+	public BinaryGraphReader(String processName, ByteBuffer buffer,
+			AnalysisInformation analysisInformation) throws IOException {
+		super(processName, analysisInformation);
+		this.buffer = checkHeader(buffer);
+	}
+
+	/**
+	 * Maps a file into memory. The mapping stays valid after the channel is
+	 * closed.
+	 * 
+	 * @param file
+	 *            The file.
+	 * @return The read-only buffer of the file.
+	 * @throws IOException
+	 *             If the file cannot be mapped.
+	 */
+	private static ByteBuffer map(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
+	/**
+	 * Checks the header of the binary format.
+	 * 
+	 * @param buffer
+	 *            The buffer.
+	 * @return The buffer positioned behind the header.
+	 * @throws IOException
+	 *             If the buffer is not in the binary format or has another
+	 *             version.
+	 */
+	private static ByteBuffer checkHeader(ByteBuffer buffer) throws IOException {
+		if (buffer.remaining() < 8 || buffer.getInt() != BinaryGraphFormat.MAGIC)
+			throw new IOException("Not a binary workflow graph file");
+		short version = buffer.getShort();
+		if (version != BinaryGraphFormat.VERSION)
+			throw new IOException("Unsupported version of the binary workflow graph file: " + version);
+		buffer.getShort();
+		return buffer;
+	}
+
+	@Override
+	public List<Annotation> analyze() {
+		List<Annotation> errors = new ArrayList<Annotation>();
+		try {
+			this.graphs = decode();
+			return errors;
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			logger.error("The binary workflow graph file " + processName + " is corrupt");
+		} catch (RuntimeException e) {
+			// Invalid counts, node types or duplicated node ids
+			logger.error("The binary workflow graph file " + processName + " is invalid: " + e.getMessage());
+		}
+
+		// A broken file cannot be transformed into workflow graphs
+		this.graphs = null;
+		errors.add(new ParseAnnotation(this));
+		return errors;
+	}
+
+	/**
+	 * Decodes the string table and the workflow graphs.
+	 * 
+	 * @return The workflow graphs.
+	 */
+	private List<WorkflowGraph> decode() {
+		//
+		// 1. Decode the string table
+		//
+		String[] strings = new String[count(4)];
+		byte[] scratch = new byte[64];
+		for (int i = 0; i < strings.length; i++) {
+			int length = count(1);
+			if (length > scratch.length)
+				scratch = new byte[Math.max(length, scratch.length * 2)];
+			buffer.get(scratch, 0, length);
+			strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+		}
+
+		//
+		// 2. Decode the workflow graphs
+		//
+		int graphCount = count(12);
+		List<WorkflowGraph> result = new ArrayList<WorkflowGraph>(graphCount);
+		for (int g = 0; g < graphCount; g++) {
+			WGNode[] nodes = new WGNode[count(17)];
+			int start = buffer.getInt();
+			int end = buffer.getInt();
+			if (start < 0 || end < 0 || start >= nodes.length || end >= nodes.length || start == end)
+				throw new IllegalArgumentException("Invalid start or end node");
+
+			WorkflowGraph graph = new WorkflowGraph();
+			for (int i = 0; i < nodes.length; i++) {
+				int id = buffer.getInt();
+				Type type = BinaryGraphFormat.TYPES[buffer.get()];
+				WGNode node = new WGNode(id, type);
+				for (int e = count(4); e > 0; e--) {
+					node.addProcessElement(strings[buffer.getInt()]);
+				}
+				nodes[i] = node;
+
+				if (i == start)
+					graph.setStart(node);
+				else if (i == end)
+					graph.setEnd(node);
+				else
+					graph.addNode(node);
+			}
+
+			for (WGNode node : nodes) {
+				for (int s = count(4); s > 0; s--) {
+					node.addSuccessor(nodes[buffer.getInt()]);
+				}
+				for (int p = count(4); p > 0; p--) {
+					node.addPredecessor(nodes[buffer.getInt()]);
+				}
+			}
+			result.add(graph);
+		}
+		return result;
+	}
+
+	/**
+	 * Reads a count and checks it against the remaining bytes, so that a
+	 * corrupt count does not allocate huge arrays.
+	 * 
+	 * @param size
+	 *            The minimal number of bytes of each counted element.
+	 * @return The count.
+	 */
+	private int count(int size) {
+		int count = buffer.getInt();
+		if (count < 0 || (long) count * size > buffer.remaining())
+			throw new IllegalArgumentException("Invalid count " + count);
+		return count;
+	}
+
+	@Override
+	public ErrorAndWarningStore getStore() {
+		return store;
+	}
+
+}
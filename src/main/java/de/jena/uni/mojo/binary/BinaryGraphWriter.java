@@ -0,0 +1,169 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.binary;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.jena.uni.mojo.interpreter.IdInterpreter;
+import de.jena.uni.mojo.model.WGNode;
+import de.jena.uni.mojo.model.WorkflowGraph;
+
+/**
+ * Writes workflow graphs in the binary format (see
+ * {@link BinaryGraphFormat}). The process elements are stored as ids, which
+ * are extracted by the id interpreter of the source plugin of the original
+ * process.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class BinaryGraphWriter {
+
+	/**
+	 * The id interpreter which converts the process elements to strings.
+	 */
+	private final IdInterpreter interpreter;
+
+	/**
+	 * The constructor of the writer.
+	 * 
+	 * @param interpreter
+	 *            The id interpreter of the source plugin (if it is null, the
+	 *            string representations of the process elements are stored).
+	 */
+	public BinaryGraphWriter(IdInterpreter interpreter) {
+		this.interpreter = interpreter;
+	}
+
+	/**
+	 * Writes the workflow graphs into a file.
+	 * 
+	 * @param graphs
+	 *            The workflow graphs.
+	 * @param file
+	 *            The file.
+	 * @throws IOException
+	 *             If the file cannot be written.
+	 */
+	public void write(List<WorkflowGraph> graphs, File file) throws IOException {
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+			write(graphs, out);
+		}
+	}
+
+	/**
+	 * Writes the workflow graphs into a stream.
+	 * 
+	 * @param graphs
+	 *            The workflow graphs.
+	 * @param stream
+	 *            The stream (it is not closed).
+	 * @throws IOException
+	 *             If the stream cannot be written.
+	 */
+	public void write(List<WorkflowGraph> graphs, OutputStream stream) throws IOException {
+		//
+		// 1. Collect the strings
+		//
+		Map<String, Integer> strings = new LinkedHashMap<String, Integer>();
+		for (WorkflowGraph graph : graphs) {
+			for (WGNode node : graph.getNodeListInclusive()) {
+				for (Object element : node.getProcessElements()) {
+					String id = id(element);
+					if (!strings.containsKey(id))
+						strings.put(id, strings.size());
+				}
+			}
+		}
+
+		DataOutputStream out = new DataOutputStream(stream);
+
+		//
+		// 2. Write the header and the string table
+		//
+		out.writeInt(BinaryGraphFormat.MAGIC);
+		out.writeShort(BinaryGraphFormat.VERSION);
+		out.writeShort(0);
+		out.writeInt(strings.size());
+		for (String string : strings.keySet()) {
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+
+		//
+		// 3. Write the workflow graphs
+		//
+		out.writeInt(graphs.size());
+		for (WorkflowGraph graph : graphs) {
+			List<WGNode> nodes = new ArrayList<WGNode>(graph.getNodeListInclusive());
+			Map<WGNode, Integer> index = new HashMap<WGNode, Integer>();
+			for (WGNode node : nodes) {
+				index.put(node, index.size());
+			}
+
+			out.writeInt(nodes.size());
+			out.writeInt(index.get(graph.getStart()));
+			out.writeInt(index.get(graph.getEnd()));
+			for (WGNode node : nodes) {
+				out.writeInt(node.getId());
+				out.writeByte(BinaryGraphFormat.code(node.getType()));
+				out.writeInt(node.getProcessElements().size());
+				for (Object element : node.getProcessElements()) {
+					out.writeInt(strings.get(id(element)));
+				}
+			}
+			for (WGNode node : nodes) {
+				out.writeInt(node.getSuccessors().size());
+				for (WGNode succ : node.getSuccessors()) {
+					out.writeInt(index.get(succ));
+				}
+				out.writeInt(node.getPredecessors().size());
+				for (WGNode pred : node.getPredecessors()) {
+					out.writeInt(index.get(pred));
+				}
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * Get the id of a process element.
+	 * 
+	 * @param element
+	 *            The process element.
+	 * @return The id.
+	 */
+	private String id(Object element) {
+		if (interpreter == null || element instanceof String)
+			return String.valueOf(element);
+		return interpreter.extractId(element);
+	}
+}
@@ -0,0 +1,333 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.jena.uni.mojo.analysis.information.AnalysisInformation;
+import de.jena.uni.mojo.error.Annotation;
+import de.jena.uni.mojo.error.BudgetExceededAnnotation;
+import de.jena.uni.mojo.error.CachedAnnotation;
+import de.jena.uni.mojo.error.EAlarmCategory;
+import de.jena.uni.mojo.interpreter.IdInterpreter;
+import de.jena.uni.mojo.model.WorkflowGraph;
+
+/**
+ * The cached result of the verification of a process: the annotations of the
+ * reader, and the annotations and statistics of each workflow graph. It can be
+ * written to and read from JSON.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class CachedResult {
+
+	/**
+	 * The annotations of the reader.
+	 */
+	private final List<Annotation> readerAnnotations;
+
+	/**
+	 * The annotations of each workflow graph or null if the process could not
+	 * be transformed into workflow graphs.
+	 */
+	private final List<List<Annotation>> graphAnnotations;
+
+	/**
+	 * The statistics of each workflow graph (or null).
+	 */
+	private final List<Map<String, Object>> statistics;
+
+	/**
+	 * The constructor.
+	 * 
+	 * @param readerAnnotations
+	 *            The annotations of the reader.
+	 * @param graphAnnotations
+	 *            The annotations of each workflow graph (can be null).
+	 * @param statistics
+	 *            The statistics of each workflow graph (can be null).
+	 */
+	public CachedResult(List<Annotation> readerAnnotations,
+			List<List<Annotation>> graphAnnotations,
+			List<Map<String, Object>> statistics) {
+		this.readerAnnotations = readerAnnotations;
+		this.graphAnnotations = graphAnnotations;
+		this.statistics = statistics;
+	}
+
+	/**
+	 * Creates the cached result of a verification.
+	 * 
+	 * @param readerAnnotations
+	 *            The annotations of the reader.
+	 * @param graphs
+	 *            The workflow graphs (can be null).
+	 * @param graphAnnotations
+	 *            The annotations of each workflow graph (can be null).
+	 * @param info
+	 *            The analysis information of the verification.
+	 * @param interpreter
+	 *            The id interpreter of the process elements (can be null).
+	 * @return The cached result.
+	 */
+	public static CachedResult of(List<Annotation> readerAnnotations,
+			List<WorkflowGraph> graphs,
+			List<List<Annotation>> graphAnnotations, AnalysisInformation info,
+			IdInterpreter interpreter) {
+		List<List<Annotation>> annotations = null;
+		List<Map<String, Object>> statistics = null;
+		if (graphs != null) {
+			annotations = new ArrayList<List<Annotation>>();
+			statistics = new ArrayList<Map<String, Object>>();
+			for (int i = 0; i < graphs.size(); i++) {
+				annotations.add(cache(graphAnnotations.get(i), interpreter));
+				Map<String, Object> map = info.getInformation(graphs.get(i));
+				statistics.add(map == null ? new LinkedHashMap<String, Object>()
+						: map);
+			}
+		}
+		return new CachedResult(cache(readerAnnotations, interpreter),
+				annotations, statistics);
+	}
+
+	/**
+	 * Decides whether the annotations of the workflow graphs are a complete
+	 * verdict, i.e., no verification was stopped by its budget. Incomplete
+	 * results must not be cached since a verification with a larger budget
+	 * could find further errors.
+	 * 
+	 * @param graphAnnotations
+	 *            The annotations of each workflow graph (can be null).
+	 * @return True if the result can be cached.
+	 */
+	public static boolean isComplete(List<List<Annotation>> graphAnnotations) {
+		if (graphAnnotations != null) {
+			for (List<Annotation> annotations : graphAnnotations) {
+				for (Annotation annotation : annotations) {
+					if (annotation instanceof BudgetExceededAnnotation)
+						return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get the annotations of the reader.
+	 * 
+	 * @return The annotations.
+	 */
+	public List<Annotation> getReaderAnnotations() {
+		return readerAnnotations;
+	}
+
+	/**
+	 * Get the annotations of each workflow graph.
+	 * 
+	 * @return The annotations or null if the process could not be transformed
+	 *         into workflow graphs.
+	 */
+	public List<List<Annotation>> getGraphAnnotations() {
+		return graphAnnotations;
+	}
+
+	/**
+	 * Restores the statistics into the given analysis information. Since the
+	 * process is not read in, each workflow graph is represented by an empty
+	 * workflow graph.
+	 * 
+	 * @param info
+	 *            The analysis information.
+	 * @return The empty workflow graphs or null if the process could not be
+	 *         transformed into workflow graphs.
+	 */
+	public List<WorkflowGraph> restore(AnalysisInformation info) {
+		if (statistics == null)
+			return null;
+		List<WorkflowGraph> graphs = new ArrayList<WorkflowGraph>();
+		for (Map<String, Object> map : statistics) {
+			WorkflowGraph graph = new WorkflowGraph();
+			for (Map.Entry<String, Object> entry : map.entrySet()) {
+				info.put(graph, entry.getKey(), entry.getValue());
+			}
+			graphs.add(graph);
+		}
+		return graphs;
+	}
+
+	/**
+	 * Converts the result into a JSON object.
+	 * 
+	 * @return The JSON object.
+	 */
+	public Map<String, Object> toJson() {
+		Map<String, Object> json = new LinkedHashMap<String, Object>();
+		json.put("reader", toJson(readerAnnotations));
+		if (graphAnnotations != null) {
+			List<Object> graphs = new ArrayList<Object>();
+			for (int i = 0; i < graphAnnotations.size(); i++) {
+				Map<String, Object> graph = new LinkedHashMap<String, Object>();
+				Map<String, Object> values = new LinkedHashMap<String, Object>();
+				List<Object> integers = new ArrayList<Object>();
+				for (Map.Entry<String, Object> entry : statistics.get(i)
+						.entrySet()) {
+					Object value = entry.getValue();
+					// Only simple values survive
+					if (value instanceof Number || value instanceof Boolean
+							|| value instanceof String) {
+						values.put(entry.getKey(), value);
+						if (value instanceof Integer)
+							integers.add(entry.getKey());
+					}
+				}
+				graph.put("statistics", values);
+				graph.put("integers", integers);
+				graph.put("annotations", toJson(graphAnnotations.get(i)));
+				graphs.add(graph);
+			}
+			json.put("graphs", graphs);
+		} else {
+			json.put("graphs", null);
+		}
+		return json;
+	}
+
+	/**
+	 * Creates a result from a JSON object.
+	 * 
+	 * @param json
+	 *            The JSON object.
+	 * @return The result.
+	 * @throws IllegalArgumentException
+	 *             if the JSON object is not a result.
+	 */
+	public static CachedResult fromJson(Map<String, Object> json)
+			throws IllegalArgumentException {
+		try {
+			List<Annotation> readerAnnotations = fromJson((List<?>) json
+					.get("reader"));
+			List<?> graphs = (List<?>) json.get("graphs");
+			if (graphs == null)
+				return new CachedResult(readerAnnotations, null, null);
+
+			List<List<Annotation>> annotations = new ArrayList<List<Annotation>>();
+			List<Map<String, Object>> statistics = new ArrayList<Map<String, Object>>();
+			for (Object object : graphs) {
+				Map<?, ?> graph = (Map<?, ?>) object;
+				annotations.add(fromJson((List<?>) graph.get("annotations")));
+
+				List<?> integers = (List<?>) graph.get("integers");
+				Map<String, Object> values = new LinkedHashMap<String, Object>();
+				for (Map.Entry<?, ?> entry : ((Map<?, ?>) graph
+						.get("statistics")).entrySet()) {
+					Object value = entry.getValue();
+					if (integers.contains(entry.getKey()))
+						value = ((Number) value).intValue();
+					values.put(entry.getKey().toString(), value);
+				}
+				statistics.add(values);
+			}
+			return new CachedResult(readerAnnotations, annotations, statistics);
+		} catch (ClassCastException | NullPointerException e) {
+			throw new IllegalArgumentException("Not a cached result", e);
+		}
+	}
+
+	/**
+	 * Converts annotations into cached annotations.
+	 * 
+	 * @param annotations
+	 *            The annotations.
+	 * @param interpreter
+	 *            The id interpreter (can be null).
+	 * @return The cached annotations.
+	 */
+	private static List<Annotation> cache(List<Annotation> annotations,
+			IdInterpreter interpreter) {
+		List<Annotation> cached = new ArrayList<Annotation>();
+		for (Annotation annotation : annotations) {
+			cached.add(CachedAnnotation.of(annotation, interpreter));
+		}
+		return cached;
+	}
+
+	/**
+	 * Converts cached annotations into JSON objects.
+	 * 
+	 * @param annotations
+	 *            The cached annotations.
+	 * @return The JSON objects.
+	 */
+	private static List<Object> toJson(List<Annotation> annotations) {
+		List<Object> list = new ArrayList<Object>();
+		for (Annotation object : annotations) {
+			CachedAnnotation annotation = (CachedAnnotation) object;
+			Map<String, Object> map = new LinkedHashMap<String, Object>();
+			map.put("category", annotation.getAlarmCategory().name());
+			map.put("type", annotation.getType());
+			map.put("description", annotation.getDescription());
+			map.put("opening", annotation.getInterpretedOpeningNodes());
+			map.put("printable", annotation.getInterpretedPrintableNodes());
+			map.put("involved", annotation.getInterpretedInvolvedNodes());
+			map.put("information", annotation.getInformation());
+			list.add(map);
+		}
+		return list;
+	}
+
+	/**
+	 * Creates cached annotations from JSON objects.
+	 * 
+	 * @param list
+	 *            The JSON objects.
+	 * @return The cached annotations.
+	 */
+	private static List<Annotation> fromJson(List<?> list) {
+		List<Annotation> annotations = new ArrayList<Annotation>();
+		for (Object object : list) {
+			Map<?, ?> map = (Map<?, ?>) object;
+			annotations.add(new CachedAnnotation(EAlarmCategory.valueOf(map
+					.get("category").toString()), (String) map.get("type"),
+					(String) map.get("description"), strings(map
+							.get("opening")), strings(map.get("printable")),
+					strings(map.get("involved")), (String) map
+							.get("information")));
+		}
+		return annotations;
+	}
+
+	/**
+	 * Converts a JSON array into a list of strings.
+	 * 
+	 * @param array
+	 *            The JSON array.
+	 * @return The strings.
+	 */
+	private static List<String> strings(Object array) {
+		List<String> strings = new ArrayList<String>();
+		for (Object object : (List<?>) array) {
+			strings.add(String.valueOf(object));
+		}
+		return strings;
+	}
+}
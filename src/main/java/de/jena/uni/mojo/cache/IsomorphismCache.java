@@ -0,0 +1,281 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.jena.uni.mojo.MojoConfig;
+import de.jena.uni.mojo.analysis.information.AnalysisInformation;
+import de.jena.uni.mojo.error.Annotation;
+import de.jena.uni.mojo.error.RemappedAnnotation;
+import de.jena.uni.mojo.model.WGNode;
+import de.jena.uni.mojo.model.WorkflowGraph;
+import de.jena.uni.mojo.util.hash.StructuralHash;
+
+/**
+ * An in-memory cache of the verdicts of workflow graphs by their structure.
+ * If a workflow graph is isomorphic to an already verified workflow graph
+ * (with the same configuration), the annotations of the latter are remapped
+ * through the isomorphism onto the nodes of the former instead of verifying
+ * it again. Many processes are copies of the same template with different
+ * labels, so that a byte-level cache (see {@link ResultCache}) misses them.
+ * 
+ * The candidates are found by their {@link StructuralHash}. The cache keeps
+ * a copy of each verified workflow graph and is bounded by the number of
+ * structures; the least recently used structures are removed first.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class IsomorphismCache {
+
+	/**
+	 * The cache which is shared by all verifications of the JVM.
+	 */
+	public final static IsomorphismCache SHARED = new IsomorphismCache(4096);
+
+	/**
+	 * The cache of the verdicts of single-entry single-exit fragments, which
+	 * is shared by all verifications of the JVM.
+	 */
+	public final static IsomorphismCache FRAGMENTS = new IsomorphismCache(
+			16384);
+
+	/**
+	 * The maximum number of different structures with the same key.
+	 */
+	private final static int MAX_COLLISIONS = 8;
+
+	/**
+	 * The maximum number of cached structures.
+	 */
+	private final int capacity;
+
+	/**
+	 * The entries by their keys (hash and configuration). Workflow graphs
+	 * with the same key are not necessarily isomorphic.
+	 */
+	private final LinkedHashMap<String, List<Template>> entries;
+
+	/**
+	 * A verified workflow graph.
+	 */
+	private static class Template {
+
+		/**
+		 * The structural hash of the copy of the workflow graph.
+		 */
+		private final StructuralHash hash;
+
+		/**
+		 * The annotations on the nodes of the copy.
+		 */
+		private final List<Annotation> annotations;
+
+		/**
+		 * The statistics of the verification.
+		 */
+		private final Map<String, Object> statistics;
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param hash
+		 *            The structural hash of the copy of the workflow graph.
+		 * @param annotations
+		 *            The annotations on the nodes of the copy.
+		 * @param statistics
+		 *            The statistics of the verification.
+		 */
+		private Template(StructuralHash hash, List<Annotation> annotations,
+				Map<String, Object> statistics) {
+			this.hash = hash;
+			this.annotations = annotations;
+			this.statistics = statistics;
+		}
+	}
+
+	/**
+	 * The constructor of a new cache.
+	 * 
+	 * @param capacity
+	 *            The maximum number of cached structures.
+	 */
+	public IsomorphismCache(final int capacity) {
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<String, List<Template>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<String, List<Template>> eldest) {
+				return size() > IsomorphismCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Looks up the verdict of an isomorphic workflow graph.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param config
+	 *            The configuration of the verification.
+	 * @param info
+	 *            The analysis information which gets the statistics of the
+	 *            isomorphic workflow graph.
+	 * @return The remapped annotations or null if there is no isomorphic
+	 *         workflow graph.
+	 */
+	public List<Annotation> lookup(WorkflowGraph graph, MojoConfig config,
+			AnalysisInformation info) {
+		StructuralHash hash = new StructuralHash(graph);
+		info.put(graph, AnalysisInformation.STRUCTURAL_HASH,
+				hash.toHexString());
+
+		List<Template> candidates;
+		synchronized (entries) {
+			List<Template> list = entries.get(key(hash, config));
+			if (list == null)
+				return null;
+			candidates = new ArrayList<Template>(list);
+		}
+
+		for (Template template : candidates) {
+			Map<WGNode, WGNode> isomorphism = template.hash.isomorphism(hash);
+			if (isomorphism == null)
+				continue;
+
+			Map<Integer, WGNode> nodes = new HashMap<Integer, WGNode>();
+			for (Map.Entry<WGNode, WGNode> pair : isomorphism.entrySet()) {
+				nodes.put(pair.getKey().getId(), pair.getValue());
+			}
+			List<Annotation> annotations = new ArrayList<Annotation>();
+			for (Annotation annotation : template.annotations) {
+				annotations.add(new RemappedAnnotation(annotation, nodes));
+			}
+			for (Map.Entry<String, Object> statistic : template.statistics
+					.entrySet()) {
+				info.put(graph, statistic.getKey(), statistic.getValue());
+			}
+			info.put(graph, AnalysisInformation.ISOMORPHIC_REUSE, true);
+			return annotations;
+		}
+		return null;
+	}
+
+	/**
+	 * Stores the verdict of a verified workflow graph. The workflow graph is
+	 * copied, so that it can be changed afterwards. If an annotation refers
+	 * to a node which is not part of the workflow graph (e.g., a node which
+	 * was added during the preparation), the verdict is not stored.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param config
+	 *            The configuration of the verification.
+	 * @param annotations
+	 *            The annotations of the verification.
+	 * @param info
+	 *            The analysis information with the statistics.
+	 */
+	public void put(WorkflowGraph graph, MojoConfig config,
+			List<Annotation> annotations, AnalysisInformation info) {
+		WorkflowGraph copy = graph.snapshot();
+		Map<Integer, WGNode> nodes = new HashMap<Integer, WGNode>();
+		for (WGNode node : copy.getNodeListInclusive()) {
+			nodes.put(node.getId(), node);
+		}
+
+		List<Annotation> remapped = new ArrayList<Annotation>();
+		try {
+			for (Annotation annotation : annotations) {
+				remapped.add(new RemappedAnnotation(annotation, nodes));
+			}
+		} catch (IllegalArgumentException e) {
+			return;
+		}
+
+		// Only the statistics about the structure are reused
+		Map<String, Object> statistics = new LinkedHashMap<String, Object>();
+		Map<String, Object> information = info.getInformation(graph);
+		if (information != null) {
+			for (Map.Entry<String, Object> entry : information.entrySet()) {
+				String key = entry.getKey();
+				if (key.startsWith("NUMBER_") || key.startsWith("NODES_")) {
+					statistics.put(key, entry.getValue());
+				}
+			}
+		}
+
+		StructuralHash hash = new StructuralHash(copy);
+		Template template = new Template(hash, remapped, statistics);
+		String key = key(hash, config);
+		synchronized (entries) {
+			List<Template> list = entries.get(key);
+			if (list == null) {
+				list = new ArrayList<Template>();
+				entries.put(key, list);
+			}
+			if (list.size() < MAX_COLLISIONS)
+				list.add(template);
+		}
+	}
+
+	/**
+	 * Get the number of cached structures.
+	 * 
+	 * @return The number of structures.
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	/**
+	 * Determines the key of a structure within a configuration.
+	 * 
+	 * @param hash
+	 *            The structural hash.
+	 * @param config
+	 *            The configuration.
+	 * @return The key.
+	 */
+	private static String key(StructuralHash hash, MojoConfig config) {
+		StringBuilder key = new StringBuilder(hash.toHexString());
+		for (String command : ResultCache.KEY_COMMANDS) {
+			key.append('|').append(config.getValue(command, null));
+		}
+		return key.toString();
+	}
+}
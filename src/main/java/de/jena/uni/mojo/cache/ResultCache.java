@@ -0,0 +1,410 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.jena.uni.mojo.Mojo;
+import de.jena.uni.mojo.MojoConfig;
+import de.jena.uni.mojo.plugin.SourcePlugin;
+import de.jena.uni.mojo.util.json.Json;
+
+/**
+ * A persistent cache of verification results on the disk. The results are
+ * addressed by the content of the process, i.e., by a SHA-256 hash of the
+ * bytes of the process together with the major plan, the commands which
+ * change the result, the source plugin, and the version of mojo. Therefore,
+ * an entry never has to be invalidated: a changed process or configuration
+ * simply has another key. (The version of mojo is only known for packaged
+ * builds; development builds should use an own cache directory.)
+ * 
+ * Each entry is a JSON file. It is written into a temporary file first and
+ * then moved to its place atomically, so that several JVMs can read and write
+ * the same cache at the same time. The cache is bounded in size: if it grows
+ * beyond its maximum size, the least recently used entries are removed. The
+ * removal is guarded by a file lock within the cache directory.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class ResultCache {
+
+	/**
+	 * The version of the format of the entries.
+	 */
+	public final static int FORMAT = 1;
+
+	/**
+	 * The commands which change the result of a verification.
+	 */
+	public final static String[] KEY_COMMANDS = { "ANALYSIS_PLAN", "REDUCE",
+			"FRAGMENTS", "TIME_BUDGET", "EDGE_BUDGET", "SIMPLE_END_PLACE" };
+
+	/**
+	 * The name of the lock file within the cache directory.
+	 */
+	private final static String LOCK = "cache.lock";
+
+	/**
+	 * File locks are held by the JVM, i.e., threads of the same JVM must be
+	 * synchronized in addition.
+	 */
+	private final static Object JVM_LOCK = new Object();
+
+	/**
+	 * The directory of the cache.
+	 */
+	private final Path directory;
+
+	/**
+	 * The maximum size of the cache in bytes.
+	 */
+	private final long maxSize;
+
+	/**
+	 * The (estimated) size of the cache in bytes.
+	 */
+	private final AtomicLong size = new AtomicLong();
+
+	/**
+	 * The number of hits.
+	 */
+	private final AtomicLong hits = new AtomicLong();
+
+	/**
+	 * The number of misses.
+	 */
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * The constructor of a new cache. The directory is created if it does not
+	 * exist.
+	 * 
+	 * @param directory
+	 *            The directory of the cache.
+	 * @param maxSize
+	 *            The maximum size of the cache in bytes.
+	 * @throws IOException
+	 *             if the directory cannot be created.
+	 */
+	public ResultCache(File directory, long maxSize) throws IOException {
+		this.directory = directory.toPath();
+		this.maxSize = maxSize;
+		Files.createDirectories(this.directory);
+		this.size.set(scan(null));
+	}
+
+	/**
+	 * Determines the key of a process.
+	 * 
+	 * @param model
+	 *            The bytes of the process.
+	 * @param extension
+	 *            The file extension of the process.
+	 * @param config
+	 *            The configuration of the verification.
+	 * @return The key (a hexadecimal SHA-256 hash).
+	 */
+	public static String key(byte[] model, String extension, MojoConfig config) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		digest.update(model);
+
+		StringBuilder context = new StringBuilder();
+		context.append('\0').append(FORMAT).append('\0')
+				.append(Mojo.getVersion()).append('\0').append(extension);
+		SourcePlugin plugin = config.getSourcePlugins().get(extension);
+		if (plugin != null) {
+			context.append('\0').append(plugin.getName()).append('\0')
+					.append(plugin.getVersion());
+		}
+		for (String command : KEY_COMMANDS) {
+			context.append('\0').append(command).append('=')
+					.append(config.getValue(command, null));
+		}
+		digest.update(context.toString().getBytes(StandardCharsets.UTF_8));
+
+		StringBuilder key = new StringBuilder();
+		for (byte b : digest.digest()) {
+			key.append(String.format("%02x", b));
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Get the cached result of the given key. The entry becomes the most
+	 * recently used one.
+	 * 
+	 * @param key
+	 *            The key.
+	 * @return The result or null if there is none.
+	 */
+	public CachedResult get(String key) {
+		Path entry = entry(key);
+		try {
+			byte[] bytes = Files.readAllBytes(entry);
+			Map<String, Object> json = Json.parseObject(new String(bytes,
+					StandardCharsets.UTF_8));
+			Object format = json.get("format");
+			if (!(format instanceof Number)
+					|| ((Number) format).intValue() != FORMAT)
+				throw new IllegalArgumentException("Unknown format " + format);
+			@SuppressWarnings("unchecked")
+			CachedResult result = CachedResult.fromJson((Map<String, Object>) json
+					.get("result"));
+			Files.setLastModifiedTime(entry,
+					FileTime.fromMillis(System.currentTimeMillis()));
+			hits.incrementAndGet();
+			return result;
+		} catch (NoSuchFileException e) {
+			// A miss (or the entry was just removed)
+		} catch (IOException | RuntimeException e) {
+			// A broken entry is removed
+			delete(entry);
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Stores the result of the given key.
+	 * 
+	 * @param key
+	 *            The key.
+	 * @param result
+	 *            The result.
+	 */
+	public void put(String key, CachedResult result) {
+		Map<String, Object> json = new LinkedHashMap<String, Object>();
+		json.put("format", FORMAT);
+		json.put("key", key);
+		json.put("result", result.toJson());
+		byte[] bytes = Json.write(json).getBytes(StandardCharsets.UTF_8);
+
+		Path entry = entry(key);
+		Path temporary = directory.resolve(key + "." + UUID.randomUUID()
+				+ ".tmp");
+		try {
+			Files.createDirectories(entry.getParent());
+			Files.write(temporary, bytes);
+			try {
+				Files.move(temporary, entry, StandardCopyOption.ATOMIC_MOVE,
+						StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporary, entry,
+						StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			// The cache is only an optimization
+			delete(temporary);
+			return;
+		}
+
+		if (size.addAndGet(bytes.length) > maxSize) {
+			evict();
+		}
+	}
+
+	/**
+	 * Get the estimated size of the cache.
+	 * 
+	 * @return The size in bytes.
+	 */
+	public long getSize() {
+		return size.get();
+	}
+
+	/**
+	 * Get the number of hits.
+	 * 
+	 * @return The number of hits.
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Get the number of misses.
+	 * 
+	 * @return The number of misses.
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Removes the least recently used entries until the cache has at most
+	 * 90% of its maximum size. The entries of other JVMs are considered as
+	 * well.
+	 */
+	private void evict() {
+		synchronized (JVM_LOCK) {
+			try (FileChannel channel = FileChannel.open(
+					directory.resolve(LOCK), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE)) {
+				FileLock lock = channel.lock();
+				try {
+					List<Path> entries = new ArrayList<Path>();
+					long total = scan(entries);
+					if (total <= maxSize) {
+						size.set(total);
+						return;
+					}
+
+					// The least recently used entries first
+					final Map<Path, Long> times = new HashMap<Path, Long>();
+					for (Path entry : entries) {
+						times.put(entry, lastModified(entry));
+					}
+					Collections.sort(entries, new Comparator<Path>() {
+						@Override
+						public int compare(Path a, Path b) {
+							return Long.compare(times.get(a), times.get(b));
+						}
+					});
+
+					long target = maxSize / 10 * 9;
+					for (Path entry : entries) {
+						if (total <= target)
+							break;
+						long length = length(entry);
+						if (delete(entry))
+							total -= length;
+					}
+					size.set(total);
+				} finally {
+					lock.release();
+				}
+			} catch (IOException e) {
+				// Try again with the next entry
+			}
+		}
+	}
+
+	/**
+	 * Determines the size of all entries.
+	 * 
+	 * @param entries
+	 *            A list which gets all entries (can be null).
+	 * @return The size in bytes.
+	 * @throws IOException
+	 *             if the directory cannot be read.
+	 */
+	private long scan(List<Path> entries) throws IOException {
+		long total = 0;
+		try (DirectoryStream<Path> folders = Files.newDirectoryStream(
+				directory, path -> Files.isDirectory(path))) {
+			for (Path folder : folders) {
+				try (DirectoryStream<Path> files = Files.newDirectoryStream(
+						folder, "*.json")) {
+					for (Path file : files) {
+						total += length(file);
+						if (entries != null)
+							entries.add(file);
+					}
+				}
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Get the file of an entry. The entries are distributed over 256
+	 * directories by the first two characters of their keys.
+	 * 
+	 * @param key
+	 *            The key.
+	 * @return The file.
+	 */
+	private Path entry(String key) {
+		return directory.resolve(key.substring(0, 2)).resolve(key + ".json");
+	}
+
+	/**
+	 * Get the size of a file.
+	 * 
+	 * @param file
+	 *            The file.
+	 * @return The size or 0 if the file does not exist anymore.
+	 */
+	private static long length(Path file) {
+		try {
+			return Files.size(file);
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Get the last modification time of a file.
+	 * 
+	 * @param file
+	 *            The file.
+	 * @return The time or 0 if the file does not exist anymore.
+	 */
+	private static long lastModified(Path file) {
+		try {
+			return Files.getLastModifiedTime(file).toMillis();
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Deletes a file.
+	 * 
+	 * @param file
+	 *            The file.
+	 * @return True if the file was deleted.
+	 */
+	private static boolean delete(Path file) {
+		try {
+			return Files.deleteIfExists(file);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+}
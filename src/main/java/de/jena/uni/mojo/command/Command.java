@@ -62,6 +62,11 @@ public class Command {
 	 */
 	private Object value;
 
+	/**
+	 * The default value of the command.
+	 */
+	private final Object defaultValue;
+
 	/**
 	 * The constructor that defines a new command.
 	 * 
@@ -78,6 +83,7 @@ public class Command {
 	 * @param valueType
 	 *            The type of the command.
 	 * @param defValue
+	 *            The default value of the command.
 	 */
 	public Command(String name, String command, String shortCommand,
 			String description, boolean flag, Class<?> valueType,
@@ -89,6 +95,7 @@ public class Command {
 		this.flag = flag;
 		this.valueType = valueType;
 		this.value = defValue;
+		this.defaultValue = defValue;
 	}
 
 	/**
@@ -148,6 +155,16 @@ public class Command {
 		this.value = value;
 	}
 
+	/**
+	 * Whether the command still has its default value, e.g., since it was
+	 * not given as argument.
+	 * @return True if the value is the default value.
+	 */
+	public boolean isDefault() {
+		return value == null ? defaultValue == null : value
+				.equals(defaultValue);
+	}
+
 	/**
 	 * Get the value as boolean value.
 	 * 
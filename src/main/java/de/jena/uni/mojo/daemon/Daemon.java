@@ -0,0 +1,203 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.daemon;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.jena.uni.mojo.util.json.Json;
+
+/**
+ * The daemon keeps mojo resident and verifies jobs which arrive as JSON lines
+ * (see {@link JobRunner} for the fields of a job). For each job, a single JSON
+ * line with its result is sent back as soon as the job is verified. The jobs
+ * of a connection are verified in their order.
+ * 
+ * Beside jobs, the daemon understands two commands:
+ * 
+ * <ul>
+ * <li>{"command":"ping"}: answers with {"status":"pong"}.</li>
+ * <li>{"command":"shutdown"}: stops the daemon.</li>
+ * </ul>
+ * 
+ * The jobs are either read from a reader (e.g., the standard input) or
+ * received via TCP connections on the loopback interface.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class Daemon {
+
+	/**
+	 * The job runner.
+	 */
+	private final JobRunner runner;
+
+	/**
+	 * Whether the daemon is still running.
+	 */
+	private volatile boolean running = true;
+
+	/**
+	 * The server socket if the daemon listens on a port.
+	 */
+	private volatile ServerSocket server = null;
+
+	/**
+	 * The constructor of a new daemon.
+	 * 
+	 * @param runner
+	 *            The job runner.
+	 */
+	public Daemon(JobRunner runner) {
+		this.runner = runner;
+	}
+
+	/**
+	 * Serves the jobs of the given reader until it ends or the daemon is shut
+	 * down.
+	 * 
+	 * @param in
+	 *            The reader of the jobs.
+	 * @param out
+	 *            The writer of the results.
+	 * @throws IOException
+	 *             if the reader fails.
+	 */
+	public void serve(BufferedReader in, PrintWriter out) throws IOException {
+		String line;
+		while (running && (line = in.readLine()) != null) {
+			if (line.trim().isEmpty())
+				continue;
+			out.println(Json.write(handle(line)));
+			out.flush();
+		}
+	}
+
+	/**
+	 * Listens on the given port of the loopback interface. Each connection is
+	 * served by its own thread. The method returns when the daemon is shut
+	 * down.
+	 * 
+	 * @param port
+	 *            The port.
+	 * @throws IOException
+	 *             if the port cannot be opened.
+	 */
+	public void listen(int port) throws IOException {
+		try (ServerSocket socket = new ServerSocket(port, 50,
+				InetAddress.getLoopbackAddress())) {
+			server = socket;
+			while (running) {
+				final Socket client;
+				try {
+					client = socket.accept();
+				} catch (IOException e) {
+					// The socket is closed on shutdown
+					if (!running)
+						break;
+					throw e;
+				}
+				Thread thread = new Thread(() -> {
+					try (Socket s = client;
+							BufferedReader in = new BufferedReader(
+									new InputStreamReader(s.getInputStream(),
+											StandardCharsets.UTF_8));
+							PrintWriter out = new PrintWriter(
+									new OutputStreamWriter(s.getOutputStream(),
+											StandardCharsets.UTF_8))) {
+						serve(in, out);
+					} catch (IOException e) {
+						// The client is gone
+					}
+				}, "mojo-daemon-" + client.getPort());
+				thread.setDaemon(true);
+				thread.start();
+			}
+		} finally {
+			server = null;
+		}
+	}
+
+	/**
+	 * Stops the daemon.
+	 */
+	public void shutdown() {
+		running = false;
+		ServerSocket socket = server;
+		if (socket != null) {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// Already closed
+			}
+		}
+	}
+
+	/**
+	 * Whether the daemon is still running.
+	 * 
+	 * @return True or false.
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Handles a single line.
+	 * 
+	 * @param line
+	 *            The line.
+	 * @return The result.
+	 */
+	private Map<String, Object> handle(String line) {
+		Map<String, Object> request;
+		try {
+			request = Json.parseObject(line);
+		} catch (IllegalArgumentException e) {
+			return JobRunner.failure(null, e.getMessage());
+		}
+
+		Object command = request.get("command");
+		if (command == null)
+			return runner.run(request);
+
+		Map<String, Object> result = new LinkedHashMap<String, Object>();
+		result.put("id", request.get("id"));
+		if ("ping".equals(command)) {
+			result.put("status", "pong");
+		} else if ("shutdown".equals(command)) {
+			result.put("status", "bye");
+			shutdown();
+		} else {
+			return JobRunner.failure(request.get("id"), "Unknown command: "
+					+ command);
+		}
+		return result;
+	}
+}
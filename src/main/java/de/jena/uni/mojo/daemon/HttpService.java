@@ -0,0 +1,500 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.daemon;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import de.jena.uni.mojo.processes.ThreadFactories;
+import de.jena.uni.mojo.util.json.Json;
+
+/**
+ * A local HTTP verification service. The models are uploaded as request body;
+ * the query parameters define the job (see {@link JobRunner}): extension
+ * (required), name, plan, and command options by their names (e.g.,
+ * REDUCE=true). The service has the following endpoints:
+ * 
+ * <ul>
+ * <li>POST /verify: verifies the model and answers with the result.</li>
+ * <li>POST /jobs: queues the model and answers with the id of the job (202).
+ * </li>
+ * <li>GET /jobs/{id}: answers with the status of the job and, if it is done,
+ * its result.</li>
+ * <li>GET /health: answers with some statistics about the service.</li>
+ * </ul>
+ * 
+ * All jobs are verified by a bounded executor. If its queue is full, the
+ * service answers with 503. The requests are handled by a small executor of
+ * their own; a synchronous verification is answered by the thread which
+ * verified the job, so that waiting verifications never block the handling
+ * of other requests (e.g., polls and health checks).
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class HttpService {
+
+	/**
+	 * The maximum number of jobs whose results are kept for polling.
+	 */
+	private final static int MAX_RESULTS = 4096;
+
+	/**
+	 * The number of threads which handle the requests.
+	 */
+	private final static int HANDLER_THREADS = 2;
+
+	/**
+	 * The status of a request whose response is sent later by another
+	 * thread.
+	 */
+	private final static int ASYNCHRONOUS = 0;
+
+	/**
+	 * The job runner.
+	 */
+	private final JobRunner runner;
+
+	/**
+	 * The executor of the jobs.
+	 */
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * The executor which handles the requests.
+	 */
+	private final ExecutorService handlers;
+
+	/**
+	 * The asynchronous jobs by their ids. The oldest jobs are forgotten.
+	 */
+	private final Map<String, Future<Map<String, Object>>> jobs = Collections
+			.synchronizedMap(new LinkedHashMap<String, Future<Map<String, Object>>>() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(
+						Map.Entry<String, Future<Map<String, Object>>> eldest) {
+					return size() > MAX_RESULTS;
+				}
+			});
+
+	/**
+	 * The number of rejected jobs.
+	 */
+	private final AtomicLong rejected = new AtomicLong();
+
+	/**
+	 * The http server.
+	 */
+	private HttpServer server;
+
+	/**
+	 * The constructor of a new http service.
+	 * 
+	 * @param runner
+	 *            The job runner.
+	 * @param threads
+	 *            The number of jobs which are verified at the same time.
+	 * @param queue
+	 *            The maximum number of waiting jobs.
+	 */
+	public HttpService(JobRunner runner, int threads, int queue) {
+		this.runner = runner;
+		this.executor = new ThreadPoolExecutor(Math.max(1, threads),
+				Math.max(1, threads), 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(Math.max(1, queue)),
+				ThreadFactories.platform("mojo-http-"));
+		this.handlers = Executors.newFixedThreadPool(HANDLER_THREADS,
+				ThreadFactories.platform("mojo-http-handler-"));
+	}
+
+	/**
+	 * Starts the service on the given port of the loopback interface.
+	 * 
+	 * @param port
+	 *            The port.
+	 * @throws IOException
+	 *             if the port cannot be opened.
+	 */
+	public void start(int port) throws IOException {
+		server = HttpServer.create(new InetSocketAddress(
+				InetAddress.getLoopbackAddress(), port), 0);
+		server.createContext("/verify", exchange -> handle(exchange, "POST",
+				this::verify));
+		server.createContext("/jobs", exchange -> {
+			if ("POST".equals(exchange.getRequestMethod())) {
+				handle(exchange, "POST", this::submit);
+			} else {
+				handle(exchange, "GET", this::poll);
+			}
+		});
+		server.createContext("/health", exchange -> handle(exchange, "GET",
+				this::health));
+		server.setExecutor(handlers);
+		server.start();
+	}
+
+	/**
+	 * Stops the service. Running jobs are finished.
+	 */
+	public void stop() {
+		if (server != null) {
+			server.stop(0);
+		}
+		handlers.shutdown();
+		executor.shutdown();
+	}
+
+	/**
+	 * Get the port of the service.
+	 * 
+	 * @return The port.
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * A handler of a single endpoint.
+	 */
+	private interface Endpoint {
+
+		/**
+		 * Handles the request.
+		 * 
+		 * @param exchange
+		 *            The http exchange.
+		 * @param result
+		 *            The JSON result which should be filled.
+		 * @return The http status code or {@link HttpService#ASYNCHRONOUS} if
+		 *         the response is sent later.
+		 * @throws IOException
+		 *             if the request cannot be read.
+		 */
+		public int handle(HttpExchange exchange, Map<String, Object> result)
+				throws IOException;
+	}
+
+	/**
+	 * Handles a request and sends its JSON result.
+	 * 
+	 * @param exchange
+	 *            The http exchange.
+	 * @param method
+	 *            The expected http method.
+	 * @param endpoint
+	 *            The endpoint.
+	 * @throws IOException
+	 *             if the response cannot be sent.
+	 */
+	private void handle(HttpExchange exchange, String method, Endpoint endpoint)
+			throws IOException {
+		Map<String, Object> result = new LinkedHashMap<String, Object>();
+		int status;
+		try {
+			if (!method.equals(exchange.getRequestMethod())) {
+				status = 405;
+				result.put("status", "error");
+				result.put("message", "Method not allowed");
+			} else {
+				status = endpoint.handle(exchange, result);
+			}
+		} catch (RuntimeException e) {
+			status = 400;
+			result.clear();
+			result.put("status", "error");
+			result.put("message", String.valueOf(e.getMessage()));
+		}
+
+		if (status != ASYNCHRONOUS) {
+			send(exchange, status, result);
+		}
+	}
+
+	/**
+	 * Sends the JSON result.
+	 * 
+	 * @param exchange
+	 *            The http exchange.
+	 * @param status
+	 *            The http status code.
+	 * @param result
+	 *            The JSON result.
+	 * @throws IOException
+	 *             if the response cannot be sent.
+	 */
+	private static void send(HttpExchange exchange, int status,
+			Map<String, Object> result) throws IOException {
+		byte[] body = Json.write(result).getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type",
+				"application/json; charset=utf-8");
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	/**
+	 * Verifies an uploaded model synchronously, i.e., the response contains
+	 * the result. It is sent by the thread which verifies the job.
+	 * 
+	 * @param exchange
+	 *            The http exchange.
+	 * @param result
+	 *            The JSON result.
+	 * @return The http status code.
+	 * @throws IOException
+	 *             if the request cannot be read.
+	 */
+	private int verify(final HttpExchange exchange, Map<String, Object> result)
+			throws IOException {
+		final Map<String, Object> job = readJob(exchange);
+		try {
+			executor.execute(() -> {
+				Map<String, Object> answer = new LinkedHashMap<String, Object>();
+				int status;
+				try {
+					answer.putAll(runner.run(job));
+					status = "ok".equals(answer.get("status")) ? 200 : 422;
+				} catch (RuntimeException e) {
+					answer.clear();
+					answer.put("status", "error");
+					answer.put("message", String.valueOf(e.getMessage()));
+					status = 500;
+				}
+				try {
+					send(exchange, status, answer);
+				} catch (IOException e) {
+					// The client is gone
+					exchange.close();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			return reject(result);
+		}
+		return ASYNCHRONOUS;
+	}
+
+	/**
+	 * Queues an uploaded model.
+	 * 
+	 * @param exchange
+	 *            The http exchange.
+	 * @param result
+	 *            The JSON result.
+	 * @return The http status code.
+	 * @throws IOException
+	 *             if the request cannot be read.
+	 */
+	private int submit(HttpExchange exchange, Map<String, Object> result)
+			throws IOException {
+		final Map<String, Object> job = readJob(exchange);
+		String id = UUID.randomUUID().toString();
+		job.put("id", id);
+		try {
+			jobs.put(id, executor.submit(() -> runner.run(job)));
+		} catch (RejectedExecutionException e) {
+			return reject(result);
+		}
+		result.put("id", id);
+		result.put("status", "queued");
+		exchange.getResponseHeaders().set("Location", "/jobs/" + id);
+		return 202;
+	}
+
+	/**
+	 * Answers with the status or the result of a queued job.
+	 * 
+	 * @param exchange
+	 *            The http exchange.
+	 * @param result
+	 *            The JSON result.
+	 * @return The http status code.
+	 */
+	private int poll(HttpExchange exchange, Map<String, Object> result) {
+		String path = exchange.getRequestURI().getPath();
+		String id = path.substring(path.lastIndexOf('/') + 1);
+		Future<Map<String, Object>> future = jobs.get(id);
+		if (future == null) {
+			result.put("id", id);
+			result.put("status", "error");
+			result.put("message", "Unknown job");
+			return 404;
+		}
+		if (!future.isDone()) {
+			result.put("id", id);
+			result.put("status", "pending");
+			return 200;
+		}
+		try {
+			result.putAll(future.get());
+		} catch (Exception e) {
+			result.put("id", id);
+			result.put("status", "error");
+			result.put("message", String.valueOf(e.getMessage()));
+		}
+		return 200;
+	}
+
+	/**
+	 * Answers with some statistics about the service.
+	 * 
+	 * @param exchange
+	 *            The http exchange.
+	 * @param result
+	 *            The JSON result.
+	 * @return The http status code.
+	 */
+	private int health(HttpExchange exchange, Map<String, Object> result) {
+		result.put("status", "ok");
+		result.put("active", executor.getActiveCount());
+		result.put("queued", executor.getQueue().size());
+		result.put("completed", executor.getCompletedTaskCount());
+		result.put("rejected", rejected.get());
+		return 200;
+	}
+
+	/**
+	 * Fills the result of a rejected job.
+	 * 
+	 * @param result
+	 *            The JSON result.
+	 * @return The http status code.
+	 */
+	private int reject(Map<String, Object> result) {
+		rejected.incrementAndGet();
+		result.put("status", "error");
+		result.put("message", "The queue is full");
+		return 503;
+	}
+
+	/**
+	 * Reads a job from the request: the body is the model, the query
+	 * parameters are the other fields and options.
+	 * 
+	 * @param exchange
+	 *            The http exchange.
+	 * @return The job.
+	 * @throws IOException
+	 *             if the request cannot be read.
+	 */
+	private static Map<String, Object> readJob(HttpExchange exchange)
+			throws IOException {
+		Map<String, Object> job = new LinkedHashMap<String, Object>();
+		Map<String, Object> options = new LinkedHashMap<String, Object>();
+
+		String query = exchange.getRequestURI().getRawQuery();
+		if (query != null) {
+			for (String parameter : query.split("&")) {
+				if (parameter.isEmpty())
+					continue;
+				int eq = parameter.indexOf('=');
+				String key = decode(eq < 0 ? parameter : parameter.substring(0,
+						eq));
+				String value = eq < 0 ? "true" : decode(parameter
+						.substring(eq + 1));
+				if (key.equals("extension") || key.equals("name")
+						|| key.equals("plan") || key.equals("encoding")) {
+					job.put(key, value);
+				} else {
+					options.put(key, value);
+				}
+			}
+		}
+		if (job.get("extension") == null)
+			throw new IllegalArgumentException(
+					"The extension of the model is missing");
+
+		Charset encoding = StandardCharsets.UTF_8;
+		if (job.get("encoding") != null) {
+			try {
+				encoding = Charset.forName(job.get("encoding").toString());
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Unknown encoding: "
+						+ job.get("encoding"));
+			}
+		}
+
+		// The model is passed on as bytes, so that binary models are not
+		// decoded
+		job.put("encoding", encoding.name());
+		job.put("options", options);
+		job.put("model", ByteBuffer.wrap(readAll(exchange.getRequestBody())));
+		return job;
+	}
+
+	/**
+	 * Decodes a part of the query.
+	 * 
+	 * @param part
+	 *            The part.
+	 * @return The decoded part.
+	 */
+	private static String decode(String part) {
+		try {
+			return URLDecoder.decode(part, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			return part;
+		}
+	}
+
+	/**
+	 * Reads the whole stream.
+	 * 
+	 * @param in
+	 *            The stream.
+	 * @return The bytes.
+	 * @throws IOException
+	 *             if the stream cannot be read.
+	 */
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		byte[] chunk = new byte[8192];
+		int read;
+		while ((read = in.read(chunk)) >= 0) {
+			buffer.write(chunk, 0, read);
+		}
+		return buffer.toByteArray();
+	}
+}
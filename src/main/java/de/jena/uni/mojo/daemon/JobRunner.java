@@ -0,0 +1,385 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.daemon;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.io.FilenameUtils;
+
+import de.jena.uni.mojo.Mojo;
+import de.jena.uni.mojo.MojoConfig;
+import de.jena.uni.mojo.analysis.information.AnalysisInformation;
+import de.jena.uni.mojo.command.Command;
+import de.jena.uni.mojo.error.Annotation;
+import de.jena.uni.mojo.error.CachedAnnotation;
+import de.jena.uni.mojo.error.RemappedAnnotation;
+import de.jena.uni.mojo.interpreter.IdInterpreter;
+import de.jena.uni.mojo.model.WorkflowGraph;
+import de.jena.uni.mojo.plugin.SourcePlugin;
+import de.jena.uni.mojo.reader.Reader;
+
+/**
+ * The job runner verifies single jobs of a resident mojo (e.g., the daemon).
+ * A job is a JSON object with the following fields:
+ * 
+ * <ul>
+ * <li>id: An arbitrary id which is sent back with the result (optional).</li>
+ * <li>file: The path of the process file.</li>
+ * <li>model: The process itself (instead of a file) as text or, e.g., from
+ * the HTTP service, as {@link ByteBuffer} of the undecoded bytes.</li>
+ * <li>extension: The file extension of the model, e.g., bpmn (only with a
+ * model).</li>
+ * <li>name: The name of the process (optional).</li>
+ * <li>plan: The id of the major analysis plan (optional).</li>
+ * <li>options: An object of command names and values, e.g.,
+ * {"REDUCE":true,"TIME_BUDGET":1000} (optional). Only the commands within
+ * {@link #OPTIONS} are allowed.</li>
+ * <li>encoding: The charset of the process (optional).</li>
+ * </ul>
+ * 
+ * The result is a JSON object with the id, the status ("ok" or "error"), the
+ * annotations of the reader and, for each workflow graph, its annotations and
+ * the time of each phase of its verification.
+ * 
+ * The plugins and the commands are loaded only once, so that they as well as
+ * the compiled code of the analyses are reused by all jobs.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class JobRunner {
+
+	/**
+	 * The names of the commands which a job may set as options. All other
+	 * commands (e.g., the execution strategy) belong to the resident mojo.
+	 */
+	public final static List<String> OPTIONS = Collections
+			.unmodifiableList(Arrays.asList("ANALYSIS_PLAN", "REDUCE",
+					"FRAGMENTS", "DEDUPLICATE", "TIME_BUDGET", "EDGE_BUDGET",
+					"PARALLEL_THRESHOLD", "SIMPLE_END_PLACE"));
+
+	/**
+	 * The configuration of the jobs without own options.
+	 */
+	private final MojoConfig config;
+
+	/**
+	 * The constructor of a new job runner.
+	 * 
+	 * @param config
+	 *            The configuration of the jobs without own options.
+	 */
+	public JobRunner(MojoConfig config) {
+		this.config = config;
+	}
+
+	/**
+	 * Verifies the given job.
+	 * 
+	 * @param job
+	 *            The job.
+	 * @return The result.
+	 */
+	public Map<String, Object> run(Map<String, Object> job) {
+		Map<String, Object> result = new LinkedHashMap<String, Object>();
+		result.put("id", job.get("id"));
+		result.put("status", "ok");
+		try {
+			verify(job, result);
+		} catch (IOException | RuntimeException e) {
+			result.put("status", "error");
+			result.put("message", String.valueOf(e.getMessage()));
+		}
+		return result;
+	}
+
+	/**
+	 * Creates the result of a failed job.
+	 * 
+	 * @param id
+	 *            The id of the job (can be null).
+	 * @param message
+	 *            The failure message.
+	 * @return The result.
+	 */
+	public static Map<String, Object> failure(Object id, String message) {
+		Map<String, Object> result = new LinkedHashMap<String, Object>();
+		result.put("id", id);
+		result.put("status", "error");
+		result.put("message", message);
+		return result;
+	}
+
+	/**
+	 * Verifies the given job and puts the annotations into the result.
+	 * 
+	 * @param job
+	 *            The job.
+	 * @param result
+	 *            The result.
+	 * @throws IOException
+	 *             if the file cannot be read.
+	 */
+	private void verify(Map<String, Object> job, Map<String, Object> result)
+			throws IOException {
+		MojoConfig config = configure(job);
+		Charset encoding = job.get("encoding") == null ? Charset
+				.defaultCharset() : Charset.forName(job.get("encoding")
+				.toString());
+		AnalysisInformation info = new AnalysisInformation();
+
+		//
+		// 1. Read in the process
+		//
+		Reader reader;
+		SourcePlugin plugin;
+		String name;
+		if (job.get("file") != null) {
+			File file = new File(job.get("file").toString());
+			name = job.get("name") == null ? file.getName() : job.get("name")
+					.toString();
+			plugin = plugin(config, FilenameUtils.getExtension(file.getName()));
+			reader = plugin.getReader(name, file, info, encoding);
+		} else if (job.get("model") != null) {
+			name = job.get("name") == null ? "model" : job.get("name")
+					.toString();
+			plugin = plugin(config, String.valueOf(job.get("extension")));
+			Object model = job.get("model");
+			if (model instanceof ByteBuffer) {
+				reader = plugin.getReader(name, ((ByteBuffer) model)
+						.duplicate(), info, encoding);
+			} else {
+				reader = plugin.getReader(name, model.toString(), info,
+						encoding);
+			}
+		} else {
+			throw new IllegalArgumentException(
+					"A job needs either a file or a model");
+		}
+		if (reader == null)
+			throw new IllegalArgumentException("The source plugin "
+					+ plugin.getName() + " cannot read the process");
+		IdInterpreter interpreter = plugin.getIdInterpreter();
+		result.put("name", name);
+		result.put("annotations", toJson(reader.compute(), interpreter));
+
+		//
+		// 2. Verify the workflow graphs
+		//
+		List<Object> graphResults = new ArrayList<Object>();
+		List<WorkflowGraph> graphs = reader.getResult();
+		if (graphs != null) {
+			List<List<Annotation>> annotations = Mojo.analyzeWorkflowGraphs(
+					name, graphs, info, config);
+			for (int i = 0; i < graphs.size(); i++) {
+				Map<String, Object> graphResult = new LinkedHashMap<String, Object>();
+				graphResult.put("graph", i + 1);
+				Object time = info.get(graphs.get(i), "Verifier"
+						+ AnalysisInformation.TIME_MEASUREMENT);
+				graphResult.put("time", time == null ? null
+						: ((Number) time).doubleValue() / 1000000.0);
+				graphResult.put("phases", phases(info, graphs.get(i)));
+				graphResult.put("annotations",
+						toJson(annotations.get(i), interpreter));
+				graphResults.add(graphResult);
+			}
+		}
+		result.put("graphs", graphResults);
+	}
+
+	/**
+	 * Extracts the time of each phase (i.e., each analysis and plan) of the
+	 * verification of a workflow graph.
+	 * 
+	 * @param info
+	 *            The analysis information.
+	 * @param graph
+	 *            The workflow graph.
+	 * @return A map from the phase to its time in milliseconds.
+	 */
+	private static Map<String, Object> phases(AnalysisInformation info,
+			WorkflowGraph graph) {
+		Map<String, Object> phases = new TreeMap<String, Object>();
+		Map<String, Object> information = info.getInformation(graph);
+		if (information != null) {
+			for (Map.Entry<String, Object> entry : information.entrySet()) {
+				String key = entry.getKey();
+				if (key.endsWith(AnalysisInformation.TIME_MEASUREMENT)
+						&& entry.getValue() instanceof Number) {
+					String phase = key.substring(0, key.length()
+							- AnalysisInformation.TIME_MEASUREMENT.length());
+					phases.put(phase.substring(phase.lastIndexOf('.') + 1),
+							((Number) entry.getValue()).doubleValue() / 1000000.0);
+				}
+			}
+		}
+		return phases;
+	}
+
+	/**
+	 * Derives the configuration of the given job.
+	 * 
+	 * @param job
+	 *            The job.
+	 * @return The configuration.
+	 */
+	private MojoConfig configure(Map<String, Object> job) {
+		MojoConfig config = this.config;
+		if (job.get("plan") != null) {
+			config = config.with("ANALYSIS_PLAN", job.get("plan").toString());
+		}
+		Object options = job.get("options");
+		if (options instanceof Map) {
+			for (Map.Entry<?, ?> option : ((Map<?, ?>) options).entrySet()) {
+				String key = option.getKey().toString();
+				Command command = Mojo.getCommand(key);
+				if (command == null)
+					throw new IllegalArgumentException("Unknown option: " + key);
+				if (!OPTIONS.contains(key))
+					throw new IllegalArgumentException("The option " + key
+							+ " cannot be set by a job");
+				config = config.with(key,
+						convert(option.getValue(), command.getValueType()));
+			}
+		} else if (options != null) {
+			throw new IllegalArgumentException("The options must be an object");
+		}
+		return config;
+	}
+
+	/**
+	 * Converts a JSON value into the value type of a command.
+	 * 
+	 * @param value
+	 *            The JSON value.
+	 * @param type
+	 *            The value type of the command.
+	 * @return The converted value.
+	 */
+	private static Object convert(Object value, Class<?> type) {
+		if (type == Integer.class && value instanceof Number)
+			return ((Number) value).intValue();
+		if (type == Boolean.class && value instanceof Boolean)
+			return value;
+		// Values of query parameters are strings
+		if (type == Integer.class && value instanceof String) {
+			try {
+				return Integer.valueOf((String) value);
+			} catch (NumberFormatException e) {
+				// Handled below
+			}
+		}
+		if (type == Boolean.class && ("true".equals(value) || "false".equals(value)))
+			return Boolean.valueOf((String) value);
+		if (type == String.class && value != null)
+			return value.toString();
+		throw new IllegalArgumentException("The value " + value
+				+ " is not of type " + type.getSimpleName());
+	}
+
+	/**
+	 * Get the source plugin for the given file extension.
+	 * 
+	 * @param config
+	 *            The configuration.
+	 * @param extension
+	 *            The file extension.
+	 * @return The source plugin.
+	 */
+	private static SourcePlugin plugin(MojoConfig config, String extension) {
+		SourcePlugin plugin = config.getSourcePlugins().get(extension);
+		if (plugin == null)
+			throw new IllegalArgumentException(
+					"Cannot handle files with extension '" + extension + "'");
+		return plugin;
+	}
+
+	/**
+	 * Converts annotations into JSON values.
+	 * 
+	 * @param annotations
+	 *            The annotations.
+	 * @param interpreter
+	 *            The id interpreter of the source plugin.
+	 * @return A list of JSON objects.
+	 */
+	public static List<Object> toJson(List<Annotation> annotations,
+			IdInterpreter interpreter) {
+		List<Object> list = new ArrayList<Object>();
+		for (Annotation annotation : annotations) {
+			Map<String, Object> map = new LinkedHashMap<String, Object>();
+			map.put("category", annotation.getAlarmCategory().name());
+			map.put("type", type(annotation));
+			map.put("description", annotation.getDescription());
+			map.put("opening",
+					ids(annotation.getInterpretedOpeningNodes(), interpreter));
+			map.put("printable",
+					ids(annotation.getInterpretedPrintableNodes(), interpreter));
+			map.put("involved",
+					ids(annotation.getInterpretedInvolvedNodes(), interpreter));
+			list.add(map);
+		}
+		return list;
+	}
+
+	/**
+	 * Get the type of an annotation, i.e., the simple class name of the
+	 * annotation which was found by the analysis.
+	 * 
+	 * @param annotation
+	 *            The annotation.
+	 * @return The type.
+	 */
+	private static String type(Annotation annotation) {
+		if (annotation instanceof CachedAnnotation)
+			return ((CachedAnnotation) annotation).getType();
+		if (annotation instanceof RemappedAnnotation)
+			return ((RemappedAnnotation) annotation).getType();
+		return annotation.getClass().getSimpleName();
+	}
+
+	/**
+	 * Extracts the ids of the given process elements.
+	 * 
+	 * @param elements
+	 *            The process elements.
+	 * @param interpreter
+	 *            The id interpreter.
+	 * @return The ids.
+	 */
+	private static List<String> ids(List<Object> elements,
+			IdInterpreter interpreter) {
+		List<String> ids = new ArrayList<String>();
+		for (Object element : elements) {
+			ids.add(interpreter == null ? String.valueOf(element)
+					: interpreter.extractId(element));
+		}
+		return ids;
+	}
+}
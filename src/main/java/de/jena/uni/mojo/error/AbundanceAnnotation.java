@@ -18,6 +18,7 @@
  */
 package de.jena.uni.mojo.error;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
@@ -109,10 +110,10 @@ public class AbundanceAnnotation extends Annotation {
 	}
 
 	@Override
-	public void printInformation(IdInterpreter interpreter) {
-		super.printInformation(interpreter);
+	public void printInformation(IdInterpreter interpreter, PrintStream out) {
+		super.printInformation(interpreter, out);
 
-		System.out.printf("\t\t%-35s: %n", "Paths to the fault (WFG + Process)");
+		out.printf("\t\t%-35s: %n", "Paths to the fault (WFG + Process)");
 
 		int pathCounter = 0;
 		for (BitSet path : this.pathsToFailure) {
@@ -121,11 +122,11 @@ public class AbundanceAnnotation extends Annotation {
 			// Extract the workflow graph edges
 			List<Edge> wfgEdges = this.extractEdgePath(path);
 
-			System.out.printf("\t\t\t%-20s: %s%n", "Path " + pathCounter + " (WFG)",
+			out.printf("\t\t\t%-20s: %s%n", "Path " + pathCounter + " (WFG)",
 					wfgEdges.toString());
 
 			// Print the process nodes
-			System.out.printf("\t\t\t%-20s: %s%n",
+			out.printf("\t\t\t%-20s: %s%n",
 					"Path " + pathCounter + " (Process)",
 					interpreter.extractPath(this.extractAbstractPath(wfgEdges)));
 		}
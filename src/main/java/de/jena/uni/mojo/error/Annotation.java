@@ -18,6 +18,7 @@
  */
 package de.jena.uni.mojo.error;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
@@ -224,20 +225,34 @@ public abstract class Annotation {
 	 * @return The information about the annotation.
 	 */
 	public void printInformation(IdInterpreter interpreter) {
-		System.out.printf("%n\t%-20s%n", category.name() + ":");
-		System.out.printf("\t\t%s%n", "Description: " + description);
-		System.out.printf("\t\t%-35s: %s%n", "Nodes, where fault starts (WFG)",
+		printInformation(interpreter, System.out);
+	}
+
+	/**
+	 * Prints the information about the annotation to the given stream. This
+	 * method should be overriden by an implementing class instead of
+	 * {@link #printInformation(IdInterpreter)}.
+	 * 
+	 * @param interpreter
+	 *            The interpreter which interprets the process nodes.
+	 * @param out
+	 *            The stream to print to.
+	 */
+	public void printInformation(IdInterpreter interpreter, PrintStream out) {
+		out.printf("%n\t%-20s%n", category.name() + ":");
+		out.printf("\t\t%s%n", "Description: " + description);
+		out.printf("\t\t%-35s: %s%n", "Nodes, where fault starts (WFG)",
 				openingNodes.toString());
-		System.out.printf("\t\t%-35s: %s%n", "Nodes, where fault ends (WFG)",
+		out.printf("\t\t%-35s: %s%n", "Nodes, where fault ends (WFG)",
 				printableNodes.toString());
-		System.out.printf("\t\t%-35s: %s%n", "Nodes, which are involved (WFG)",
+		out.printf("\t\t%-35s: %s%n", "Nodes, which are involved (WFG)",
 				involvedNodes.toString());
 
-		System.out.printf("\t\t%-35s: %s%n", "Nodes, where fault starts (Process)",
+		out.printf("\t\t%-35s: %s%n", "Nodes, where fault starts (Process)",
 				getIdString(getInterpretedOpeningNodes(), interpreter));
-		System.out.printf("\t\t%-35s: %s%n", "Nodes, where fault ends (Process)",
+		out.printf("\t\t%-35s: %s%n", "Nodes, where fault ends (Process)",
 				getIdString(getInterpretedPrintableNodes(), interpreter));
-		System.out.printf("\t\t%-35s: %s%n", "Nodes, which are involved (Process)",
+		out.printf("\t\t%-35s: %s%n", "Nodes, which are involved (Process)",
 				getIdString(getInterpretedInvolvedNodes(), interpreter));
 
 	}
@@ -0,0 +1,107 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.error;
+
+import java.io.PrintStream;
+
+import de.jena.uni.mojo.analysis.CoreAnalysis;
+import de.jena.uni.mojo.analysis.VerificationBudget;
+import de.jena.uni.mojo.interpreter.IdInterpreter;
+
+/**
+ * This annotation states that the verification of a workflow graph was
+ * stopped since its budget was exceeded. The result of the verification is
+ * therefore unknown. The annotation contains the statistics of the
+ * verification until it was stopped.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ * 
+ */
+public class BudgetExceededAnnotation extends Annotation {
+
+	/**
+	 * The failure description.
+	 */
+	public static final String DESCRIPTION = "The verification was stopped "
+			+ "since its budget was exceeded. The process may contain further "
+			+ "failures.";
+
+	/**
+	 * The reason why the budget was exceeded.
+	 */
+	private final String reason;
+
+	/**
+	 * The number of visited edges until the verification was stopped.
+	 */
+	private final long visitedEdges;
+
+	/**
+	 * The elapsed time until the verification was stopped (in nano seconds).
+	 */
+	private final long elapsedTime;
+
+	/**
+	 * The constructor defines a new budget exceeded annotation.
+	 * 
+	 * @param analysis
+	 *            The analysis which defines this annotation.
+	 * @param budget
+	 *            The exceeded budget.
+	 */
+	public BudgetExceededAnnotation(CoreAnalysis analysis,
+			VerificationBudget budget) {
+		super(EAlarmCategory.WARNING, DESCRIPTION, analysis);
+		this.reason = budget.getReason();
+		this.visitedEdges = budget.getVisitedEdges();
+		this.elapsedTime = budget.getElapsedTime();
+	}
+
+	/**
+	 * @return the reason why the budget was exceeded
+	 */
+	public String getReason() {
+		return reason;
+	}
+
+	/**
+	 * @return the number of visited edges until the verification was stopped
+	 */
+	public long getVisitedEdges() {
+		return visitedEdges;
+	}
+
+	/**
+	 * @return the elapsed time until the verification was stopped (in nano
+	 *         seconds)
+	 */
+	public long getElapsedTime() {
+		return elapsedTime;
+	}
+
+	@Override
+	public void printInformation(IdInterpreter interpreter, PrintStream out) {
+		super.printInformation(interpreter, out);
+
+		out.printf("\t\t%-35s: %s%n", "Reason", reason);
+		out.printf("\t\t%-35s: %d%n", "Visited edges", visitedEdges);
+		out.printf("\t\t%-35s: %f [ms]%n", "Elapsed time",
+				(double) elapsedTime / (double) 1000000);
+	}
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.error;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import de.jena.uni.mojo.interpreter.IdInterpreter;
+
+/**
+ * An annotation which was restored from a result cache. The process is not
+ * read in again, i.e., there are no workflow graph nodes and process elements.
+ * Instead, the annotation holds the interpreted ids of the process elements,
+ * the type of the original annotation, and its printed information.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ * 
+ */
+public class CachedAnnotation extends Annotation {
+
+	/**
+	 * The simple class name of the original annotation.
+	 */
+	private final String type;
+
+	/**
+	 * The ids of the opening process elements.
+	 */
+	private final List<String> openingIds;
+
+	/**
+	 * The ids of the printable process elements.
+	 */
+	private final List<String> printableIds;
+
+	/**
+	 * The ids of the involved process elements.
+	 */
+	private final List<String> involvedIds;
+
+	/**
+	 * The printed information of the original annotation.
+	 */
+	private final String information;
+
+	/**
+	 * The constructor defines a new cached annotation.
+	 * 
+	 * @param category
+	 *            The alarm category.
+	 * @param type
+	 *            The simple class name of the original annotation.
+	 * @param description
+	 *            The description.
+	 * @param openingIds
+	 *            The ids of the opening process elements.
+	 * @param printableIds
+	 *            The ids of the printable process elements.
+	 * @param involvedIds
+	 *            The ids of the involved process elements.
+	 * @param information
+	 *            The printed information.
+	 */
+	public CachedAnnotation(EAlarmCategory category, String type,
+			String description, List<String> openingIds,
+			List<String> printableIds, List<String> involvedIds,
+			String information) {
+		super(category, description, null);
+		this.type = type;
+		this.openingIds = openingIds;
+		this.printableIds = printableIds;
+		this.involvedIds = involvedIds;
+		this.information = information;
+	}
+
+	/**
+	 * Creates a cached annotation from the given annotation.
+	 * 
+	 * @param annotation
+	 *            The annotation.
+	 * @param interpreter
+	 *            The id interpreter of the process elements (can be null).
+	 * @return The cached annotation.
+	 */
+	public static CachedAnnotation of(Annotation annotation,
+			IdInterpreter interpreter) {
+		if (annotation instanceof CachedAnnotation)
+			return (CachedAnnotation) annotation;
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		String information;
+		try {
+			PrintStream out = new PrintStream(bytes, true, "UTF-8");
+			annotation.printInformation(interpreter, out);
+			out.flush();
+			information = bytes.toString("UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+
+		String type = annotation instanceof RemappedAnnotation ? ((RemappedAnnotation) annotation)
+				.getType() : annotation.getClass().getSimpleName();
+		return new CachedAnnotation(annotation.getAlarmCategory(), type,
+				annotation.getDescription(), ids(
+				annotation.getInterpretedOpeningNodes(), interpreter), ids(
+				annotation.getInterpretedPrintableNodes(), interpreter), ids(
+				annotation.getInterpretedInvolvedNodes(), interpreter),
+				information);
+	}
+
+	/**
+	 * Get the simple class name of the original annotation.
+	 * 
+	 * @return The type.
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * Get the printed information of the original annotation.
+	 * 
+	 * @return The information.
+	 */
+	public String getInformation() {
+		return information;
+	}
+
+	@Override
+	public List<Object> getInterpretedOpeningNodes() {
+		return new ArrayList<Object>(openingIds);
+	}
+
+	@Override
+	public List<Object> getInterpretedPrintableNodes() {
+		return new ArrayList<Object>(printableIds);
+	}
+
+	@Override
+	public List<Object> getInterpretedInvolvedNodes() {
+		return new ArrayList<Object>(involvedIds);
+	}
+
+	@Override
+	public void printInformation(IdInterpreter interpreter, PrintStream out) {
+		out.print(information);
+	}
+
+	@Override
+	protected String getIdString(Collection<Object> nodes,
+			IdInterpreter interpreter) {
+		// The ids are already interpreted
+		StringBuilder idString = new StringBuilder();
+		for (Object node : nodes) {
+			if (idString.length() > 0)
+				idString.append(",");
+			idString.append(node);
+		}
+		return idString.toString();
+	}
+
+	/**
+	 * Extracts the ids of the given process elements.
+	 * 
+	 * @param elements
+	 *            The process elements.
+	 * @param interpreter
+	 *            The id interpreter (can be null).
+	 * @return The ids.
+	 */
+	private static List<String> ids(List<Object> elements,
+			IdInterpreter interpreter) {
+		List<String> ids = new ArrayList<String>();
+		for (Object element : elements) {
+			ids.add(interpreter == null ? String.valueOf(element) : interpreter
+					.extractId(element));
+		}
+		return ids;
+	}
+}
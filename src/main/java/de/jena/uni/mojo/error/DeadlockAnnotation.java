@@ -18,6 +18,7 @@
  */
 package de.jena.uni.mojo.error;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
@@ -152,14 +153,14 @@ public class DeadlockAnnotation extends Annotation {
 	}
 
 	@Override
-	public void printInformation(IdInterpreter interpreter) {
-		super.printInformation(interpreter);
+	public void printInformation(IdInterpreter interpreter, PrintStream out) {
+		super.printInformation(interpreter, out);
 
-		System.out.printf("\t\t%-35s: %s%n", "Fault nodes (WFG)", failureNodes.toString());
+		out.printf("\t\t%-35s: %s%n", "Fault nodes (WFG)", failureNodes.toString());
 
-		System.out.printf("\t\t%-35s: %s%n", "fault nodes (Process)", this.getIdString(getInterpretedFailureNodes(), interpreter));
+		out.printf("\t\t%-35s: %s%n", "fault nodes (Process)", this.getIdString(getInterpretedFailureNodes(), interpreter));
 
-		System.out.printf("\t\t%-35s: %n", "Paths to the fault (WFG + Process)");
+		out.printf("\t\t%-35s: %n", "Paths to the fault (WFG + Process)");
 
 		int pathCounter = 0;
 		for (BitSet path : this.pathsToFailure) {
@@ -168,10 +169,10 @@ public class DeadlockAnnotation extends Annotation {
 			// Extract the workflow graph edges
 			List<Edge> wfgEdges = this.extractEdgePath(path);
 
-			System.out.printf("\t\t\t%-20s: %s%n", "Path " + pathCounter + " (WFG)", wfgEdges.toString());
+			out.printf("\t\t\t%-20s: %s%n", "Path " + pathCounter + " (WFG)", wfgEdges.toString());
 
 			// Print the process nodes
-			System.out.printf("\t\t\t%-20s: %s%n", "Path " + pathCounter + " (Process)",
+			out.printf("\t\t\t%-20s: %s%n", "Path " + pathCounter + " (Process)",
 					interpreter.extractPath(this.extractAbstractPath(wfgEdges)));
 		}
 
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.error;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import de.jena.uni.mojo.interpreter.IdInterpreter;
+import de.jena.uni.mojo.model.WGNode;
+
+/**
+ * An annotation which was found in another, isomorphic workflow graph and
+ * remapped onto the nodes of this workflow graph. It has the category, the
+ * description, and the opening, printable and involved nodes of the original
+ * annotation; further details of the original annotation (e.g., the paths to
+ * a deadlock) are not remapped.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ * 
+ */
+public class RemappedAnnotation extends Annotation {
+
+	/**
+	 * The simple class name of the original annotation.
+	 */
+	private final String type;
+
+	/**
+	 * The constructor defines a new remapped annotation.
+	 * 
+	 * @param original
+	 *            The original annotation.
+	 * @param nodes
+	 *            A map from the node ids of the original workflow graph to
+	 *            the nodes of this workflow graph.
+	 * @throws IllegalArgumentException
+	 *             if a node of the original annotation cannot be remapped.
+	 */
+	public RemappedAnnotation(Annotation original, Map<Integer, WGNode> nodes)
+			throws IllegalArgumentException {
+		super(original.getAlarmCategory(), original.getDescription(), null);
+		this.type = original instanceof RemappedAnnotation ? ((RemappedAnnotation) original)
+				.getType() : original.getClass().getSimpleName();
+
+		// The printable and opening nodes are involved nodes, too
+		addInvolvedNodes(remap(original.getInvolvedNodes(), nodes));
+		addPrintableNodes(remap(original.getPrintableNodes(), nodes));
+		addOpeningNodes(remap(original.getOpeningNodes(), nodes));
+	}
+
+	/**
+	 * Get the simple class name of the original annotation.
+	 * 
+	 * @return The type.
+	 */
+	public String getType() {
+		return type;
+	}
+
+	@Override
+	public void printInformation(IdInterpreter interpreter, PrintStream out) {
+		super.printInformation(interpreter, out);
+		out.printf("\t\t%-35s: %s%n", "Remapped from", type);
+	}
+
+	/**
+	 * Remaps the given nodes.
+	 * 
+	 * @param original
+	 *            The nodes of the original workflow graph.
+	 * @param nodes
+	 *            A map from the node ids of the original workflow graph to
+	 *            the nodes of this workflow graph.
+	 * @return The nodes of this workflow graph.
+	 * @throws IllegalArgumentException
+	 *             if a node cannot be remapped.
+	 */
+	private static List<WGNode> remap(Collection<WGNode> original,
+			Map<Integer, WGNode> nodes) throws IllegalArgumentException {
+		List<WGNode> remapped = new ArrayList<WGNode>();
+		for (WGNode node : original) {
+			WGNode image = nodes.get(node.getId());
+			if (image == null)
+				throw new IllegalArgumentException("The node " + node
+						+ " cannot be remapped");
+			remapped.add(image);
+		}
+		return remapped;
+	}
+}
@@ -18,6 +18,7 @@
  */
 package de.jena.uni.mojo.error;
 
+import java.io.PrintStream;
 import java.util.BitSet;
 import java.util.List;
 
@@ -95,17 +96,17 @@ public class WaitingAreaAnnotation extends Annotation {
 	}
 
 	@Override
-	public void printInformation(IdInterpreter interpreter) {
-		super.printInformation(interpreter);
+	public void printInformation(IdInterpreter interpreter, PrintStream out) {
+		super.printInformation(interpreter, out);
 
 		// Extract the workflow graph edges
 		List<Edge> wfgEdges = this.extractEdgePath(waitingArea);
 
-		System.out.printf("\t\t%-35s: %s%n", "Waiting area (WFG)",
+		out.printf("\t\t%-35s: %s%n", "Waiting area (WFG)",
 				wfgEdges.toString());
 
 		// Print the process nodes
-		System.out.printf("\t\t%-35s: %s%n", "Waiting area (Process)",
+		out.printf("\t\t%-35s: %s%n", "Waiting area (Process)",
 				interpreter.extractPath(this.extractAbstractPath(wfgEdges)));
 
 	}
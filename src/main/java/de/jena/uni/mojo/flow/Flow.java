@@ -0,0 +1,118 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.flow;
+
+/**
+ * The interfaces of demand-driven (back-pressured) streams. They have the
+ * same methods and contracts as java.util.concurrent.Flow of Java 9 and the
+ * Reactive Streams specification. Since mojo is compiled for Java 8, they are
+ * defined here; adapters to other implementations only have to forward the
+ * calls.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public final class Flow {
+
+	/**
+	 * There are no instances.
+	 */
+	private Flow() {
+	}
+
+	/**
+	 * A publisher produces items for its subscribers as far as they requested
+	 * them.
+	 * 
+	 * @param <T>
+	 *            The type of the items.
+	 */
+	public static interface Publisher<T> {
+
+		/**
+		 * Adds the given subscriber. The subscriber gets a subscription via
+		 * onSubscribe or an error via onError.
+		 * 
+		 * @param subscriber
+		 *            The subscriber.
+		 */
+		public void subscribe(Subscriber<? super T> subscriber);
+	}
+
+	/**
+	 * A subscriber receives the items of a publisher. The methods of a
+	 * subscription are never called at the same time.
+	 * 
+	 * @param <T>
+	 *            The type of the items.
+	 */
+	public static interface Subscriber<T> {
+
+		/**
+		 * Is called before any other method of the subscription.
+		 * 
+		 * @param subscription
+		 *            The subscription.
+		 */
+		public void onSubscribe(Subscription subscription);
+
+		/**
+		 * Is called with the next item. It is never called more often than
+		 * requested.
+		 * 
+		 * @param item
+		 *            The item.
+		 */
+		public void onNext(T item);
+
+		/**
+		 * Is called if the publisher failed. No further method is called.
+		 * 
+		 * @param throwable
+		 *            The failure.
+		 */
+		public void onError(Throwable throwable);
+
+		/**
+		 * Is called when all items were published. No further method is
+		 * called.
+		 */
+		public void onComplete();
+	}
+
+	/**
+	 * The link between a publisher and a subscriber.
+	 */
+	public static interface Subscription {
+
+		/**
+		 * Requests n further items.
+		 * 
+		 * @param n
+		 *            The number of items (must be positive).
+		 */
+		public void request(long n);
+
+		/**
+		 * Stops the publishing of items. Items may still arrive for a short
+		 * time.
+		 */
+		public void cancel();
+	}
+}
@@ -0,0 +1,382 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.flow;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.jena.uni.mojo.Mojo;
+import de.jena.uni.mojo.MojoConfig;
+import de.jena.uni.mojo.analysis.information.AnalysisInformation;
+import de.jena.uni.mojo.error.Annotation;
+import de.jena.uni.mojo.interpreter.IdInterpreter;
+import de.jena.uni.mojo.model.WorkflowGraph;
+import de.jena.uni.mojo.processes.ThreadFactories;
+
+/**
+ * A publisher which verifies a stream of {@link VerificationSource}s and
+ * publishes a {@link VerificationResult} for each of them as soon as it is
+ * complete (i.e., not necessarily in the order of the sources).
+ * 
+ * The verification is driven by the demand of the subscriber: a source is only
+ * taken from the stream if a result for it was requested, and at most
+ * parallelism sources are verified at the same time. Therefore, neither the
+ * sources nor their analysis information are kept alive longer than needed.
+ * 
+ * A source which cannot be verified leads to a failed result instead of an
+ * error, so that the remaining sources are still verified. The publisher is
+ * cold: each subscriber iterates the sources again.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class VerificationPublisher implements
+		Flow.Publisher<VerificationResult> {
+
+	/**
+	 * The sources.
+	 */
+	private final Iterable<VerificationSource> sources;
+
+	/**
+	 * The configuration of the verifications.
+	 */
+	private final MojoConfig config;
+
+	/**
+	 * The maximum number of sources which are verified at the same time.
+	 */
+	private final int parallelism;
+
+	/**
+	 * The executor of the verifications or null if each subscription has its
+	 * own threads.
+	 */
+	private final Executor executor;
+
+	/**
+	 * The constructor of a new publisher. Each subscription gets its own
+	 * threads, which terminate with the subscription.
+	 * 
+	 * @param sources
+	 *            The sources.
+	 * @param config
+	 *            The configuration of the verifications.
+	 * @param parallelism
+	 *            The maximum number of sources which are verified at the same
+	 *            time.
+	 */
+	public VerificationPublisher(Iterable<VerificationSource> sources,
+			MojoConfig config, int parallelism) {
+		this(sources, config, parallelism, null);
+	}
+
+	/**
+	 * The constructor of a new publisher which verifies the sources with the
+	 * given executor.
+	 * 
+	 * @param sources
+	 *            The sources.
+	 * @param config
+	 *            The configuration of the verifications.
+	 * @param parallelism
+	 *            The maximum number of sources which are verified at the same
+	 *            time.
+	 * @param executor
+	 *            The executor.
+	 */
+	public VerificationPublisher(Iterable<VerificationSource> sources,
+			MojoConfig config, int parallelism, Executor executor) {
+		this.sources = sources;
+		this.config = config;
+		this.parallelism = Math.max(1, parallelism);
+		this.executor = executor;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super VerificationResult> subscriber) {
+		if (subscriber == null)
+			throw new NullPointerException("The subscriber is null");
+		Iterator<VerificationSource> iterator;
+		try {
+			iterator = sources.iterator();
+		} catch (RuntimeException e) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				@Override
+				public void request(long n) {
+				}
+
+				@Override
+				public void cancel() {
+				}
+			});
+			subscriber.onError(e);
+			return;
+		}
+		VerificationSubscription subscription = new VerificationSubscription(
+				subscriber, iterator);
+		subscriber.onSubscribe(subscription);
+		subscription.drain();
+	}
+
+	/**
+	 * Verifies a single source.
+	 * 
+	 * @param source
+	 *            The source.
+	 * @param index
+	 *            The position of the source.
+	 * @return The result.
+	 */
+	private VerificationResult verify(VerificationSource source, long index) {
+		AnalysisInformation info = new AnalysisInformation();
+		List<Annotation> readerAnnotations = new ArrayList<Annotation>();
+		try {
+			List<WorkflowGraph> graphs = source.read(config, info,
+					readerAnnotations);
+			if (graphs == null)
+				graphs = Collections.emptyList();
+			List<List<Annotation>> annotations = Mojo.analyzeWorkflowGraphs(
+					source.getName(), graphs, info, config);
+			IdInterpreter interpreter = source.getInterpreter(config);
+			return new VerificationResult(source, index, graphs,
+					readerAnnotations, annotations, info, interpreter, null);
+		} catch (IOException | RuntimeException e) {
+			return new VerificationResult(source, index,
+					Collections.<WorkflowGraph> emptyList(), readerAnnotations,
+					Collections.<List<Annotation>> emptyList(), info, null, e);
+		}
+	}
+
+	/**
+	 * The subscription of a single subscriber. All calls of the subscriber
+	 * happen within the drain loop, which runs in at most one thread at the
+	 * same time.
+	 */
+	private class VerificationSubscription implements Flow.Subscription {
+
+		/**
+		 * The subscriber.
+		 */
+		private final Flow.Subscriber<? super VerificationResult> subscriber;
+
+		/**
+		 * The remaining sources (only used within the drain loop).
+		 */
+		private final Iterator<VerificationSource> iterator;
+
+		/**
+		 * The executor of this subscription.
+		 */
+		private final Executor executor;
+
+		/**
+		 * The threads of this subscription or null if the executor is given.
+		 */
+		private final ExecutorService ownExecutor;
+
+		/**
+		 * The results which are complete but not published yet.
+		 */
+		private final Queue<VerificationResult> ready = new ConcurrentLinkedQueue<VerificationResult>();
+
+		/**
+		 * The requested results whose sources are not taken yet.
+		 */
+		private final AtomicLong requested = new AtomicLong();
+
+		/**
+		 * The number of running verifications.
+		 */
+		private final AtomicInteger running = new AtomicInteger();
+
+		/**
+		 * The number of pending calls of the drain loop.
+		 */
+		private final AtomicInteger pending = new AtomicInteger();
+
+		/**
+		 * The position of the next source.
+		 */
+		private long index = 0;
+
+		/**
+		 * Whether all sources are taken.
+		 */
+		private boolean exhausted = false;
+
+		/**
+		 * Whether the subscription is terminated (cancelled, failed or
+		 * completed).
+		 */
+		private volatile boolean terminated = false;
+
+		/**
+		 * A failure of the request or the sources.
+		 */
+		private volatile Throwable failure;
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param subscriber
+		 *            The subscriber.
+		 * @param iterator
+		 *            The sources.
+		 */
+		private VerificationSubscription(
+				Flow.Subscriber<? super VerificationResult> subscriber,
+				Iterator<VerificationSource> iterator) {
+			this.subscriber = subscriber;
+			this.iterator = iterator;
+			if (VerificationPublisher.this.executor == null) {
+				this.ownExecutor = Executors.newFixedThreadPool(parallelism,
+						ThreadFactories.platform("mojo-flow-"));
+				this.executor = ownExecutor;
+			} else {
+				this.ownExecutor = null;
+				this.executor = VerificationPublisher.this.executor;
+			}
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				failure = new IllegalArgumentException(
+						"The number of requested results must be positive");
+			} else {
+				long current;
+				long next;
+				do {
+					current = requested.get();
+					next = current + n < 0 ? Long.MAX_VALUE : current + n;
+				} while (!requested.compareAndSet(current, next));
+			}
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			terminated = true;
+			drain();
+		}
+
+		/**
+		 * Publishes the complete results, starts new verifications as far as
+		 * they are requested, and terminates the subscription if all sources
+		 * are verified.
+		 */
+		private void drain() {
+			if (pending.getAndIncrement() != 0)
+				return;
+
+			int missed = 1;
+			do {
+				//
+				// 1. Publish the complete results
+				//
+				VerificationResult result;
+				while (!terminated && (result = ready.poll()) != null) {
+					subscriber.onNext(result);
+				}
+
+				//
+				// 2. Start new verifications
+				//
+				while (!terminated && failure == null && !exhausted
+						&& running.get() < parallelism && requested.get() > 0) {
+					VerificationSource source;
+					try {
+						if (!iterator.hasNext()) {
+							exhausted = true;
+							break;
+						}
+						source = iterator.next();
+					} catch (RuntimeException e) {
+						failure = e;
+						break;
+					}
+					requested.decrementAndGet();
+					running.incrementAndGet();
+					start(source, index++);
+				}
+
+				//
+				// 3. Terminate the subscription
+				//
+				if (!terminated && failure != null) {
+					terminate();
+					subscriber.onError(failure);
+				} else if (!terminated && exhausted && running.get() == 0
+						&& ready.isEmpty()) {
+					terminate();
+					subscriber.onComplete();
+				} else if (terminated) {
+					terminate();
+				}
+
+				missed = pending.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		/**
+		 * Starts the verification of a source.
+		 * 
+		 * @param source
+		 *            The source.
+		 * @param position
+		 *            The position of the source.
+		 */
+		private void start(final VerificationSource source, final long position) {
+			try {
+				executor.execute(() -> {
+					if (!terminated) {
+						ready.offer(verify(source, position));
+					}
+					running.decrementAndGet();
+					drain();
+				});
+			} catch (RuntimeException e) {
+				running.decrementAndGet();
+				failure = e;
+			}
+		}
+
+		/**
+		 * Marks the subscription as terminated and releases its threads.
+		 */
+		private void terminate() {
+			terminated = true;
+			ready.clear();
+			if (ownExecutor != null) {
+				ownExecutor.shutdown();
+			}
+		}
+	}
+}
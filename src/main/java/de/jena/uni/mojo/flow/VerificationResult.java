@@ -0,0 +1,213 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.flow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.jena.uni.mojo.analysis.information.AnalysisInformation;
+import de.jena.uni.mojo.error.Annotation;
+import de.jena.uni.mojo.interpreter.IdInterpreter;
+import de.jena.uni.mojo.model.WorkflowGraph;
+
+/**
+ * The result of the verification of a single {@link VerificationSource}. It
+ * holds the analysis information of this verification only, i.e., it is
+ * released together with the result.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class VerificationResult {
+
+	/**
+	 * The source.
+	 */
+	private final VerificationSource source;
+
+	/**
+	 * The position of the source within all sources (starting with 0).
+	 */
+	private final long index;
+
+	/**
+	 * The workflow graphs of the source.
+	 */
+	private final List<WorkflowGraph> graphs;
+
+	/**
+	 * The annotations of the reader.
+	 */
+	private final List<Annotation> readerAnnotations;
+
+	/**
+	 * The annotations of each workflow graph.
+	 */
+	private final List<List<Annotation>> graphAnnotations;
+
+	/**
+	 * The analysis information of the verification.
+	 */
+	private final AnalysisInformation information;
+
+	/**
+	 * The id interpreter of the process elements (can be null).
+	 */
+	private final IdInterpreter interpreter;
+
+	/**
+	 * The failure if the source cannot be verified.
+	 */
+	private final Throwable failure;
+
+	/**
+	 * The constructor.
+	 * 
+	 * @param source
+	 *            The source.
+	 * @param index
+	 *            The position of the source.
+	 * @param graphs
+	 *            The workflow graphs.
+	 * @param readerAnnotations
+	 *            The annotations of the reader.
+	 * @param graphAnnotations
+	 *            The annotations of each workflow graph.
+	 * @param information
+	 *            The analysis information.
+	 * @param interpreter
+	 *            The id interpreter (can be null).
+	 * @param failure
+	 *            The failure (can be null).
+	 */
+	public VerificationResult(VerificationSource source, long index,
+			List<WorkflowGraph> graphs, List<Annotation> readerAnnotations,
+			List<List<Annotation>> graphAnnotations,
+			AnalysisInformation information, IdInterpreter interpreter,
+			Throwable failure) {
+		this.source = source;
+		this.index = index;
+		this.graphs = graphs;
+		this.readerAnnotations = readerAnnotations;
+		this.graphAnnotations = graphAnnotations;
+		this.information = information;
+		this.interpreter = interpreter;
+		this.failure = failure;
+	}
+
+	/**
+	 * Get the source.
+	 * 
+	 * @return The source.
+	 */
+	public VerificationSource getSource() {
+		return source;
+	}
+
+	/**
+	 * Get the position of the source within all sources. The results are
+	 * published as they complete, i.e., not necessarily in this order.
+	 * 
+	 * @return The position (starting with 0).
+	 */
+	public long getIndex() {
+		return index;
+	}
+
+	/**
+	 * Get the workflow graphs of the source.
+	 * 
+	 * @return The workflow graphs.
+	 */
+	public List<WorkflowGraph> getGraphs() {
+		return graphs;
+	}
+
+	/**
+	 * Get the annotations of the reader.
+	 * 
+	 * @return The annotations.
+	 */
+	public List<Annotation> getReaderAnnotations() {
+		return readerAnnotations;
+	}
+
+	/**
+	 * Get the annotations of the workflow graph at the given position.
+	 * 
+	 * @param graph
+	 *            The position of the workflow graph.
+	 * @return The annotations.
+	 */
+	public List<Annotation> getAnnotations(int graph) {
+		return graphAnnotations.get(graph);
+	}
+
+	/**
+	 * Get all annotations, i.e., the annotations of the reader and of all
+	 * workflow graphs.
+	 * 
+	 * @return The annotations.
+	 */
+	public List<Annotation> getAnnotations() {
+		List<Annotation> annotations = new ArrayList<Annotation>(
+				readerAnnotations);
+		for (List<Annotation> list : graphAnnotations) {
+			annotations.addAll(list);
+		}
+		return Collections.unmodifiableList(annotations);
+	}
+
+	/**
+	 * Get the analysis information of the verification.
+	 * 
+	 * @return The analysis information.
+	 */
+	public AnalysisInformation getInformation() {
+		return information;
+	}
+
+	/**
+	 * Get the id interpreter of the process elements.
+	 * 
+	 * @return The id interpreter or null.
+	 */
+	public IdInterpreter getInterpreter() {
+		return interpreter;
+	}
+
+	/**
+	 * Whether the source could not be verified.
+	 * 
+	 * @return True or false.
+	 */
+	public boolean isFailed() {
+		return failure != null;
+	}
+
+	/**
+	 * Get the failure if the source could not be verified.
+	 * 
+	 * @return The failure or null.
+	 */
+	public Throwable getFailure() {
+		return failure;
+	}
+}
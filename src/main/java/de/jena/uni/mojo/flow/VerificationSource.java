@@ -0,0 +1,228 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.flow;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FilenameUtils;
+
+import de.jena.uni.mojo.MojoConfig;
+import de.jena.uni.mojo.analysis.information.AnalysisInformation;
+import de.jena.uni.mojo.error.Annotation;
+import de.jena.uni.mojo.interpreter.IdInterpreter;
+import de.jena.uni.mojo.model.WorkflowGraph;
+import de.jena.uni.mojo.plugin.SourcePlugin;
+import de.jena.uni.mojo.reader.Reader;
+
+/**
+ * A source of workflow graphs for a {@link VerificationPublisher}. It is
+ * either a process file, a process in a byte buffer, or already built
+ * workflow graphs. The process is only read in when it is verified.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public abstract class VerificationSource {
+
+	/**
+	 * The name of the process.
+	 */
+	private final String name;
+
+	/**
+	 * The constructor.
+	 * 
+	 * @param name
+	 *            The name of the process.
+	 */
+	protected VerificationSource(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Get the name of the process.
+	 * 
+	 * @return The name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Get the id interpreter of the process elements.
+	 * 
+	 * @param config
+	 *            The configuration.
+	 * @return The id interpreter or null if there is none.
+	 */
+	public abstract IdInterpreter getInterpreter(MojoConfig config);
+
+	/**
+	 * Reads in the workflow graphs.
+	 * 
+	 * @param config
+	 *            The configuration.
+	 * @param info
+	 *            The analysis information.
+	 * @param annotations
+	 *            The list which gets the annotations of the reader.
+	 * @return The workflow graphs or null if the process cannot be
+	 *         transformed.
+	 * @throws IOException
+	 *             if the process cannot be read.
+	 */
+	public abstract List<WorkflowGraph> read(MojoConfig config,
+			AnalysisInformation info, List<Annotation> annotations)
+			throws IOException;
+
+	/**
+	 * Creates a source of a process file.
+	 * 
+	 * @param file
+	 *            The file.
+	 * @param encoding
+	 *            The charset of the file.
+	 * @return The source.
+	 */
+	public static VerificationSource of(final File file, final Charset encoding) {
+		final String extension = FilenameUtils.getExtension(file.getName());
+		return new VerificationSource(file.getName()) {
+
+			@Override
+			public IdInterpreter getInterpreter(MojoConfig config) {
+				return plugin(config, extension).getIdInterpreter();
+			}
+
+			@Override
+			public List<WorkflowGraph> read(MojoConfig config,
+					AnalysisInformation info, List<Annotation> annotations)
+					throws IOException {
+				SourcePlugin plugin = plugin(config, extension);
+				return compute(plugin,
+						plugin.getReader(getName(), file, info, encoding),
+						annotations);
+			}
+		};
+	}
+
+	/**
+	 * Creates a source of a process within a byte buffer. The buffer is
+	 * decoded when the process is read in; its position is not changed.
+	 * 
+	 * @param name
+	 *            The name of the process.
+	 * @param extension
+	 *            The file extension of the process, e.g., bpmn.
+	 * @param buffer
+	 *            The buffer.
+	 * @param encoding
+	 *            The charset of the process.
+	 * @return The source.
+	 */
+	public static VerificationSource of(String name, final String extension,
+			final ByteBuffer buffer, final Charset encoding) {
+		return new VerificationSource(name) {
+
+			@Override
+			public IdInterpreter getInterpreter(MojoConfig config) {
+				return plugin(config, extension).getIdInterpreter();
+			}
+
+			@Override
+			public List<WorkflowGraph> read(MojoConfig config,
+					AnalysisInformation info, List<Annotation> annotations) {
+				SourcePlugin plugin = plugin(config, extension);
+				String stream = encoding.decode(buffer.duplicate()).toString();
+				return compute(plugin,
+						plugin.getReader(getName(), stream, info, encoding),
+						annotations);
+			}
+		};
+	}
+
+	/**
+	 * Creates a source of already built workflow graphs.
+	 * 
+	 * @param name
+	 *            The name of the process.
+	 * @param graphs
+	 *            The workflow graphs.
+	 * @return The source.
+	 */
+	public static VerificationSource of(String name, WorkflowGraph... graphs) {
+		final List<WorkflowGraph> list = new ArrayList<WorkflowGraph>(
+				Arrays.asList(graphs));
+		return new VerificationSource(name) {
+
+			@Override
+			public IdInterpreter getInterpreter(MojoConfig config) {
+				return null;
+			}
+
+			@Override
+			public List<WorkflowGraph> read(MojoConfig config,
+					AnalysisInformation info, List<Annotation> annotations) {
+				return list;
+			}
+		};
+	}
+
+	/**
+	 * Computes the reader and collects its annotations.
+	 * 
+	 * @param plugin
+	 *            The source plugin.
+	 * @param reader
+	 *            The reader of the source plugin.
+	 * @param annotations
+	 *            The list which gets the annotations of the reader.
+	 * @return The workflow graphs.
+	 */
+	private static List<WorkflowGraph> compute(SourcePlugin plugin,
+			Reader reader, List<Annotation> annotations) {
+		if (reader == null)
+			throw new IllegalArgumentException("The source plugin "
+					+ plugin.getName() + " cannot read the process");
+		annotations.addAll(reader.compute());
+		return reader.getResult();
+	}
+
+	/**
+	 * Get the source plugin for the given file extension.
+	 * 
+	 * @param config
+	 *            The configuration.
+	 * @param extension
+	 *            The file extension.
+	 * @return The source plugin.
+	 */
+	private static SourcePlugin plugin(MojoConfig config, String extension) {
+		SourcePlugin plugin = config.getSourcePlugins().get(extension);
+		if (plugin == null)
+			throw new IllegalArgumentException(
+					"Cannot handle files with extension '" + extension + "'");
+		return plugin;
+	}
+}
@@ -19,6 +19,7 @@
 package de.jena.uni.mojo.general;
 
 
+import de.jena.uni.mojo.MojoConfig;
 import de.jena.uni.mojo.analysis.information.AnalysisInformation;
 import de.jena.uni.mojo.annotations.MajorAnalysisPlan;
 import de.jena.uni.mojo.model.WGNode;
@@ -54,6 +55,23 @@ public abstract class MajorPlan extends Plan {
 		super(graph, map, analysisInformation);
 	}
 
+	/**
+	 * The constructor with the configuration of the verification run.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param map
+	 *            A node id to node map for a fast analysis.
+	 * @param analysisInformation
+	 *            An analysis information map.
+	 * @param config
+	 *            The configuration.
+	 */
+	public MajorPlan(WorkflowGraph graph, WGNode[] map,
+			AnalysisInformation analysisInformation, MojoConfig config) {
+		super(graph, map, analysisInformation, config);
+	}
+
 	/**
 	 * Get the number of this major plan.
 	 * 
@@ -20,13 +20,16 @@ package de.jena.uni.mojo.general;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinTask;
 
 
+import de.jena.uni.mojo.MojoConfig;
 import de.jena.uni.mojo.analysis.Analysis;
 import de.jena.uni.mojo.analysis.information.AnalysisInformation;
 import de.jena.uni.mojo.error.Annotation;
 import de.jena.uni.mojo.model.WGNode;
 import de.jena.uni.mojo.model.WorkflowGraph;
+import de.jena.uni.mojo.verifier.VerificationListener;
 
 /**
  * A plan represents a simple workflow to a build complex analysis that is based
@@ -70,6 +73,24 @@ public abstract class Plan extends Analysis {
 		this.analysisInformation = analysisInformation;
 	}
 
+	/**
+	 * The constructor with the configuration of the verification run.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param map
+	 *            A node id to node map for a fast analysis.
+	 * @param analysisInformation
+	 *            An analysis information map.
+	 * @param config
+	 *            The configuration.
+	 */
+	public Plan(WorkflowGraph graph, WGNode[] map,
+			AnalysisInformation analysisInformation, MojoConfig config) {
+		super(graph, map, analysisInformation, config);
+		this.analysisInformation = analysisInformation;
+	}
+
 	@Override
 	protected List<Annotation> analyze() {
 		// Execute the plan
@@ -86,6 +107,94 @@ public abstract class Plan extends Analysis {
 		execute();
 	}
 
+	/**
+	 * Starts the given analysis asynchronously. If the plan runs within a
+	 * fork join pool, the analysis is forked into this pool. Otherwise, the
+	 * plan runs inline (see
+	 * {@link de.jena.uni.mojo.verifier.ExecutionStrategy#inline()}) and the
+	 * analysis is computed directly. In both cases, the result can be
+	 * requested via join().
+	 * 
+	 * @param analysis
+	 *            The analysis to start.
+	 */
+	protected final void spawn(Analysis analysis) {
+		spawn(analysis, true);
+	}
+
+	/**
+	 * Starts the given analysis. If it should not run in parallel, it is
+	 * computed in the current thread before this method returns. In both
+	 * cases, its result is taken via join.
+	 * 
+	 * @param analysis
+	 *            The analysis to start.
+	 * @param parallel
+	 *            Whether the analysis should run in parallel.
+	 */
+	protected final void spawn(Analysis analysis, boolean parallel) {
+		if (!fork(analysis, parallel)) {
+			analysis.invoke();
+		}
+	}
+
+	/**
+	 * Forks the given analysis if it should run in parallel and the plan runs
+	 * within a fork join pool. Otherwise, the analysis is not started, so
+	 * that the caller can decide when it is computed.
+	 * 
+	 * @param analysis
+	 *            The analysis to fork.
+	 * @param parallel
+	 *            Whether the analysis should run in parallel.
+	 * @return True if the analysis was forked.
+	 */
+	protected final boolean fork(Analysis analysis, boolean parallel) {
+		if (parallel && ForkJoinTask.inForkJoinPool()) {
+			analysis.fork();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Reports the annotations of a complete phase to the listener of the
+	 * configuration. The annotations are completed via
+	 * {@link #expand(List)} before. The plan itself still collects the
+	 * annotations.
+	 * 
+	 * @param phase
+	 *            The analysis of the phase.
+	 * @param annotations
+	 *            The annotations of the phase.
+	 * @return The annotations.
+	 */
+	protected final List<Annotation> report(Analysis phase,
+			List<Annotation> annotations) {
+		annotations = expand(annotations);
+		VerificationListener listener = config.getListener();
+		WorkflowGraph origin = graph.getOrigin();
+		for (Annotation annotation : annotations) {
+			listener.onAnnotation(origin, annotation);
+		}
+		listener.onPhaseComplete(origin, phase, annotations);
+		return annotations;
+	}
+
+	/**
+	 * Completes the annotations of a phase before they are reported, e.g., by
+	 * the nodes of the original workflow graph. The annotations must not be
+	 * changed after they are reported, since the listener may already use
+	 * them. By default, the annotations are kept as they are.
+	 * 
+	 * @param annotations
+	 *            The annotations of the phase.
+	 * @return The completed annotations.
+	 */
+	protected List<Annotation> expand(List<Annotation> annotations) {
+		return annotations;
+	}
+
 	/**
 	 * In this method, the plan is implemented.
 	 */
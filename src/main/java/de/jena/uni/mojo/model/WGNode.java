@@ -131,6 +131,19 @@ public class WGNode implements Comparable<WGNode> {
 		this.type = type;
 	}
 
+	/**
+	 * Create a copy of this node with the same id, type, process elements
+	 * and code. Neither the edges nor the extra information are copied.
+	 * 
+	 * @return The copy of this node.
+	 */
+	public WGNode copy() {
+		final WGNode copy = new WGNode(id, type);
+		copy.processElements.addAll(processElements);
+		copy.code = code;
+		return copy;
+	}
+
 	@Override
 	public String toString() {
 		return "N(" + type + "," + id + ")";
@@ -149,6 +149,40 @@ public class WorkflowGraph {
 	 */
 	private boolean closed = false;
 
+	/**
+	 * The workflow graph this graph was derived from (or null if it is an
+	 * original workflow graph).
+	 */
+	private final WorkflowGraph origin;
+
+	/**
+	 * Create a new (original) workflow graph.
+	 */
+	public WorkflowGraph() {
+		this.origin = null;
+	}
+
+	/**
+	 * Create a new workflow graph which is derived from another workflow
+	 * graph, e.g., by a transformation.
+	 * 
+	 * @param origin
+	 *            The workflow graph this graph is derived from.
+	 */
+	public WorkflowGraph(final WorkflowGraph origin) {
+		this.origin = origin.getOrigin();
+	}
+
+	/**
+	 * Get the original workflow graph this graph was derived from. If this
+	 * graph is an original workflow graph, then it is returned itself.
+	 * 
+	 * @return The original workflow graph.
+	 */
+	public WorkflowGraph getOrigin() {
+		return origin == null ? this : origin;
+	}
+
 	/**
 	 * Get a list holding references to all nodes of type {@link Type#Fork} of
 	 * this graph.
@@ -508,6 +542,49 @@ public class WorkflowGraph {
 		return nodeSet;
 	}
 
+	/**
+	 * Creates a snapshot of this workflow graph. The snapshot consists of
+	 * copies of all nodes (with the same ids) and all edges of this workflow
+	 * graph. Analyses which work on the snapshot (and close it) do not
+	 * influence this workflow graph, so that it can be verified repeatedly
+	 * and concurrently.
+	 * 
+	 * @return The snapshot.
+	 */
+	public WorkflowGraph snapshot() {
+		final WorkflowGraph snapshot = new WorkflowGraph(this);
+		final List<WGNode> nodes = getNodeListInclusive();
+
+		int max = 0;
+		for (final WGNode node : nodes) {
+			max = Math.max(max, node.getId());
+		}
+
+		// Copy the nodes
+		final WGNode[] copies = new WGNode[max + 1];
+		for (final WGNode node : nodes) {
+			copies[node.getId()] = node.copy();
+		}
+		snapshot.setStart(copies[start.getId()]);
+		snapshot.setEnd(copies[end.getId()]);
+		for (final WGNode node : nodeList) {
+			snapshot.addNode(copies[node.getId()]);
+		}
+
+		// Copy the edges
+		for (final WGNode node : nodes) {
+			final WGNode copy = copies[node.getId()];
+			for (final WGNode succ : node.getSuccessors()) {
+				copy.addSuccessor(copies[succ.getId()]);
+			}
+			for (final WGNode pred : node.getPredecessors()) {
+				copy.addPredecessor(copies[pred.getId()]);
+			}
+		}
+
+		return snapshot;
+	}
+
 	/**
 	 * Closes the workflow graph so that further changes are not allowed.
 	 * 
@@ -18,7 +18,9 @@
  */
 package de.jena.uni.mojo.plan;
 
+import java.util.List;
 
+import de.jena.uni.mojo.MojoConfig;
 import de.jena.uni.mojo.analysis.edge.EdgeAnalysis;
 import de.jena.uni.mojo.analysis.edge.ExecutionEdgeAnalysis;
 import de.jena.uni.mojo.analysis.edge.StrongComponentsAnalysis;
@@ -28,6 +30,8 @@ import de.jena.uni.mojo.analysis.edge.dominance.DominatorEdgeAnalysis;
 import de.jena.uni.mojo.analysis.edge.dominance.PostDominatorEdgeAnalysis;
 import de.jena.uni.mojo.analysis.information.AnalysisInformation;
 import de.jena.uni.mojo.analysis.or.WaitingAreaAnalysis;
+import de.jena.uni.mojo.analysis.transformation.ReductionTransformation;
+import de.jena.uni.mojo.error.Annotation;
 import de.jena.uni.mojo.general.Plan;
 import de.jena.uni.mojo.model.WGNode;
 import de.jena.uni.mojo.model.WorkflowGraph;
@@ -36,6 +40,11 @@ import de.jena.uni.mojo.model.WorkflowGraph;
  * This plan performs the heart of mojo: the control flow analysis. It detects
  * deadlocks and lack of synchronization.
  * 
+ * Whether the independent analyses run in parallel is decided by the
+ * {@link CostModel} of the configuration after the edges are determined.
+ * Each phase is reported to the listener of the configuration as soon as it
+ * is joined.
+ * 
  * @author Dipl.-Inf. Thomas M. Prinz
  * 
  */
@@ -46,6 +55,11 @@ public class ControlFlowAnalysisPlan extends Plan {
 	 */
 	private static final long serialVersionUID = 4642670985350618575L;
 
+	/**
+	 * The reduction of the workflow graph or null if it is not reduced.
+	 */
+	private final ReductionTransformation reduction;
+
 	/**
 	 * The constructor.
 	 * 
@@ -59,6 +73,53 @@ public class ControlFlowAnalysisPlan extends Plan {
 	public ControlFlowAnalysisPlan(WorkflowGraph graph, WGNode[] map,
 			AnalysisInformation analysisInformation) {
 		super(graph, map, analysisInformation);
+		this.reduction = null;
+	}
+
+	/**
+	 * The constructor with the configuration of the verification run.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param map
+	 *            A node id to node map for a fast analysis.
+	 * @param analysisInformation
+	 *            An analysis information map.
+	 * @param config
+	 *            The configuration.
+	 */
+	public ControlFlowAnalysisPlan(WorkflowGraph graph, WGNode[] map,
+			AnalysisInformation analysisInformation, MojoConfig config) {
+		this(graph, map, analysisInformation, config, null);
+	}
+
+	/**
+	 * The constructor for a structurally reduced workflow graph. The
+	 * annotations of each phase are expanded by the nodes absorbed by the
+	 * reduction before they are reported.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param map
+	 *            A node id to node map for a fast analysis.
+	 * @param analysisInformation
+	 *            An analysis information map.
+	 * @param config
+	 *            The configuration.
+	 * @param reduction
+	 *            The reduction of the workflow graph (can be null).
+	 */
+	public ControlFlowAnalysisPlan(WorkflowGraph graph, WGNode[] map,
+			AnalysisInformation analysisInformation, MojoConfig config,
+			ReductionTransformation reduction) {
+		super(graph, map, analysisInformation, config);
+		this.reduction = reduction;
+	}
+
+	@Override
+	protected List<Annotation> expand(List<Annotation> annotations) {
+		return reduction == null ? annotations : reduction
+				.expand(annotations);
 	}
 
 	@Override
@@ -66,43 +127,51 @@ public class ControlFlowAnalysisPlan extends Plan {
 		//
 		// 0. Determine the edges in the workflow graph
 		//
-		EdgeAnalysis edgeAnalysis = new EdgeAnalysis(graph, map, reporter);
-		edgeAnalysis.compute();
+		EdgeAnalysis edgeAnalysis = new EdgeAnalysis(graph, map, reporter,
+				config);
+		report(edgeAnalysis, edgeAnalysis.compute());
+
+		//
+		// 0.1 Decide whether the analyses run in parallel
+		//
+		long cost = CostModel.estimate(graph);
+		boolean parallel = config.getCostModel().isParallel(cost);
+		reporter.put(graph, AnalysisInformation.ESTIMATED_COST, cost);
+		reporter.put(graph, AnalysisInformation.PARALLEL_EXECUTION, parallel);
 
 		//
 		// 1. Perform a dominator edge analysis
 		//
 		DominatorEdgeAnalysis domEdgeAnalysis = new DominatorEdgeAnalysis(
-				graph, map, reporter);
-		domEdgeAnalysis.fork();
+				graph, map, reporter, config);
+		spawn(domEdgeAnalysis, parallel);
 
 		//
 		// 2. Perform a post-dominator edge analysis
 		//
 		PostDominatorEdgeAnalysis postDomEdgeAnalysis = new PostDominatorEdgeAnalysis(
-				graph, map, reporter);
-		postDomEdgeAnalysis.fork();
+				graph, map, reporter, config);
+		spawn(postDomEdgeAnalysis, parallel);
 		
 		// 
 		// 2.1 Perform a strong connected components analysis
 		// 
 		StrongComponentsAnalysis strongComponentsAnalysis = new StrongComponentsAnalysis(
-				graph, map, reporter);
-		strongComponentsAnalysis.fork();
-
-		domEdgeAnalysis.join();
-		postDomEdgeAnalysis.join();
-		strongComponentsAnalysis.join();
-
+				graph, map, reporter, config);
+		strongComponentsAnalysis.invoke();
 
+		report(domEdgeAnalysis, domEdgeAnalysis.join());
+		report(postDomEdgeAnalysis, postDomEdgeAnalysis.join());
+		report(strongComponentsAnalysis, strongComponentsAnalysis.join());
 
 		//
 		// 3. Determine the waiting areas
 		//
 		if (!graph.getOrJoinList().isEmpty()) {
 			WaitingAreaAnalysis waitingAreaAnalysis = new WaitingAreaAnalysis(
-					graph, map, reporter);
-			errorList.addAll(waitingAreaAnalysis.compute());
+					graph, map, reporter, config);
+			errorList.addAll(report(waitingAreaAnalysis,
+					waitingAreaAnalysis.compute()));
 		}
 		
 		//
@@ -114,41 +183,48 @@ public class ControlFlowAnalysisPlan extends Plan {
 				reporter,
 				postDomEdgeAnalysis
 		);
-		executionEdgeAnalysis.fork();
-		executionEdgeAnalysis.join();
+		executionEdgeAnalysis.invoke();
+		report(executionEdgeAnalysis, executionEdgeAnalysis.join());
 
 		//
-		// 5. Perform the deadlock analysis
+		// 5. Determine abundances. If the analyses run in parallel, it is
+		// forked since it usually takes much longer than the deadlock
+		// analysis.
 		//
-		DeadlockAnalysis deadlockAnalysis = new DeadlockAnalysis(
+		AbundanceAnalysis abuAnalysis = new AbundanceAnalysis(
 				graph, 
 				map,
 				reporter, 
-				postDomEdgeAnalysis, 
-				executionEdgeAnalysis,
-				strongComponentsAnalysis.isCyclic()
+				domEdgeAnalysis, 
+				strongComponentsAnalysis,
+				executionEdgeAnalysis
 		);
-		deadlockAnalysis.fork();
+		boolean forked = fork(abuAnalysis, parallel);
 
 		//
-		// 6. Determine abundances
+		// 6. Perform the deadlock analysis. It is always performed before
+		// the abundance analysis is joined (or computed), so that its
+		// results are reported first.
 		//
-		AbundanceAnalysis abuAnalysis = new AbundanceAnalysis(
+		DeadlockAnalysis deadlockAnalysis = new DeadlockAnalysis(
 				graph, 
 				map,
 				reporter, 
-				domEdgeAnalysis, 
-				strongComponentsAnalysis,
-				executionEdgeAnalysis
+				postDomEdgeAnalysis, 
+				executionEdgeAnalysis,
+				strongComponentsAnalysis.isCyclic()
 		);
-		abuAnalysis.fork();
+		deadlockAnalysis.invoke();
+		errorList.addAll(report(deadlockAnalysis, deadlockAnalysis.join()));
 
 		//
 		// 7. Perform the OR join deadlock analysis (already done with
 		// abundance)
 		//
-		errorList.addAll(deadlockAnalysis.join());
-		errorList.addAll(abuAnalysis.join());
+		if (!forked) {
+			abuAnalysis.invoke();
+		}
+		errorList.addAll(report(abuAnalysis, abuAnalysis.join()));
 	}
 
 	@Override
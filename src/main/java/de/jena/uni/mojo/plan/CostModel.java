@@ -0,0 +1,111 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ *
+ * This file is part of mojo.
+ *
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.plan;
+
+import de.jena.uni.mojo.model.WorkflowGraph;
+
+/**
+ * The cost model decides whether the phases of the control flow analysis are
+ * executed in parallel or one after another in the current thread. For small
+ * workflow graphs, forking the analyses costs more than the analyses
+ * themselves.
+ * 
+ * The cost of a workflow graph is estimated by its nodes and edges and by the
+ * number of its gateways: the deadlock and abundance analyses traverse the
+ * edges once for each join and fork, respectively. The estimated cost is
+ * 
+ * <pre>
+ * nodes + edges * (1 + gateways)
+ * </pre>
+ * 
+ * The phases run in parallel if the cost reaches the threshold. The
+ * threshold can be tuned with the time measurements of the analyses, which
+ * are stored together with the estimated cost in the analysis information.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ * 
+ */
+public final class CostModel {
+
+	/**
+	 * The default threshold. It corresponds to about 100 edges with 40
+	 * gateways.
+	 */
+	public final static int DEFAULT_THRESHOLD = 4096;
+
+	/**
+	 * A cost model where the phases always run in parallel.
+	 */
+	public final static CostModel ALWAYS_PARALLEL = new CostModel(0);
+
+	/**
+	 * The threshold from which the phases run in parallel.
+	 */
+	private final long threshold;
+
+	/**
+	 * The constructor.
+	 * 
+	 * @param threshold
+	 *            The threshold from which the phases run in parallel. A
+	 *            negative threshold means that the phases never run in
+	 *            parallel.
+	 */
+	public CostModel(long threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Estimates the cost of the control flow analysis of the given workflow
+	 * graph. The edges of the workflow graph must already be determined.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @return The estimated cost.
+	 */
+	public static long estimate(WorkflowGraph graph) {
+		long nodes = graph.getNodeListInclusive().size();
+		long edges = graph.getEdges() == null ? 0 : graph.getEdges().size();
+		long gateways = graph.getForkList().size()
+				+ graph.getJoinList().size() + graph.getSplitList().size()
+				+ graph.getMergeList().size() + graph.getOrForkList().size()
+				+ graph.getOrJoinList().size();
+		return nodes + edges * (1 + gateways);
+	}
+
+	/**
+	 * Decides whether the phases should run in parallel for the given cost.
+	 * 
+	 * @param cost
+	 *            The estimated cost.
+	 * @return True or false.
+	 */
+	public boolean isParallel(long cost) {
+		return threshold >= 0 && cost >= threshold;
+	}
+
+	/**
+	 * Get the threshold.
+	 * 
+	 * @return The threshold.
+	 */
+	public long getThreshold() {
+		return threshold;
+	}
+}
@@ -19,6 +19,7 @@
 package de.jena.uni.mojo.plan;
 
 
+import de.jena.uni.mojo.MojoConfig;
 import de.jena.uni.mojo.analysis.information.AnalysisInformation;
 import de.jena.uni.mojo.analysis.transformation.SimplenessTransformation;
 import de.jena.uni.mojo.general.Plan;
@@ -28,7 +29,9 @@ import de.jena.uni.mojo.model.sub.Data;
 import de.jena.uni.mojo.util.store.ElementStore;
 
 /**
- * This plan prepares the workflow graph for the analysis.
+ * This plan prepares the workflow graph for the analysis. The given workflow
+ * graph is not modified; the prepared graph can be requested via
+ * {@link #getPreparedGraph()}.
  * 
  * @author Dipl.-Inf. Thomas M. Prinz
  * 
@@ -45,6 +48,11 @@ public class PreparationPlan extends Plan {
 	 */
 	private final ElementStore store;
 
+	/**
+	 * The prepared workflow graph.
+	 */
+	private WorkflowGraph preparedGraph;
+
 	/**
 	 * The constructor.
 	 * 
@@ -59,7 +67,27 @@ public class PreparationPlan extends Plan {
 	 */
 	public PreparationPlan(WorkflowGraph graph, WGNode[] map,
 			AnalysisInformation analysisInformation, ElementStore store) {
-		super(graph, map, analysisInformation);
+		this(graph, map, analysisInformation, store, MojoConfig.DEFAULT);
+	}
+
+	/**
+	 * The constructor with the configuration of the verification run.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param map
+	 *            A node id to node map for a fast analysis.
+	 * @param analysisInformation
+	 *            An analysis information map.
+	 * @param store
+	 *            The element store.
+	 * @param config
+	 *            The configuration.
+	 */
+	public PreparationPlan(WorkflowGraph graph, WGNode[] map,
+			AnalysisInformation analysisInformation, ElementStore store,
+			MojoConfig config) {
+		super(graph, map, analysisInformation, config);
 		this.store = store;
 	}
 
@@ -75,16 +103,26 @@ public class PreparationPlan extends Plan {
 
 		transform.compute();
 		map = transform.getExtendedMap();
+		preparedGraph = transform.getSimpleGraph();
 
 		//
-		// 2. For each node of the graph, create some extra information that
-		// can be used for a fast and efficient analysis.
+		// 2. For each or-join of the graph, create some extra information that
+		// stores its waiting area.
 		//
-		for (WGNode node : graph.getNodeListInclusive()) {
-			node.setExtraInformation(new Data(map.length));
+		for (WGNode orJoin : preparedGraph.getOrJoinList()) {
+			orJoin.setExtraInformation(new Data(map.length));
 		}
 	}
 
+	/**
+	 * Returns the prepared workflow graph.
+	 * 
+	 * @return The prepared workflow graph.
+	 */
+	public WorkflowGraph getPreparedGraph() {
+		return this.preparedGraph;
+	}
+
 	/**
 	 * Returns the changed map of workflow graph nodes.
 	 * 
@@ -19,12 +19,22 @@
 package de.jena.uni.mojo.plan;
 
 
+import java.util.List;
+
+import de.jena.uni.mojo.Mojo;
+import de.jena.uni.mojo.MojoConfig;
 import de.jena.uni.mojo.analysis.information.AnalysisInformation;
+import de.jena.uni.mojo.analysis.transformation.ReductionTransformation;
 import de.jena.uni.mojo.annotations.MajorAnalysisPlan;
+import de.jena.uni.mojo.cache.IsomorphismCache;
+import de.jena.uni.mojo.error.Annotation;
 import de.jena.uni.mojo.general.MajorPlan;
 import de.jena.uni.mojo.model.WGNode;
 import de.jena.uni.mojo.model.WorkflowGraph;
 import de.jena.uni.mojo.util.store.ElementStore;
+import de.jena.uni.mojo.verifier.ExecutionStrategy;
+import de.jena.uni.mojo.verifier.VerificationListener;
+import de.jena.uni.mojo.verifier.Verifier;
 
 /**
  * The simplest plan that performs the classic control flow analysis.
@@ -45,6 +55,11 @@ public class WorkflowGraphMajorPlan extends MajorPlan {
 	 */
 	private final ElementStore store;
 
+	/**
+	 * A constant for the analysis reporter.
+	 */
+	public final static String REUSED_FRAGMENTS = "REUSED_FRAGMENTS";
+
 	/**
 	 * The constructor.
 	 * 
@@ -59,7 +74,27 @@ public class WorkflowGraphMajorPlan extends MajorPlan {
 	 */
 	public WorkflowGraphMajorPlan(WorkflowGraph graph, WGNode[] map,
 			AnalysisInformation analysisInformation, ElementStore store) {
-		super(graph, map, analysisInformation);
+		this(graph, map, analysisInformation, store, Mojo.getConfig());
+	}
+
+	/**
+	 * The constructor with the configuration of the verification run.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param map
+	 *            A node id to node map for a fast analysis.
+	 * @param analysisInformation
+	 *            An analysis information map.
+	 * @param store
+	 *            The element store.
+	 * @param config
+	 *            The configuration.
+	 */
+	public WorkflowGraphMajorPlan(WorkflowGraph graph, WGNode[] map,
+			AnalysisInformation analysisInformation, ElementStore store,
+			MojoConfig config) {
+		super(graph, map, analysisInformation, config);
 		this.store = store;
 	}
 
@@ -70,16 +105,63 @@ public class WorkflowGraphMajorPlan extends MajorPlan {
 		// 1. Prepare the workflow graph
 		//
 		PreparationPlan preparationPlan = new PreparationPlan(graph, map,
-				analysisInformation, store);
-		this.errorList.addAll(preparationPlan.compute());
+				analysisInformation, store, config);
+		this.errorList.addAll(report(preparationPlan,
+				preparationPlan.compute()));
 		this.map = preparationPlan.getMap();
+		WorkflowGraph prepared = preparationPlan.getPreparedGraph();
 
 		//
-		// 2. Perform the control flow analysis plan
+		// 2. Reduce the workflow graph structurally (if wished)
+		//
+		ReductionTransformation reduction = null;
+		if (config.isReduce() || config.isFragments()) {
+			reduction = new ReductionTransformation(
+					prepared, map, analysisInformation,
+					config.isFragments() ? this::isSoundFragment : null);
+			this.errorList.addAll(report(reduction, reduction.compute()));
+			this.map = reduction.getReducedMap();
+		}
+
 		//
+		// 3. Perform the control flow analysis plan
+		//
+		// The annotations of a reduced workflow graph name the absorbed
+		// nodes, too. They are expanded before each phase is reported.
 		ControlFlowAnalysisPlan controlFlowPlan = new ControlFlowAnalysisPlan(
-				graph, map, analysisInformation);
+				prepared, map, analysisInformation, config, reduction);
 		errorList.addAll(controlFlowPlan.compute());
 	}
 
+	/**
+	 * Decides whether a fragment is sound. The verdict is taken from the
+	 * shared fragment cache if an isomorphic fragment was verified before.
+	 * Otherwise, the fragment is verified on its own (in the current thread
+	 * and within the budget of this verification) and its verdict is cached.
+	 * 
+	 * @param fragment
+	 *            The fragment as workflow graph on its own.
+	 * @return True if the fragment is sound.
+	 */
+	private boolean isSoundFragment(WorkflowGraph fragment) {
+		AnalysisInformation information = new AnalysisInformation();
+		List<Annotation> verdict = IsomorphismCache.FRAGMENTS.lookup(fragment,
+				config, information);
+		if (verdict != null) {
+			analysisInformation.add(graph, REUSED_FRAGMENTS, 1);
+		} else {
+			MojoConfig fragmentConfig = config.with("FRAGMENTS", false)
+					.with("DEDUPLICATE", false)
+					.withListener(VerificationListener.NONE)
+					.withBudget(config.getBudget());
+			Verifier verifier = new Verifier(fragment, Mojo.createMap(
+					fragment, Mojo.findMax(fragment)), information, store,
+					fragmentConfig, ExecutionStrategy.inline());
+			verdict = verifier.compute();
+			IsomorphismCache.FRAGMENTS.put(fragment, config, verdict,
+					information);
+		}
+		return verdict.isEmpty();
+	}
+
 }
\ No newline at end of file
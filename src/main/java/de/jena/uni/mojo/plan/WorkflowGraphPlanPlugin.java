@@ -18,6 +18,7 @@
  */
 package de.jena.uni.mojo.plan;
 
+import de.jena.uni.mojo.MojoConfig;
 import de.jena.uni.mojo.analysis.information.AnalysisInformation;
 import de.jena.uni.mojo.annotations.MajorAnalysisPlan;
 import de.jena.uni.mojo.general.MajorPlan;
@@ -64,4 +65,17 @@ public class WorkflowGraphPlanPlugin implements PlanPlugin {
 		return new WorkflowGraphMajorPlan(graph, map, analysisInformation, store);
 	}
 
+	@Override
+	public MajorPlan getInstance(WorkflowGraph graph, WGNode[] map,
+			AnalysisInformation analysisInformation, ElementStore store,
+			MojoConfig config) {
+		return new WorkflowGraphMajorPlan(graph, map, analysisInformation, store, config);
+	}
+
+	@Override
+	public boolean preservesGraph() {
+		// The preparation plan builds a new workflow graph
+		return true;
+	}
+
 }
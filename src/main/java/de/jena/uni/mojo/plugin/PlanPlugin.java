@@ -18,6 +18,7 @@
  */
 package de.jena.uni.mojo.plugin;
 
+import de.jena.uni.mojo.MojoConfig;
 import de.jena.uni.mojo.analysis.information.AnalysisInformation;
 import de.jena.uni.mojo.general.MajorPlan;
 import de.jena.uni.mojo.model.WGNode;
@@ -70,4 +71,38 @@ public interface PlanPlugin {
 	 */
 	public MajorPlan getInstance(WorkflowGraph graph, WGNode[] map,
 			AnalysisInformation analysisInformation, ElementStore store);
+
+	/**
+	 * Creates the major analysis plan with the configuration of the
+	 * verification run. Plugins which do not override this method ignore the
+	 * configuration.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param map
+	 *            The node array map.
+	 * @param analysisInformation
+	 *            The analysis information.
+	 * @param store
+	 *            The element store.
+	 * @param config
+	 *            The configuration.
+	 * @return The major analysis plan.
+	 */
+	public default MajorPlan getInstance(WorkflowGraph graph, WGNode[] map,
+			AnalysisInformation analysisInformation, ElementStore store,
+			MojoConfig config) {
+		return getInstance(graph, map, analysisInformation, store);
+	}
+
+	/**
+	 * Whether the major analysis plan leaves the given workflow graph
+	 * untouched. If not, the verifier hands a snapshot of the workflow graph
+	 * to the plan.
+	 * 
+	 * @return True if the plan does not modify the workflow graph.
+	 */
+	public default boolean preservesGraph() {
+		return false;
+	}
 }
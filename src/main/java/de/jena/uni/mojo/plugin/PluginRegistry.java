@@ -0,0 +1,473 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.plugin;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.jena.uni.mojo.annotations.MajorAnalysisPlan;
+import de.jena.uni.mojo.plan.WorkflowGraphMajorPlan;
+import de.jena.uni.mojo.plan.WorkflowGraphPlanPlugin;
+
+/**
+ * The plugin registry knows all source plugins by their file extensions and
+ * all plan plugins by their ids without instantiating them. The providers are
+ * read from the plugin index {@value #INDEX} of each jar (or class directory)
+ * of the class path. An index consists of lines like
+ * 
+ * <pre>
+ * source.bpmn = de.jena.uni.mojo.bpmn.BPMNPlugin
+ * plan.0 = de.jena.uni.mojo.plan.WorkflowGraphPlanPlugin
+ * </pre>
+ * 
+ * A plugin is only instantiated when a file with its extension or its plan is
+ * used for the first time. Providers of {@link ServiceLoader} files which are
+ * not within an index are instantiated at once to learn their extension or
+ * id, so that plugins without an index still work. An index can be created
+ * with the main method of this class.
+ * 
+ * The registry is created once per JVM and is thread-safe.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public final class PluginRegistry {
+
+	/**
+	 * The location of the plugin index within a jar.
+	 */
+	public final static String INDEX = "META-INF/mojo/plugins.index";
+
+	/**
+	 * The prefix of the source plugins within the index.
+	 */
+	public final static String SOURCE = "source.";
+
+	/**
+	 * The prefix of the plan plugins within the index.
+	 */
+	public final static String PLAN = "plan.";
+
+	/**
+	 * The logger.
+	 */
+	private final static Logger logger = LogManager.getLogger(PluginRegistry.class);
+
+	/**
+	 * Holds the registry, which is created at the first use.
+	 */
+	private static class Holder {
+
+		/**
+		 * The registry of the JVM.
+		 */
+		private final static PluginRegistry INSTANCE = new PluginRegistry(
+				PluginRegistry.class.getClassLoader());
+	}
+
+	/**
+	 * A map of plugins which instantiates a plugin when it is requested for
+	 * the first time. The map cannot be modified.
+	 *
+	 * @param <P>
+	 *            The type of the plugins.
+	 */
+	public static final class Plugins<P> extends AbstractMap<String, P> {
+
+		/**
+		 * The provider class name of each key.
+		 */
+		private final Map<String, String> providers;
+
+		/**
+		 * The already instantiated plugins.
+		 */
+		private final ConcurrentHashMap<String, P> instances;
+
+		/**
+		 * Instantiates the plugin of a key.
+		 */
+		private final Function<String, P> factory;
+
+		/**
+		 * The constructor of the map.
+		 *
+		 * @param providers
+		 *            The provider class name of each key.
+		 * @param instances
+		 *            The already instantiated plugins.
+		 * @param factory
+		 *            Instantiates the plugin of a key.
+		 */
+		private Plugins(Map<String, String> providers, Map<String, P> instances, Function<String, P> factory) {
+			this.providers = providers;
+			this.instances = new ConcurrentHashMap<String, P>(instances);
+			this.factory = factory;
+		}
+
+		@Override
+		public P get(Object key) {
+			if (!providers.containsKey(key))
+				return null;
+			return instances.computeIfAbsent((String) key, factory);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return providers.containsKey(key);
+		}
+
+		@Override
+		public Set<String> keySet() {
+			return providers.keySet();
+		}
+
+		@Override
+		public int size() {
+			return providers.size();
+		}
+
+		@Override
+		public Set<Map.Entry<String, P>> entrySet() {
+			// Iterating the entries instantiates all plugins
+			return new AbstractSet<Map.Entry<String, P>>() {
+
+				@Override
+				public Iterator<Map.Entry<String, P>> iterator() {
+					final Iterator<String> keys = providers.keySet().iterator();
+					return new Iterator<Map.Entry<String, P>>() {
+
+						@Override
+						public boolean hasNext() {
+							return keys.hasNext();
+						}
+
+						@Override
+						public Map.Entry<String, P> next() {
+							String key = keys.next();
+							return new AbstractMap.SimpleImmutableEntry<String, P>(key, get(key));
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return providers.size();
+				}
+			};
+		}
+	}
+
+	/**
+	 * The class loader of the providers.
+	 */
+	private final ClassLoader loader;
+
+	/**
+	 * The source plugins by their file extensions.
+	 */
+	private final Plugins<SourcePlugin> sourcePlugins;
+
+	/**
+	 * The plan plugins by their ids.
+	 */
+	private final Plugins<PlanPlugin> planPlugins;
+
+	/**
+	 * The constructor of the registry. It reads the indices and the
+	 * {@link ServiceLoader} files of the class loader.
+	 *
+	 * @param loader
+	 *            The class loader.
+	 */
+	public PluginRegistry(ClassLoader loader) {
+		this.loader = loader;
+
+		//
+		// 1. Read the indices
+		//
+		Map<String, String> sources = new TreeMap<String, String>();
+		Map<String, String> plans = new TreeMap<String, String>();
+		plans.put(String.valueOf(WorkflowGraphMajorPlan.class.getAnnotation(MajorAnalysisPlan.class).id()),
+				WorkflowGraphPlanPlugin.class.getName());
+		for (URL url : resources(INDEX)) {
+			Properties index = new Properties();
+			try (InputStream in = url.openStream()) {
+				index.load(in);
+			} catch (IOException e) {
+				logger.error("Cannot read the plugin index " + url + ": " + e.getMessage());
+				continue;
+			}
+			for (String name : index.stringPropertyNames()) {
+				String provider = index.getProperty(name).trim();
+				// The first index of the class path wins
+				if (name.startsWith(SOURCE)) {
+					putIfAbsent(sources, name.substring(SOURCE.length()), provider);
+				} else if (name.startsWith(PLAN)) {
+					putIfAbsent(plans, name.substring(PLAN.length()), provider);
+				}
+			}
+		}
+
+		//
+		// 2. Instantiate the providers without index
+		//
+		Map<String, SourcePlugin> sourceInstances = new LinkedHashMap<String, SourcePlugin>();
+		for (String provider : services(SourcePlugin.class)) {
+			if (!sources.containsValue(provider)) {
+				SourcePlugin plugin = instantiate(provider, SourcePlugin.class);
+				if (plugin != null && putIfAbsent(sources, plugin.getFileExtension(), provider)) {
+					sourceInstances.put(plugin.getFileExtension(), plugin);
+					log(plugin);
+				}
+			}
+		}
+		Map<String, PlanPlugin> planInstances = new LinkedHashMap<String, PlanPlugin>();
+		for (String provider : services(PlanPlugin.class)) {
+			if (!plans.containsValue(provider)) {
+				PlanPlugin plugin = instantiate(provider, PlanPlugin.class);
+				if (plugin != null && putIfAbsent(plans, plugin.getId(), provider)) {
+					planInstances.put(plugin.getId(), plugin);
+					log(plugin);
+				}
+			}
+		}
+
+		final Map<String, String> sourceProviders = Collections.unmodifiableMap(sources);
+		final Map<String, String> planProviders = Collections.unmodifiableMap(plans);
+		this.sourcePlugins = new Plugins<SourcePlugin>(sourceProviders, sourceInstances, extension -> {
+			SourcePlugin plugin = instantiate(sourceProviders.get(extension), SourcePlugin.class);
+			if (plugin != null)
+				log(plugin);
+			return plugin;
+		});
+		this.planPlugins = new Plugins<PlanPlugin>(planProviders, planInstances, id -> {
+			PlanPlugin plugin = instantiate(planProviders.get(id), PlanPlugin.class);
+			if (plugin != null)
+				log(plugin);
+			return plugin;
+		});
+	}
+
+	/**
+	 * Get the registry of the JVM.
+	 *
+	 * @return The registry.
+	 */
+	public static PluginRegistry getInstance() {
+		return Holder.INSTANCE;
+	}
+
+	/**
+	 * Get the source plugins by their file extensions. A source plugin is
+	 * instantiated when it is requested for the first time.
+	 *
+	 * @return The source plugins.
+	 */
+	public Plugins<SourcePlugin> getSourcePlugins() {
+		return sourcePlugins;
+	}
+
+	/**
+	 * Get the plan plugins by their ids. A plan plugin is instantiated when
+	 * it is requested for the first time.
+	 *
+	 * @return The plan plugins.
+	 */
+	public Plugins<PlanPlugin> getPlanPlugins() {
+		return planPlugins;
+	}
+
+	/**
+	 * Get the file extensions of all source plugins (without instantiating
+	 * them).
+	 *
+	 * @return The file extensions in their natural order.
+	 */
+	public Set<String> getFileExtensions() {
+		return sourcePlugins.keySet();
+	}
+
+	/**
+	 * Puts the value into the map if the key is not already contained.
+	 *
+	 * @param map
+	 *            The map.
+	 * @param key
+	 *            The key.
+	 * @param value
+	 *            The value.
+	 * @return True if the value was put.
+	 */
+	private static boolean putIfAbsent(Map<String, String> map, String key, String value) {
+		if (map.containsKey(key)) {
+			logger.warn("Ignore plugin " + value + " since " + map.get(key) + " already handles " + key);
+			return false;
+		}
+		map.put(key, value);
+		return true;
+	}
+
+	/**
+	 * Get all resources with the given name of the class loader.
+	 *
+	 * @param name
+	 *            The name of the resources.
+	 * @return The resources.
+	 */
+	private Iterable<URL> resources(String name) {
+		try {
+			Enumeration<URL> urls = loader == null ? ClassLoader.getSystemResources(name)
+					: loader.getResources(name);
+			return Collections.list(urls);
+		} catch (IOException e) {
+			logger.error("Cannot read the resources " + name + ": " + e.getMessage());
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Reads the provider class names of the {@link ServiceLoader} files of
+	 * the given service.
+	 *
+	 * @param service
+	 *            The service.
+	 * @return The provider class names in the order of the class path.
+	 */
+	private Set<String> services(Class<?> service) {
+		Set<String> providers = new LinkedHashSet<String>();
+		for (URL url : resources("META-INF/services/" + service.getName())) {
+			try (BufferedReader reader = new BufferedReader(
+					new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					int comment = line.indexOf('#');
+					if (comment >= 0)
+						line = line.substring(0, comment);
+					line = line.trim();
+					if (!line.isEmpty())
+						providers.add(line);
+				}
+			} catch (IOException e) {
+				logger.error("Cannot read the services " + url + ": " + e.getMessage());
+			}
+		}
+		return providers;
+	}
+
+	/**
+	 * Instantiates a provider.
+	 *
+	 * @param provider
+	 *            The class name of the provider.
+	 * @param service
+	 *            The service the provider implements.
+	 * @return The plugin or null if it cannot be instantiated.
+	 */
+	private <P> P instantiate(String provider, Class<P> service) {
+		try {
+			Class<?> type = Class.forName(provider, true, loader);
+			return service.cast(type.getConstructor().newInstance());
+		} catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+			logger.error("Cannot instantiate the plugin " + provider + ": " + e);
+			return null;
+		}
+	}
+
+	/**
+	 * Logs the registration of a source plugin.
+	 *
+	 * @param plugin
+	 *            The source plugin.
+	 */
+	private static void log(SourcePlugin plugin) {
+		logger.info("Register source plugin: " + plugin.getName() + " " + plugin.getVersion());
+		logger.info("\tHandles: " + plugin.getFileExtension());
+	}
+
+	/**
+	 * Logs the registration of a plan plugin.
+	 *
+	 * @param plugin
+	 *            The plan plugin.
+	 */
+	private static void log(PlanPlugin plugin) {
+		logger.info("Register major plan: " + plugin.getName() + " " + plugin.getVersion());
+		logger.info("\tDescription: " + plugin.getDescription());
+	}
+
+	/**
+	 * Writes the plugin index of all plugins which are found by the
+	 * {@link ServiceLoader} on the class path. The index should be packaged
+	 * as {@value #INDEX} into the jar of the plugins.
+	 *
+	 * @param args
+	 *            The file of the index (the index is printed if there is
+	 *            none).
+	 * @throws IOException
+	 *             If the index cannot be written.
+	 */
+	public static void main(String[] args) throws IOException {
+		Map<String, String> index = new TreeMap<String, String>();
+		for (SourcePlugin plugin : ServiceLoader.load(SourcePlugin.class)) {
+			index.put(SOURCE + plugin.getFileExtension(), plugin.getClass().getName());
+		}
+		for (PlanPlugin plugin : ServiceLoader.load(PlanPlugin.class)) {
+			index.put(PLAN + plugin.getId(), plugin.getClass().getName());
+		}
+
+		PrintWriter writer;
+		if (args.length > 0) {
+			File file = new File(args[0]);
+			if (file.getParentFile() != null)
+				file.getParentFile().mkdirs();
+			writer = new PrintWriter(file, StandardCharsets.UTF_8.name());
+		} else {
+			writer = new PrintWriter(System.out);
+		}
+		writer.println("# The plugin index of mojo (see " + PluginRegistry.class.getName() + ")");
+		for (Map.Entry<String, String> entry : index.entrySet()) {
+			writer.println(entry.getKey() + "=" + entry.getValue());
+		}
+		writer.close();
+	}
+}
@@ -20,6 +20,7 @@ package de.jena.uni.mojo.plugin;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 import de.jena.uni.mojo.analysis.information.AnalysisInformation;
@@ -44,6 +45,26 @@ public interface SourcePlugin {
 	
 	public Reader getReader(String processName, String stream, AnalysisInformation information, Charset encoding);
 
+	/**
+	 * Get a reader for a process which is given as bytes (e.g., as body of a
+	 * request). By default, the bytes are decoded with the given encoding;
+	 * plugins of binary formats read the bytes themselves.
+	 * 
+	 * @param processName
+	 *            The name of the process.
+	 * @param bytes
+	 *            The bytes of the process.
+	 * @param information
+	 *            The analysis information.
+	 * @param encoding
+	 *            The encoding of the process.
+	 * @return The reader.
+	 */
+	public default Reader getReader(String processName, ByteBuffer bytes, AnalysisInformation information,
+			Charset encoding) {
+		return getReader(processName, encoding.decode(bytes).toString(), information, encoding);
+	}
+
 	public IdInterpreter getIdInterpreter();
 	
 }
@@ -0,0 +1,400 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ *
+ * This file is part of mojo.
+ *
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.processes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * The batch pipeline processes a list of files in four stages:
+ *
+ * <ol>
+ * <li>Discovery: the files are handed over one after another.</li>
+ * <li>Parse: several readers read in the files. The readers can be virtual
+ * threads (see {@link ThreadFactories}), so that many files are read in while
+ * the verify stage keeps the cores busy.</li>
+ * <li>Verify: several workers verify the read in files. The output of each
+ * file is buffered. The largest read in files are verified first, so that
+ * the smaller ones fill the gaps at the end. If there is a
+ * {@link BatchScheduler}, each verification reserves its estimated memory
+ * before it starts.</li>
+ * <li>Report: the buffered output is printed in the order of the files.</li>
+ * </ol>
+ *
+ * The stages are connected by queues. Moreover, only a limited number
+ * of files can be between the discovery and the report stage at the same time.
+ * If a file takes long, the discovery stage therefore waits instead of reading
+ * in more and more files.
+ *
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ * @param <T>
+ *            The type of a read in file.
+ */
+public class BatchPipeline<T> {
+
+	/**
+	 * A job is a single file that passes the stages.
+	 *
+	 * @param <T>
+	 *            The type of a read in file.
+	 */
+	private static class Job<T> {
+
+		/**
+		 * The position of the file within the list of files. The position -1
+		 * signals the end of the stage.
+		 */
+		private final int index;
+
+		/**
+		 * The file.
+		 */
+		private final File file;
+
+		/**
+		 * The read in file.
+		 */
+		private T parsed;
+
+		/**
+		 * The estimated memory of the verification.
+		 */
+		private long weight = 0;
+
+		/**
+		 * The buffered output.
+		 */
+		private String output = "";
+
+		/**
+		 * A failure which occurred during a stage.
+		 */
+		private Throwable failure;
+
+		/**
+		 * The constructor of a new job.
+		 *
+		 * @param index
+		 *            The position of the file.
+		 * @param file
+		 *            The file.
+		 */
+		private Job(int index, File file) {
+			this.index = index;
+			this.file = file;
+			// The end of the stage is taken last
+			if (index < 0)
+				this.weight = -1;
+		}
+	}
+
+	/**
+	 * The number of workers of the verify stage.
+	 */
+	private final int threads;
+
+	/**
+	 * The number of readers of the parse stage.
+	 */
+	private final int readers;
+
+	/**
+	 * The factory for the threads of the readers.
+	 */
+	private final ThreadFactory readerFactory;
+
+	/**
+	 * The maximum number of files within the pipeline.
+	 */
+	private final int capacity;
+
+	/**
+	 * The parse stage.
+	 */
+	private final Function<File, T> parser;
+
+	/**
+	 * Estimates the memory of the verification of a read in file (can be
+	 * null).
+	 */
+	private final ToLongFunction<T> weigher;
+
+	/**
+	 * The scheduler which admits the verifications (can be null).
+	 */
+	private final BatchScheduler scheduler;
+
+	/**
+	 * The verify stage.
+	 */
+	private final BiConsumer<T, PrintStream> verifier;
+
+	/**
+	 * The stream where the report is printed.
+	 */
+	private final PrintStream out;
+
+	/**
+	 * The constructor of a new batch pipeline.
+	 *
+	 * @param threads
+	 *            The number of workers of the parse and the verify stage.
+	 * @param parser
+	 *            Reads in a file. It returns null if the file cannot be
+	 *            verified.
+	 * @param verifier
+	 *            Verifies a read in file and prints its results to the given
+	 *            stream.
+	 * @param out
+	 *            The stream where the report is printed.
+	 */
+	public BatchPipeline(int threads, Function<File, T> parser,
+			BiConsumer<T, PrintStream> verifier, PrintStream out) {
+		this(threads, threads, ThreadFactories.platform("mojo-parse-"), parser,
+				verifier, out);
+	}
+
+	/**
+	 * The constructor of a new batch pipeline with a specific number of
+	 * readers.
+	 *
+	 * @param threads
+	 *            The number of workers of the verify stage.
+	 * @param readers
+	 *            The number of readers of the parse stage.
+	 * @param readerFactory
+	 *            The factory for the threads of the readers.
+	 * @param parser
+	 *            Reads in a file. It returns null if the file cannot be
+	 *            verified.
+	 * @param verifier
+	 *            Verifies a read in file and prints its results to the given
+	 *            stream.
+	 * @param out
+	 *            The stream where the report is printed.
+	 */
+	public BatchPipeline(int threads, int readers, ThreadFactory readerFactory,
+			Function<File, T> parser, BiConsumer<T, PrintStream> verifier,
+			PrintStream out) {
+		this(threads, readers, readerFactory, parser, null, null, verifier,
+				out);
+	}
+
+	/**
+	 * The constructor of a new batch pipeline whose verifications are
+	 * admitted by a batch scheduler.
+	 *
+	 * @param threads
+	 *            The number of workers of the verify stage.
+	 * @param readers
+	 *            The number of readers of the parse stage.
+	 * @param readerFactory
+	 *            The factory for the threads of the readers.
+	 * @param parser
+	 *            Reads in a file. It returns null if the file cannot be
+	 *            verified.
+	 * @param weigher
+	 *            Estimates the memory of the verification of a read in file
+	 *            (can be null).
+	 * @param scheduler
+	 *            The scheduler which admits the verifications (can be null).
+	 * @param verifier
+	 *            Verifies a read in file and prints its results to the given
+	 *            stream.
+	 * @param out
+	 *            The stream where the report is printed.
+	 */
+	public BatchPipeline(int threads, int readers, ThreadFactory readerFactory,
+			Function<File, T> parser, ToLongFunction<T> weigher,
+			BatchScheduler scheduler, BiConsumer<T, PrintStream> verifier,
+			PrintStream out) {
+		this.weigher = weigher;
+		this.scheduler = scheduler;
+		this.threads = Math.max(1, threads);
+		this.readers = Math.max(1, readers);
+		this.readerFactory = readerFactory;
+		this.capacity = Math.max(4 * this.threads, this.readers + 2
+				* this.threads);
+		this.parser = parser;
+		this.verifier = verifier;
+		this.out = out;
+	}
+
+	/**
+	 * Processes the given files. The method returns after the report of the
+	 * last file is printed.
+	 *
+	 * @param files
+	 *            The files.
+	 * @throws InterruptedException
+	 *             if the current thread is interrupted while waiting.
+	 */
+	public void run(final List<File> files) throws InterruptedException {
+		final Semaphore window = new Semaphore(capacity);
+		final BlockingQueue<Job<T>> parseQueue = new ArrayBlockingQueue<Job<T>>(
+				capacity);
+		// The largest files first, otherwise in the order of the files
+		final BlockingQueue<Job<T>> verifyQueue = new PriorityBlockingQueue<Job<T>>(
+				capacity, (a, b) -> a.weight != b.weight ? Long.compare(
+						b.weight, a.weight) : Integer.compare(a.index, b.index));
+		final BlockingQueue<Job<T>> reportQueue = new LinkedBlockingQueue<Job<T>>();
+		final AtomicInteger parsers = new AtomicInteger(readers);
+
+		List<Thread> workers = new ArrayList<Thread>();
+		List<Thread> parseWorkers = new ArrayList<Thread>();
+
+		//
+		// 1. Discovery
+		//
+		workers.add(new Thread(() -> {
+			try {
+				int index = 0;
+				for (File file : files) {
+					window.acquire();
+					parseQueue.put(new Job<T>(index++, file));
+				}
+				for (int i = 0; i < readers; i++) {
+					parseQueue.put(new Job<T>(-1, null));
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, "mojo-discovery"));
+
+		//
+		// 2. Parse
+		//
+		for (int t = 0; t < readers; t++) {
+			parseWorkers.add(readerFactory.newThread(() -> {
+				try {
+					for (Job<T> job = parseQueue.take(); job.index >= 0; job = parseQueue
+							.take()) {
+						try {
+							job.parsed = parser.apply(job.file);
+							if (job.parsed != null && weigher != null) {
+								job.weight = Math.max(0,
+										weigher.applyAsLong(job.parsed));
+							}
+						} catch (Throwable e) {
+							job.failure = e;
+						}
+						verifyQueue.put(job);
+					}
+					// The last parser terminates the verify stage
+					if (parsers.decrementAndGet() == 0) {
+						for (int i = 0; i < threads; i++) {
+							verifyQueue.put(new Job<T>(-1, null));
+						}
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+		}
+
+		//
+		// 3. Verify
+		//
+		for (int t = 0; t < threads; t++) {
+			workers.add(new Thread(() -> {
+				try {
+					for (Job<T> job = verifyQueue.take(); job.index >= 0; job = verifyQueue
+							.take()) {
+						if (job.parsed != null) {
+							ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+							PrintStream stream = new PrintStream(buffer);
+							if (scheduler != null) {
+								scheduler.acquire(job.weight);
+							}
+							try {
+								verifier.accept(job.parsed, stream);
+							} catch (Throwable e) {
+								job.failure = e;
+							} finally {
+								if (scheduler != null) {
+									scheduler.release(job.weight);
+								}
+							}
+							stream.flush();
+							job.output = buffer.toString();
+							// Release the read in file as early as possible
+							job.parsed = null;
+						}
+						reportQueue.put(job);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}, "mojo-verify-" + t));
+		}
+
+		for (Thread worker : workers) {
+			worker.setDaemon(true);
+			worker.start();
+		}
+		for (Thread worker : parseWorkers) {
+			worker.start();
+		}
+		workers.addAll(parseWorkers);
+
+		//
+		// 4. Report in the order of the files
+		//
+		try {
+			Map<Integer, Job<T>> pending = new HashMap<Integer, Job<T>>();
+			int next = 0;
+			while (next < files.size()) {
+				Job<T> job = reportQueue.take();
+				pending.put(job.index, job);
+
+				while ((job = pending.remove(next)) != null) {
+					out.print(job.output);
+					if (job.failure != null) {
+						System.err.println("Cannot verify file: "
+								+ job.file.getAbsolutePath());
+						job.failure.printStackTrace();
+					}
+					window.release();
+					next++;
+				}
+			}
+			out.flush();
+		} finally {
+			for (Thread worker : workers) {
+				worker.interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.processes;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+import de.jena.uni.mojo.model.WGNode;
+import de.jena.uni.mojo.model.WorkflowGraph;
+
+/**
+ * The batch scheduler admits verifications against a heap budget. The memory
+ * of a verification is quadratic in the number of edges of its workflow
+ * graphs since each edge has several bit sets over all edges. Before a
+ * verification starts, it reserves its estimated memory; if the budget is
+ * exhausted, it waits until other verifications release their memory.
+ * 
+ * A verification which is larger than the whole budget is admitted only if
+ * no other verification is running, i.e., it runs alone.
+ * 
+ * The waiting verifications are queued in the order of their arrival. A
+ * smaller verification may overtake the head of the queue as long as it fits
+ * into the remaining budget. Once the head has waited longer than the maximum
+ * waiting time, no verification is admitted before it, so that large
+ * verifications do not starve behind a stream of small ones.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class BatchScheduler {
+
+	/**
+	 * The number of bit sets over all edges which are stored for each edge
+	 * during the control flow analysis (dominators, post dominators,
+	 * execution edges, deadlock information, etc.).
+	 */
+	public final static int BIT_SETS_PER_EDGE = 12;
+
+	/**
+	 * The estimated number of bytes of each node and edge beside the bit
+	 * sets.
+	 */
+	public final static int BYTES_PER_ELEMENT = 256;
+
+	/**
+	 * The default maximum waiting time of the head of the queue in
+	 * milliseconds before it blocks the admission of other verifications.
+	 */
+	public final static long DEFAULT_MAX_WAIT = 10000;
+
+	/**
+	 * The heap budget in bytes.
+	 */
+	private final long budget;
+
+	/**
+	 * The maximum waiting time of the head of the queue in nanoseconds.
+	 */
+	private final long maxWait;
+
+	/**
+	 * The waiting verifications (their arrival times) in the order of their
+	 * arrival.
+	 */
+	private final ArrayDeque<long[]> waiting = new ArrayDeque<long[]>();
+
+	/**
+	 * The memory which is currently reserved.
+	 */
+	private long reserved = 0;
+
+	/**
+	 * The number of running verifications.
+	 */
+	private int running = 0;
+
+	/**
+	 * The constructor of a new batch scheduler.
+	 * 
+	 * @param budget
+	 *            The heap budget in bytes.
+	 */
+	public BatchScheduler(long budget) {
+		this(budget, DEFAULT_MAX_WAIT);
+	}
+
+	/**
+	 * The constructor of a new batch scheduler with a maximum waiting time.
+	 * 
+	 * @param budget
+	 *            The heap budget in bytes.
+	 * @param maxWait
+	 *            The maximum waiting time of the head of the queue in
+	 *            milliseconds before no other verification is admitted
+	 *            before it (0: strict arrival order).
+	 */
+	public BatchScheduler(long budget, long maxWait) {
+		this.budget = Math.max(1, budget);
+		this.maxWait = Math.max(0, maxWait) * 1000000L;
+	}
+
+	/**
+	 * Creates a batch scheduler with a budget of three quarters of the
+	 * maximum heap.
+	 * 
+	 * @return The batch scheduler.
+	 */
+	public static BatchScheduler forHeap() {
+		return new BatchScheduler(Runtime.getRuntime().maxMemory() / 4 * 3);
+	}
+
+	/**
+	 * Estimates the memory which is needed to verify the given workflow
+	 * graph.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @return The estimated memory in bytes.
+	 */
+	public static long estimateMemory(WorkflowGraph graph) {
+		long nodes = graph.getNodeListInclusive().size();
+		long edges = 0;
+		for (WGNode node : graph.getNodeListInclusive()) {
+			edges += node.getSuccessors().size();
+		}
+		return BIT_SETS_PER_EDGE * edges * ((edges + 63) / 64) * 8
+				+ (nodes + edges) * BYTES_PER_ELEMENT;
+	}
+
+	/**
+	 * Estimates the memory which is needed to verify the given workflow
+	 * graphs.
+	 * 
+	 * @param graphs
+	 *            The workflow graphs (can be null).
+	 * @return The estimated memory in bytes.
+	 */
+	public static long estimateMemory(List<WorkflowGraph> graphs) {
+		long memory = 0;
+		if (graphs != null) {
+			for (WorkflowGraph graph : graphs) {
+				memory += estimateMemory(graph);
+			}
+		}
+		return memory;
+	}
+
+	/**
+	 * Reserves the given memory. The method waits until the memory fits into
+	 * the budget or, if it is larger than the budget, until no other
+	 * verification runs. Furthermore, it waits as long as the head of the
+	 * queue has waited longer than the maximum waiting time.
+	 * 
+	 * @param memory
+	 *            The memory in bytes.
+	 * @throws InterruptedException
+	 *             if the current thread is interrupted while waiting.
+	 */
+	public synchronized void acquire(long memory) throws InterruptedException {
+		long[] arrival = { System.nanoTime() };
+		waiting.addLast(arrival);
+		try {
+			while (!isAdmissible(arrival, memory)) {
+				wait();
+			}
+			reserved += memory;
+			running++;
+		} finally {
+			// The next verification could be the new head
+			waiting.remove(arrival);
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Decides whether the waiting verification can be admitted.
+	 * 
+	 * @param arrival
+	 *            The arrival time of the verification.
+	 * @param memory
+	 *            The memory in bytes.
+	 * @return True if the verification can be admitted.
+	 */
+	private boolean isAdmissible(long[] arrival, long memory) {
+		if (running > 0 && reserved + memory > budget)
+			return false;
+		long[] head = waiting.peekFirst();
+		return head == arrival || System.nanoTime() - head[0] < maxWait;
+	}
+
+	/**
+	 * Releases the given memory which was reserved before.
+	 * 
+	 * @param memory
+	 *            The memory in bytes.
+	 */
+	public synchronized void release(long memory) {
+		reserved -= memory;
+		running--;
+		notifyAll();
+	}
+
+	/**
+	 * Get the heap budget.
+	 * 
+	 * @return The budget in bytes.
+	 */
+	public long getBudget() {
+		return budget;
+	}
+}
@@ -0,0 +1,471 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.processes;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The directory watcher keeps the results of all process files within a
+ * directory (and its sub directories) up to date. After an initial pass over
+ * all files, it waits for created, changed and deleted files via a
+ * {@link WatchService} and hands over only those files to the
+ * {@link Handler}.
+ *
+ * The watcher holds a manifest, which maps each file to the SHA-256 hash of
+ * its content and to its result. A file is only verified again if its hash
+ * changed, so that saving a file without changes (or events of the same save
+ * which arrive one after another) does not lead to a new verification. The
+ * events are collected until there is a quiet period, so that all files of
+ * a save are handed over at once.
+ *
+ * If the watch service loses events (overflow), the directory is scanned
+ * again. Since only files with a changed hash are verified again, this is
+ * still cheap.
+ *
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ * @param <R>
+ *            The type of the result of a file.
+ */
+public class DirectoryWatcher<R> {
+
+	/**
+	 * The handler verifies the files and keeps the output up to date.
+	 *
+	 * @param <R>
+	 *            The type of the result of a file.
+	 */
+	public interface Handler<R> {
+
+		/**
+		 * Verifies the given new or changed files.
+		 *
+		 * @param files
+		 *            The files in their natural order.
+		 * @return The result of each file.
+		 */
+		Map<File, R> verify(List<File> files);
+
+		/**
+		 * Forgets the result of a file, since the file was changed or
+		 * deleted.
+		 *
+		 * @param file
+		 *            The file.
+		 * @param result
+		 *            The former result of the file.
+		 */
+		void remove(File file, R result);
+
+		/**
+		 * Is called after the changes were handled.
+		 *
+		 * @param manifest
+		 *            The current result of each file.
+		 */
+		void update(Map<File, R> manifest);
+	}
+
+	/**
+	 * An entry of the manifest.
+	 *
+	 * @param <R>
+	 *            The type of the result.
+	 */
+	private static class Entry<R> {
+
+		/**
+		 * The hash of the content of the file.
+		 */
+		private final String hash;
+
+		/**
+		 * The result of the file.
+		 */
+		private final R result;
+
+		/**
+		 * The constructor of an entry.
+		 *
+		 * @param hash
+		 *            The hash of the content of the file.
+		 * @param result
+		 *            The result of the file.
+		 */
+		private Entry(String hash, R result) {
+			this.hash = hash;
+			this.result = result;
+		}
+	}
+
+	/**
+	 * The watched directory.
+	 */
+	private final Path root;
+
+	/**
+	 * The file extensions (without dot) of the files which are watched.
+	 */
+	private final List<String> extensions;
+
+	/**
+	 * The handler.
+	 */
+	private final Handler<R> handler;
+
+	/**
+	 * The time in milliseconds without new events before the changes are
+	 * handled.
+	 */
+	private final long quietPeriod;
+
+	/**
+	 * The manifest, i.e., the hash and the result of each file.
+	 */
+	private final Map<File, Entry<R>> manifest = new TreeMap<File, Entry<R>>();
+
+	/**
+	 * The watched directory of each watch key.
+	 */
+	private final Map<WatchKey, Path> directories = new HashMap<WatchKey, Path>();
+
+	/**
+	 * The watch service.
+	 */
+	private final WatchService service;
+
+	/**
+	 * The constructor of the directory watcher.
+	 *
+	 * @param root
+	 *            The directory to watch.
+	 * @param extensions
+	 *            The file extensions (without dot) of the process files.
+	 * @param handler
+	 *            The handler.
+	 * @param quietPeriod
+	 *            The time in milliseconds without new events before the
+	 *            changes are handled.
+	 * @throws IOException
+	 *             If the directory cannot be watched.
+	 */
+	public DirectoryWatcher(File root, List<String> extensions, Handler<R> handler, long quietPeriod)
+			throws IOException {
+		this.root = root.toPath().toAbsolutePath().normalize();
+		this.extensions = new ArrayList<String>(extensions);
+		this.handler = handler;
+		this.quietPeriod = quietPeriod;
+		this.service = this.root.getFileSystem().newWatchService();
+	}
+
+	/**
+	 * Verifies all files of the directory once and watches the directory
+	 * until the watcher is closed or the thread is interrupted.
+	 *
+	 * @throws IOException
+	 *             If the directory cannot be watched.
+	 */
+	public void run() throws IOException {
+		//
+		// 1. Initial pass
+		//
+		Set<Path> paths = register(root);
+		handle(paths, true);
+
+		//
+		// 2. Wait for changes
+		//
+		try {
+			while (true) {
+				paths = new TreeSet<Path>();
+				boolean overflow = collect(service.take(), paths);
+
+				// Wait for the quiet period
+				WatchKey key;
+				while ((key = service.poll(quietPeriod, TimeUnit.MILLISECONDS)) != null) {
+					overflow |= collect(key, paths);
+				}
+
+				if (overflow) {
+					paths.addAll(register(root));
+				}
+				handle(paths, overflow);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ClosedWatchServiceException e) {
+			// The watcher was closed
+		}
+	}
+
+	/**
+	 * Stops watching the directory.
+	 */
+	public void close() {
+		try {
+			service.close();
+		} catch (IOException e) {
+			// Nothing to do
+		}
+	}
+
+	/**
+	 * Collects the changed paths of a watch key.
+	 *
+	 * @param key
+	 *            The watch key.
+	 * @param paths
+	 *            The set of changed paths.
+	 * @return True if events were lost.
+	 */
+	private boolean collect(WatchKey key, Set<Path> paths) {
+		boolean overflow = false;
+		Path directory = directories.get(key);
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == OVERFLOW || directory == null) {
+				overflow = true;
+			} else {
+				paths.add(directory.resolve((Path) event.context()));
+			}
+		}
+		if (!key.reset()) {
+			// The directory was deleted
+			directories.remove(key);
+		}
+		return overflow;
+	}
+
+	/**
+	 * Watches the given directory and all its sub directories.
+	 *
+	 * @param directory
+	 *            The directory.
+	 * @return The process files within the directories.
+	 * @throws IOException
+	 *             If a directory cannot be watched.
+	 */
+	private Set<Path> register(Path directory) throws IOException {
+		final Set<Path> files = new TreeSet<Path>();
+		Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				if (!directories.containsValue(dir)) {
+					directories.put(dir.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+				}
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				if (attrs.isRegularFile() && accepts(file)) {
+					files.add(file);
+				}
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException e) {
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		return files;
+	}
+
+	/**
+	 * Handles the changed paths.
+	 *
+	 * @param paths
+	 *            The changed paths.
+	 * @param complete
+	 *            Whether the paths are all files of the directory, so that
+	 *            each file of the manifest which is not within the paths was
+	 *            deleted.
+	 * @throws IOException
+	 *             If a new directory cannot be watched.
+	 */
+	private void handle(Set<Path> paths, boolean complete) throws IOException {
+		//
+		// 1. Determine the new, changed and deleted files
+		//
+		Map<File, String> changed = new TreeMap<File, String>();
+		List<File> deleted = new ArrayList<File>();
+		for (Path path : paths) {
+			if (Files.isDirectory(path)) {
+				// A new directory
+				for (Path file : register(path)) {
+					check(file, changed, deleted);
+				}
+			} else if (Files.exists(path) && !accepts(path)) {
+				continue;
+			} else if (Files.exists(path)) {
+				check(path, changed, deleted);
+			} else {
+				// A deleted file or directory
+				File file = path.toFile();
+				for (File known : manifest.keySet()) {
+					if (known.equals(file) || known.toPath().startsWith(path)) {
+						deleted.add(known);
+					}
+				}
+			}
+		}
+		if (complete) {
+			for (File known : manifest.keySet()) {
+				if (!paths.contains(known.toPath())) {
+					deleted.add(known);
+				}
+			}
+		}
+		if (changed.isEmpty() && deleted.isEmpty()) {
+			return;
+		}
+
+		//
+		// 2. Forget the former results
+		//
+		for (File file : deleted) {
+			Entry<R> entry = manifest.remove(file);
+			if (entry != null) {
+				handler.remove(file, entry.result);
+			}
+		}
+
+		//
+		// 3. Verify the new and changed files
+		//
+		if (!changed.isEmpty()) {
+			Map<File, R> results = handler.verify(new ArrayList<File>(changed.keySet()));
+			for (Map.Entry<File, String> file : changed.entrySet()) {
+				manifest.put(file.getKey(), new Entry<R>(file.getValue(), results.get(file.getKey())));
+			}
+		}
+
+		//
+		// 4. Update the output
+		//
+		Map<File, R> current = new TreeMap<File, R>();
+		for (Map.Entry<File, Entry<R>> entry : manifest.entrySet()) {
+			current.put(entry.getKey(), entry.getValue().result);
+		}
+		handler.update(Collections.unmodifiableMap(current));
+	}
+
+	/**
+	 * Checks whether the content of a file changed. If so, the file is added
+	 * to the changed files (and its former result to the deleted files).
+	 *
+	 * @param path
+	 *            The path of the file.
+	 * @param changed
+	 *            The changed files and their new hashes.
+	 * @param deleted
+	 *            The files whose former results are obsolete.
+	 */
+	private void check(Path path, Map<File, String> changed, List<File> deleted) {
+		File file = path.toFile();
+		String hash = hash(path);
+		if (hash == null) {
+			// The file vanished or is still written, the next event
+			// will come.
+			return;
+		}
+		Entry<R> entry = manifest.get(file);
+		if (entry == null || !entry.hash.equals(hash)) {
+			if (entry != null) {
+				deleted.add(file);
+			}
+			changed.put(file, hash);
+		}
+	}
+
+	/**
+	 * Determines whether the file is a process file.
+	 *
+	 * @param path
+	 *            The path of the file.
+	 * @return True or false.
+	 */
+	private boolean accepts(Path path) {
+		String name = path.getFileName().toString();
+		for (String extension : extensions) {
+			if (name.endsWith("." + extension)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Computes the SHA-256 hash of the content of a file.
+	 *
+	 * @param path
+	 *            The path of the file.
+	 * @return The hexadecimal hash or null if the file cannot be read.
+	 */
+	private static String hash(Path path) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		byte[] buffer = new byte[8192];
+		try (InputStream in = Files.newInputStream(path)) {
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				digest.update(buffer, 0, read);
+			}
+		} catch (IOException e) {
+			return null;
+		}
+
+		StringBuilder hash = new StringBuilder();
+		for (byte b : digest.digest()) {
+			hash.append(String.format("%02x", b));
+		}
+		return hash.toString();
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ *
+ * This file is part of mojo.
+ *
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.processes;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Factories for the threads of the batch pipeline.
+ *
+ * Reading in files mostly waits for I/O (e.g., on network-mounted model
+ * repositories). Such threads should be cheap, so that thousands of files can
+ * be read in at the same time. If the JVM supports virtual threads (Java 21 or
+ * newer), {@link #virtual(String)} creates them. Since mojo is compiled for
+ * Java 8, virtual threads are looked up via reflection; on older JVMs, the
+ * factory falls back to platform daemon threads.
+ *
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public final class ThreadFactories {
+
+	/**
+	 * The method Thread.ofVirtual() or null if the JVM has no virtual threads.
+	 */
+	private final static Method OF_VIRTUAL;
+
+	/**
+	 * The method Thread.Builder.name(String, long) or null.
+	 */
+	private final static Method NAME;
+
+	/**
+	 * The method Thread.Builder.factory() or null.
+	 */
+	private final static Method FACTORY;
+
+	static {
+		Method ofVirtual = null;
+		Method name = null;
+		Method factory = null;
+		try {
+			Class<?> builder = Class.forName("java.lang.Thread$Builder");
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			name = builder.getMethod("name", String.class, long.class);
+			factory = builder.getMethod("factory");
+		} catch (ReflectiveOperationException e) {
+			ofVirtual = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		NAME = name;
+		FACTORY = factory;
+	}
+
+	/**
+	 * There are no instances.
+	 */
+	private ThreadFactories() {
+	}
+
+	/**
+	 * Determines whether the JVM supports virtual threads.
+	 *
+	 * @return True or false.
+	 */
+	public static boolean hasVirtualThreads() {
+		return OF_VIRTUAL != null;
+	}
+
+	/**
+	 * Creates a factory for platform daemon threads.
+	 *
+	 * @param prefix
+	 *            The prefix of the thread names.
+	 * @return The factory.
+	 */
+	public static ThreadFactory platform(final String prefix) {
+		final AtomicLong counter = new AtomicLong();
+		return runnable -> {
+			Thread thread = new Thread(runnable, prefix + counter.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * Creates a factory for virtual threads. If the JVM does not support
+	 * virtual threads, a factory for platform daemon threads is returned.
+	 *
+	 * @param prefix
+	 *            The prefix of the thread names.
+	 * @return The factory.
+	 */
+	public static ThreadFactory virtual(String prefix) {
+		if (OF_VIRTUAL != null) {
+			try {
+				Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 0L);
+				return (ThreadFactory) FACTORY.invoke(builder);
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				// Use platform threads instead
+			}
+		}
+		return platform(prefix);
+	}
+}
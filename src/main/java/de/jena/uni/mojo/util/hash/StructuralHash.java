@@ -0,0 +1,452 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.util.hash;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.jena.uni.mojo.model.WGNode;
+import de.jena.uni.mojo.model.WorkflowGraph;
+
+/**
+ * A canonical hash of the structure of a workflow graph. It only depends on
+ * the types of the nodes and the edges between them; the ids and the process
+ * elements of the nodes are ignored. Therefore, isomorphic workflow graphs
+ * (e.g., copies of the same template with different labels) have the same
+ * hash.
+ * 
+ * The hash is computed by a Weisfeiler-Lehman color refinement: each node
+ * starts with a color of its type, and in each round, its color is combined
+ * with the multisets of the colors of its predecessors and successors. The
+ * refinement stops if the number of colors does not grow anymore (or after
+ * {@link #MAX_ROUNDS} rounds), so that each round costs O((n + e) log d).
+ * 
+ * Different graphs can have the same hash. {@link #isomorphism} determines
+ * whether two graphs are actually isomorphic by a search which only matches
+ * nodes of the same color.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public final class StructuralHash {
+
+	/**
+	 * The maximum number of refinement rounds.
+	 */
+	public final static int MAX_ROUNDS = 16;
+
+	/**
+	 * The maximum number of steps of the isomorphism search per node.
+	 */
+	private final static int STEPS_PER_NODE = 64;
+
+	/**
+	 * The nodes of the workflow graph (start and end included).
+	 */
+	private final WGNode[] nodes;
+
+	/**
+	 * The position of each node within the nodes array.
+	 */
+	private final Map<WGNode, Integer> positions = new IdentityHashMap<WGNode, Integer>();
+
+	/**
+	 * The final color of each node (by position).
+	 */
+	private final long[] colors;
+
+	/**
+	 * The number of edges.
+	 */
+	private final int edges;
+
+	/**
+	 * The hash of the workflow graph.
+	 */
+	private final long hash;
+
+	/**
+	 * Computes the structural hash of the given workflow graph.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 */
+	public StructuralHash(WorkflowGraph graph) {
+		List<WGNode> list = graph.getNodeListInclusive();
+		this.nodes = list.toArray(new WGNode[list.size()]);
+		for (int i = 0; i < nodes.length; i++) {
+			positions.put(nodes[i], i);
+		}
+
+		//
+		// 1. Color the nodes by their types and degrees
+		//
+		long[] current = new long[nodes.length];
+		int edgeCount = 0;
+		for (int i = 0; i < nodes.length; i++) {
+			WGNode node = nodes[i];
+			current[i] = mix(mix(node.getType().ordinal() + 1,
+					node.getPredecessors().size()), node.getSuccessors()
+					.size());
+			edgeCount += node.getSuccessors().size();
+		}
+		this.edges = edgeCount;
+
+		//
+		// 2. Refine the colors
+		//
+		int classes = count(current);
+		for (int round = 0; round < MAX_ROUNDS && classes < nodes.length; round++) {
+			long[] next = new long[nodes.length];
+			for (int i = 0; i < nodes.length; i++) {
+				long color = current[i];
+				color = mix(color, fold(nodes[i].getPredecessors(), current));
+				color = mix(color, fold(nodes[i].getSuccessors(), current));
+				next[i] = color;
+			}
+			current = next;
+			int refined = count(current);
+			if (refined == classes)
+				break;
+			classes = refined;
+		}
+		this.colors = current;
+
+		//
+		// 3. Combine the colors to the hash
+		//
+		long[] sorted = colors.clone();
+		Arrays.sort(sorted);
+		long h = mix(nodes.length, edges);
+		for (long color : sorted) {
+			h = mix(h, color);
+		}
+		this.hash = h;
+	}
+
+	/**
+	 * Get the hash of the workflow graph.
+	 * 
+	 * @return The hash.
+	 */
+	public long getHash() {
+		return hash;
+	}
+
+	/**
+	 * Get the hash as a hexadecimal string.
+	 * 
+	 * @return The hash.
+	 */
+	public String toHexString() {
+		return String.format("%016x", hash);
+	}
+
+	/**
+	 * Determines an isomorphism from this workflow graph onto the workflow
+	 * graph of the other hash. It maps each node onto a node of the same type
+	 * such that the edges (with their multiplicity) are preserved.
+	 * 
+	 * @param other
+	 *            The structural hash of the other workflow graph.
+	 * @return A map from the nodes of this workflow graph to the nodes of the
+	 *         other workflow graph or null if the search did not find an
+	 *         isomorphism.
+	 */
+	public Map<WGNode, WGNode> isomorphism(StructuralHash other) {
+		if (hash != other.hash || nodes.length != other.nodes.length
+				|| edges != other.edges)
+			return null;
+
+		// The candidates of each color
+		Map<Long, List<Integer>> lists = new HashMap<Long, List<Integer>>();
+		for (int i = 0; i < other.nodes.length; i++) {
+			List<Integer> list = lists.get(other.colors[i]);
+			if (list == null) {
+				list = new ArrayList<Integer>();
+				lists.put(other.colors[i], list);
+			}
+			list.add(i);
+		}
+		int[][] candidates = new int[nodes.length][];
+		for (int i = 0; i < nodes.length; i++) {
+			List<Integer> list = lists.get(colors[i]);
+			candidates[i] = new int[list == null ? 0 : list.size()];
+			for (int j = 0; j < candidates[i].length; j++) {
+				candidates[i][j] = list.get(j);
+			}
+		}
+
+		// Match the nodes in the order of a breadth first search, so that
+		// each node (except the first of a component) has a matched neighbor
+		int[] order = order();
+		int[] mapping = new int[nodes.length];
+		boolean[] used = new boolean[nodes.length];
+		Arrays.fill(mapping, -1);
+		if (!match(other, order, mapping, used, candidates, nodes.length
+				* STEPS_PER_NODE))
+			return null;
+
+		Map<WGNode, WGNode> isomorphism = new IdentityHashMap<WGNode, WGNode>();
+		for (int i = 0; i < nodes.length; i++) {
+			isomorphism.put(nodes[i], other.nodes[mapping[i]]);
+		}
+		return isomorphism;
+	}
+
+	/**
+	 * Matches the nodes by backtracking. The search keeps the position of the
+	 * next candidate of each matched node on an explicit stack, so that its
+	 * depth is not limited by the call stack.
+	 * 
+	 * @param other
+	 *            The other hash.
+	 * @param order
+	 *            The order of the nodes.
+	 * @param mapping
+	 *            The current mapping (-1 for unmatched nodes).
+	 * @param used
+	 *            Whether a node of the other graph is matched.
+	 * @param candidates
+	 *            The nodes of the other graph with the color of each node.
+	 * @param steps
+	 *            The maximal number of steps.
+	 * @return True if all nodes are matched.
+	 */
+	private boolean match(StructuralHash other, int[] order, int[] mapping,
+			boolean[] used, int[][] candidates, int steps) {
+		// The position of the next candidate of each node within the order
+		int[] next = new int[order.length];
+		int k = 0;
+		boolean entered = true;
+		while (k >= 0) {
+			if (k == order.length)
+				return true;
+			int node = order[k];
+			if (entered) {
+				if (--steps < 0)
+					return false;
+				next[k] = 0;
+				entered = false;
+			} else if (mapping[node] >= 0) {
+				// Take back the last candidate
+				used[mapping[node]] = false;
+				mapping[node] = -1;
+			}
+
+			int[] set = candidates[node];
+			while (next[k] < set.length) {
+				int candidate = set[next[k]++];
+				if (!used[candidate]
+						&& consistent(other, node, candidate, mapping, used)) {
+					mapping[node] = candidate;
+					used[candidate] = true;
+					break;
+				}
+			}
+
+			if (mapping[node] >= 0) {
+				k++;
+				entered = true;
+			} else {
+				k--;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether a node can be matched onto a candidate, i.e., whether
+	 * the edges to and from the already matched nodes are preserved.
+	 * 
+	 * @param other
+	 *            The other hash.
+	 * @param node
+	 *            The position of the node.
+	 * @param candidate
+	 *            The position of the candidate within the other graph.
+	 * @param mapping
+	 *            The current mapping.
+	 * @param used
+	 *            Whether a node of the other graph is matched.
+	 * @return True or false.
+	 */
+	private boolean consistent(StructuralHash other, int node, int candidate,
+			int[] mapping, boolean[] used) {
+		WGNode from = nodes[node];
+		WGNode to = other.nodes[candidate];
+		if (from.getType() != to.getType())
+			return false;
+		return consistent(from.getSuccessors(), to.getSuccessors(), other,
+				mapping, used, node, candidate)
+				&& consistent(from.getPredecessors(), to.getPredecessors(),
+						other, mapping, used, node, candidate);
+	}
+
+	/**
+	 * Checks whether the matched neighbors of a node are mapped onto the
+	 * neighbors of the candidate with the same multiplicity.
+	 * 
+	 * @param neighbors
+	 *            The neighbors of the node.
+	 * @param candidateNeighbors
+	 *            The neighbors of the candidate.
+	 * @param other
+	 *            The other hash.
+	 * @param mapping
+	 *            The current mapping.
+	 * @param used
+	 *            Whether a node of the other graph is matched.
+	 * @param node
+	 *            The position of the node.
+	 * @param candidate
+	 *            The position of the candidate.
+	 * @return True or false.
+	 */
+	private boolean consistent(List<WGNode> neighbors,
+			List<WGNode> candidateNeighbors, StructuralHash other,
+			int[] mapping, boolean[] used, int node, int candidate) {
+		Map<Integer, Integer> count = new HashMap<Integer, Integer>();
+		for (WGNode neighbor : neighbors) {
+			int position = positions.get(neighbor);
+			// A self loop is matched together with the node
+			int image = position == node ? candidate : mapping[position];
+			if (image >= 0)
+				count.merge(image, 1, Integer::sum);
+		}
+		for (WGNode neighbor : candidateNeighbors) {
+			int position = other.positions.get(neighbor);
+			if (position == candidate || used[position])
+				count.merge(position, -1, Integer::sum);
+		}
+		for (int value : count.values()) {
+			if (value != 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Determines the order of the nodes for the isomorphism search: a breadth
+	 * first search (ignoring the directions of the edges) which starts at the
+	 * node with the rarest color.
+	 * 
+	 * @return The positions of the nodes.
+	 */
+	private int[] order() {
+		Map<Long, Integer> frequency = new HashMap<Long, Integer>();
+		for (long color : colors) {
+			frequency.merge(color, 1, Integer::sum);
+		}
+
+		int[] order = new int[nodes.length];
+		boolean[] visited = new boolean[nodes.length];
+		int k = 0;
+		while (k < nodes.length) {
+			// Start with the rarest color of the remaining nodes
+			int start = -1;
+			for (int i = 0; i < nodes.length; i++) {
+				if (!visited[i]
+						&& (start < 0 || frequency.get(colors[i]) < frequency
+								.get(colors[start])))
+					start = i;
+			}
+			Deque<Integer> queue = new ArrayDeque<Integer>();
+			queue.add(start);
+			visited[start] = true;
+			while (!queue.isEmpty()) {
+				int current = queue.poll();
+				order[k++] = current;
+				for (List<WGNode> neighbors : Arrays.asList(
+						nodes[current].getSuccessors(),
+						nodes[current].getPredecessors())) {
+					for (WGNode neighbor : neighbors) {
+						int position = positions.get(neighbor);
+						if (!visited[position]) {
+							visited[position] = true;
+							queue.add(position);
+						}
+					}
+				}
+			}
+		}
+		return order;
+	}
+
+	/**
+	 * Combines the colors of the given neighbors independent of their order.
+	 * 
+	 * @param neighbors
+	 *            The neighbors.
+	 * @param colors
+	 *            The colors of the current round.
+	 * @return The combined color.
+	 */
+	private long fold(List<WGNode> neighbors, long[] colors) {
+		long[] values = new long[neighbors.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = colors[positions.get(neighbors.get(i))];
+		}
+		Arrays.sort(values);
+		long h = values.length;
+		for (long value : values) {
+			h = mix(h, value);
+		}
+		return h;
+	}
+
+	/**
+	 * Counts the different colors.
+	 * 
+	 * @param colors
+	 *            The colors.
+	 * @return The number of different colors.
+	 */
+	private static int count(long[] colors) {
+		Set<Long> set = new HashSet<Long>();
+		for (long color : colors) {
+			set.add(color);
+		}
+		return set.size();
+	}
+
+	/**
+	 * Mixes two values into a hash (the finalizer of SplitMix64).
+	 * 
+	 * @param h
+	 *            The current hash.
+	 * @param value
+	 *            The value.
+	 * @return The new hash.
+	 */
+	private static long mix(long h, long value) {
+		long z = h * 0x9E3779B97F4A7C15L + value;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,439 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.util.json;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal JSON reader and writer for the line-based protocols of mojo. JSON
+ * objects are read as (ordered) maps, arrays as lists, numbers as Long or
+ * Double, and the literals as Boolean or null. The writer accepts the same
+ * types as well as any other number and collection; everything else is
+ * written as string.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public final class Json {
+
+	/**
+	 * The maximal nesting depth of objects and arrays which is read.
+	 */
+	public final static int MAX_DEPTH = 512;
+
+	/**
+	 * The text to read.
+	 */
+	private final String text;
+
+	/**
+	 * The current position within the text.
+	 */
+	private int pos = 0;
+
+	/**
+	 * The nesting depth of the current position.
+	 */
+	private int depth = 0;
+
+	/**
+	 * The constructor of a reader.
+	 * 
+	 * @param text
+	 *            The text to read.
+	 */
+	private Json(String text) {
+		this.text = text;
+	}
+
+	/**
+	 * Reads the given JSON text.
+	 * 
+	 * @param text
+	 *            The JSON text.
+	 * @return The value.
+	 * @throws IllegalArgumentException
+	 *             if the text is no valid JSON or is nested deeper than
+	 *             {@link #MAX_DEPTH}.
+	 */
+	public static Object parse(String text) throws IllegalArgumentException {
+		Json json = new Json(text);
+		Object value = json.readValue();
+		json.skipWhitespace();
+		if (json.pos != text.length())
+			throw json.error("Unexpected characters");
+		return value;
+	}
+
+	/**
+	 * Reads the given JSON text which must be an object.
+	 * 
+	 * @param text
+	 *            The JSON text.
+	 * @return The object as map.
+	 * @throws IllegalArgumentException
+	 *             if the text is no valid JSON object.
+	 */
+	@SuppressWarnings("unchecked")
+	public static Map<String, Object> parseObject(String text)
+			throws IllegalArgumentException {
+		Object value = parse(text);
+		if (!(value instanceof Map))
+			throw new IllegalArgumentException("A JSON object is expected");
+		return (Map<String, Object>) value;
+	}
+
+	/**
+	 * Writes the given value as JSON text in a single line.
+	 * 
+	 * @param value
+	 *            The value.
+	 * @return The JSON text.
+	 */
+	public static String write(Object value) {
+		StringBuilder builder = new StringBuilder();
+		write(value, builder);
+		return builder.toString();
+	}
+
+	/**
+	 * Writes the given value as JSON text into the builder.
+	 * 
+	 * @param value
+	 *            The value.
+	 * @param builder
+	 *            The builder.
+	 */
+	private static void write(Object value, StringBuilder builder) {
+		if (value == null) {
+			builder.append("null");
+		} else if (value instanceof Boolean) {
+			builder.append(value.toString());
+		} else if (value instanceof Double || value instanceof Float) {
+			double d = ((Number) value).doubleValue();
+			builder.append(Double.isNaN(d) || Double.isInfinite(d) ? "null"
+					: value.toString());
+		} else if (value instanceof Number) {
+			builder.append(value.toString());
+		} else if (value instanceof Map) {
+			builder.append('{');
+			boolean first = true;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				if (!first)
+					builder.append(',');
+				first = false;
+				writeString(String.valueOf(entry.getKey()), builder);
+				builder.append(':');
+				write(entry.getValue(), builder);
+			}
+			builder.append('}');
+		} else if (value instanceof Collection) {
+			builder.append('[');
+			boolean first = true;
+			for (Object element : (Collection<?>) value) {
+				if (!first)
+					builder.append(',');
+				first = false;
+				write(element, builder);
+			}
+			builder.append(']');
+		} else {
+			writeString(value.toString(), builder);
+		}
+	}
+
+	/**
+	 * Writes a string with escapes into the builder.
+	 * 
+	 * @param string
+	 *            The string.
+	 * @param builder
+	 *            The builder.
+	 */
+	private static void writeString(String string, StringBuilder builder) {
+		builder.append('"');
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			switch (c) {
+			case '"':
+				builder.append("\\\"");
+				break;
+			case '\\':
+				builder.append("\\\\");
+				break;
+			case '\n':
+				builder.append("\\n");
+				break;
+			case '\r':
+				builder.append("\\r");
+				break;
+			case '\t':
+				builder.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					builder.append(String.format("\\u%04x", (int) c));
+				} else {
+					builder.append(c);
+				}
+			}
+		}
+		builder.append('"');
+	}
+
+	/**
+	 * Reads the next value.
+	 * 
+	 * @return The value.
+	 */
+	private Object readValue() {
+		skipWhitespace();
+		if (pos >= text.length())
+			throw error("Unexpected end");
+		char c = text.charAt(pos);
+		switch (c) {
+		case '{':
+			enter();
+			Map<String, Object> map = readObject();
+			depth--;
+			return map;
+		case '[':
+			enter();
+			List<Object> list = readArray();
+			depth--;
+			return list;
+		case '"':
+			return readString();
+		case 't':
+			return readLiteral("true", Boolean.TRUE);
+		case 'f':
+			return readLiteral("false", Boolean.FALSE);
+		case 'n':
+			return readLiteral("null", null);
+		default:
+			return readNumber();
+		}
+	}
+
+	/**
+	 * Enters a nested object or array.
+	 */
+	private void enter() {
+		if (++depth > MAX_DEPTH)
+			throw error("Too deeply nested");
+	}
+
+	/**
+	 * Reads an object.
+	 * 
+	 * @return The object as map.
+	 */
+	private Map<String, Object> readObject() {
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		pos++;
+		skipWhitespace();
+		if (peek() == '}') {
+			pos++;
+			return map;
+		}
+		while (true) {
+			skipWhitespace();
+			if (peek() != '"')
+				throw error("A key is expected");
+			String key = readString();
+			skipWhitespace();
+			expect(':');
+			map.put(key, readValue());
+			skipWhitespace();
+			if (peek() == ',') {
+				pos++;
+			} else {
+				expect('}');
+				return map;
+			}
+		}
+	}
+
+	/**
+	 * Reads an array.
+	 * 
+	 * @return The array as list.
+	 */
+	private List<Object> readArray() {
+		List<Object> list = new ArrayList<Object>();
+		pos++;
+		skipWhitespace();
+		if (peek() == ']') {
+			pos++;
+			return list;
+		}
+		while (true) {
+			list.add(readValue());
+			skipWhitespace();
+			if (peek() == ',') {
+				pos++;
+			} else {
+				expect(']');
+				return list;
+			}
+		}
+	}
+
+	/**
+	 * Reads a string.
+	 * 
+	 * @return The string.
+	 */
+	private String readString() {
+		StringBuilder builder = new StringBuilder();
+		pos++;
+		while (true) {
+			if (pos >= text.length())
+				throw error("Unterminated string");
+			char c = text.charAt(pos++);
+			if (c == '"')
+				return builder.toString();
+			if (c != '\\') {
+				builder.append(c);
+				continue;
+			}
+			if (pos >= text.length())
+				throw error("Unterminated string");
+			char e = text.charAt(pos++);
+			switch (e) {
+			case 'b':
+				builder.append('\b');
+				break;
+			case 'f':
+				builder.append('\f');
+				break;
+			case 'n':
+				builder.append('\n');
+				break;
+			case 'r':
+				builder.append('\r');
+				break;
+			case 't':
+				builder.append('\t');
+				break;
+			case 'u':
+				if (pos + 4 > text.length())
+					throw error("Invalid escape");
+				try {
+					builder.append((char) Integer.parseInt(
+							text.substring(pos, pos + 4), 16));
+				} catch (NumberFormatException ex) {
+					throw error("Invalid escape");
+				}
+				pos += 4;
+				break;
+			default:
+				builder.append(e);
+			}
+		}
+	}
+
+	/**
+	 * Reads a number.
+	 * 
+	 * @return The number as Long or Double.
+	 */
+	private Number readNumber() {
+		int start = pos;
+		boolean decimal = false;
+		while (pos < text.length()) {
+			char c = text.charAt(pos);
+			if (c == '.' || c == 'e' || c == 'E') {
+				decimal = true;
+			} else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+				break;
+			}
+			pos++;
+		}
+		String number = text.substring(start, pos);
+		try {
+			return decimal ? (Number) Double.valueOf(number) : (Number) Long
+					.valueOf(number);
+		} catch (NumberFormatException e) {
+			throw error("Invalid value");
+		}
+	}
+
+	/**
+	 * Reads a literal.
+	 * 
+	 * @param literal
+	 *            The literal.
+	 * @param value
+	 *            The value of the literal.
+	 * @return The value.
+	 */
+	private Object readLiteral(String literal, Object value) {
+		if (!text.startsWith(literal, pos))
+			throw error("Invalid value");
+		pos += literal.length();
+		return value;
+	}
+
+	/**
+	 * Skips whitespace.
+	 */
+	private void skipWhitespace() {
+		while (pos < text.length()
+				&& Character.isWhitespace(text.charAt(pos))) {
+			pos++;
+		}
+	}
+
+	/**
+	 * Get the current character.
+	 * 
+	 * @return The current character or 0 at the end.
+	 */
+	private char peek() {
+		return pos < text.length() ? text.charAt(pos) : 0;
+	}
+
+	/**
+	 * Expects the given character at the current position.
+	 * 
+	 * @param c
+	 *            The character.
+	 */
+	private void expect(char c) {
+		if (peek() != c)
+			throw error("'" + c + "' is expected");
+		pos++;
+	}
+
+	/**
+	 * Creates an exception for the current position.
+	 * 
+	 * @param message
+	 *            The message.
+	 * @return The exception.
+	 */
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(message + " at position " + pos);
+	}
+}
@@ -0,0 +1,495 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ *
+ * This file is part of mojo.
+ *
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.verifier;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.jena.uni.mojo.error.Annotation;
+import de.jena.uni.mojo.general.MajorPlan;
+
+/**
+ * An execution strategy determines where the major plan of a verification and
+ * the analyses it forks are executed. There are four strategies:
+ *
+ * <ul>
+ * <li>{@link #commonPool()}: the common fork join pool of the JVM.</li>
+ * <li>{@link #dedicated(int)}: an own fork join pool with the given
+ * parallelism.</li>
+ * <li>{@link #inline()}: the calling thread. If the calling thread belongs to
+ * a fork join pool, the analyses are forked within this pool; otherwise they
+ * run one after another. This is the cheapest strategy for tiny graphs.</li>
+ * <li>{@link #tenant(String, int)}: a bounded fork join pool which is shared
+ * by all verifications of the same tenant.</li>
+ * </ul>
+ *
+ * Each strategy counts its verifications and provides statistics about its
+ * pool via {@link #getStatistics()}.
+ *
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public abstract class ExecutionStrategy {
+
+	/**
+	 * The strategy which is used if no strategy is given. It is a dedicated
+	 * pool with one thread per core, which is shared by the whole JVM.
+	 */
+	public final static ExecutionStrategy DEFAULT = new PoolStrategy(
+			"default", new ForkJoinPool());
+
+	/**
+	 * The strategy which uses the calling thread.
+	 */
+	private final static ExecutionStrategy INLINE = new InlineStrategy();
+
+	/**
+	 * The strategy which uses the common pool.
+	 */
+	private final static ExecutionStrategy COMMON = new PoolStrategy("common",
+			ForkJoinPool.commonPool());
+
+	/**
+	 * The strategies of the tenants.
+	 */
+	private final static ConcurrentMap<String, ExecutionStrategy> tenants = new ConcurrentHashMap<String, ExecutionStrategy>();
+
+	/**
+	 * The name of the strategy.
+	 */
+	private final String name;
+
+	/**
+	 * The number of verifications which were executed.
+	 */
+	private final AtomicLong verifications = new AtomicLong();
+
+	/**
+	 * The constructor.
+	 *
+	 * @param name
+	 *            The name of the strategy.
+	 */
+	private ExecutionStrategy(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Get the strategy which uses the common fork join pool.
+	 *
+	 * @return The strategy.
+	 */
+	public static ExecutionStrategy commonPool() {
+		return COMMON;
+	}
+
+	/**
+	 * Creates a strategy with an own fork join pool. The pool should be shut
+	 * down via {@link #shutdown()} if it is no longer needed.
+	 *
+	 * @param parallelism
+	 *            The parallelism of the pool.
+	 * @return The strategy.
+	 */
+	public static ExecutionStrategy dedicated(int parallelism) {
+		return new PoolStrategy("dedicated", new ForkJoinPool(parallelism));
+	}
+
+	/**
+	 * Get the strategy which uses the calling thread.
+	 *
+	 * @return The strategy.
+	 */
+	public static ExecutionStrategy inline() {
+		return INLINE;
+	}
+
+	/**
+	 * Get the strategy of the given tenant. The pool of the tenant is created
+	 * with the given parallelism on the first request; later requests get the
+	 * same strategy regardless of the parallelism.
+	 *
+	 * @param tenant
+	 *            The name of the tenant.
+	 * @param parallelism
+	 *            The maximal parallelism of the tenant.
+	 * @return The strategy.
+	 */
+	public static ExecutionStrategy tenant(String tenant, int parallelism) {
+		ExecutionStrategy strategy = tenants.get(tenant);
+		if (strategy == null) {
+			ExecutionStrategy created = new PoolStrategy("tenant " + tenant,
+					new ForkJoinPool(parallelism));
+			strategy = tenants.putIfAbsent(tenant, created);
+			if (strategy == null) {
+				strategy = created;
+			} else {
+				created.shutdown();
+			}
+		}
+		return strategy;
+	}
+
+	/**
+	 * Shuts the pool of the tenant down and forgets the tenant.
+	 *
+	 * @param tenant
+	 *            The name of the tenant.
+	 */
+	public static void removeTenant(String tenant) {
+		ExecutionStrategy strategy = tenants.remove(tenant);
+		if (strategy != null) {
+			strategy.shutdown();
+		}
+	}
+
+	/**
+	 * Get the strategy with the given name as it is given on the command
+	 * line: "default", "common", "inline" or "tenant:&lt;name&gt;" (with one
+	 * thread per core).
+	 *
+	 * @param name
+	 *            The name of the strategy.
+	 * @return The strategy.
+	 */
+	public static ExecutionStrategy forName(String name) {
+		if (name == null || name.isEmpty() || name.equals("default"))
+			return DEFAULT;
+		if (name.equals("common"))
+			return COMMON;
+		if (name.equals("inline"))
+			return INLINE;
+		if (name.startsWith("tenant:") && name.length() > 7)
+			return tenant(name.substring(7),
+					Runtime.getRuntime().availableProcessors());
+		throw new IllegalArgumentException("Unknown execution strategy: "
+				+ name);
+	}
+
+	/**
+	 * Executes the major plan and waits for its result.
+	 *
+	 * @param plan
+	 *            The major plan.
+	 * @return The annotations of the major plan.
+	 */
+	public List<Annotation> invoke(MajorPlan plan) {
+		verifications.incrementAndGet();
+		return execute(plan);
+	}
+
+	/**
+	 * Executes the major plan and waits for its result.
+	 *
+	 * @param plan
+	 *            The major plan.
+	 * @return The annotations of the major plan.
+	 */
+	protected abstract List<Annotation> execute(MajorPlan plan);
+
+	/**
+	 * Executes the given tasks in parallel and waits until all of them are
+	 * done. The results can be taken from the tasks afterwards (e.g., via
+	 * join) in their order.
+	 *
+	 * @param tasks
+	 *            The tasks.
+	 */
+	public abstract void invokeAll(Collection<? extends ForkJoinTask<?>> tasks);
+
+	/**
+	 * Get the pool of this strategy.
+	 *
+	 * @return The pool or null if the strategy has no own pool.
+	 */
+	protected abstract ForkJoinPool getPool();
+
+	/**
+	 * Get the number of verifications which this strategy can execute at the
+	 * same time. It is the parallelism of the pool or, if the strategy has no
+	 * own pool, the number of cores, since the plans are executed by the
+	 * calling threads.
+	 *
+	 * @return The parallelism.
+	 */
+	public int getParallelism() {
+		ForkJoinPool pool = getPool();
+		return pool == null ? Runtime.getRuntime().availableProcessors() : pool
+				.getParallelism();
+	}
+
+	/**
+	 * Shuts the pool of this strategy down. The default and the common pool
+	 * are never shut down.
+	 */
+	public void shutdown() {
+		ForkJoinPool pool = getPool();
+		if (pool != null && this != DEFAULT
+				&& pool != ForkJoinPool.commonPool()) {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Get the name of this strategy.
+	 *
+	 * @return The name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Get a snapshot of statistics about this strategy and its pool.
+	 *
+	 * @return The statistics.
+	 */
+	public Statistics getStatistics() {
+		return new Statistics(name, verifications.get(), getPool());
+	}
+
+	/**
+	 * A strategy which executes the plans within a fork join pool.
+	 */
+	private static class PoolStrategy extends ExecutionStrategy {
+
+		/**
+		 * The pool.
+		 */
+		private final ForkJoinPool pool;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param name
+		 *            The name of the strategy.
+		 * @param pool
+		 *            The pool.
+		 */
+		private PoolStrategy(String name, ForkJoinPool pool) {
+			super(name);
+			this.pool = pool;
+		}
+
+		@Override
+		protected List<Annotation> execute(MajorPlan plan) {
+			// Within the pool, the plan is executed by the current worker
+			if (ForkJoinTask.getPool() == pool)
+				return plan.invoke();
+			return pool.invoke(plan);
+		}
+
+		@Override
+		public void invokeAll(final Collection<? extends ForkJoinTask<?>> tasks) {
+			if (ForkJoinTask.getPool() == pool) {
+				ForkJoinTask.invokeAll(tasks);
+			} else {
+				pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+			}
+		}
+
+		@Override
+		protected ForkJoinPool getPool() {
+			return pool;
+		}
+	}
+
+	/**
+	 * A strategy which executes the plans within the calling thread.
+	 */
+	private static class InlineStrategy extends ExecutionStrategy {
+
+		/**
+		 * The constructor.
+		 */
+		private InlineStrategy() {
+			super("inline");
+		}
+
+		@Override
+		protected List<Annotation> execute(MajorPlan plan) {
+			return plan.invoke();
+		}
+
+		@Override
+		public void invokeAll(Collection<? extends ForkJoinTask<?>> tasks) {
+			for (ForkJoinTask<?> task : tasks) {
+				task.invoke();
+			}
+		}
+
+		@Override
+		protected ForkJoinPool getPool() {
+			return null;
+		}
+	}
+
+	/**
+	 * A snapshot of statistics about an execution strategy.
+	 */
+	public static class Statistics {
+
+		/**
+		 * The name of the strategy.
+		 */
+		private final String name;
+
+		/**
+		 * The number of verifications.
+		 */
+		private final long verifications;
+
+		/**
+		 * The parallelism of the pool.
+		 */
+		private final int parallelism;
+
+		/**
+		 * The number of threads within the pool.
+		 */
+		private final int poolSize;
+
+		/**
+		 * The number of threads which execute tasks.
+		 */
+		private final int activeThreads;
+
+		/**
+		 * The number of threads which are not blocked.
+		 */
+		private final int runningThreads;
+
+		/**
+		 * The number of tasks within the queues of the threads.
+		 */
+		private final long queuedTasks;
+
+		/**
+		 * The number of submissions which are not yet executed.
+		 */
+		private final int queuedSubmissions;
+
+		/**
+		 * The number of stolen tasks.
+		 */
+		private final long steals;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param name
+		 *            The name of the strategy.
+		 * @param verifications
+		 *            The number of verifications.
+		 * @param pool
+		 *            The pool (can be null).
+		 */
+		private Statistics(String name, long verifications, ForkJoinPool pool) {
+			this.name = name;
+			this.verifications = verifications;
+			this.parallelism = pool == null ? 1 : pool.getParallelism();
+			this.poolSize = pool == null ? 0 : pool.getPoolSize();
+			this.activeThreads = pool == null ? 0 : pool.getActiveThreadCount();
+			this.runningThreads = pool == null ? 0 : pool
+					.getRunningThreadCount();
+			this.queuedTasks = pool == null ? 0 : pool.getQueuedTaskCount();
+			this.queuedSubmissions = pool == null ? 0 : pool
+					.getQueuedSubmissionCount();
+			this.steals = pool == null ? 0 : pool.getStealCount();
+		}
+
+		/**
+		 * @return the name of the strategy
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the number of verifications
+		 */
+		public long getVerifications() {
+			return verifications;
+		}
+
+		/**
+		 * @return the parallelism of the pool
+		 */
+		public int getParallelism() {
+			return parallelism;
+		}
+
+		/**
+		 * @return the number of threads within the pool
+		 */
+		public int getPoolSize() {
+			return poolSize;
+		}
+
+		/**
+		 * @return the number of threads which execute tasks
+		 */
+		public int getActiveThreads() {
+			return activeThreads;
+		}
+
+		/**
+		 * @return the number of threads which are not blocked
+		 */
+		public int getRunningThreads() {
+			return runningThreads;
+		}
+
+		/**
+		 * @return the number of tasks within the queues of the threads
+		 */
+		public long getQueuedTasks() {
+			return queuedTasks;
+		}
+
+		/**
+		 * @return the number of submissions which are not yet executed
+		 */
+		public int getQueuedSubmissions() {
+			return queuedSubmissions;
+		}
+
+		/**
+		 * @return the number of stolen tasks
+		 */
+		public long getSteals() {
+			return steals;
+		}
+
+		@Override
+		public String toString() {
+			return name + " [verifications=" + verifications
+					+ ", parallelism=" + parallelism + ", poolSize="
+					+ poolSize + ", active=" + activeThreads + ", running="
+					+ runningThreads + ", queuedTasks=" + queuedTasks
+					+ ", queuedSubmissions=" + queuedSubmissions + ", steals="
+					+ steals + "]";
+		}
+	}
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.verifier;
+
+import java.util.List;
+
+import de.jena.uni.mojo.analysis.Analysis;
+import de.jena.uni.mojo.error.Annotation;
+import de.jena.uni.mojo.model.WorkflowGraph;
+
+/**
+ * A verification listener gets the results of a verification as soon as they
+ * are known instead of waiting for the whole verification. For example, the
+ * deadlocks are reported before the abundance analysis has finished. It is
+ * registered via {@link de.jena.uni.mojo.MojoConfig#withListener}.
+ * 
+ * The workflow graph is always the original workflow graph which was given to
+ * the verifier. A listener can be called from several threads at the same time
+ * (for different workflow graphs), i.e., it must be thread safe. All methods
+ * do nothing by default.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public interface VerificationListener {
+
+	/**
+	 * The listener which ignores everything.
+	 */
+	public final static VerificationListener NONE = new VerificationListener() {
+	};
+
+	/**
+	 * Is called for each annotation as soon as the phase which found it is
+	 * complete.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param annotation
+	 *            The annotation.
+	 */
+	public default void onAnnotation(WorkflowGraph graph, Annotation annotation) {
+	}
+
+	/**
+	 * Is called when a phase of the verification is complete. The annotations
+	 * of the phase are reported before.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param phase
+	 *            The analysis of the phase.
+	 * @param annotations
+	 *            The annotations of the phase.
+	 */
+	public default void onPhaseComplete(WorkflowGraph graph, Analysis phase,
+			List<Annotation> annotations) {
+	}
+
+	/**
+	 * Is called when the verification of the workflow graph is complete.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param annotations
+	 *            All annotations of the verification.
+	 */
+	public default void onGraphComplete(WorkflowGraph graph,
+			List<Annotation> annotations) {
+	}
+}
@@ -0,0 +1,755 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ *
+ * This file is part of mojo.
+ *
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.verifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.jena.uni.mojo.Mojo;
+import de.jena.uni.mojo.MojoConfig;
+import de.jena.uni.mojo.analysis.information.AnalysisInformation;
+import de.jena.uni.mojo.analysis.transformation.DominatorTree;
+import de.jena.uni.mojo.analysis.transformation.SeseFragments;
+import de.jena.uni.mojo.error.Annotation;
+import de.jena.uni.mojo.error.BudgetExceededAnnotation;
+import de.jena.uni.mojo.model.WGNode;
+import de.jena.uni.mojo.model.WGNode.Type;
+import de.jena.uni.mojo.model.WorkflowGraph;
+
+/**
+ * A verification session holds a workflow graph which is changed step by step
+ * (e.g., by a modelling front end) and verified again after the changes. The
+ * workflow graph is copied once when the session is created. Afterwards, the
+ * changes are applied as deltas on the copy, so that neither the process has
+ * to be read in again nor the workflow graph has to be rebuilt.
+ *
+ * The session keeps the dominator and post-dominator trees of the workflow
+ * graph up to date with each inserted and removed edge (see
+ * {@link DominatorTree}). With these trees, the workflow graph is decomposed
+ * into single-entry single-exit fragments (see {@link SeseFragments}), whose
+ * behaviour does not depend on the rest of the workflow graph. A
+ * verification only verifies the fragments which were changed since the
+ * last verification; the verdicts of the other fragments are reused. The
+ * sound fragments are folded into single activities and the remaining
+ * workflow graph (the skeleton) is only verified again if it differs from the
+ * skeleton of the last verification. Therefore, a local change within a
+ * sound fragment only causes the verification of this fragment.
+ *
+ * The deltas are coalesced until the next verification: if they cancel each
+ * other out (e.g., an edge is added and removed again), the workflow graph is
+ * the same as during the last verification and its result is returned without
+ * any further analysis.
+ *
+ * A session is not thread safe. It is intended to be used by a single editor.
+ *
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class VerificationSession {
+
+	/**
+	 * The workflow graph of this session.
+	 */
+	private final WorkflowGraph graph;
+
+	/**
+	 * The analysis information.
+	 */
+	private final AnalysisInformation reporter;
+
+	/**
+	 * The configuration of the verifications.
+	 */
+	private final MojoConfig config;
+
+	/**
+	 * The node array map of the workflow graph.
+	 */
+	private WGNode[] map;
+
+	/**
+	 * The types of the nodes (by id) during the last verification. A node
+	 * which did not exist has no type.
+	 */
+	private Type[] verifiedTypes = new Type[0];
+
+	/**
+	 * The net number of added (positive) or removed (negative) edges since
+	 * the last verification for each pair of source and target node.
+	 */
+	private final Map<Long, Integer> edgeDeltas = new HashMap<Long, Integer>();
+
+	/**
+	 * The ids of the nodes which were added, removed, or changed their type
+	 * since the last verification.
+	 */
+	private final BitSet touched = new BitSet();
+
+	/**
+	 * The dominator tree of the workflow graph.
+	 */
+	private final DominatorTree dominators;
+
+	/**
+	 * The post-dominator tree of the workflow graph.
+	 */
+	private final DominatorTree postDominators;
+
+	/**
+	 * The fragments of the last verification with their verdicts by the ids
+	 * of their entries.
+	 */
+	private Map<Integer, VerifiedFragment> fragments = new HashMap<Integer, VerifiedFragment>();
+
+	/**
+	 * The skeleton of the last verification.
+	 */
+	private WorkflowGraph skeleton = null;
+
+	/**
+	 * The annotations of the last verification.
+	 */
+	private List<Annotation> result = null;
+
+	/**
+	 * The number of verifications of the skeleton that were performed.
+	 */
+	private int verifications = 0;
+
+	/**
+	 * The number of verifications of fragments that were performed.
+	 */
+	private int fragmentVerifications = 0;
+
+	/**
+	 * The number of fragments whose verdicts were reused.
+	 */
+	private int reusedFragments = 0;
+
+	/**
+	 * A fragment of the last verification with its verdict.
+	 */
+	private static class VerifiedFragment {
+
+		/**
+		 * The id of the exit.
+		 */
+		private final int exit;
+
+		/**
+		 * The ids of the nodes of the fragment.
+		 */
+		private final BitSet nodes;
+
+		/**
+		 * Whether the fragment is sound.
+		 */
+		private final boolean sound;
+
+		/**
+		 * The constructor of a verified fragment.
+		 *
+		 * @param fragment
+		 *            The fragment.
+		 * @param sound
+		 *            Whether the fragment is sound.
+		 */
+		private VerifiedFragment(SeseFragments.Fragment fragment, boolean sound) {
+			this.exit = fragment.getExit().getId();
+			this.nodes = fragment.getNodes();
+			this.sound = sound;
+		}
+	}
+
+	/**
+	 * The constructor defines a new verification session for the given
+	 * workflow graph. The given workflow graph itself is never changed.
+	 *
+	 * @param graph
+	 *            The workflow graph.
+	 * @param reporter
+	 *            The analysis information.
+	 */
+	public VerificationSession(WorkflowGraph graph, AnalysisInformation reporter) {
+		this(graph, reporter, Mojo.getConfig());
+	}
+
+	/**
+	 * The constructor defines a new verification session for the given
+	 * workflow graph with a specific configuration.
+	 *
+	 * @param graph
+	 *            The workflow graph.
+	 * @param reporter
+	 *            The analysis information.
+	 * @param config
+	 *            The configuration.
+	 */
+	public VerificationSession(WorkflowGraph graph,
+			AnalysisInformation reporter, MojoConfig config) {
+		this.graph = graph.snapshot();
+		this.reporter = reporter;
+		this.config = config;
+		this.map = new WGNode[0];
+		for (WGNode node : this.graph.getNodeListInclusive()) {
+			register(node);
+		}
+		this.dominators = new DominatorTree(this.graph.getStart(), map, true);
+		this.postDominators = new DominatorTree(this.graph.getEnd(), map,
+				false);
+	}
+
+	/**
+	 * Get the workflow graph of this session. It should only be changed via
+	 * the methods of this session.
+	 *
+	 * @return The workflow graph.
+	 */
+	public WorkflowGraph getWorkflowGraph() {
+		return graph;
+	}
+
+	/**
+	 * Get the node with the given id.
+	 *
+	 * @param id
+	 *            The id of the node.
+	 * @return The node or null if there is no such node.
+	 */
+	public WGNode getNode(int id) {
+		return id >= 0 && id < map.length ? map[id] : null;
+	}
+
+	/**
+	 * Adds a new node without any edges to the workflow graph.
+	 *
+	 * @param id
+	 *            The id of the new node.
+	 * @param type
+	 *            The type of the new node.
+	 * @param processElement
+	 *            The process element the node represents (can be null).
+	 * @return The new node.
+	 * @throws IllegalArgumentException
+	 *             if the type is start or end.
+	 * @throws RuntimeException
+	 *             if there is already a node with the given id.
+	 */
+	public WGNode addNode(int id, Type type, Object processElement)
+			throws IllegalArgumentException, RuntimeException {
+		if (type == Type.START || type == Type.END)
+			throw new IllegalArgumentException();
+		if (getNode(id) != null)
+			throw new RuntimeException();
+
+		WGNode node = new WGNode(id, type);
+		if (processElement != null) {
+			node.addProcessElement(processElement);
+		}
+		graph.addNode(node);
+		register(node);
+		touched.set(id);
+		return node;
+	}
+
+	/**
+	 * Removes the node with the given id together with all of its edges.
+	 *
+	 * @param id
+	 *            The id of the node.
+	 * @throws IllegalArgumentException
+	 *             if the node is the start or end node.
+	 * @throws RuntimeException
+	 *             if there is no node with the given id.
+	 */
+	public void removeNode(int id) throws IllegalArgumentException,
+			RuntimeException {
+		WGNode node = existing(id);
+		if (node == graph.getStart() || node == graph.getEnd())
+			throw new IllegalArgumentException();
+
+		for (WGNode succ : new ArrayList<WGNode>(node.getSuccessors())) {
+			removeEdge(id, succ.getId());
+		}
+		for (WGNode pred : new ArrayList<WGNode>(node.getPredecessors())) {
+			removeEdge(pred.getId(), id);
+		}
+
+		graph.removeNode(node);
+		map[id] = null;
+		touched.set(id);
+	}
+
+	/**
+	 * Changes the type of the node with the given id.
+	 *
+	 * @param id
+	 *            The id of the node.
+	 * @param type
+	 *            The new type.
+	 * @throws IllegalArgumentException
+	 *             if the node is the start or end node or the type is start or
+	 *             end.
+	 * @throws RuntimeException
+	 *             if there is no node with the given id.
+	 */
+	public void setType(int id, Type type) throws IllegalArgumentException,
+			RuntimeException {
+		WGNode node = existing(id);
+		if (node == graph.getStart() || node == graph.getEnd()
+				|| type == Type.START || type == Type.END)
+			throw new IllegalArgumentException();
+		if (node.getType() == type)
+			return;
+
+		graph.removeNode(node);
+		node.setType(type);
+		graph.addNode(node);
+		touched.set(id);
+	}
+
+	/**
+	 * Adds an edge between the two nodes with the given ids.
+	 *
+	 * @param source
+	 *            The id of the source node.
+	 * @param target
+	 *            The id of the target node.
+	 * @throws RuntimeException
+	 *             if one of the nodes does not exist.
+	 */
+	public void addEdge(int source, int target) throws RuntimeException {
+		WGNode src = existing(source);
+		WGNode tgt = existing(target);
+
+		src.addSuccessor(tgt);
+		tgt.addPredecessor(src);
+		dominators.insertEdge(map, source, target);
+		postDominators.insertEdge(map, source, target);
+
+		record(source, target, 1);
+	}
+
+	/**
+	 * Removes an edge between the two nodes with the given ids.
+	 *
+	 * @param source
+	 *            The id of the source node.
+	 * @param target
+	 *            The id of the target node.
+	 * @throws RuntimeException
+	 *             if one of the nodes does not exist or if there is no such
+	 *             edge.
+	 */
+	public void removeEdge(int source, int target) throws RuntimeException {
+		WGNode src = existing(source);
+		WGNode tgt = existing(target);
+
+		if (!src.removeSuccessor(tgt))
+			throw new RuntimeException();
+		tgt.removePredecessor(src);
+		dominators.removeEdge(map, source, target);
+		postDominators.removeEdge(map, source, target);
+
+		record(source, target, -1);
+	}
+
+	/**
+	 * Determines whether the workflow graph differs from the one of the last
+	 * verification.
+	 *
+	 * @return True or false.
+	 */
+	public boolean isModified() {
+		if (result == null)
+			return true;
+
+		// Nodes which were added, removed or retyped (e.g., a node which is
+		// added again with other process elements)
+		if (!touched.isEmpty())
+			return true;
+
+		for (Integer delta : edgeDeltas.values()) {
+			if (delta != 0)
+				return true;
+		}
+
+		int length = Math.max(map.length, verifiedTypes.length);
+		for (int i = 0; i < length; i++) {
+			Type current = i < map.length && map[i] != null ? map[i].getType()
+					: null;
+			Type verified = i < verifiedTypes.length ? verifiedTypes[i] : null;
+			if (current != verified)
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Verifies the workflow graph of this session. If it was not modified
+	 * since the last verification, the last result is returned. Otherwise,
+	 * only the changed fragments and (if it changed) the skeleton are
+	 * verified.
+	 *
+	 * @return A list of annotations.
+	 */
+	public List<Annotation> verify() {
+		if (!isModified())
+			return result;
+
+		// Start the time measurement
+		reporter.startTimeMeasurement(graph, "Verifier");
+
+		//
+		// 1. Determine the verdicts of the fragments
+		//
+		Map<Integer, VerifiedFragment> verified = new HashMap<Integer, VerifiedFragment>();
+		List<SeseFragments.Fragment> sound = new ArrayList<SeseFragments.Fragment>();
+		BitSet covered = new BitSet(map.length);
+		for (SeseFragments.Fragment fragment : SeseFragments.find(graph, map,
+				dominators, postDominators)) {
+			BitSet nodes = fragment.getNodes();
+			if (nodes.intersects(covered))
+				continue;
+			covered.or(nodes);
+
+			VerifiedFragment last = fragments.get(fragment.getEntry().getId());
+			Boolean verdict = null;
+			if (last != null && last.exit == fragment.getExit().getId()
+					&& last.nodes.equals(nodes) && !isChanged(nodes)) {
+				verdict = last.sound;
+				reusedFragments++;
+			} else {
+				verdict = verifyFragment(fragment);
+			}
+
+			if (verdict != null) {
+				verified.put(fragment.getEntry().getId(), new VerifiedFragment(
+						fragment, verdict));
+				if (verdict)
+					sound.add(fragment);
+			}
+		}
+
+		//
+		// 2. Verify the skeleton if it changed
+		//
+		WorkflowGraph folded = fold(sound);
+		if (skeleton == null || !isEqual(skeleton, folded)) {
+			Verifier verifier = new Verifier(folded, Mojo.createMap(folded,
+					Mojo.findMax(folded)), reporter, null, config);
+			result = Collections.unmodifiableList(verifier.compute());
+			skeleton = folded;
+			verifications++;
+		}
+
+		// Stop the time measurement
+		reporter.endTimeMeasurement(graph, "Verifier");
+
+		//
+		// 3. Remember the verified state
+		//
+		verifiedTypes = new Type[map.length];
+		for (int i = 0; i < map.length; i++) {
+			verifiedTypes[i] = map[i] == null ? null : map[i].getType();
+		}
+		edgeDeltas.clear();
+		touched.clear();
+		fragments = verified;
+
+		return result;
+	}
+
+	/**
+	 * Get the number of verifications of the skeleton that were really
+	 * performed.
+	 *
+	 * @return The number of verifications.
+	 */
+	public int getVerifications() {
+		return verifications;
+	}
+
+	/**
+	 * Get the number of verifications of changed fragments that were
+	 * performed.
+	 *
+	 * @return The number of fragment verifications.
+	 */
+	public int getFragmentVerifications() {
+		return fragmentVerifications;
+	}
+
+	/**
+	 * Get the number of fragments whose verdicts were reused.
+	 *
+	 * @return The number of reused fragments.
+	 */
+	public int getReusedFragments() {
+		return reusedFragments;
+	}
+
+	/**
+	 * Determines whether a node or an edge within the given nodes was changed
+	 * since the last verification. Edges from or to other nodes do not change
+	 * the behaviour of a fragment.
+	 *
+	 * @param nodes
+	 *            The ids of the nodes.
+	 * @return True or false.
+	 */
+	private boolean isChanged(BitSet nodes) {
+		if (touched.intersects(nodes))
+			return true;
+		for (Long key : edgeDeltas.keySet()) {
+			int source = (int) (key >>> 32);
+			int target = (int) (long) key;
+			if (nodes.get(source) && nodes.get(target))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Verifies a fragment on its own (in the current thread).
+	 *
+	 * @param fragment
+	 *            The fragment.
+	 * @return True if the fragment is sound, false if not, and null if there
+	 *         is no verdict since the budget was exceeded.
+	 */
+	private Boolean verifyFragment(SeseFragments.Fragment fragment) {
+		WorkflowGraph fragmentGraph = fragment.toWorkflowGraph(map);
+		MojoConfig fragmentConfig = config.with("FRAGMENTS", false)
+				.with("DEDUPLICATE", false)
+				.withListener(VerificationListener.NONE);
+		Verifier verifier = new Verifier(fragmentGraph, Mojo.createMap(
+				fragmentGraph, Mojo.findMax(fragmentGraph)),
+				new AnalysisInformation(), null, fragmentConfig,
+				ExecutionStrategy.inline());
+		List<Annotation> annotations = verifier.compute();
+		fragmentVerifications++;
+
+		for (Annotation annotation : annotations) {
+			if (annotation instanceof BudgetExceededAnnotation)
+				return null;
+		}
+		return annotations.isEmpty();
+	}
+
+	/**
+	 * Creates the skeleton of the workflow graph, where each of the given
+	 * fragments is replaced by its entry as activity. The activity takes over
+	 * the process elements of the entry and the exit of the fragment, so that
+	 * changes within the fragment do not change the skeleton.
+	 *
+	 * @param sound
+	 *            The (disjoint) sound fragments.
+	 * @return The skeleton.
+	 */
+	private WorkflowGraph fold(List<SeseFragments.Fragment> sound) {
+		// The entry of the fragment of each folded node
+		int[] owner = new int[map.length];
+		Arrays.fill(owner, -1);
+		BitSet[] inner = new BitSet[map.length];
+		int[] exits = new int[map.length];
+		for (SeseFragments.Fragment fragment : sound) {
+			int entry = fragment.getEntry().getId();
+			BitSet nodes = fragment.getNodes();
+			inner[entry] = nodes;
+			exits[entry] = fragment.getExit().getId();
+			for (int i = nodes.nextSetBit(0); i >= 0; i = nodes.nextSetBit(i + 1)) {
+				if (i != entry)
+					owner[i] = entry;
+			}
+		}
+
+		// Copy the nodes
+		WorkflowGraph folded = new WorkflowGraph(graph);
+		WGNode[] copies = new WGNode[map.length];
+		for (WGNode node : graph.getNodeListInclusive()) {
+			int id = node.getId();
+			if (owner[id] >= 0)
+				continue;
+			if (inner[id] == null) {
+				copies[id] = node.copy();
+			} else {
+				copies[id] = new WGNode(id, Type.ACTIVITY);
+				copies[id].addProcessElements(node.getProcessElements());
+				copies[id].addProcessElements(map[exits[id]].getProcessElements());
+			}
+		}
+		folded.setStart(copies[graph.getStart().getId()]);
+		folded.setEnd(copies[graph.getEnd().getId()]);
+		for (WGNode node : graph.getNodeList()) {
+			if (owner[node.getId()] < 0)
+				folded.addNode(copies[node.getId()]);
+		}
+
+		// Copy the edges. The edges within a fragment vanish; the edge
+		// out of its exit starts at its entry.
+		for (WGNode node : graph.getNodeListInclusive()) {
+			int id = node.getId();
+			if (owner[id] >= 0) {
+				BitSet nodes = inner[owner[id]];
+				for (WGNode succ : node.getSuccessors()) {
+					if (!nodes.get(succ.getId()))
+						copies[owner[id]].addSuccessor(image(copies, owner, succ));
+				}
+				continue;
+			}
+			for (WGNode succ : node.getSuccessors()) {
+				if (inner[id] == null || !inner[id].get(succ.getId()))
+					copies[id].addSuccessor(image(copies, owner, succ));
+			}
+			for (WGNode pred : node.getPredecessors()) {
+				if (inner[id] == null || !inner[id].get(pred.getId()))
+					copies[id].addPredecessor(image(copies, owner, pred));
+			}
+		}
+		return folded;
+	}
+
+	/**
+	 * Get the node of the skeleton which represents the given node.
+	 *
+	 * @param copies
+	 *            The nodes of the skeleton by their ids.
+	 * @param owner
+	 *            The entry of the fragment of each folded node (or -1).
+	 * @param node
+	 *            The node of the workflow graph.
+	 * @return The node of the skeleton.
+	 */
+	private static WGNode image(WGNode[] copies, int[] owner, WGNode node) {
+		int id = node.getId();
+		return copies[owner[id] >= 0 ? owner[id] : id];
+	}
+
+	/**
+	 * Determines whether two workflow graphs are equal, i.e., they have the
+	 * same nodes (ids, types, and process elements) and the same edges in the
+	 * same order.
+	 *
+	 * @param a
+	 *            The first workflow graph.
+	 * @param b
+	 *            The second workflow graph.
+	 * @return True or false.
+	 */
+	private static boolean isEqual(WorkflowGraph a, WorkflowGraph b) {
+		List<WGNode> nodesA = a.getNodeListInclusive();
+		List<WGNode> nodesB = b.getNodeListInclusive();
+		if (nodesA.size() != nodesB.size()
+				|| a.getStart().getId() != b.getStart().getId()
+				|| a.getEnd().getId() != b.getEnd().getId())
+			return false;
+
+		Map<Integer, WGNode> byId = new HashMap<Integer, WGNode>();
+		for (WGNode node : nodesB) {
+			byId.put(node.getId(), node);
+		}
+		for (WGNode node : nodesA) {
+			WGNode other = byId.get(node.getId());
+			if (other == null || other.getType() != node.getType()
+					|| !other.getProcessElements().equals(node.getProcessElements())
+					|| !sameIds(node.getSuccessors(), other.getSuccessors())
+					|| !sameIds(node.getPredecessors(), other.getPredecessors()))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Determines whether two lists of nodes have the same ids in the same
+	 * order.
+	 *
+	 * @param a
+	 *            The first list.
+	 * @param b
+	 *            The second list.
+	 * @return True or false.
+	 */
+	private static boolean sameIds(List<WGNode> a, List<WGNode> b) {
+		if (a.size() != b.size())
+			return false;
+		for (int i = 0; i < a.size(); i++) {
+			if (a.get(i).getId() != b.get(i).getId())
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Records an edge delta.
+	 *
+	 * @param source
+	 *            The id of the source node.
+	 * @param target
+	 *            The id of the target node.
+	 * @param delta
+	 *            The delta.
+	 */
+	private void record(int source, int target, int delta) {
+		long key = ((long) source << 32) | (target & 0xFFFFFFFFL);
+		Integer old = edgeDeltas.get(key);
+		int value = (old == null ? 0 : old) + delta;
+		if (value == 0) {
+			edgeDeltas.remove(key);
+		} else {
+			edgeDeltas.put(key, value);
+		}
+	}
+
+	/**
+	 * Get the node with the given id.
+	 *
+	 * @param id
+	 *            The id of the node.
+	 * @return The node.
+	 * @throws RuntimeException
+	 *             if there is no such node.
+	 */
+	private WGNode existing(int id) throws RuntimeException {
+		WGNode node = getNode(id);
+		if (node == null)
+			throw new RuntimeException();
+		return node;
+	}
+
+	/**
+	 * Puts the node into the node array map and enlarges the map if
+	 * necessary.
+	 *
+	 * @param node
+	 *            The node.
+	 */
+	private void register(WGNode node) {
+		if (node.getId() >= map.length) {
+			map = Arrays.copyOf(map, Math.max(node.getId() + 1, map.length * 2));
+		}
+		map[node.getId()] = node;
+	}
+}
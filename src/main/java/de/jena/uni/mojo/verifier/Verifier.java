@@ -18,13 +18,18 @@
  */
 package de.jena.uni.mojo.verifier;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ForkJoinPool;
 
 import de.jena.uni.mojo.Mojo;
+import de.jena.uni.mojo.MojoConfig;
 import de.jena.uni.mojo.analysis.Analysis;
+import de.jena.uni.mojo.analysis.BudgetExceededException;
+import de.jena.uni.mojo.analysis.VerificationBudget;
 import de.jena.uni.mojo.analysis.information.AnalysisInformation;
+import de.jena.uni.mojo.cache.IsomorphismCache;
 import de.jena.uni.mojo.error.Annotation;
+import de.jena.uni.mojo.error.BudgetExceededAnnotation;
 import de.jena.uni.mojo.general.MajorPlan;
 import de.jena.uni.mojo.model.WGNode;
 import de.jena.uni.mojo.model.WorkflowGraph;
@@ -36,6 +41,15 @@ import de.jena.uni.mojo.util.store.ElementStore;
  * The verifier is the entry point for each analysis. It holds some information
  * about parallel processes, etc.
  * 
+ * The verifier never modifies the given workflow graph. Major plans which
+ * would modify it work on a snapshot instead. Therefore, the same workflow
+ * graph can be verified repeatedly and by several verifiers at the same time
+ * (each with its own analysis information).
+ * 
+ * The results are reported to the {@link VerificationListener} of the
+ * configuration as soon as they are known. If wished, the verdict of an
+ * isomorphic workflow graph is reused (see {@link IsomorphismCache}).
+ * 
  * @author Dipl.-Inf. Thomas M. Prinz
  * 
  */
@@ -47,9 +61,9 @@ public class Verifier extends Analysis {
 	private static final long serialVersionUID = 5747937418712967031L;
 
 	/**
-	 * A fork join pool to allow simple parallelism.
+	 * The strategy which executes the major plan.
 	 */
-	private static ForkJoinPool fjPool = new ForkJoinPool();
+	private final ExecutionStrategy strategy;
 
 	/**
 	 * An element store where each element is stored.
@@ -70,8 +84,7 @@ public class Verifier extends Analysis {
 	 */
 	public Verifier(WorkflowGraph graph, WGNode[] map,
 			AnalysisInformation reporter) {
-		super(graph, map, reporter);
-		this.store = null;
+		this(graph, map, reporter, null, Mojo.getConfig());
 	}
 
 	/**
@@ -89,38 +102,134 @@ public class Verifier extends Analysis {
 	 */
 	public Verifier(WorkflowGraph graph, WGNode[] map,
 			AnalysisInformation reporter, ElementStore store) {
-		super(graph, map, reporter);
+		this(graph, map, reporter, store, Mojo.getConfig());
+	}
+
+	/**
+	 * The constructor with an explicit configuration. The verifier and all
+	 * analyses it starts only use this configuration instead of the global
+	 * commands of {@link Mojo}.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param map
+	 *            The node array map.
+	 * @param reporter
+	 *            The analysis information.
+	 * @param store
+	 *            The element store (can be null).
+	 * @param config
+	 *            The configuration.
+	 */
+	public Verifier(WorkflowGraph graph, WGNode[] map,
+			AnalysisInformation reporter, ElementStore store, MojoConfig config) {
+		this(graph, map, reporter, store, config, config.getStrategy());
+	}
+
+	/**
+	 * The constructor with an explicit configuration and execution strategy.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param map
+	 *            The node array map.
+	 * @param reporter
+	 *            The analysis information.
+	 * @param store
+	 *            The element store (can be null).
+	 * @param config
+	 *            The configuration.
+	 * @param strategy
+	 *            The strategy which executes the major plan.
+	 */
+	public Verifier(WorkflowGraph graph, WGNode[] map,
+			AnalysisInformation reporter, ElementStore store,
+			MojoConfig config, ExecutionStrategy strategy) {
+		super(graph, map, reporter, config);
 		this.store = store;
+		this.strategy = strategy;
 	}
 
 	@Override
 	protected List<Annotation> analyze() {
 
+		//
+		// 0. Reuse the verdict of an isomorphic workflow graph (if wished)
+		//
+		if (config.isDeduplicate()) {
+			List<Annotation> reused = IsomorphismCache.SHARED.lookup(graph,
+					config, reporter);
+			if (reused != null) {
+				for (Annotation annotation : reused) {
+					config.getListener().onAnnotation(graph.getOrigin(),
+							annotation);
+				}
+				config.getListener().onGraphComplete(graph.getOrigin(), reused);
+				return reused;
+			}
+		}
+
 		//
 		// 1. Take the right major plan
 		//
 		// Get all major plans
-		reporter.startIgnoreTimeMeasurement(graph, this.getClass().getName());
+		reporter.startIgnoreTimeMeasurement(graph, this.getClass());
 
 		// Determine the constructor of the right major plan.
-		String planId = Mojo.getCommand("ANALYSIS_PLAN").asStringValue();
+		String planId = config.getAnalysisPlan();
+
+		// Each verification gets its own budget (if there are limits).
+		MojoConfig planConfig = config;
+		VerificationBudget budget = null;
+		if (config.getBudget() == null && config.hasBudgetLimits()) {
+			budget = new VerificationBudget(config.getTimeBudget(),
+					config.getEdgeBudget());
+			planConfig = config.withBudget(budget);
+		}
 		
 		// Instantiate the major plan
-		PlanPlugin plugin = Mojo.getPlanPlugins().get(planId);
+		PlanPlugin plugin = config.getPlanPlugins().get(planId);
 		MajorPlan plan = null;
 		// Instantiate the plan
-		if (plugin != null) {
-			plan = plugin.getInstance(graph, map, reporter, store);
+		if (plugin != null && plugin.preservesGraph()) {
+			plan = plugin.getInstance(graph, map, reporter, store, planConfig);
+		} else if (plugin != null) {
+			WorkflowGraph snapshot = graph.snapshot();
+			plan = plugin.getInstance(snapshot,
+					Mojo.createMap(snapshot, map.length), reporter, store,
+					planConfig);
 		} else {
-			plan = new WorkflowGraphMajorPlan(graph, map, reporter, store);
+			plan = new WorkflowGraphMajorPlan(graph, map, reporter, store,
+					planConfig);
 		}
 		
-		reporter.endIgnoreTimeMeasurement(graph, this.getClass().getName());
+		reporter.endIgnoreTimeMeasurement(graph, this.getClass());
 
 		// Invoke the plan
-		fjPool.invoke(plan);
+		List<Annotation> annotations;
+		try {
+			annotations = strategy.invoke(plan);
+			if (config.isDeduplicate()) {
+				IsomorphismCache.SHARED.put(graph, config, annotations,
+						reporter);
+			}
+		} catch (BudgetExceededException e) {
+			// The budget belongs to an outer verification
+			if (budget == null)
+				throw e;
+
+			// The remaining analyses stop at their next check of the
+			// budget. The partial results are released with the plan.
+			plan.cancel(true);
+			reporter.put(graph, AnalysisInformation.BUDGET_EXCEEDED, true);
+
+			annotations = new ArrayList<Annotation>();
+			annotations.add(new BudgetExceededAnnotation(this, budget));
+			config.getListener().onAnnotation(graph.getOrigin(),
+					annotations.get(0));
+		}
 
-		// And join the information.
-		return plan.join();
+		config.getListener().onGraphComplete(graph.getOrigin(), annotations);
+		return annotations;
 	}
 }
@@ -0,0 +1,70 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.analysis.information;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * Tests the analysis information container.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class AnalysisInformationTest {
+
+	/**
+	 * The information of a finished file is written and forgotten.
+	 */
+	@Test
+	public void testFlushFile() {
+		StringWriter out = new StringWriter();
+		AnalysisInformation info = new AnalysisInformation(
+				new StatisticsWriter(out));
+		info.startTimeMeasurement("a.bpmn", "Reader");
+		info.endTimeMeasurement("a.bpmn", "Reader");
+		assertTrue(info.get("a.bpmn", "Reader"
+				+ AnalysisInformation.TIME_MEASUREMENT) instanceof Long);
+
+		info.flush("a.bpmn");
+		assertNull(info.get("a.bpmn", "Reader"
+				+ AnalysisInformation.TIME_MEASUREMENT));
+		String[] rows = out.toString().split("\n");
+		assertEquals(2, rows.length);
+		assertTrue(rows[1].startsWith("a.bpmn"));
+		assertTrue(rows[1].contains("Reader"
+				+ AnalysisInformation.TIME_MEASUREMENT));
+	}
+
+	/**
+	 * Without a statistics writer, the information of a file is kept.
+	 */
+	@Test
+	public void testKeepFile() {
+		AnalysisInformation info = new AnalysisInformation();
+		info.put("a.bpmn", "Reader", 1);
+		info.flush("a.bpmn");
+		assertEquals(1, info.get("a.bpmn", "Reader"));
+	}
+}
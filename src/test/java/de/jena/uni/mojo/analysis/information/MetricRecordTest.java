@@ -0,0 +1,103 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.analysis.information;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+/**
+ * Tests the slots of a metric record.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class MetricRecordTest {
+
+	/**
+	 * A large long value which does not fit into an int.
+	 */
+	private final static long LARGE = 1L << 40;
+
+	/**
+	 * The values keep their types.
+	 */
+	@Test
+	public void testKinds() {
+		MetricRecord record = new MetricRecord();
+		record.put(1, 5);
+		record.put(2, LARGE);
+		record.put(3, "text");
+		record.add(4, 3, MetricRecord.INT);
+		record.add(4, 4, MetricRecord.LONG);
+
+		assertEquals(5, record.get(1));
+		assertEquals(LARGE, record.get(2));
+		assertEquals("text", record.get(3));
+		assertEquals(7, record.get(4));
+
+		record.put(3, null);
+		assertNull(record.get(3));
+		assertEquals(MetricRecord.NONE, record.kind(3));
+
+		// Clearing a slot of a missing chunk creates nothing
+		record.put(5 * MetricRecord.CHUNK_SIZE, null);
+		assertTrue(record.toMap().size() <= 3);
+	}
+
+	/**
+	 * A reader never pairs the value of one writer with the kind of another.
+	 * 
+	 * @throws InterruptedException
+	 *             if the test is interrupted.
+	 */
+	@Test
+	public void testConcurrentWriters() throws InterruptedException {
+		final MetricRecord record = new MetricRecord();
+		final AtomicBoolean stop = new AtomicBoolean();
+		Thread ints = new Thread(() -> {
+			while (!stop.get()) {
+				record.set(1, 5, MetricRecord.INT);
+			}
+		});
+		Thread longs = new Thread(() -> {
+			while (!stop.get()) {
+				record.set(1, LARGE, MetricRecord.LONG);
+			}
+		});
+		ints.start();
+		longs.start();
+		try {
+			for (int i = 0; i < 200000; i++) {
+				Object value = record.get(1);
+				assertTrue("Inconsistent value " + value, value == null
+						|| Integer.valueOf(5).equals(value)
+						|| Long.valueOf(LARGE).equals(value));
+			}
+		} finally {
+			stop.set(true);
+			ints.join();
+			longs.join();
+		}
+	}
+}
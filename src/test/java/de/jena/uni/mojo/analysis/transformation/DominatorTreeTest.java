@@ -0,0 +1,181 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.analysis.transformation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.jena.uni.mojo.model.TestGraphs;
+import de.jena.uni.mojo.model.WGNode;
+import de.jena.uni.mojo.model.WGNode.Type;
+import de.jena.uni.mojo.model.WorkflowGraph;
+
+/**
+ * Tests the dominator tree and its incremental updates.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class DominatorTreeTest {
+
+	/**
+	 * The dominators of a nested workflow graph.
+	 */
+	@Test
+	public void testDominators() {
+		WorkflowGraph graph = TestGraphs.build(TestGraphs.NESTED);
+		WGNode[] map = TestGraphs.map(graph);
+		DominatorTree tree = new DominatorTree(graph.getStart(), map, true);
+
+		assertEquals(0, tree.getImmediateDominator(0));
+		assertEquals(2, tree.getImmediateDominator(3));
+		assertEquals(3, tree.getImmediateDominator(6));
+		assertEquals(2, tree.getImmediateDominator(8));
+		assertTrue(tree.dominates(2, 6));
+		assertFalse(tree.dominates(3, 8));
+	}
+
+	/**
+	 * The post-dominators of a nested workflow graph.
+	 */
+	@Test
+	public void testPostDominators() {
+		WorkflowGraph graph = TestGraphs.build(TestGraphs.NESTED);
+		WGNode[] map = TestGraphs.map(graph);
+		DominatorTree tree = new DominatorTree(graph.getEnd(), map, false);
+
+		assertEquals(10, tree.getImmediateDominator(10));
+		assertEquals(8, tree.getImmediateDominator(2));
+		assertEquals(6, tree.getImmediateDominator(3));
+		assertTrue(tree.dominates(8, 4));
+		assertFalse(tree.dominates(6, 7));
+	}
+
+	/**
+	 * Removing the only edge into a node makes it unreachable, which changes
+	 * the dominators of nodes outside of the updated subtree.
+	 */
+	@Test
+	public void testRemoveEdgeToUnreachable() {
+		WorkflowGraph graph = TestGraphs.build("0:START 1:ACTIVITY 2:ACTIVITY 3:ACTIVITY 4:ACTIVITY 5:END | 0-1 0-2 1-3 3-4 2-4 4-5");
+		WGNode[] map = TestGraphs.map(graph);
+		DominatorTree tree = new DominatorTree(graph.getStart(), map, true);
+		assertEquals(0, tree.getImmediateDominator(4));
+
+		map[1].removeSuccessor(map[3]);
+		map[3].removePredecessor(map[1]);
+		tree.removeEdge(map, 1, 3);
+
+		assertEquals(-1, tree.getImmediateDominator(3));
+		assertEquals(2, tree.getImmediateDominator(4));
+	}
+
+	/**
+	 * Random insertions and removals of edges lead to the same trees as a
+	 * computation from scratch.
+	 */
+	@Test
+	public void testIncrementalUpdates() {
+		Random random = new Random(7);
+		for (int round = 0; round < 500; round++) {
+			int size = 3 + random.nextInt(12);
+			WorkflowGraph graph = new WorkflowGraph();
+			WGNode[] map = new WGNode[size];
+			for (int i = 0; i < size; i++) {
+				map[i] = new WGNode(i, i == 0 ? Type.START
+						: i == size - 1 ? Type.END : Type.ACTIVITY);
+				if (i == 0) {
+					graph.setStart(map[i]);
+				} else if (i == size - 1) {
+					graph.setEnd(map[i]);
+				} else {
+					graph.addNode(map[i]);
+				}
+			}
+
+			List<int[]> edges = new ArrayList<int[]>();
+			for (int i = 0; i < 2 * size; i++) {
+				edges.add(connect(map, random.nextInt(size - 1),
+						1 + random.nextInt(size - 1)));
+			}
+
+			DominatorTree dominators = new DominatorTree(graph.getStart(), map, true);
+			DominatorTree postDominators = new DominatorTree(graph.getEnd(), map, false);
+			for (int step = 0; step < 20; step++) {
+				if (random.nextBoolean() && !edges.isEmpty()) {
+					int[] edge = edges.remove(random.nextInt(edges.size()));
+					map[edge[0]].removeSuccessor(map[edge[1]]);
+					map[edge[1]].removePredecessor(map[edge[0]]);
+					dominators.removeEdge(map, edge[0], edge[1]);
+					postDominators.removeEdge(map, edge[0], edge[1]);
+				} else {
+					int[] edge = connect(map, random.nextInt(size - 1),
+							1 + random.nextInt(size - 1));
+					edges.add(edge);
+					dominators.insertEdge(map, edge[0], edge[1]);
+					postDominators.insertEdge(map, edge[0], edge[1]);
+				}
+
+				assertSame(new DominatorTree(graph.getStart(), map, true), dominators, size);
+				assertSame(new DominatorTree(graph.getEnd(), map, false), postDominators, size);
+			}
+		}
+	}
+
+	/**
+	 * Adds an edge.
+	 * 
+	 * @param map
+	 *            The node array map.
+	 * @param source
+	 *            The id of the source.
+	 * @param target
+	 *            The id of the target.
+	 * @return The edge.
+	 */
+	private static int[] connect(WGNode[] map, int source, int target) {
+		map[source].addSuccessor(map[target]);
+		map[target].addPredecessor(map[source]);
+		return new int[] { source, target };
+	}
+
+	/**
+	 * Asserts that two trees have the same immediate dominators.
+	 * 
+	 * @param expected
+	 *            The expected tree.
+	 * @param actual
+	 *            The actual tree.
+	 * @param size
+	 *            The number of nodes.
+	 */
+	private static void assertSame(DominatorTree expected, DominatorTree actual, int size) {
+		for (int i = 0; i < size; i++) {
+			assertEquals("Node " + i, expected.getImmediateDominator(i),
+					actual.getImmediateDominator(i));
+		}
+	}
+}
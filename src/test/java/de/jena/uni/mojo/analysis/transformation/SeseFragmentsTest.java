@@ -0,0 +1,128 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.analysis.transformation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.jena.uni.mojo.analysis.transformation.SeseFragments.Fragment;
+import de.jena.uni.mojo.model.TestGraphs;
+import de.jena.uni.mojo.model.WGNode.Type;
+import de.jena.uni.mojo.model.WorkflowGraph;
+
+/**
+ * Tests the search of single-entry single-exit fragments.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class SeseFragmentsTest {
+
+	/**
+	 * The nested fragments are found from the smallest to the largest one.
+	 */
+	@Test
+	public void testNested() {
+		WorkflowGraph graph = TestGraphs.build(TestGraphs.NESTED);
+		List<Fragment> fragments = SeseFragments.find(graph,
+				TestGraphs.map(graph));
+
+		assertEquals(3, fragments.size());
+		assertFragment(fragments.get(0), 3, 6, 3, 4, 5, 6);
+		assertFragment(fragments.get(1), 2, 8, 2, 3, 4, 5, 6, 7, 8);
+		assertFragment(fragments.get(2), 1, 8, 1, 2, 3, 4, 5, 6, 7, 8);
+	}
+
+	/**
+	 * A loop is a fragment from its merge to its split including the back
+	 * edge.
+	 */
+	@Test
+	public void testLoop() {
+		WorkflowGraph graph = TestGraphs.build(TestGraphs.LOOP);
+		List<Fragment> fragments = SeseFragments.find(graph,
+				TestGraphs.map(graph));
+
+		assertEquals(2, fragments.size());
+		assertFragment(fragments.get(0), 2, 4, 2, 3, 4, 5);
+		assertFragment(fragments.get(1), 1, 4, 1, 2, 3, 4, 5);
+	}
+
+	/**
+	 * A block which is entered by another edge in its middle is no fragment,
+	 * only the block around it.
+	 */
+	@Test
+	public void testSecondEntry() {
+		WorkflowGraph graph = TestGraphs.build("0:START 1:SPLIT 2:ACTIVITY 3:SPLIT 4:ACTIVITY 5:MERGE 6:MERGE 7:END | 0-1 1-2 1-5 2-3 3-4 3-5 4-6 5-6 6-7");
+		List<Fragment> fragments = SeseFragments.find(graph,
+				TestGraphs.map(graph));
+
+		assertEquals(1, fragments.size());
+		assertFragment(fragments.get(0), 1, 6, 1, 2, 3, 4, 5, 6);
+		for (Fragment fragment : fragments) {
+			assertNotEquals(3, fragment.getEntry().getId());
+		}
+	}
+
+	/**
+	 * A fragment is turned into a workflow graph of its own.
+	 */
+	@Test
+	public void testToWorkflowGraph() {
+		WorkflowGraph graph = TestGraphs.build(TestGraphs.NESTED);
+		Fragment fragment = SeseFragments.find(graph, TestGraphs.map(graph))
+				.get(0);
+		WorkflowGraph copy = fragment.toWorkflowGraph(TestGraphs.map(graph));
+
+		assertEquals(6, copy.getNodeListInclusive().size());
+		assertEquals(Type.FORK, copy.getStart().getSuccessors().get(0)
+				.getType());
+		assertEquals(Type.JOIN, copy.getEnd().getPredecessors().get(0)
+				.getType());
+	}
+
+	/**
+	 * Asserts the entry, exit and nodes of a fragment.
+	 * 
+	 * @param fragment
+	 *            The fragment.
+	 * @param entry
+	 *            The id of the entry.
+	 * @param exit
+	 *            The id of the exit.
+	 * @param nodes
+	 *            The ids of the nodes.
+	 */
+	private static void assertFragment(Fragment fragment, int entry, int exit,
+			int... nodes) {
+		assertEquals(entry, fragment.getEntry().getId());
+		assertEquals(exit, fragment.getExit().getId());
+		BitSet expected = new BitSet();
+		for (int node : nodes) {
+			expected.set(node);
+		}
+		assertEquals(expected, fragment.getNodes());
+	}
+}
@@ -0,0 +1,268 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.binary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import de.jena.uni.mojo.MojoConfig;
+import de.jena.uni.mojo.analysis.information.AnalysisInformation;
+import de.jena.uni.mojo.error.Annotation;
+import de.jena.uni.mojo.error.ParseAnnotation;
+import de.jena.uni.mojo.interpreter.StringIdInterpreter;
+import de.jena.uni.mojo.model.TestGraphs;
+import de.jena.uni.mojo.model.WGNode;
+import de.jena.uni.mojo.model.WorkflowGraph;
+import de.jena.uni.mojo.reader.Reader;
+import de.jena.uni.mojo.verifier.Verifier;
+
+/**
+ * Tests the binary workflow graph format.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class BinaryGraphTest {
+
+	/**
+	 * Workflow graphs which are written and read again have the same
+	 * structure and the same verification result.
+	 * 
+	 * @throws IOException
+	 *             if the workflow graphs cannot be written or read.
+	 */
+	@Test
+	public void testRoundTrip() throws IOException {
+		List<WorkflowGraph> graphs = new ArrayList<WorkflowGraph>();
+		for (String description : new String[] { TestGraphs.SOUND,
+				TestGraphs.DEADLOCK, TestGraphs.ABUNDANCE, TestGraphs.LOOP,
+				TestGraphs.NESTED }) {
+			graphs.add(TestGraphs.build(description));
+		}
+		byte[] bytes = write(graphs);
+
+		BinaryGraphReader reader = new BinaryGraphReader("test",
+				ByteBuffer.wrap(bytes), new AnalysisInformation());
+		assertTrue(reader.compute().isEmpty());
+		List<WorkflowGraph> read = reader.getResult();
+		assertEquals(graphs.size(), read.size());
+		for (int i = 0; i < graphs.size(); i++) {
+			assertEquals(describe(graphs.get(i)), describe(read.get(i)));
+			assertEquals(describe(verify(graphs.get(i))),
+					describe(verify(read.get(i))));
+		}
+	}
+
+	/**
+	 * A file is mapped into memory and read like a buffer.
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be written or read.
+	 */
+	@Test
+	public void testFile() throws IOException {
+		WorkflowGraph graph = TestGraphs.build(TestGraphs.DEADLOCK);
+		File file = File.createTempFile("mojo", "." + BinaryGraphFormat.EXTENSION);
+		try {
+			new BinaryGraphWriter(new StringIdInterpreter()).write(
+					Collections.singletonList(graph), file);
+			BinaryGraphReader reader = new BinaryGraphReader(file,
+					new AnalysisInformation());
+			reader.compute();
+			assertEquals(describe(graph), describe(reader.getResult().get(0)));
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * A truncated file has no workflow graphs and a parse annotation.
+	 * 
+	 * @throws IOException
+	 *             if the workflow graphs cannot be written.
+	 */
+	@Test
+	public void testTruncated() throws IOException {
+		byte[] bytes = write(Collections.singletonList(TestGraphs
+				.build(TestGraphs.NESTED)));
+		for (int length = 8; length < bytes.length; length += 7) {
+			assertCorrupt(Arrays.copyOf(bytes, length));
+		}
+	}
+
+	/**
+	 * Negative and huge counts are rejected before anything is allocated.
+	 * 
+	 * @throws IOException
+	 *             if the workflow graphs cannot be written.
+	 */
+	@Test
+	public void testInvalidCounts() throws IOException {
+		for (int count : new int[] { -1, Integer.MAX_VALUE }) {
+			// The number of strings
+			ByteBuffer strings = ByteBuffer.allocate(16);
+			strings.putInt(BinaryGraphFormat.MAGIC)
+					.putShort(BinaryGraphFormat.VERSION).putShort((short) 0)
+					.putInt(count).putInt(0);
+			assertCorrupt(strings.array());
+
+			// The number of nodes of the first workflow graph
+			ByteBuffer nodes = ByteBuffer.allocate(28);
+			nodes.putInt(BinaryGraphFormat.MAGIC)
+					.putShort(BinaryGraphFormat.VERSION).putShort((short) 0)
+					.putInt(0).putInt(1).putInt(count).putInt(0).putInt(1);
+			assertCorrupt(nodes.array());
+		}
+	}
+
+	/**
+	 * The plugin reads the bytes of a model which are not decoded, e.g.,
+	 * the body of a request, even if they are no valid characters.
+	 * 
+	 * @throws IOException
+	 *             if the workflow graphs cannot be written.
+	 */
+	@Test
+	public void testPluginBytes() throws IOException {
+		WorkflowGraph graph = TestGraphs.build(TestGraphs.DEADLOCK);
+		graph.getNodeListInclusive().get(1).addProcessElement("Pr\u00fcfung");
+		byte[] bytes = write(Collections.singletonList(graph));
+
+		Reader reader = new BinaryGraphPlugin().getReader("test",
+				ByteBuffer.wrap(bytes), new AnalysisInformation(),
+				StandardCharsets.UTF_8);
+		assertTrue(reader.compute().isEmpty());
+		assertEquals(describe(graph), describe(reader.getResult().get(0)));
+	}
+
+	/**
+	 * A buffer of another format is rejected.
+	 * 
+	 * @throws IOException
+	 *             always.
+	 */
+	@Test(expected = IOException.class)
+	public void testNoBinaryFormat() throws IOException {
+		new BinaryGraphReader("test", ByteBuffer.wrap(new byte[] { 1, 2, 3,
+				4, 5, 6, 7, 8 }), new AnalysisInformation());
+	}
+
+	/**
+	 * Writes the workflow graphs into a byte array.
+	 * 
+	 * @param graphs
+	 *            The workflow graphs.
+	 * @return The bytes.
+	 * @throws IOException
+	 *             if the workflow graphs cannot be written.
+	 */
+	private static byte[] write(List<WorkflowGraph> graphs) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new BinaryGraphWriter(new StringIdInterpreter()).write(graphs, out);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Asserts that the bytes are read as broken file.
+	 * 
+	 * @param bytes
+	 *            The bytes.
+	 * @throws IOException
+	 *             if the header is broken.
+	 */
+	private static void assertCorrupt(byte[] bytes) throws IOException {
+		BinaryGraphReader reader = new BinaryGraphReader("test",
+				ByteBuffer.wrap(bytes), new AnalysisInformation());
+		List<Annotation> annotations = reader.compute();
+		assertNull(reader.getResult());
+		assertEquals(1, annotations.size());
+		assertTrue(annotations.get(0) instanceof ParseAnnotation);
+	}
+
+	/**
+	 * Verifies a workflow graph.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @return The annotations.
+	 */
+	private static List<Annotation> verify(WorkflowGraph graph) {
+		WorkflowGraph copy = graph.snapshot();
+		return new Verifier(copy, TestGraphs.map(copy),
+				new AnalysisInformation(), null, MojoConfig.DEFAULT).compute();
+	}
+
+	/**
+	 * Describes the nodes of a workflow graph in their order.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @return The description.
+	 */
+	private static String describe(WorkflowGraph graph) {
+		StringBuilder builder = new StringBuilder();
+		for (WGNode node : graph.getNodeListInclusive()) {
+			builder.append(node.getId()).append(':').append(node.getType())
+					.append(node.getProcessElements()).append("->");
+			for (WGNode successor : node.getSuccessors()) {
+				builder.append(successor.getId()).append(',');
+			}
+			builder.append("<-");
+			for (WGNode predecessor : node.getPredecessors()) {
+				builder.append(predecessor.getId()).append(',');
+			}
+			builder.append(' ');
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Describes annotations by their types and involved nodes.
+	 * 
+	 * @param annotations
+	 *            The annotations.
+	 * @return The description.
+	 */
+	private static String describe(List<Annotation> annotations) {
+		List<String> list = new ArrayList<String>();
+		for (Annotation annotation : annotations) {
+			TreeSet<Integer> involved = new TreeSet<Integer>();
+			for (WGNode node : annotation.getInvolvedNodes()) {
+				involved.add(node.getId());
+			}
+			list.add(annotation.getClass().getSimpleName() + involved);
+		}
+		Collections.sort(list);
+		return list.toString();
+	}
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.jena.uni.mojo.MojoConfig;
+import de.jena.uni.mojo.analysis.information.AnalysisInformation;
+import de.jena.uni.mojo.error.Annotation;
+import de.jena.uni.mojo.error.CachedAnnotation;
+import de.jena.uni.mojo.interpreter.StringIdInterpreter;
+import de.jena.uni.mojo.model.TestGraphs;
+import de.jena.uni.mojo.model.WorkflowGraph;
+import de.jena.uni.mojo.verifier.Verifier;
+
+/**
+ * Tests the persistent result cache and its keys.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class ResultCacheTest {
+
+	/**
+	 * The model of the tests.
+	 */
+	private final static byte[] MODEL = "<process id=\"p\"/>"
+			.getBytes(StandardCharsets.UTF_8);
+
+	/**
+	 * The directory of the cache.
+	 */
+	private Path directory;
+
+	/**
+	 * Creates the directory of the cache.
+	 * 
+	 * @throws IOException
+	 *             if the directory cannot be created.
+	 */
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("mojo-cache");
+	}
+
+	/**
+	 * Removes the directory of the cache.
+	 * 
+	 * @throws IOException
+	 *             if the directory cannot be removed.
+	 */
+	@After
+	public void tearDown() throws IOException {
+		Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file,
+					BasicFileAttributes attributes) throws IOException {
+				Files.delete(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir,
+					IOException e) throws IOException {
+				Files.delete(dir);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**
+	 * A stored result is read back with the same annotations and statistics.
+	 * 
+	 * @throws IOException
+	 *             if the cache cannot be created.
+	 */
+	@Test
+	public void testPutAndGet() throws IOException {
+		ResultCache cache = new ResultCache(directory.toFile(), 1 << 20);
+		String key = ResultCache.key(MODEL, "bpmn", MojoConfig.DEFAULT);
+		assertNull(cache.get(key));
+		assertEquals(1, cache.getMisses());
+
+		WorkflowGraph graph = TestGraphs.build(TestGraphs.DEADLOCK);
+		AnalysisInformation info = new AnalysisInformation();
+		info.put(graph, "nodes", 7);
+		List<Annotation> annotations = verify(graph, MojoConfig.DEFAULT);
+		cache.put(key, CachedResult.of(Collections.<Annotation> emptyList(),
+				Collections.singletonList(graph),
+				Collections.singletonList(annotations), info,
+				new StringIdInterpreter()));
+		assertTrue(cache.getSize() > 0);
+
+		CachedResult cached = cache.get(key);
+		assertNotNull(cached);
+		assertEquals(1, cache.getHits());
+		assertTrue(cached.getReaderAnnotations().isEmpty());
+		List<Annotation> restored = cached.getGraphAnnotations().get(0);
+		assertEquals(annotations.size(), restored.size());
+		for (int i = 0; i < restored.size(); i++) {
+			CachedAnnotation annotation = (CachedAnnotation) restored.get(i);
+			assertEquals(annotations.get(i).getClass().getSimpleName(),
+					annotation.getType());
+			assertEquals(annotations.get(i).getDescription(),
+					annotation.getDescription());
+		}
+
+		AnalysisInformation restoredInfo = new AnalysisInformation();
+		WorkflowGraph empty = cached.restore(restoredInfo).get(0);
+		assertEquals(7L, ((Number) restoredInfo.get(empty, "nodes"))
+				.longValue());
+	}
+
+	/**
+	 * The key depends on the model, the extension and the commands which
+	 * change the verdict, but not on other commands.
+	 */
+	@Test
+	public void testKeys() {
+		String key = ResultCache.key(MODEL, "bpmn", MojoConfig.DEFAULT);
+		assertEquals(key, ResultCache.key(MODEL.clone(), "bpmn",
+				MojoConfig.DEFAULT));
+		assertNotEquals(key, ResultCache.key("<process id=\"q\"/>"
+				.getBytes(StandardCharsets.UTF_8), "bpmn", MojoConfig.DEFAULT));
+		assertNotEquals(key, ResultCache.key(MODEL, "pnml",
+				MojoConfig.DEFAULT));
+		assertNotEquals(key, ResultCache.key(MODEL, "bpmn",
+				MojoConfig.DEFAULT.with("REDUCE", true)));
+		assertNotEquals(key, ResultCache.key(MODEL, "bpmn",
+				MojoConfig.DEFAULT.with("TIME_BUDGET", 100)));
+		assertEquals(key, ResultCache.key(MODEL, "bpmn",
+				MojoConfig.DEFAULT.with("VERBOSE", true)));
+	}
+
+	/**
+	 * The least recently used entries are removed if the cache grows beyond
+	 * its maximum size.
+	 * 
+	 * @throws IOException
+	 *             if the cache cannot be created.
+	 */
+	@Test
+	public void testEvict() throws IOException {
+		CachedResult result = new CachedResult(
+				Collections.<Annotation> emptyList(), null, null);
+		ResultCache probe = new ResultCache(new File(directory.toFile(),
+				"probe"), 1 << 20);
+		probe.put("probe", result);
+		long entry = probe.getSize();
+
+		ResultCache cache = new ResultCache(new File(directory.toFile(),
+				"cache"), entry * 3 + entry / 2);
+		String[] keys = new String[10];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = ResultCache.key(new byte[] { (byte) i }, "bpmn",
+					MojoConfig.DEFAULT);
+			cache.put(keys[i], result);
+		}
+		assertTrue(cache.getSize() <= entry * 3 + entry / 2);
+
+		int present = 0;
+		for (String key : keys) {
+			if (cache.get(key) != null)
+				present++;
+		}
+		assertTrue(present > 0);
+		assertTrue(present <= 3);
+
+		// The cache of another run sees the same size
+		assertEquals(cache.getSize(), new ResultCache(new File(
+				directory.toFile(), "cache"), entry * 4).getSize());
+	}
+
+	/**
+	 * A result of a verification which exceeded its budget is incomplete.
+	 */
+	@Test
+	public void testIncomplete() {
+		List<Annotation> complete = verify(
+				TestGraphs.build(TestGraphs.DEADLOCK), MojoConfig.DEFAULT);
+		List<Annotation> stopped = verify(
+				TestGraphs.build(TestGraphs.DEADLOCK),
+				MojoConfig.DEFAULT.with("EDGE_BUDGET", 1));
+		assertTrue(CachedResult.isComplete(Collections
+				.singletonList(complete)));
+		assertFalse(CachedResult.isComplete(Collections
+				.singletonList(stopped)));
+		assertTrue(CachedResult.isComplete(null));
+	}
+
+	/**
+	 * Verifies a workflow graph.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @param config
+	 *            The configuration.
+	 * @return The annotations.
+	 */
+	private static List<Annotation> verify(WorkflowGraph graph,
+			MojoConfig config) {
+		return new Verifier(graph, TestGraphs.map(graph),
+				new AnalysisInformation(), null, config).compute();
+	}
+}
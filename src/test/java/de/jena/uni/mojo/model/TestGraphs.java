@@ -0,0 +1,127 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import de.jena.uni.mojo.model.WGNode.Type;
+
+/**
+ * Creates workflow graphs for the tests from a short textual description
+ * like
+ * 
+ * <pre>
+ * 0:START 1:ACTIVITY 2:FORK 3:ACTIVITY 4:ACTIVITY 5:JOIN 6:END | 0-1 1-2 2-3 2-4 3-5 4-5 5-6
+ * </pre>
+ * 
+ * The first part defines the nodes by their ids and types, the second part
+ * the edges. Each node has the process element "e" + id.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public final class TestGraphs {
+
+	/**
+	 * A sound workflow graph with a fork/join block.
+	 */
+	public final static String SOUND = "0:START 1:ACTIVITY 2:FORK 3:ACTIVITY 4:ACTIVITY 5:JOIN 6:ACTIVITY 7:END | 0-1 1-2 2-3 2-4 3-5 4-5 5-6 6-7";
+
+	/**
+	 * A workflow graph with a deadlock (split/join block).
+	 */
+	public final static String DEADLOCK = "0:START 1:ACTIVITY 2:SPLIT 3:ACTIVITY 4:ACTIVITY 5:JOIN 6:END | 0-1 1-2 2-3 2-4 3-5 4-5 5-6";
+
+	/**
+	 * A workflow graph with a lack of synchronization (fork/merge block).
+	 */
+	public final static String ABUNDANCE = "0:START 1:ACTIVITY 2:FORK 3:ACTIVITY 4:ACTIVITY 5:MERGE 6:END | 0-1 1-2 2-3 2-4 3-5 4-5 5-6";
+
+	/**
+	 * A sound workflow graph with a loop.
+	 */
+	public final static String LOOP = "0:START 1:ACTIVITY 2:MERGE 3:ACTIVITY 4:SPLIT 5:ACTIVITY 6:ACTIVITY 7:END | 0-1 1-2 2-3 3-4 4-5 5-2 4-6 6-7";
+
+	/**
+	 * A sound workflow graph with a fork/join block nested into a
+	 * split/merge block.
+	 */
+	public final static String NESTED = "0:START 1:ACTIVITY 2:SPLIT 3:FORK 4:ACTIVITY 5:ACTIVITY 6:JOIN 7:ACTIVITY 8:MERGE 9:ACTIVITY 10:END | 0-1 1-2 2-3 3-4 3-5 4-6 5-6 6-8 2-7 7-8 8-9 9-10";
+
+	/**
+	 * There are no instances.
+	 */
+	private TestGraphs() {
+	}
+
+	/**
+	 * Creates a workflow graph from its description.
+	 * 
+	 * @param description
+	 *            The description.
+	 * @return The workflow graph.
+	 */
+	public static WorkflowGraph build(String description) {
+		String[] parts = description.split("\\|");
+		WorkflowGraph graph = new WorkflowGraph();
+		Map<Integer, WGNode> nodes = new HashMap<Integer, WGNode>();
+		for (String node : parts[0].trim().split("\\s+")) {
+			String[] pair = node.split(":");
+			int id = Integer.parseInt(pair[0]);
+			WGNode created = new WGNode(id, Type.valueOf(pair[1]));
+			created.addProcessElement("e" + id);
+			nodes.put(id, created);
+			if (created.getType() == Type.START) {
+				graph.setStart(created);
+			} else if (created.getType() == Type.END) {
+				graph.setEnd(created);
+			} else {
+				graph.addNode(created);
+			}
+		}
+		for (String edge : parts[1].trim().split("\\s+")) {
+			String[] pair = edge.split("-");
+			WGNode source = nodes.get(Integer.parseInt(pair[0]));
+			WGNode target = nodes.get(Integer.parseInt(pair[1]));
+			source.addSuccessor(target);
+			target.addPredecessor(source);
+		}
+		return graph;
+	}
+
+	/**
+	 * Creates the node array map of a workflow graph.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @return The node array map.
+	 */
+	public static WGNode[] map(WorkflowGraph graph) {
+		int max = 0;
+		for (WGNode node : graph.getNodeListInclusive()) {
+			max = Math.max(max, node.getId());
+		}
+		WGNode[] map = new WGNode[max + 1];
+		for (WGNode node : graph.getNodeListInclusive()) {
+			map[node.getId()] = node;
+		}
+		return map;
+	}
+}
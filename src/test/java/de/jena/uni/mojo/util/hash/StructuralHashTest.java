@@ -0,0 +1,171 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.util.hash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.Test;
+
+import de.jena.uni.mojo.model.TestGraphs;
+import de.jena.uni.mojo.model.WGNode;
+import de.jena.uni.mojo.model.WorkflowGraph;
+
+/**
+ * Tests the structural hash and the isomorphism search.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class StructuralHashTest {
+
+	/**
+	 * Two directed triangles whose entries are reached from the start and
+	 * whose last nodes lead to the end.
+	 */
+	private final static String TRIANGLES = "0:START 1:ACTIVITY 2:ACTIVITY 3:ACTIVITY 4:ACTIVITY 5:ACTIVITY 6:ACTIVITY 7:END | 0-1 0-4 1-2 2-3 3-1 4-5 5-6 6-4 3-7 6-7";
+
+	/**
+	 * A directed hexagon with the same attachment of the start and the end.
+	 * Each node has the same color as in {@link #TRIANGLES}.
+	 */
+	private final static String HEXAGON = "0:START 1:ACTIVITY 2:ACTIVITY 3:ACTIVITY 4:ACTIVITY 5:ACTIVITY 6:ACTIVITY 7:END | 0-1 0-4 1-2 2-3 3-4 4-5 5-6 6-1 3-7 6-7";
+
+	/**
+	 * A relabelled workflow graph has the same hash and is isomorphic.
+	 */
+	@Test
+	public void testRelabelled() {
+		for (String description : new String[] { TestGraphs.SOUND,
+				TestGraphs.LOOP, TestGraphs.NESTED }) {
+			WorkflowGraph graph = TestGraphs.build(description);
+			WorkflowGraph relabelled = TestGraphs.build(relabel(description));
+			StructuralHash hash = new StructuralHash(graph);
+			StructuralHash other = new StructuralHash(relabelled);
+			assertEquals(hash.getHash(), other.getHash());
+			assertEquals(hash.toHexString(), other.toHexString());
+
+			Map<WGNode, WGNode> isomorphism = hash.isomorphism(other);
+			assertNotNull(isomorphism);
+			assertEquals(graph.getNodeListInclusive().size(),
+					new HashSet<WGNode>(isomorphism.values()).size());
+			for (WGNode node : graph.getNodeListInclusive()) {
+				WGNode image = isomorphism.get(node);
+				assertEquals(node.getType(), image.getType());
+				assertEquals(node.getSuccessors().size(), image
+						.getSuccessors().size());
+				for (WGNode successor : node.getSuccessors()) {
+					assertTrue(image.getSuccessors().contains(
+							isomorphism.get(successor)));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Workflow graphs with a different structure have different hashes.
+	 */
+	@Test
+	public void testDifferentStructure() {
+		StructuralHash deadlock = new StructuralHash(
+				TestGraphs.build(TestGraphs.DEADLOCK));
+		StructuralHash abundance = new StructuralHash(
+				TestGraphs.build(TestGraphs.ABUNDANCE));
+		assertNotEquals(deadlock.getHash(), abundance.getHash());
+		assertNull(deadlock.isomorphism(abundance));
+	}
+
+	/**
+	 * The color refinement cannot distinguish the triangles from the
+	 * hexagon, but the search does not find an isomorphism.
+	 */
+	@Test
+	public void testSameColorsNotIsomorphic() {
+		StructuralHash triangles = new StructuralHash(
+				TestGraphs.build(TRIANGLES));
+		StructuralHash hexagon = new StructuralHash(TestGraphs.build(HEXAGON));
+		assertEquals(triangles.getHash(), hexagon.getHash());
+		assertNull(triangles.isomorphism(hexagon));
+		assertNull(hexagon.isomorphism(triangles));
+		assertNotNull(triangles.isomorphism(new StructuralHash(TestGraphs
+				.build(relabel(TRIANGLES)))));
+	}
+
+	/**
+	 * The search does not overflow the stack for large workflow graphs.
+	 */
+	@Test
+	public void testLargeGraph() {
+		int size = 10000;
+		StringBuilder nodes = new StringBuilder("0:START");
+		StringBuilder edges = new StringBuilder();
+		StringBuilder reversedNodes = new StringBuilder(size + ":START");
+		StringBuilder reversedEdges = new StringBuilder();
+		for (int i = 1; i <= size; i++) {
+			String type = i == size ? "END" : "ACTIVITY";
+			nodes.append(' ').append(i).append(':').append(type);
+			edges.append(' ').append(i - 1).append('-').append(i);
+			reversedNodes.append(' ').append(size - i).append(':').append(type);
+			reversedEdges.append(' ').append(size - i + 1).append('-')
+					.append(size - i);
+		}
+		WorkflowGraph graph = TestGraphs.build(nodes + " |" + edges);
+		StructuralHash hash = new StructuralHash(graph);
+		StructuralHash other = new StructuralHash(TestGraphs.build(reversedNodes
+				+ " |" + reversedEdges));
+		assertEquals(hash.getHash(), other.getHash());
+
+		Map<WGNode, WGNode> isomorphism = hash.isomorphism(other);
+		assertNotNull(isomorphism);
+		assertEquals(size + 1, new HashSet<WGNode>(isomorphism.values()).size());
+	}
+
+	/**
+	 * Relabels the nodes of a description (id to 100 - id) and reverses the
+	 * order of the nodes and edges.
+	 * 
+	 * @param description
+	 *            The description.
+	 * @return The relabelled description.
+	 */
+	private static String relabel(String description) {
+		String[] parts = description.split("\\|");
+		StringBuilder nodes = new StringBuilder();
+		String[] nodeList = parts[0].trim().split("\\s+");
+		for (int i = nodeList.length - 1; i >= 0; i--) {
+			String[] pair = nodeList[i].split(":");
+			nodes.append(100 - Integer.parseInt(pair[0])).append(':')
+					.append(pair[1]).append(' ');
+		}
+		StringBuilder edges = new StringBuilder();
+		String[] edgeList = parts[1].trim().split("\\s+");
+		for (int i = edgeList.length - 1; i >= 0; i--) {
+			String[] pair = edgeList[i].split("-");
+			edges.append(' ').append(100 - Integer.parseInt(pair[0]))
+					.append('-').append(100 - Integer.parseInt(pair[1]));
+		}
+		return nodes + "|" + edges;
+	}
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.util.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests the JSON reader and writer.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class JsonTest {
+
+	/**
+	 * Strings with special characters are escaped and read back.
+	 */
+	@Test
+	public void testEscapes() {
+		String string = "a\"b\\c\nd\re\tf\u0001g\u00e9";
+		String json = Json.write(string);
+		assertEquals("\"a\\\"b\\\\c\\nd\\re\\tf\\u0001g\u00e9\"", json);
+		assertEquals(string, Json.parse(json));
+		assertEquals("\u00e9/\b\f", Json.parse("\"\\u00e9\\/\\b\\f\""));
+	}
+
+	/**
+	 * Integral numbers are read as Long, all others as Double.
+	 */
+	@Test
+	public void testNumbers() {
+		assertEquals(42L, Json.parse("42"));
+		assertEquals(-7L, Json.parse(" -7 "));
+		assertEquals(1.5, Json.parse("1.5"));
+		assertEquals(1000.0, Json.parse("1e3"));
+		assertEquals(-0.25, Json.parse("-2.5E-1"));
+		assertEquals("[1,2.5,null,null]", Json.write(Arrays.<Object> asList(
+				1, 2.5, Double.NaN, Float.POSITIVE_INFINITY)));
+	}
+
+	/**
+	 * Objects, arrays and literals are read in their order.
+	 */
+	@Test
+	public void testStructures() {
+		Map<String, Object> object = Json.parseObject(
+				"{ \"id\" : 3, \"files\" : [\"a.bpmn\", {}], \"ok\" : true, \"none\" : null }");
+		assertEquals(Arrays.asList("id", "files", "ok", "none"),
+				Arrays.asList(object.keySet().toArray()));
+		assertEquals(3L, object.get("id"));
+		List<?> files = (List<?>) object.get("files");
+		assertEquals("a.bpmn", files.get(0));
+		assertEquals(new LinkedHashMap<String, Object>(), files.get(1));
+		assertEquals(Boolean.TRUE, object.get("ok"));
+		assertNull(object.get("none"));
+
+		// The written text is read as the same value
+		assertEquals(object, Json.parse(Json.write(object)));
+	}
+
+	/**
+	 * Malformed texts are rejected.
+	 */
+	@Test
+	public void testMalformed() {
+		String[] texts = { "", "{", "[1,]", "{\"a\" 1}", "{a:1}", "tru",
+				"nul", "\"abc", "\"\\u12\"", "1 2", "--", "1.2.3",
+				"12345678901234567890", "[1 2]", "{\"a\":1,}" };
+		for (String text : texts) {
+			try {
+				Json.parse(text);
+				fail("Accepted: " + text);
+			} catch (IllegalArgumentException e) {
+				// Expected
+			}
+		}
+	}
+
+	/**
+	 * A JSON value which is no object is rejected if an object is expected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoObject() {
+		Json.parseObject("[1]");
+	}
+
+	/**
+	 * Deeply nested texts are rejected instead of overflowing the stack.
+	 */
+	@Test
+	public void testNesting() {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < Json.MAX_DEPTH; i++) {
+			builder.append('[');
+		}
+		for (int i = 0; i < Json.MAX_DEPTH; i++) {
+			builder.append(']');
+		}
+		assertNotNull(Json.parse(builder.toString()));
+
+		builder.setLength(0);
+		for (int i = 0; i < 100000; i++) {
+			builder.append('[');
+		}
+		try {
+			Json.parse(builder.toString());
+			fail("Accepted nesting");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.verifier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.jena.uni.mojo.MojoConfig;
+import de.jena.uni.mojo.analysis.information.AnalysisInformation;
+import de.jena.uni.mojo.error.Annotation;
+import de.jena.uni.mojo.model.TestGraphs;
+import de.jena.uni.mojo.model.WGNode.Type;
+import de.jena.uni.mojo.model.WorkflowGraph;
+
+/**
+ * Tests that a verification session only verifies the changed parts of the
+ * workflow graph and reaches the same verdicts as a full verification.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class VerificationSessionTest {
+
+	/**
+	 * An unchanged workflow graph is not verified again.
+	 */
+	@Test
+	public void testUnchanged() {
+		VerificationSession session = new VerificationSession(
+				TestGraphs.build(TestGraphs.NESTED), new AnalysisInformation(),
+				MojoConfig.DEFAULT);
+		List<Annotation> first = session.verify();
+		assertTrue(first.isEmpty());
+
+		// An edge which is removed and added again is no change
+		session.removeEdge(4, 6);
+		session.addEdge(4, 6);
+		assertSame(first, session.verify());
+		assertEquals(1, session.getVerifications());
+	}
+
+	/**
+	 * A change within a sound fragment which keeps it sound only verifies
+	 * the fragment.
+	 */
+	@Test
+	public void testChangeWithinSoundFragment() {
+		VerificationSession session = new VerificationSession(
+				TestGraphs.build(TestGraphs.NESTED), new AnalysisInformation(),
+				MojoConfig.DEFAULT);
+		session.verify();
+		int fragments = session.getFragmentVerifications();
+
+		// Insert an activity into a branch of the fork/join block
+		session.addNode(20, Type.ACTIVITY, "e20");
+		session.removeEdge(4, 6);
+		session.addEdge(4, 20);
+		session.addEdge(20, 6);
+
+		assertTrue(session.verify().isEmpty());
+		assertEquals(1, session.getVerifications());
+		assertEquals(fragments + 1, session.getFragmentVerifications());
+	}
+
+	/**
+	 * A change which makes a fragment unsound is found.
+	 */
+	@Test
+	public void testChangeToDeadlock() {
+		VerificationSession session = new VerificationSession(
+				TestGraphs.build(TestGraphs.NESTED), new AnalysisInformation(),
+				MojoConfig.DEFAULT);
+		session.verify();
+
+		session.setType(3, Type.SPLIT);
+		List<Annotation> annotations = session.verify();
+
+		assertEquals(types(full(session.getWorkflowGraph())), types(annotations));
+		assertEquals(Collections.singletonList("DeadlockAnnotation"),
+				types(annotations));
+
+		// And the reverse change makes it sound again
+		session.setType(3, Type.FORK);
+		assertTrue(session.verify().isEmpty());
+	}
+
+	/**
+	 * A node which is added again with another process element is a change,
+	 * so that the annotations name the new process element.
+	 */
+	@Test
+	public void testNodeAddedAgain() {
+		VerificationSession session = new VerificationSession(
+				TestGraphs.build(TestGraphs.DEADLOCK), new AnalysisInformation(),
+				MojoConfig.DEFAULT);
+		List<Annotation> first = session.verify();
+		assertTrue(first.get(0).getInterpretedInvolvedNodes().contains("e5"));
+
+		session.removeNode(5);
+		session.addNode(5, Type.JOIN, "x5");
+		session.addEdge(3, 5);
+		session.addEdge(4, 5);
+		session.addEdge(5, 6);
+
+		List<Annotation> second = session.verify();
+		assertNotSame(first, second);
+		assertEquals(1, second.size());
+		assertTrue(second.get(0).getInterpretedInvolvedNodes().contains("x5"));
+		assertFalse(second.get(0).getInterpretedInvolvedNodes().contains("e5"));
+	}
+
+	/**
+	 * Verifies a copy of the workflow graph from scratch.
+	 * 
+	 * @param graph
+	 *            The workflow graph.
+	 * @return The annotations.
+	 */
+	private static List<Annotation> full(WorkflowGraph graph) {
+		WorkflowGraph copy = graph.snapshot();
+		return new Verifier(copy, TestGraphs.map(copy),
+				new AnalysisInformation(), null, MojoConfig.DEFAULT).compute();
+	}
+
+	/**
+	 * Get the sorted types of the annotations.
+	 * 
+	 * @param annotations
+	 *            The annotations.
+	 * @return The simple class names.
+	 */
+	private static List<String> types(List<Annotation> annotations) {
+		List<String> types = new ArrayList<String>();
+		for (Annotation annotation : annotations) {
+			types.add(annotation.getClass().getSimpleName());
+		}
+		Collections.sort(types);
+		return types;
+	}
+}
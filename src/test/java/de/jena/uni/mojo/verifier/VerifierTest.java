@@ -0,0 +1,67 @@
+/**
+ * Copyright 2016 mojo Friedrich Schiller University Jena
+ * 
+ * This file is part of mojo.
+ * 
+ * mojo is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * mojo is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mojo. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jena.uni.mojo.verifier;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import de.jena.uni.mojo.MojoConfig;
+import de.jena.uni.mojo.analysis.information.AnalysisInformation;
+import de.jena.uni.mojo.analysis.information.Metrics;
+import de.jena.uni.mojo.error.Annotation;
+import de.jena.uni.mojo.error.BudgetExceededAnnotation;
+import de.jena.uni.mojo.model.TestGraphs;
+import de.jena.uni.mojo.model.WorkflowGraph;
+
+/**
+ * Tests the verifier.
+ * 
+ * @author Dipl.-Inf. Thomas M. Prinz
+ *
+ */
+public class VerifierTest {
+
+	/**
+	 * If the budget is exceeded, the time measurements of the aborted
+	 * analyses are durations and not their start times.
+	 */
+	@Test
+	public void testTimeMeasurementOfExceededBudget() {
+		WorkflowGraph graph = TestGraphs.build(TestGraphs.NESTED);
+		AnalysisInformation info = new AnalysisInformation();
+		long start = System.nanoTime();
+		List<Annotation> annotations = new Verifier(graph,
+				TestGraphs.map(graph), info, null,
+				MojoConfig.DEFAULT.with("EDGE_BUDGET", 1)).compute();
+		long elapsed = System.nanoTime() - start;
+
+		assertTrue(annotations.get(0) instanceof BudgetExceededAnnotation);
+		for (int metric = 0; metric < Metrics.size(); metric++) {
+			if (!Metrics.name(metric).endsWith(
+					AnalysisInformation.TIME_MEASUREMENT))
+				continue;
+			long time = info.getLong(graph, metric);
+			assertTrue(Metrics.name(metric) + ": " + time, time >= 0
+					&& time <= elapsed);
+		}
+	}
+}